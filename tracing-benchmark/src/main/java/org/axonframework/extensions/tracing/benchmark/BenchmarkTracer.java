@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.benchmark;
+
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+
+/**
+ * A {@link MockTracer} which does not retain finished spans. Spans are still created, tagged, logged and propagated as
+ * they would be by a real tracer, without the finished spans piling up in memory for the duration of a benchmark.
+ *
+ * @since 4.12.1
+ */
+public class BenchmarkTracer extends MockTracer {
+
+    @Override
+    protected void onSpanFinished(MockSpan mockSpan) {
+        // Finished spans are dropped, as there is no reporter to hand them to
+    }
+}
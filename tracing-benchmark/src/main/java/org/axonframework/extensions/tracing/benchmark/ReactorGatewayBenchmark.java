@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.benchmark;
+
+import io.opentracing.Tracer;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.extensions.reactor.commandhandling.gateway.DefaultReactorCommandGateway;
+import org.axonframework.extensions.reactor.commandhandling.gateway.ReactorCommandGateway;
+import org.axonframework.extensions.reactor.queryhandling.gateway.DefaultReactorQueryGateway;
+import org.axonframework.extensions.reactor.queryhandling.gateway.ReactorQueryGateway;
+import org.axonframework.extensions.tracing.TracingReactorCommandGateway;
+import org.axonframework.extensions.tracing.TracingReactorQueryGateway;
+import org.axonframework.messaging.responsetypes.ResponseType;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.SimpleQueryBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing the {@link TracingReactorCommandGateway} and {@link TracingReactorQueryGateway} with the
+ * non-tracing Reactor gateways they wrap.
+ * <p>
+ * Both buses handle messages on the dispatching thread, so every {@code block()} call returns without parking as long
+ * as the reactive pipeline stays on the subscribing thread. A thread hop or blocking call introduced by the tracing
+ * gateways would show up as a latency increase of several orders of magnitude compared to the plain gateways, rather
+ * than the cost of creating and finishing a span.
+ *
+ * @since 4.12.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactorGatewayBenchmark {
+
+    private static final String QUERY_NAME = "benchmarkQuery";
+    private static final ResponseType<String> RESPONSE_TYPE = ResponseTypes.instanceOf(String.class);
+
+    private ReactorCommandGateway plainCommandGateway;
+    private ReactorCommandGateway tracingCommandGateway;
+    private ReactorQueryGateway plainQueryGateway;
+    private ReactorQueryGateway tracingQueryGateway;
+
+    @Setup
+    public void setUp() {
+        Tracer tracer = new BenchmarkTracer();
+
+        CommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.subscribe(BenchmarkCommand.class.getName(), command -> "result");
+        plainCommandGateway = DefaultReactorCommandGateway.builder().commandBus(commandBus).build();
+        tracingCommandGateway = TracingReactorCommandGateway.builder()
+                                                            .tracer(tracer)
+                                                            .delegateCommandGateway(plainCommandGateway)
+                                                            .build();
+
+        QueryBus queryBus = SimpleQueryBus.builder().build();
+        queryBus.subscribe(QUERY_NAME, String.class, query -> "answer");
+        plainQueryGateway = DefaultReactorQueryGateway.builder().queryBus(queryBus).build();
+        tracingQueryGateway = TracingReactorQueryGateway.builder()
+                                                        .tracer(tracer)
+                                                        .delegateQueryGateway(plainQueryGateway)
+                                                        .build();
+    }
+
+    @Benchmark
+    public Object plainSend() {
+        return plainCommandGateway.send(new BenchmarkCommand()).block();
+    }
+
+    @Benchmark
+    public Object tracingSend() {
+        return tracingCommandGateway.send(new BenchmarkCommand()).block();
+    }
+
+    @Benchmark
+    public String plainQuery() {
+        return plainQueryGateway.query(QUERY_NAME, "query", RESPONSE_TYPE).block();
+    }
+
+    @Benchmark
+    public String tracingQuery() {
+        return tracingQueryGateway.query(QUERY_NAME, "query", RESPONSE_TYPE).block();
+    }
+
+    private static class BenchmarkCommand {
+
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.benchmark;
+
+import org.axonframework.commandhandling.AsynchronousCommandBus;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.extensions.tracing.TracingCommandGateway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark measuring {@link TracingCommandGateway#sendAndWait(Object)} with a large number of concurrent callers,
+ * each blocking on its own thread until an {@link AsynchronousCommandBus} has handled its command. The callers either
+ * run on a pool of platform threads or on virtual threads, and the gateway either runs in its default mode or in its
+ * {@link TracingCommandGateway.Builder#virtualThreadAware(boolean) virtual thread aware} mode.
+ * <p>
+ * Virtual threads require JDK 21 or later to run the benchmark on, for example through:
+ * <pre>
+ * java -jar tracing-benchmark/target/benchmarks.jar SendAndWaitBenchmark -p threads=virtual
+ * </pre>
+ *
+ * @since 4.12.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendAndWaitBenchmark {
+
+    @Param({"10000"})
+    private int callers;
+    @Param({"platform", "virtual"})
+    private String threads;
+    @Param({"false", "true"})
+    private boolean virtualThreadAware;
+
+    private ExecutorService handlerExecutor;
+    private ExecutorService callerExecutor;
+    private CommandGateway tracingGateway;
+
+    @Setup
+    public void setUp() throws Exception {
+        handlerExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        CommandBus commandBus = AsynchronousCommandBus.builder().executor(handlerExecutor).build();
+        commandBus.subscribe(BenchmarkCommand.class.getName(), command -> "result");
+        tracingGateway = TracingCommandGateway.builder()
+                                              .tracer(new BenchmarkTracer())
+                                              .delegateCommandGateway(
+                                                      DefaultCommandGateway.builder().commandBus(commandBus).build()
+                                              )
+                                              .virtualThreadAware(virtualThreadAware)
+                                              .build();
+        callerExecutor = "virtual".equals(threads)
+                ? virtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(callers);
+    }
+
+    @TearDown
+    public void tearDown() {
+        callerExecutor.shutdownNow();
+        handlerExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void concurrentSendAndWait() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(callers);
+        for (int i = 0; i < callers; i++) {
+            callerExecutor.execute(() -> {
+                try {
+                    tracingGateway.sendAndWait(new BenchmarkCommand());
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private static ExecutorService virtualThreadPerTaskExecutor() throws Exception {
+        // Looked up reflectively, as the benchmarks are compiled against the project's Java 8 baseline
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads require JDK 21 or later", e);
+        }
+    }
+
+    private static class BenchmarkCommand {
+
+    }
+}
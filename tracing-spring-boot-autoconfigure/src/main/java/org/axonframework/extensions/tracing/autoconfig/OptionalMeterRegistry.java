@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.util.function.Consumer;
+
+/**
+ * Resolves the Micrometer {@code MeterRegistry} bean the tracing components register their meters with. Micrometer is
+ * an optional dependency of the tracing extension, so the registry is only resolved when Micrometer is on the
+ * classpath of the {@link BeanFactory}.
+ *
+ * @since 4.12.1
+ */
+class OptionalMeterRegistry {
+
+    static final String METER_REGISTRY_CLASS_NAME = "io.micrometer.core.instrument.MeterRegistry";
+
+    private final BeanFactory beanFactory;
+
+    /**
+     * Instantiate an {@link OptionalMeterRegistry} resolving the {@code MeterRegistry} from the given {@code
+     * beanFactory}.
+     *
+     * @param beanFactory the {@link BeanFactory} to resolve the {@code MeterRegistry} bean from
+     */
+    OptionalMeterRegistry(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Invokes the given {@code consumer} with the {@code MeterRegistry} bean, if Micrometer is on the classpath and
+     * such a bean is defined. The registry is passed as an {@link Object}, so that callers only link against Micrometer
+     * once it is known to be present.
+     *
+     * @param consumer the {@link Consumer} to invoke with the {@code MeterRegistry} bean
+     */
+    void ifAvailable(Consumer<Object> consumer) {
+        ClassLoader classLoader = beanFactory instanceof ConfigurableBeanFactory
+                ? ((ConfigurableBeanFactory) beanFactory).getBeanClassLoader()
+                : OptionalMeterRegistry.class.getClassLoader();
+        if (ClassUtils.isPresent(METER_REGISTRY_CLASS_NAME, classLoader)) {
+            ResolvableType meterRegistryType =
+                    ResolvableType.forClass(ClassUtils.resolveClassName(METER_REGISTRY_CLASS_NAME, classLoader));
+            beanFactory.getBeanProvider(meterRegistryType).ifAvailable(consumer);
+        }
+    }
+}
@@ -19,9 +19,11 @@ package org.axonframework.extensions.tracing.autoconfig;
 import org.axonframework.extensions.tracing.MessageTag;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 
 /**
  * Class containing properties defining the {@link io.opentracing.Span} build by this extension.
@@ -60,6 +62,179 @@ public class SpanProperties {
      */
     private List<MessageTag> queryTags =
             asList(MessageTag.MESSAGE_ID, MessageTag.MESSAGE_TYPE, MessageTag.PAYLOAD_TYPE, MessageTag.MESSAGE_NAME);
+    /**
+     * A list of payload type or message name patterns of the messages to trace. A pattern ending in {@code *} matches
+     * a complete package, like {@code com.acme.orders.*}. When empty, all messages are traced unless excluded.
+     * <p>
+     * Defaults to an empty list.
+     */
+    private List<String> includedMessages = emptyList();
+    /**
+     * A list of payload type or message name patterns of the messages <b>not</b> to trace, like heartbeat events or
+     * deadline ticks. A pattern ending in {@code *} matches a complete package, like {@code com.acme.monitoring.*}.
+     * <p>
+     * Defaults to an empty list.
+     */
+    private List<String> excludedMessages = emptyList();
+    /**
+     * Whether the elements of a streaming query and the updates of a subscription query are recorded as aggregated
+     * tags when the query's {@link io.opentracing.Span} finishes, instead of as an event per element. Aggregating keeps
+     * the memory held per span bounded for long or large streams.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean aggregateStreamElements = false;
+    /**
+     * The interval of streamed elements for which an event is still logged when {@link #aggregateStreamElements} is
+     * enabled, like {@code 1000} to log every thousandth element. A value of {@code 0} logs no per-element events.
+     * <p>
+     * Defaults to {@code 0}.
+     */
+    private int streamElementSampleRate = 0;
+    /**
+     * The maximum duration a subscription query {@link io.opentracing.Span} is kept open. Spans of subscription queries
+     * which are neither cancelled nor completed within this duration are finished by a watchdog. A duration of zero
+     * disables the watchdog.
+     * <p>
+     * Defaults to one hour.
+     */
+    private Duration subscriptionQueryMaxSpanDuration = Duration.ofHours(1);
+    /**
+     * Whether the {@link org.axonframework.commandhandling.gateway.CommandGateway#sendAndWait(Object)} methods keep the
+     * command's {@link io.opentracing.Span} active while waiting for the result, finishing it on the calling thread.
+     * Enable this when commands are sent from virtual threads.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean virtualThreadAware = false;
+    /**
+     * Whether the {@link java.util.concurrent.Executor} and {@link java.util.concurrent.ExecutorService} beans named by
+     * {@link #tracedExecutors} are wrapped to propagate the active {@link io.opentracing.Span} to the tasks they run,
+     * like the handlers of an {@link org.axonframework.commandhandling.AsynchronousCommandBus}.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean propagateToExecutors = false;
+    /**
+     * The names of the {@link java.util.concurrent.Executor} and {@link java.util.concurrent.ExecutorService} beans
+     * wrapped when {@link #propagateToExecutors} is enabled. A wrapped bean is only exposed as an {@code Executor} or
+     * {@code ExecutorService}, so inject it through one of these types.
+     * <p>
+     * Defaults to an empty list.
+     */
+    private List<String> tracedExecutors = emptyList();
+    /**
+     * A list of names of the point queries of which the results are cached by the query gateway. Cache hits and misses
+     * are recorded on the query's {@link io.opentracing.Span}.
+     * <p>
+     * Defaults to an empty list, caching no queries at all.
+     */
+    private List<String> cachedQueries = emptyList();
+    /**
+     * The maximum number of query results cached, evicting the least recently used result once exceeded.
+     * <p>
+     * Defaults to {@code 1000}.
+     */
+    private int queryCacheMaximumSize = 1000;
+    /**
+     * The duration a query result is cached for.
+     * <p>
+     * Defaults to one minute.
+     */
+    private Duration queryCacheTimeToLive = Duration.ofMinutes(1);
+    /**
+     * Whether handled commands and queries are rejected when the deadline propagated in their metadata has passed, as
+     * their dispatcher is no longer waiting for the result.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean rejectExpiredMessages = false;
+    /**
+     * Whether the {@link org.axonframework.commandhandling.CommandBus} is traced instead of the command gateways. This
+     * also traces commands dispatched on the bus directly, like those of deadline managers and sagas, and tags handling
+     * spans with the time commands were queued.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean traceCommandBus = false;
+    /**
+     * Whether the {@link org.axonframework.queryhandling.QueryBus} is traced instead of the query gateways. This also
+     * traces queries dispatched on the bus directly, and the emission of subscription query updates through the {@link
+     * org.axonframework.queryhandling.QueryUpdateEmitter}.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean traceQueryBus = false;
+    /**
+     * Whether the phases of the unit of work of a handled message are recorded as events on the handler's span, and
+     * timed per message name through the {@code axon.tracing.unit-of-work.phase} timer when a Micrometer {@code
+     * MeterRegistry} is available.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean recordUnitOfWorkPhases = false;
+    /**
+     * Whether handler interceptors are timed by a {@code HandlerInterceptorTimer}. The tracing handler interceptor is
+     * timed wherever it is registered, including event processors. Other interceptors are only timed when registered
+     * with a traced command or query bus, so when {@code traceCommandBus} or {@code traceQueryBus} is enabled.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean timeHandlerInterceptors = false;
+    /**
+     * Whether {@link org.axonframework.eventsourcing.eventstore.EventStorageEngine} beans are wrapped to trace
+     * appending and reading events and snapshots. A wrapped bean is only exposed as an {@code EventStorageEngine}, so
+     * inject it through this type.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean traceEventStore = false;
+    /**
+     * Whether the spans of a traced {@link org.axonframework.eventsourcing.eventstore.EventStorageEngine} are tagged
+     * with the serialized size of the events they cover. The size is determined with the {@code eventSerializer} bean,
+     * which may serialize the payload and metadata of every appended and read event once more.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean measureEventStoreSizes = false;
+    /**
+     * Whether {@link org.axonframework.serialization.Serializer} beans are wrapped to measure the time spent
+     * serializing and deserializing, and the serialized size, per serialized type.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean traceSerializers = false;
+    /**
+     * Whether {@link org.axonframework.eventhandling.tokenstore.TokenStore} beans are wrapped to measure the claim
+     * operations of streaming event processors. A wrapped bean is only exposed as a {@code TokenStore}, so inject it
+     * through this type.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean traceTokenStore = false;
+    /**
+     * Whether {@link org.axonframework.modelling.saga.repository.SagaStore} beans are wrapped to trace finding,
+     * loading and storing sagas on the span of the handled event. A wrapped bean is only exposed as a {@code
+     * SagaStore}, so inject it through this type.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean traceSagaStore = false;
+    /**
+     * Whether a traced {@link org.axonframework.modelling.saga.repository.SagaStore} logs the value of the association
+     * value an event is looked up by, next to its key. The value usually identifies a business entity.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean logSagaAssociationValues = false;
+    /**
+     * Whether {@link org.axonframework.deadline.DeadlineManager} beans are wrapped to trace scheduled deadlines and
+     * link their handling back to the trace which scheduled them. A wrapped bean is only exposed as a {@code
+     * DeadlineManager}, so inject it through this type.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    private boolean traceDeadlineManager = false;
 
     public List<MessageTag> getCommandTags() {
         return commandTags;
@@ -84,4 +259,188 @@ public class SpanProperties {
     public void setQueryTags(List<MessageTag> queryTags) {
         this.queryTags = queryTags;
     }
+
+    public List<String> getIncludedMessages() {
+        return includedMessages;
+    }
+
+    public void setIncludedMessages(List<String> includedMessages) {
+        this.includedMessages = includedMessages;
+    }
+
+    public List<String> getExcludedMessages() {
+        return excludedMessages;
+    }
+
+    public void setExcludedMessages(List<String> excludedMessages) {
+        this.excludedMessages = excludedMessages;
+    }
+
+    public boolean isAggregateStreamElements() {
+        return aggregateStreamElements;
+    }
+
+    public void setAggregateStreamElements(boolean aggregateStreamElements) {
+        this.aggregateStreamElements = aggregateStreamElements;
+    }
+
+    public int getStreamElementSampleRate() {
+        return streamElementSampleRate;
+    }
+
+    public void setStreamElementSampleRate(int streamElementSampleRate) {
+        this.streamElementSampleRate = streamElementSampleRate;
+    }
+
+    public Duration getSubscriptionQueryMaxSpanDuration() {
+        return subscriptionQueryMaxSpanDuration;
+    }
+
+    public void setSubscriptionQueryMaxSpanDuration(Duration subscriptionQueryMaxSpanDuration) {
+        this.subscriptionQueryMaxSpanDuration = subscriptionQueryMaxSpanDuration;
+    }
+
+    public boolean isVirtualThreadAware() {
+        return virtualThreadAware;
+    }
+
+    public void setVirtualThreadAware(boolean virtualThreadAware) {
+        this.virtualThreadAware = virtualThreadAware;
+    }
+
+    public boolean isPropagateToExecutors() {
+        return propagateToExecutors;
+    }
+
+    public void setPropagateToExecutors(boolean propagateToExecutors) {
+        this.propagateToExecutors = propagateToExecutors;
+    }
+
+    public List<String> getTracedExecutors() {
+        return tracedExecutors;
+    }
+
+    public void setTracedExecutors(List<String> tracedExecutors) {
+        this.tracedExecutors = tracedExecutors;
+    }
+
+    public List<String> getCachedQueries() {
+        return cachedQueries;
+    }
+
+    public void setCachedQueries(List<String> cachedQueries) {
+        this.cachedQueries = cachedQueries;
+    }
+
+    public int getQueryCacheMaximumSize() {
+        return queryCacheMaximumSize;
+    }
+
+    public void setQueryCacheMaximumSize(int queryCacheMaximumSize) {
+        this.queryCacheMaximumSize = queryCacheMaximumSize;
+    }
+
+    public Duration getQueryCacheTimeToLive() {
+        return queryCacheTimeToLive;
+    }
+
+    public void setQueryCacheTimeToLive(Duration queryCacheTimeToLive) {
+        this.queryCacheTimeToLive = queryCacheTimeToLive;
+    }
+
+    public boolean isRejectExpiredMessages() {
+        return rejectExpiredMessages;
+    }
+
+    public void setRejectExpiredMessages(boolean rejectExpiredMessages) {
+        this.rejectExpiredMessages = rejectExpiredMessages;
+    }
+
+    public boolean isTraceCommandBus() {
+        return traceCommandBus;
+    }
+
+    public void setTraceCommandBus(boolean traceCommandBus) {
+        this.traceCommandBus = traceCommandBus;
+    }
+
+    public boolean isTraceQueryBus() {
+        return traceQueryBus;
+    }
+
+    public void setTraceQueryBus(boolean traceQueryBus) {
+        this.traceQueryBus = traceQueryBus;
+    }
+
+    public boolean isRecordUnitOfWorkPhases() {
+        return recordUnitOfWorkPhases;
+    }
+
+    public void setRecordUnitOfWorkPhases(boolean recordUnitOfWorkPhases) {
+        this.recordUnitOfWorkPhases = recordUnitOfWorkPhases;
+    }
+
+    public boolean isTimeHandlerInterceptors() {
+        return timeHandlerInterceptors;
+    }
+
+    public void setTimeHandlerInterceptors(boolean timeHandlerInterceptors) {
+        this.timeHandlerInterceptors = timeHandlerInterceptors;
+    }
+
+    public boolean isTraceEventStore() {
+        return traceEventStore;
+    }
+
+    public void setTraceEventStore(boolean traceEventStore) {
+        this.traceEventStore = traceEventStore;
+    }
+
+    public boolean isMeasureEventStoreSizes() {
+        return measureEventStoreSizes;
+    }
+
+    public void setMeasureEventStoreSizes(boolean measureEventStoreSizes) {
+        this.measureEventStoreSizes = measureEventStoreSizes;
+    }
+
+    public boolean isTraceSerializers() {
+        return traceSerializers;
+    }
+
+    public void setTraceSerializers(boolean traceSerializers) {
+        this.traceSerializers = traceSerializers;
+    }
+
+    public boolean isTraceTokenStore() {
+        return traceTokenStore;
+    }
+
+    public void setTraceTokenStore(boolean traceTokenStore) {
+        this.traceTokenStore = traceTokenStore;
+    }
+
+    public boolean isTraceSagaStore() {
+        return traceSagaStore;
+    }
+
+    public void setTraceSagaStore(boolean traceSagaStore) {
+        this.traceSagaStore = traceSagaStore;
+    }
+
+    public boolean isLogSagaAssociationValues() {
+        return logSagaAssociationValues;
+    }
+
+    public void setLogSagaAssociationValues(boolean logSagaAssociationValues) {
+        this.logSagaAssociationValues = logSagaAssociationValues;
+    }
+
+    public boolean isTraceDeadlineManager() {
+        return traceDeadlineManager;
+    }
+
+    public void setTraceDeadlineManager(boolean traceDeadlineManager) {
+        this.traceDeadlineManager = traceDeadlineManager;
+    }
 }
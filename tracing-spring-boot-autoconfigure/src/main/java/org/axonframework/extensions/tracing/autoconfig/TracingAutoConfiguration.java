@@ -15,28 +15,50 @@
  */
 package org.axonframework.extensions.tracing.autoconfig;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentracing.Tracer;
 import org.axonframework.commandhandling.CommandBus;
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.commandhandling.gateway.RetryScheduler;
 import org.axonframework.config.ConfigurerModule;
+import org.axonframework.extensions.reactor.commandhandling.gateway.DefaultReactorCommandGateway;
+import org.axonframework.extensions.reactor.commandhandling.gateway.ReactorCommandGateway;
+import org.axonframework.extensions.reactor.queryhandling.gateway.DefaultReactorQueryGateway;
+import org.axonframework.extensions.reactor.queryhandling.gateway.ReactorQueryGateway;
+import org.axonframework.extensions.tracing.CachingQueryGateway;
+import org.axonframework.extensions.tracing.ElementTracingPolicy;
+import org.axonframework.extensions.tracing.HandlerInterceptorTimer;
 import org.axonframework.extensions.tracing.MessageTagBuilderService;
 import org.axonframework.extensions.tracing.OpenTraceDispatchInterceptor;
 import org.axonframework.extensions.tracing.OpenTraceHandlerInterceptor;
+import org.axonframework.extensions.tracing.SubscriptionQuerySpanTracker;
 import org.axonframework.extensions.tracing.TracingCommandGateway;
+import org.axonframework.extensions.tracing.TracingMessageFilter;
 import org.axonframework.extensions.tracing.TracingProvider;
 import org.axonframework.extensions.tracing.TracingQueryGateway;
+import org.axonframework.extensions.tracing.TracingReactorCommandGateway;
+import org.axonframework.extensions.tracing.TracingReactorQueryGateway;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageHandlerInterceptor;
 import org.axonframework.messaging.correlation.CorrelationDataProvider;
+import org.axonframework.queryhandling.DefaultQueryGateway;
 import org.axonframework.queryhandling.QueryBus;
 import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
 import org.axonframework.springboot.autoconfig.EventProcessingAutoConfiguration;
 import org.axonframework.springboot.autoconfig.InfraConfiguration;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
 /**
@@ -51,23 +73,38 @@ import org.springframework.context.annotation.Lazy;
  */
 @AutoConfiguration
 @AutoConfigureAfter(EventProcessingAutoConfiguration.class)
-@AutoConfigureBefore(InfraConfiguration.class)
+@AutoConfigureBefore(
+        value = InfraConfiguration.class,
+        name = "org.axonframework.extensions.reactor.autoconfig.ReactorAutoConfiguration"
+)
 @EnableConfigurationProperties(value = {TracingExtensionProperties.class, SpanProperties.class})
 @ConditionalOnProperty(value = "axon.extension.tracing.enabled", matchIfMissing = true)
 public class TracingAutoConfiguration {
 
     @Bean
-    public OpenTraceDispatchInterceptor traceDispatchInterceptor(Tracer tracer) {
-        return new OpenTraceDispatchInterceptor(tracer);
+    public OpenTraceDispatchInterceptor traceDispatchInterceptor(Tracer tracer,
+                                                                 TracingMessageFilter tracingMessageFilter) {
+        return OpenTraceDispatchInterceptor.builder()
+                                           .tracer(tracer)
+                                           .messageFilter(tracingMessageFilter)
+                                           .build();
     }
 
     @Bean
     public OpenTraceHandlerInterceptor traceHandlerInterceptor(Tracer tracer,
-                                                               MessageTagBuilderService messageTagBuilderService) {
-        return OpenTraceHandlerInterceptor.builder()
-                                          .tracer(tracer)
-                                          .messageTagBuilderService(messageTagBuilderService)
-                                          .build();
+                                                               MessageTagBuilderService messageTagBuilderService,
+                                                               TracingMessageFilter tracingMessageFilter,
+                                                               SpanProperties spanProperties,
+                                                               BeanFactory beanFactory) {
+        OpenTraceHandlerInterceptor.Builder builder =
+                OpenTraceHandlerInterceptor.builder()
+                                           .tracer(tracer)
+                                           .messageTagBuilderService(messageTagBuilderService)
+                                           .messageFilter(tracingMessageFilter)
+                                           .rejectExpiredMessages(spanProperties.isRejectExpiredMessages())
+                                           .recordUnitOfWorkPhases(spanProperties.isRecordUnitOfWorkPhases());
+        new OptionalMeterRegistry(beanFactory).ifAvailable(registry -> builder.meterRegistry((MeterRegistry) registry));
+        return builder.build();
     }
 
     @Lazy
@@ -77,12 +114,46 @@ public class TracingAutoConfiguration {
                                             QueryBus queryBus,
                                             OpenTraceDispatchInterceptor openTraceDispatchInterceptor,
                                             OpenTraceHandlerInterceptor openTraceHandlerInterceptor,
-                                            MessageTagBuilderService messageTagBuilderService) {
-        queryBus.registerHandlerInterceptor(openTraceHandlerInterceptor);
+                                            MessageTagBuilderService messageTagBuilderService,
+                                            TracingMessageFilter tracingMessageFilter,
+                                            ElementTracingPolicy elementTracingPolicy,
+                                            SubscriptionQuerySpanTracker subscriptionQuerySpanTracker,
+                                            SpanProperties spanProperties,
+                                            BeanFactory beanFactory,
+                                            ObjectProvider<QueryUpdateEmitter> queryUpdateEmitter,
+                                            ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer) {
+        queryBus.registerHandlerInterceptor(timed(openTraceHandlerInterceptor, handlerInterceptorTimer));
+        QueryGateway delegate = DefaultQueryGateway.builder().queryBus(queryBus).build();
+        if (!spanProperties.getCachedQueries().isEmpty()) {
+            CachingQueryGateway.Builder cachingBuilder =
+                    CachingQueryGateway.builder()
+                                       .tracer(tracer)
+                                       .delegateQueryGateway(delegate)
+                                       .cachedQueryNames(spanProperties.getCachedQueries())
+                                       .maximumSize(spanProperties.getQueryCacheMaximumSize())
+                                       .timeToLive(spanProperties.getQueryCacheTimeToLive());
+            new OptionalMeterRegistry(beanFactory)
+                    .ifAvailable(registry -> cachingBuilder.meterRegistry((MeterRegistry) registry));
+            CachingQueryGateway cachingQueryGateway = cachingBuilder.build();
+            queryUpdateEmitter.ifAvailable(emitter -> emitter.registerDispatchInterceptor(
+                    cachingQueryGateway.updateInvalidationInterceptor()
+            ));
+            delegate = cachingQueryGateway;
+        }
+        if (spanProperties.isTraceQueryBus()) {
+            // The TracingQueryBus starts the dispatch spans, so a tracing gateway would duplicate them
+            delegate.registerDispatchInterceptor(openTraceDispatchInterceptor);
+            return delegate;
+        }
         TracingQueryGateway tracingQueryGateway = TracingQueryGateway.builder()
-                                                                     .delegateQueryBus(queryBus)
+                                                                     .delegateQueryGateway(delegate)
                                                                      .tracer(tracer)
                                                                      .messageTagBuilderService(messageTagBuilderService)
+                                                                     .messageFilter(tracingMessageFilter)
+                                                                     .elementTracingPolicy(elementTracingPolicy)
+                                                                     .subscriptionQuerySpanTracker(
+                                                                             subscriptionQuerySpanTracker
+                                                                     )
                                                                      .build();
         tracingQueryGateway.registerDispatchInterceptor(openTraceDispatchInterceptor);
         return tracingQueryGateway;
@@ -95,30 +166,146 @@ public class TracingAutoConfiguration {
                                                 CommandBus commandBus,
                                                 OpenTraceDispatchInterceptor openTraceDispatchInterceptor,
                                                 OpenTraceHandlerInterceptor openTraceHandlerInterceptor,
-                                                MessageTagBuilderService messageTagBuilderService) {
-        commandBus.registerHandlerInterceptor(openTraceHandlerInterceptor);
-        TracingCommandGateway tracingCommandGateway =
+                                                MessageTagBuilderService messageTagBuilderService,
+                                                TracingMessageFilter tracingMessageFilter,
+                                                SpanProperties spanProperties,
+                                                ObjectProvider<RetryScheduler> retryScheduler,
+                                                BeanFactory beanFactory,
+                                                ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer) {
+        commandBus.registerHandlerInterceptor(timed(openTraceHandlerInterceptor, handlerInterceptorTimer));
+        if (spanProperties.isTraceCommandBus()) {
+            // The TracingCommandBus starts the dispatch spans, so a tracing gateway would duplicate them
+            DefaultCommandGateway.Builder gatewayBuilder = DefaultCommandGateway.builder().commandBus(commandBus);
+            retryScheduler.ifAvailable(gatewayBuilder::retryScheduler);
+            CommandGateway commandGateway = gatewayBuilder.build();
+            commandGateway.registerDispatchInterceptor(openTraceDispatchInterceptor);
+            return commandGateway;
+        }
+        TracingCommandGateway.Builder gatewayBuilder =
                 TracingCommandGateway.builder()
                                      .tracer(tracer)
                                      .delegateCommandBus(commandBus)
                                      .messageTagBuilderService(messageTagBuilderService)
-                                     .build();
+                                     .messageFilter(tracingMessageFilter)
+                                     .virtualThreadAware(spanProperties.isVirtualThreadAware());
+        retryScheduler.ifAvailable(gatewayBuilder::retryScheduler);
+        new OptionalMeterRegistry(beanFactory)
+                .ifAvailable(registry -> gatewayBuilder.meterRegistry((MeterRegistry) registry));
+        TracingCommandGateway tracingCommandGateway = gatewayBuilder.build();
         tracingCommandGateway.registerDispatchInterceptor(openTraceDispatchInterceptor);
         return tracingCommandGateway;
     }
 
+    @Bean
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.traceCommandBus", havingValue = "true")
+    public static TracingCommandBusBeanPostProcessor tracingCommandBusBeanPostProcessor(
+            ObjectProvider<Tracer> tracer,
+            ObjectProvider<MessageTagBuilderService> messageTagBuilderService,
+            ObjectProvider<TracingMessageFilter> tracingMessageFilter,
+            ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer
+    ) {
+        return new TracingCommandBusBeanPostProcessor(
+                tracer, messageTagBuilderService, tracingMessageFilter, handlerInterceptorTimer
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.traceQueryBus", havingValue = "true")
+    public static TracingQueryBusBeanPostProcessor tracingQueryBusBeanPostProcessor(
+            ObjectProvider<Tracer> tracer,
+            ObjectProvider<MessageTagBuilderService> messageTagBuilderService,
+            ObjectProvider<TracingMessageFilter> tracingMessageFilter,
+            ObjectProvider<ElementTracingPolicy> elementTracingPolicy,
+            ObjectProvider<SubscriptionQuerySpanTracker> subscriptionQuerySpanTracker,
+            ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer
+    ) {
+        return new TracingQueryBusBeanPostProcessor(
+                tracer, messageTagBuilderService, tracingMessageFilter,
+                elementTracingPolicy, subscriptionQuerySpanTracker, handlerInterceptorTimer
+        );
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(name = OptionalMeterRegistry.METER_REGISTRY_CLASS_NAME)
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.timeHandlerInterceptors", havingValue = "true")
+    public HandlerInterceptorTimer handlerInterceptorTimer(BeanFactory beanFactory) {
+        HandlerInterceptorTimer.Builder builder = HandlerInterceptorTimer.builder();
+        new OptionalMeterRegistry(beanFactory).ifAvailable(registry -> builder.meterRegistry((MeterRegistry) registry));
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.traceEventStore", havingValue = "true")
+    public static TracingEventStorageEngineBeanPostProcessor tracingEventStorageEngineBeanPostProcessor(
+            ObjectProvider<Tracer> tracer,
+            ObjectProvider<SpanProperties> spanProperties
+    ) {
+        return new TracingEventStorageEngineBeanPostProcessor(tracer, spanProperties);
+    }
+
+    @Bean
+    @ConditionalOnClass(name = OptionalMeterRegistry.METER_REGISTRY_CLASS_NAME)
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.traceSerializers", havingValue = "true")
+    public static TracingSerializerBeanPostProcessor tracingSerializerBeanPostProcessor(
+            ObjectProvider<Tracer> tracer,
+            BeanFactory beanFactory
+    ) {
+        return new TracingSerializerBeanPostProcessor(tracer, beanFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.traceTokenStore", havingValue = "true")
+    public static TracingTokenStoreBeanPostProcessor tracingTokenStoreBeanPostProcessor(
+            ObjectProvider<Tracer> tracer,
+            BeanFactory beanFactory
+    ) {
+        return new TracingTokenStoreBeanPostProcessor(tracer, beanFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.traceSagaStore", havingValue = "true")
+    public static TracingSagaStoreBeanPostProcessor tracingSagaStoreBeanPostProcessor(
+            ObjectProvider<Tracer> tracer,
+            ObjectProvider<SpanProperties> spanProperties,
+            BeanFactory beanFactory
+    ) {
+        return new TracingSagaStoreBeanPostProcessor(tracer, spanProperties, beanFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.traceDeadlineManager", havingValue = "true")
+    public static TracingDeadlineManagerBeanPostProcessor tracingDeadlineManagerBeanPostProcessor(
+            ObjectProvider<Tracer> tracer,
+            BeanFactory beanFactory
+    ) {
+        return new TracingDeadlineManagerBeanPostProcessor(tracer, beanFactory);
+    }
+
     @Bean
     public CorrelationDataProvider tracingProvider(Tracer tracer) {
         return new TracingProvider(tracer);
     }
 
     @Bean
-    public ConfigurerModule configureTracingInterceptor(OpenTraceHandlerInterceptor openTraceHandlerInterceptor) {
+    public ConfigurerModule configureTracingInterceptor(
+            OpenTraceHandlerInterceptor openTraceHandlerInterceptor,
+            ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer
+    ) {
+        MessageHandlerInterceptor<Message<?>> interceptor = timed(openTraceHandlerInterceptor, handlerInterceptorTimer);
         return configurer -> configurer.eventProcessing().registerDefaultHandlerInterceptor(
-                (configuration, name) -> openTraceHandlerInterceptor
+                (configuration, name) -> interceptor
         );
     }
 
+    private static MessageHandlerInterceptor<Message<?>> timed(
+            OpenTraceHandlerInterceptor openTraceHandlerInterceptor,
+            ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer
+    ) {
+        HandlerInterceptorTimer timer = handlerInterceptorTimer.getIfAvailable();
+        return timer != null ? timer.timed(openTraceHandlerInterceptor) : openTraceHandlerInterceptor;
+    }
+
     @Bean
     public MessageTagBuilderService spanBuilderService(SpanProperties spanProperties) {
         return MessageTagBuilderService.builder()
@@ -127,4 +314,90 @@ public class TracingAutoConfiguration {
                                        .queryMessageTags(spanProperties.getQueryTags())
                                        .build();
     }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TracingMessageFilter tracingMessageFilter(SpanProperties spanProperties) {
+        return TracingMessageFilter.builder()
+                                   .includes(spanProperties.getIncludedMessages())
+                                   .excludes(spanProperties.getExcludedMessages())
+                                   .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "axon.extension.tracing.span.propagateToExecutors", havingValue = "true")
+    public static TracingExecutorBeanPostProcessor tracingExecutorBeanPostProcessor(
+            ObjectProvider<Tracer> tracer,
+            ObjectProvider<SpanProperties> spanProperties
+    ) {
+        return new TracingExecutorBeanPostProcessor(tracer, spanProperties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ElementTracingPolicy elementTracingPolicy(SpanProperties spanProperties) {
+        return spanProperties.isAggregateStreamElements()
+                ? ElementTracingPolicy.aggregated(spanProperties.getStreamElementSampleRate())
+                : ElementTracingPolicy.perElement();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SubscriptionQuerySpanTracker subscriptionQuerySpanTracker(SpanProperties spanProperties,
+                                                                     BeanFactory beanFactory) {
+        SubscriptionQuerySpanTracker.Builder builder =
+                SubscriptionQuerySpanTracker.builder()
+                                            .maxSpanDuration(spanProperties.getSubscriptionQueryMaxSpanDuration());
+        new OptionalMeterRegistry(beanFactory).ifAvailable(registry -> builder.meterRegistry((MeterRegistry) registry));
+        return builder.build();
+    }
+
+    /**
+     * Configuration of the tracing {@link ReactorCommandGateway} and {@link ReactorQueryGateway}, only active when
+     * Axon's Reactor extension is on the classpath.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.axonframework.extensions.reactor.commandhandling.gateway.ReactorCommandGateway")
+    static class ReactorTracingConfiguration {
+
+        @Lazy
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactorCommandGateway tracingReactorCommandGateway(Tracer tracer,
+                                                                  CommandBus commandBus,
+                                                                  MessageTagBuilderService messageTagBuilderService,
+                                                                  TracingMessageFilter tracingMessageFilter,
+                                                                  SpanProperties spanProperties) {
+            if (spanProperties.isTraceCommandBus()) {
+                return DefaultReactorCommandGateway.builder().commandBus(commandBus).build();
+            }
+            return TracingReactorCommandGateway.builder()
+                                               .tracer(tracer)
+                                               .delegateCommandBus(commandBus)
+                                               .messageTagBuilderService(messageTagBuilderService)
+                                               .messageFilter(tracingMessageFilter)
+                                               .build();
+        }
+
+        @Lazy
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactorQueryGateway tracingReactorQueryGateway(Tracer tracer,
+                                                              QueryBus queryBus,
+                                                              MessageTagBuilderService messageTagBuilderService,
+                                                              TracingMessageFilter tracingMessageFilter,
+                                                              SubscriptionQuerySpanTracker subscriptionQuerySpanTracker,
+                                                              SpanProperties spanProperties) {
+            if (spanProperties.isTraceQueryBus()) {
+                return DefaultReactorQueryGateway.builder().queryBus(queryBus).build();
+            }
+            return TracingReactorQueryGateway.builder()
+                                             .tracer(tracer)
+                                             .delegateQueryBus(queryBus)
+                                             .messageTagBuilderService(messageTagBuilderService)
+                                             .messageFilter(tracingMessageFilter)
+                                             .subscriptionQuerySpanTracker(subscriptionQuerySpanTracker)
+                                             .build();
+        }
+    }
 }
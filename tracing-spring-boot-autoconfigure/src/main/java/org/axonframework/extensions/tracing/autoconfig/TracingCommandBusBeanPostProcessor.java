@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.opentracing.Tracer;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.extensions.tracing.HandlerInterceptorTimer;
+import org.axonframework.extensions.tracing.MessageTagBuilderService;
+import org.axonframework.extensions.tracing.TracingCommandBus;
+import org.axonframework.extensions.tracing.TracingMessageFilter;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * A {@link BeanPostProcessor} wrapping the {@link CommandBus} bean in a {@link TracingCommandBus}. Only the bus used by
+ * Axon is wrapped: the primary {@link CommandBus} bean, or the only one if there is a single {@link CommandBus} bean.
+ * Other buses, like the local segment of a distributed command bus, are left as is, as these handle commands which
+ * have been traced on dispatch already.
+ *
+ * @since 4.12.1
+ */
+public class TracingCommandBusBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final ObjectProvider<Tracer> tracer;
+    private final ObjectProvider<MessageTagBuilderService> messageTagBuilderService;
+    private final ObjectProvider<TracingMessageFilter> messageFilter;
+    private final ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Initialize a {@link TracingCommandBusBeanPostProcessor} wrapping the {@link CommandBus} bean with the given
+     * providers. These are only resolved once the bus is wrapped.
+     *
+     * @param tracer                   the provider of the {@link Tracer} used to start the dispatch spans
+     * @param messageTagBuilderService the provider of the {@link MessageTagBuilderService} tagging the dispatch spans
+     * @param messageFilter            the provider of the {@link TracingMessageFilter} deciding which commands are
+     *                                 traced
+     * @param handlerInterceptorTimer  the provider of the optional {@link HandlerInterceptorTimer} timing the
+     *                                 registered handler interceptors
+     */
+    public TracingCommandBusBeanPostProcessor(ObjectProvider<Tracer> tracer,
+                                              ObjectProvider<MessageTagBuilderService> messageTagBuilderService,
+                                              ObjectProvider<TracingMessageFilter> messageFilter,
+                                              ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer) {
+        this.tracer = tracer;
+        this.messageTagBuilderService = messageTagBuilderService;
+        this.messageFilter = messageFilter;
+        this.handlerInterceptorTimer = handlerInterceptorTimer;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof CommandBus) || bean instanceof TracingCommandBus || !isAxonCommandBus(beanName)) {
+            return bean;
+        }
+        TracingCommandBus.Builder builder =
+                TracingCommandBus.builder()
+                                 .tracer(tracer.getObject())
+                                 .delegateCommandBus((CommandBus) bean)
+                                 .messageTagBuilderService(messageTagBuilderService.getObject())
+                                 .messageFilter(messageFilter.getObject());
+        handlerInterceptorTimer.ifAvailable(builder::handlerInterceptorTimer);
+        return builder.build();
+    }
+
+    private boolean isAxonCommandBus(String beanName) {
+        if (beanFactory == null) {
+            return true;
+        }
+        if (beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary()) {
+            return true;
+        }
+        return beanFactory.getBeanNamesForType(CommandBus.class, true, false).length == 1;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentracing.Tracer;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.extensions.tracing.TracingDeadlineManager;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link DeadlineManager} beans in a {@link TracingDeadlineManager}.
+ *
+ * @since 4.12.1
+ */
+public class TracingDeadlineManagerBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<Tracer> tracer;
+    private final OptionalMeterRegistry meterRegistry;
+
+    /**
+     * Initialize a {@link TracingDeadlineManagerBeanPostProcessor} wrapping {@link DeadlineManager} beans with the
+     * given providers. These are only resolved once a deadline manager is wrapped.
+     *
+     * @param tracer      the provider of the {@link Tracer} used to trace scheduled and triggered deadlines
+     * @param beanFactory the {@link BeanFactory} resolving the optional {@link MeterRegistry} the trigger lag timer is
+     *                    registered with, when Micrometer is on the classpath
+     */
+    public TracingDeadlineManagerBeanPostProcessor(ObjectProvider<Tracer> tracer,
+                                                   BeanFactory beanFactory) {
+        this.tracer = tracer;
+        this.meterRegistry = new OptionalMeterRegistry(beanFactory);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DeadlineManager) || bean instanceof TracingDeadlineManager) {
+            return bean;
+        }
+        TracingDeadlineManager.Builder builder = TracingDeadlineManager.builder()
+                                                                       .tracer(tracer.getObject())
+                                                                       .delegateDeadlineManager((DeadlineManager) bean);
+        meterRegistry.ifAvailable(registry -> builder.meterRegistry((MeterRegistry) registry));
+        return builder.build();
+    }
+}
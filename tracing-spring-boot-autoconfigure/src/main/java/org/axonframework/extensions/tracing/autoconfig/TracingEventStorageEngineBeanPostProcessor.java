@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.opentracing.Tracer;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.extensions.tracing.TracingEventStorageEngine;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link EventStorageEngine} beans in a {@link TracingEventStorageEngine}. When
+ * {@link SpanProperties#isMeasureEventStoreSizes()} is enabled, the serialized size of events is determined with the
+ * {@code eventSerializer} bean, if there is one, which is the serializer the storage engines of Axon's
+ * auto-configuration use for events.
+ *
+ * @since 4.12.1
+ */
+public class TracingEventStorageEngineBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private static final String EVENT_SERIALIZER_BEAN_NAME = "eventSerializer";
+
+    private final ObjectProvider<Tracer> tracer;
+    private final ObjectProvider<SpanProperties> spanProperties;
+    private BeanFactory beanFactory;
+
+    /**
+     * Initialize a {@link TracingEventStorageEngineBeanPostProcessor} wrapping {@link EventStorageEngine} beans with
+     * the {@link Tracer} provided by the given {@code tracer} provider. The providers are only resolved once a storage
+     * engine is wrapped.
+     *
+     * @param tracer         the provider of the {@link Tracer} used to start the event store spans
+     * @param spanProperties the provider of the {@link SpanProperties} defining whether the size of events is measured
+     */
+    public TracingEventStorageEngineBeanPostProcessor(ObjectProvider<Tracer> tracer,
+                                                      ObjectProvider<SpanProperties> spanProperties) {
+        this.tracer = tracer;
+        this.spanProperties = spanProperties;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof EventStorageEngine) || bean instanceof TracingEventStorageEngine) {
+            return bean;
+        }
+        TracingEventStorageEngine.Builder builder =
+                TracingEventStorageEngine.builder()
+                                         .tracer(tracer.getObject())
+                                         .delegateStorageEngine((EventStorageEngine) bean);
+        if (spanProperties.getObject().isMeasureEventStoreSizes()
+                && beanFactory != null && beanFactory.containsBean(EVENT_SERIALIZER_BEAN_NAME)) {
+            builder.serializer(beanFactory.getBean(EVENT_SERIALIZER_BEAN_NAME, Serializer.class));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.opentracing.Tracer;
+import org.axonframework.extensions.tracing.TracingExecutor;
+import org.axonframework.extensions.tracing.TracingExecutorService;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * A {@link BeanPostProcessor} wrapping the {@link Executor} and {@link ExecutorService} beans named by {@link
+ * SpanProperties#getTracedExecutors()} in a {@link TracingExecutor} or {@link TracingExecutorService} respectively,
+ * propagating the active trace context to the tasks they run. This covers the executors handed to Axon components,
+ * like the {@link org.axonframework.commandhandling.AsynchronousCommandBus}, as beans.
+ * <p>
+ * {@link ScheduledExecutorService} beans can not be wrapped, as wrapping them would hide their scheduling
+ * capabilities. Spring's {@link TaskExecutor} beans can not be wrapped either, as these provide their own task
+ * decoration. Naming such a bean fails with a {@link BeanInitializationException}.
+ *
+ * @since 4.12.1
+ */
+public class TracingExecutorBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<Tracer> tracer;
+    private final ObjectProvider<SpanProperties> spanProperties;
+
+    /**
+     * Initialize a {@link TracingExecutorBeanPostProcessor} wrapping the executor beans named by the given {@code
+     * spanProperties}. The providers are only resolved once an executor bean is post processed.
+     *
+     * @param tracer         the provider of the {@link Tracer} used to propagate the trace context
+     * @param spanProperties the provider of the {@link SpanProperties} naming the executor beans to wrap
+     */
+    public TracingExecutorBeanPostProcessor(ObjectProvider<Tracer> tracer,
+                                            ObjectProvider<SpanProperties> spanProperties) {
+        this.tracer = tracer;
+        this.spanProperties = spanProperties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // Checking the type first keeps the properties from being resolved while post processing the properties bean
+        if (!(bean instanceof Executor)
+                || bean instanceof TracingExecutor
+                || !spanProperties.getObject().getTracedExecutors().contains(beanName)) {
+            return bean;
+        }
+        if (bean instanceof ScheduledExecutorService || bean instanceof TaskExecutor) {
+            throw new BeanInitializationException(
+                    "The executor bean [" + beanName + "] can not propagate the trace context, "
+                            + "as scheduled executors and Spring task executors are not wrapped"
+            );
+        }
+        if (bean instanceof ExecutorService) {
+            return new TracingExecutorService((ExecutorService) bean, tracer.getObject());
+        }
+        return new TracingExecutor((Executor) bean, tracer.getObject());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.opentracing.Tracer;
+import org.axonframework.extensions.tracing.ElementTracingPolicy;
+import org.axonframework.extensions.tracing.HandlerInterceptorTimer;
+import org.axonframework.extensions.tracing.MessageTagBuilderService;
+import org.axonframework.extensions.tracing.SubscriptionQuerySpanTracker;
+import org.axonframework.extensions.tracing.TracingMessageFilter;
+import org.axonframework.extensions.tracing.TracingQueryBus;
+import org.axonframework.extensions.tracing.TracingQueryUpdateEmitter;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * A {@link BeanPostProcessor} wrapping the {@link QueryBus} bean in a {@link TracingQueryBus} and the {@link
+ * QueryUpdateEmitter} bean in a {@link TracingQueryUpdateEmitter}. Only the bus and emitter used by Axon are wrapped:
+ * the primary bean of either type, or the only one if there is a single bean of that type. Other buses, like the local
+ * segment of a distributed query bus, are left as is, as these handle queries which have been traced on dispatch
+ * already.
+ *
+ * @since 4.12.1
+ */
+public class TracingQueryBusBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final ObjectProvider<Tracer> tracer;
+    private final ObjectProvider<MessageTagBuilderService> messageTagBuilderService;
+    private final ObjectProvider<TracingMessageFilter> messageFilter;
+    private final ObjectProvider<ElementTracingPolicy> elementTracingPolicy;
+    private final ObjectProvider<SubscriptionQuerySpanTracker> subscriptionQuerySpanTracker;
+    private final ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Initialize a {@link TracingQueryBusBeanPostProcessor} wrapping the {@link QueryBus} and {@link
+     * QueryUpdateEmitter} beans with the given providers. These are only resolved once a bean is wrapped.
+     *
+     * @param tracer                       the provider of the {@link Tracer} used to start the spans
+     * @param messageTagBuilderService     the provider of the {@link MessageTagBuilderService} tagging the spans
+     * @param messageFilter                the provider of the {@link TracingMessageFilter} deciding which queries
+     *                                     and updates are traced
+     * @param elementTracingPolicy         the provider of the {@link ElementTracingPolicy} describing how streamed
+     *                                     elements are recorded
+     * @param subscriptionQuerySpanTracker the provider of the {@link SubscriptionQuerySpanTracker} keeping track of
+     *                                     the open subscription query spans
+     * @param handlerInterceptorTimer      the provider of the optional {@link HandlerInterceptorTimer} timing the
+     *                                     registered handler interceptors
+     */
+    public TracingQueryBusBeanPostProcessor(ObjectProvider<Tracer> tracer,
+                                            ObjectProvider<MessageTagBuilderService> messageTagBuilderService,
+                                            ObjectProvider<TracingMessageFilter> messageFilter,
+                                            ObjectProvider<ElementTracingPolicy> elementTracingPolicy,
+                                            ObjectProvider<SubscriptionQuerySpanTracker> subscriptionQuerySpanTracker,
+                                            ObjectProvider<HandlerInterceptorTimer> handlerInterceptorTimer) {
+        this.tracer = tracer;
+        this.messageTagBuilderService = messageTagBuilderService;
+        this.messageFilter = messageFilter;
+        this.elementTracingPolicy = elementTracingPolicy;
+        this.subscriptionQuerySpanTracker = subscriptionQuerySpanTracker;
+        this.handlerInterceptorTimer = handlerInterceptorTimer;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof QueryBus && !(bean instanceof TracingQueryBus) && isAxonBean(beanName, QueryBus.class)) {
+            TracingQueryBus.Builder builder =
+                    TracingQueryBus.builder()
+                                   .tracer(tracer.getObject())
+                                   .delegateQueryBus((QueryBus) bean)
+                                   .messageTagBuilderService(messageTagBuilderService.getObject())
+                                   .messageFilter(messageFilter.getObject())
+                                   .elementTracingPolicy(elementTracingPolicy.getObject())
+                                   .subscriptionQuerySpanTracker(subscriptionQuerySpanTracker.getObject());
+            handlerInterceptorTimer.ifAvailable(builder::handlerInterceptorTimer);
+            return builder.build();
+        }
+        if (bean instanceof QueryUpdateEmitter
+                && !(bean instanceof TracingQueryUpdateEmitter)
+                && isAxonBean(beanName, QueryUpdateEmitter.class)) {
+            return TracingQueryUpdateEmitter.builder()
+                                            .tracer(tracer.getObject())
+                                            .delegateQueryUpdateEmitter((QueryUpdateEmitter) bean)
+                                            .messageTagBuilderService(messageTagBuilderService.getObject())
+                                            .messageFilter(messageFilter.getObject())
+                                            .build();
+        }
+        return bean;
+    }
+
+    private boolean isAxonBean(String beanName, Class<?> beanType) {
+        if (beanFactory == null) {
+            return true;
+        }
+        if (beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary()) {
+            return true;
+        }
+        return beanFactory.getBeanNamesForType(beanType, true, false).length == 1;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentracing.Tracer;
+import org.axonframework.extensions.tracing.TracingSagaStore;
+import org.axonframework.modelling.saga.repository.SagaStore;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link SagaStore} beans in a {@link TracingSagaStore}.
+ *
+ * @since 4.12.1
+ */
+public class TracingSagaStoreBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<Tracer> tracer;
+    private final ObjectProvider<SpanProperties> spanProperties;
+    private final OptionalMeterRegistry meterRegistry;
+
+    /**
+     * Initialize a {@link TracingSagaStoreBeanPostProcessor} wrapping {@link SagaStore} beans with the given
+     * providers. These are only resolved once a saga store is wrapped.
+     *
+     * @param tracer         the provider of the {@link Tracer} whose active span the saga store operations are logged
+     *                       on
+     * @param spanProperties the provider of the {@link SpanProperties} defining whether association values are logged
+     * @param beanFactory    the {@link BeanFactory} resolving the optional {@link MeterRegistry} the saga store meters
+     *                       are registered with, when Micrometer is on the classpath
+     */
+    public TracingSagaStoreBeanPostProcessor(ObjectProvider<Tracer> tracer,
+                                             ObjectProvider<SpanProperties> spanProperties,
+                                             BeanFactory beanFactory) {
+        this.tracer = tracer;
+        this.spanProperties = spanProperties;
+        this.meterRegistry = new OptionalMeterRegistry(beanFactory);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof SagaStore) || bean instanceof TracingSagaStore) {
+            return bean;
+        }
+        //noinspection unchecked
+        TracingSagaStore.Builder<Object> builder = TracingSagaStore.builder()
+                                                                   .tracer(tracer.getObject())
+                                                                   .delegateSagaStore((SagaStore<Object>) bean)
+                                                                   .logAssociationValues(
+                                                                           spanProperties.getObject()
+                                                                                         .isLogSagaAssociationValues()
+                                                                   );
+        meterRegistry.ifAvailable(registry -> builder.meterRegistry((MeterRegistry) registry));
+        return builder.build();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentracing.Tracer;
+import org.axonframework.extensions.tracing.TracingSerializer;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link Serializer} beans in a {@link TracingSerializer}. This covers the
+ * {@code serializer}, {@code messageSerializer} and {@code eventSerializer} beans of Axon's auto-configuration. When
+ * these share a single serializer instance, it is wrapped only once.
+ *
+ * @since 4.12.1
+ */
+public class TracingSerializerBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<Tracer> tracer;
+    private final OptionalMeterRegistry meterRegistry;
+
+    /**
+     * Initialize a {@link TracingSerializerBeanPostProcessor} wrapping {@link Serializer} beans with the given
+     * providers. These are only resolved once a serializer is wrapped.
+     *
+     * @param tracer      the provider of the {@link Tracer} whose active span the serializer operations are logged on
+     * @param beanFactory the {@link BeanFactory} resolving the optional {@link MeterRegistry} the serializer meters are
+     *                    registered with, when Micrometer is on the classpath
+     */
+    public TracingSerializerBeanPostProcessor(ObjectProvider<Tracer> tracer,
+                                              BeanFactory beanFactory) {
+        this.tracer = tracer;
+        this.meterRegistry = new OptionalMeterRegistry(beanFactory);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Serializer) || bean instanceof TracingSerializer) {
+            return bean;
+        }
+        TracingSerializer.Builder builder = TracingSerializer.builder()
+                                                             .tracer(tracer.getObject())
+                                                             .delegateSerializer((Serializer) bean);
+        meterRegistry.ifAvailable(registry -> builder.meterRegistry((MeterRegistry) registry));
+        return builder.build();
+    }
+}
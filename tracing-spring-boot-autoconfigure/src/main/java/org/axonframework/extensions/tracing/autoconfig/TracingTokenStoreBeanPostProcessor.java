@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing.autoconfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentracing.Tracer;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.extensions.tracing.TracingTokenStore;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A {@link BeanPostProcessor} wrapping {@link TokenStore} beans in a {@link TracingTokenStore}.
+ *
+ * @since 4.12.1
+ */
+public class TracingTokenStoreBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<Tracer> tracer;
+    private final OptionalMeterRegistry meterRegistry;
+
+    /**
+     * Initialize a {@link TracingTokenStoreBeanPostProcessor} wrapping {@link TokenStore} beans with the given
+     * providers. These are only resolved once a token store is wrapped.
+     *
+     * @param tracer      the provider of the {@link Tracer} used to start the token store spans
+     * @param beanFactory the {@link BeanFactory} resolving the optional {@link MeterRegistry} the token store meters
+     *                    are registered with, when Micrometer is on the classpath
+     */
+    public TracingTokenStoreBeanPostProcessor(ObjectProvider<Tracer> tracer,
+                                              BeanFactory beanFactory) {
+        this.tracer = tracer;
+        this.meterRegistry = new OptionalMeterRegistry(beanFactory);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof TokenStore) || bean instanceof TracingTokenStore) {
+            return bean;
+        }
+        TracingTokenStore.Builder builder = TracingTokenStore.builder()
+                                                             .tracer(tracer.getObject())
+                                                             .delegateTokenStore((TokenStore) bean);
+        meterRegistry.ifAvailable(registry -> builder.meterRegistry((MeterRegistry) registry));
+        return builder.build();
+    }
+}
@@ -16,15 +16,52 @@
 
 package org.axonframework.extensions.tracing.autoconfig;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.opentracing.Tracer;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandMessage;
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.RetryScheduler;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.deadline.SimpleDeadlineManager;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.inmemory.InMemoryTokenStore;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.extensions.reactor.commandhandling.gateway.ReactorCommandGateway;
+import org.axonframework.extensions.reactor.queryhandling.gateway.ReactorQueryGateway;
+import org.axonframework.extensions.tracing.ElementTracingPolicy;
+import org.axonframework.extensions.tracing.HandlerInterceptorTimer;
 import org.axonframework.extensions.tracing.MessageTagBuilderService;
 import org.axonframework.extensions.tracing.OpenTraceDispatchInterceptor;
 import org.axonframework.extensions.tracing.OpenTraceHandlerInterceptor;
+import org.axonframework.extensions.tracing.SubscriptionQuerySpanTracker;
+import org.axonframework.extensions.tracing.TracingCommandBus;
 import org.axonframework.extensions.tracing.TracingCommandGateway;
+import org.axonframework.extensions.tracing.TracingDeadlineManager;
+import org.axonframework.extensions.tracing.TracingEventStorageEngine;
+import org.axonframework.extensions.tracing.TracingExecutorService;
 import org.axonframework.extensions.tracing.TracingProvider;
+import org.axonframework.extensions.tracing.TracingQueryBus;
 import org.axonframework.extensions.tracing.TracingQueryGateway;
+import org.axonframework.extensions.tracing.TracingQueryUpdateEmitter;
+import org.axonframework.extensions.tracing.TracingReactorCommandGateway;
+import org.axonframework.extensions.tracing.TracingReactorQueryGateway;
+import org.axonframework.extensions.tracing.TracingSagaStore;
+import org.axonframework.extensions.tracing.TracingSerializer;
+import org.axonframework.extensions.tracing.TracingTokenStore;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.modelling.saga.repository.SagaStore;
+import org.axonframework.modelling.saga.repository.inmemory.InMemorySagaStore;
+import org.axonframework.queryhandling.QueryBus;
 import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.xml.XStreamSerializer;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.*;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -33,10 +70,21 @@ import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.jmx.JmxAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.test.context.FilteredClassLoader;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Test class validating the auto-configuration of distributed tracing specific infrastructure components.
@@ -57,6 +105,8 @@ class AxonAutoConfigurationWithTracingTest {
         contextRunner.run(context -> {
             assertInstanceOf(TracingCommandGateway.class, context.getBean(CommandGateway.class));
             assertInstanceOf(TracingQueryGateway.class, context.getBean(QueryGateway.class));
+            assertInstanceOf(TracingReactorCommandGateway.class, context.getBean(ReactorCommandGateway.class));
+            assertInstanceOf(TracingReactorQueryGateway.class, context.getBean(ReactorQueryGateway.class));
             assertNotNull(context.getBean(Tracer.class));
             assertNotNull(context.getBean(OpenTraceDispatchInterceptor.class));
             assertNotNull(context.getBean(OpenTraceHandlerInterceptor.class));
@@ -65,6 +115,276 @@ class AxonAutoConfigurationWithTracingTest {
         });
     }
 
+    @Test
+    void testStreamElementsAreAggregatedThroughProperties() {
+        contextRunner.withPropertyValues(
+                "axon.extension.tracing.span.aggregateStreamElements=true",
+                "axon.extension.tracing.span.streamElementSampleRate=100"
+        ).run(context -> {
+            ElementTracingPolicy result = context.getBean(ElementTracingPolicy.class);
+            assertTrue(result.isAggregated());
+            assertEquals(100, result.getSampleRate());
+        });
+        contextRunner.run(context -> assertFalse(context.getBean(ElementTracingPolicy.class).isAggregated()));
+    }
+
+    @Test
+    void testSubscriptionQueryMaxSpanDurationIsConfigurable() {
+        contextRunner.withPropertyValues("axon.extension.tracing.span.subscriptionQueryMaxSpanDuration=5m")
+                     .run(context -> {
+                         assertNotNull(context.getBean(SubscriptionQuerySpanTracker.class));
+                         assertEquals(Duration.ofMinutes(5),
+                                      context.getBean(SpanProperties.class).getSubscriptionQueryMaxSpanDuration());
+                     });
+    }
+
+    @Test
+    void testNamedExecutorServiceBeansPropagateTheTraceContext() {
+        contextRunner.withPropertyValues("axon.extension.tracing.span.propagateToExecutors=true",
+                                         "axon.extension.tracing.span.tracedExecutors=commandExecutor")
+                     .withBean("commandExecutor", ExecutorService.class, Executors::newSingleThreadExecutor)
+                     .withBean("otherExecutor", ThreadPoolExecutor.class,
+                               () -> (ThreadPoolExecutor) Executors.newFixedThreadPool(1))
+                     .run(context -> {
+                         assertInstanceOf(TracingExecutorService.class, context.getBean("commandExecutor"));
+                         assertInstanceOf(ThreadPoolExecutor.class, context.getBean("otherExecutor"));
+                     });
+        contextRunner.withPropertyValues("axon.extension.tracing.span.tracedExecutors=commandExecutor")
+                     .withBean("commandExecutor", ExecutorService.class, Executors::newSingleThreadExecutor)
+                     .run(context -> assertFalse(
+                             context.getBean("commandExecutor") instanceof TracingExecutorService
+                     ));
+    }
+
+    @Test
+    void testNamingAScheduledExecutorBeanFails() {
+        contextRunner.withPropertyValues("axon.extension.tracing.span.propagateToExecutors=true",
+                                         "axon.extension.tracing.span.tracedExecutors=scheduler")
+                     .withBean("scheduler", ScheduledExecutorService.class, Executors::newSingleThreadScheduledExecutor)
+                     .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void testQueriesAreCachedPerQueryNameThroughProperties() {
+        contextRunner.withPropertyValues("axon.extension.tracing.span.cachedQueries=cachedQuery")
+                     .run(context -> {
+                         AtomicInteger handled = new AtomicInteger();
+                         context.getBean(QueryBus.class).subscribe("cachedQuery", String.class, query -> {
+                             handled.incrementAndGet();
+                             return "result";
+                         });
+                         QueryGateway queryGateway = context.getBean(QueryGateway.class);
+
+                         assertEquals("result", queryGateway.query("cachedQuery", "payload", String.class).get());
+                         assertEquals("result", queryGateway.query("cachedQuery", "payload", String.class).get());
+                         assertEquals(1, handled.get());
+                     });
+    }
+
+    @Test
+    void testCommandBusIsTracedInsteadOfGatewaysThroughProperties() {
+        contextRunner.withPropertyValues("axon.extension.tracing.span.traceCommandBus=true")
+                     .run(context -> {
+                         assertInstanceOf(TracingCommandBus.class, context.getBean(CommandBus.class));
+                         assertFalse(context.getBean(CommandGateway.class) instanceof TracingCommandGateway);
+                         assertFalse(context.getBean(ReactorCommandGateway.class)
+                                             instanceof TracingReactorCommandGateway);
+
+                         context.getBean(CommandBus.class).subscribe(String.class.getName(), command -> "handled");
+                         assertEquals("handled", context.getBean(CommandGateway.class).sendAndWait("command"));
+                     });
+        contextRunner.run(context -> assertFalse(context.getBean(CommandBus.class) instanceof TracingCommandBus));
+    }
+
+    @Test
+    void testRetrySchedulerIsUsedByTracingCommandGateway() {
+        AtomicInteger scheduledRetries = new AtomicInteger();
+        RetryScheduler retryScheduler = (command, failure, failures, dispatch) -> {
+            scheduledRetries.incrementAndGet();
+            return false;
+        };
+        contextRunner.withBean(RetryScheduler.class, () -> retryScheduler)
+                     .run(context -> {
+                         context.getBean(CommandBus.class).subscribe(String.class.getName(), command -> {
+                             throw new IllegalStateException("busy");
+                         });
+                         CommandGateway commandGateway = context.getBean(CommandGateway.class);
+                         assertInstanceOf(TracingCommandGateway.class, commandGateway);
+                         assertThrows(IllegalStateException.class, () -> commandGateway.sendAndWait("command"));
+                         assertEquals(1, scheduledRetries.get());
+                     });
+    }
+
+    @Test
+    void testHandlerInterceptorsAreTimedThroughProperties() {
+        contextRunner.withBean(SimpleMeterRegistry.class)
+                     .withPropertyValues("axon.extension.tracing.span.traceCommandBus=true",
+                                         "axon.extension.tracing.span.timeHandlerInterceptors=true")
+                     .run(context -> {
+                         CommandBus commandBus = context.getBean(CommandBus.class);
+                         commandBus.subscribe(String.class.getName(), command -> "handled");
+                         commandBus.registerHandlerInterceptor(new AuditingInterceptor());
+                         assertEquals("handled", context.getBean(CommandGateway.class).sendAndWait("command"));
+
+                         assertEquals(1, context.getBean(SimpleMeterRegistry.class)
+                                                .get(HandlerInterceptorTimer.INTERCEPTOR_TIMER)
+                                                .tag("interceptor", "AuditingInterceptor")
+                                                .timer()
+                                                .count());
+                     });
+        contextRunner.withPropertyValues("axon.extension.tracing.span.traceCommandBus=true")
+                     .run(context -> assertTrue(context.getBeansOfType(HandlerInterceptorTimer.class).isEmpty()));
+    }
+
+    @Test
+    void testTracingHandlerInterceptorIsTimedWithoutTracedBuses() {
+        contextRunner.withBean(SimpleMeterRegistry.class)
+                     .withPropertyValues("axon.extension.tracing.span.timeHandlerInterceptors=true")
+                     .run(context -> {
+                         context.getBean(CommandBus.class).subscribe(String.class.getName(), command -> "handled");
+                         assertEquals("handled", context.getBean(CommandGateway.class).sendAndWait("command"));
+
+                         assertEquals(1, context.getBean(SimpleMeterRegistry.class)
+                                                .get(HandlerInterceptorTimer.INTERCEPTOR_TIMER)
+                                                .tag("interceptor", "OpenTraceHandlerInterceptor")
+                                                .timer()
+                                                .count());
+                     });
+    }
+
+    @Test
+    void testMetersAreSkippedWhenMicrometerIsAbsent() {
+        contextRunner.withClassLoader(new FilteredClassLoader("io.micrometer"))
+                     .withBean(SimpleMeterRegistry.class)
+                     .withBean(TokenStore.class, InMemoryTokenStore::new)
+                     .withPropertyValues("axon.extension.tracing.span.traceCommandBus=true",
+                                         "axon.extension.tracing.span.timeHandlerInterceptors=true",
+                                         "axon.extension.tracing.span.traceSerializers=true",
+                                         "axon.extension.tracing.span.traceTokenStore=true")
+                     .run(context -> {
+                         assertTrue(context.getBeansOfType(HandlerInterceptorTimer.class).isEmpty());
+                         assertFalse(context.getBean("serializer") instanceof TracingSerializer);
+
+                         TokenStore tokenStore = context.getBean(TokenStore.class);
+                         assertInstanceOf(TracingTokenStore.class, tokenStore);
+                         tokenStore.initializeTokenSegments("processor", 1);
+                         assertNull(tokenStore.fetchToken("processor", 0));
+
+                         assertTrue(context.getBean(SimpleMeterRegistry.class).getMeters().isEmpty());
+                     });
+    }
+
+    @Test
+    void testQueryBusIsTracedInsteadOfGatewaysThroughProperties() {
+        contextRunner.withPropertyValues("axon.extension.tracing.span.traceQueryBus=true")
+                     .run(context -> {
+                         assertInstanceOf(TracingQueryBus.class, context.getBean(QueryBus.class));
+                         assertInstanceOf(TracingQueryUpdateEmitter.class, context.getBean(QueryUpdateEmitter.class));
+                         // The bus reuses the traced emitter bean rather than wrapping it a second time
+                         assertSame(context.getBean(QueryUpdateEmitter.class),
+                                    context.getBean(QueryBus.class).queryUpdateEmitter());
+                         assertFalse(context.getBean(QueryGateway.class) instanceof TracingQueryGateway);
+                         assertFalse(context.getBean(ReactorQueryGateway.class) instanceof TracingReactorQueryGateway);
+
+                         context.getBean(QueryBus.class).subscribe("query", String.class, query -> "result");
+                         assertEquals("result",
+                                      context.getBean(QueryGateway.class).query("query", "payload", String.class).get());
+                     });
+        contextRunner.run(context -> assertFalse(context.getBean(QueryBus.class) instanceof TracingQueryBus));
+    }
+
+    @Test
+    void testEventStorageEngineIsTracedThroughProperties() {
+        contextRunner.withBean(EventStorageEngine.class, InMemoryEventStorageEngine::new)
+                     .withPropertyValues("axon.extension.tracing.span.traceEventStore=true")
+                     .run(context -> {
+                         EventStorageEngine storageEngine = context.getBean(EventStorageEngine.class);
+                         assertInstanceOf(TracingEventStorageEngine.class, storageEngine);
+
+                         storageEngine.appendEvents(GenericEventMessage.asEventMessage("event"));
+                         assertEquals(1, storageEngine.readEvents(null, false).count());
+                     });
+        contextRunner.withBean(EventStorageEngine.class, InMemoryEventStorageEngine::new)
+                     .run(context -> assertFalse(
+                             context.getBean(EventStorageEngine.class) instanceof TracingEventStorageEngine
+                     ));
+    }
+
+    @Test
+    void testEventSizesAreOnlyMeasuredThroughProperties() {
+        Serializer eventSerializer = spy(XStreamSerializer.defaultSerializer());
+        contextRunner.withBean(EventStorageEngine.class, InMemoryEventStorageEngine::new)
+                     .withBean("eventSerializer", Serializer.class, () -> eventSerializer)
+                     .withPropertyValues("axon.extension.tracing.span.traceEventStore=true")
+                     .run(context -> {
+                         context.getBean(EventStorageEngine.class)
+                                .appendEvents(GenericEventMessage.asEventMessage("event"));
+                         verify(eventSerializer, never()).serialize(any(), any());
+                     });
+        contextRunner.withBean(EventStorageEngine.class, InMemoryEventStorageEngine::new)
+                     .withBean("eventSerializer", Serializer.class, () -> eventSerializer)
+                     .withPropertyValues("axon.extension.tracing.span.traceEventStore=true",
+                                         "axon.extension.tracing.span.measureEventStoreSizes=true")
+                     .run(context -> {
+                         context.getBean(EventStorageEngine.class)
+                                .appendEvents(GenericEventMessage.asEventMessage("event"));
+                         verify(eventSerializer, atLeastOnce()).serialize(any(), any());
+                     });
+    }
+
+    @Test
+    void testSerializersAreTracedThroughProperties() {
+        contextRunner.withPropertyValues("axon.extension.tracing.span.traceSerializers=true")
+                     .run(context -> {
+                         Serializer serializer = context.getBean("serializer", Serializer.class);
+                         assertInstanceOf(TracingSerializer.class, serializer);
+                         assertInstanceOf(TracingSerializer.class, context.getBean("eventSerializer"));
+                         assertInstanceOf(TracingSerializer.class, context.getBean("messageSerializer"));
+
+                         SerializedObject<byte[]> serialized = serializer.serialize("payload", byte[].class);
+                         assertEquals("payload", serializer.deserialize(serialized));
+                     });
+        contextRunner.run(context -> assertFalse(context.getBean("serializer") instanceof TracingSerializer));
+    }
+
+    @Test
+    void testTokenStoreIsTracedThroughProperties() {
+        contextRunner.withBean(TokenStore.class, InMemoryTokenStore::new)
+                     .withPropertyValues("axon.extension.tracing.span.traceTokenStore=true")
+                     .run(context -> {
+                         TokenStore tokenStore = context.getBean(TokenStore.class);
+                         assertInstanceOf(TracingTokenStore.class, tokenStore);
+
+                         tokenStore.initializeTokenSegments("processor", 1);
+                         assertNull(tokenStore.fetchToken("processor", 0));
+                     });
+        contextRunner.withBean(TokenStore.class, InMemoryTokenStore::new)
+                     .run(context -> assertFalse(context.getBean(TokenStore.class) instanceof TracingTokenStore));
+    }
+
+    @Test
+    void testSagaStoreIsTracedThroughProperties() {
+        contextRunner.withBean(SagaStore.class, InMemorySagaStore::new)
+                     .withPropertyValues("axon.extension.tracing.span.traceSagaStore=true")
+                     .run(context -> assertInstanceOf(TracingSagaStore.class, context.getBean(SagaStore.class)));
+        contextRunner.withBean(SagaStore.class, InMemorySagaStore::new)
+                     .run(context -> assertFalse(context.getBean(SagaStore.class) instanceof TracingSagaStore));
+    }
+
+    @Test
+    void testDeadlineManagerIsTracedThroughProperties() {
+        Supplier<DeadlineManager> deadlineManager =
+                () -> SimpleDeadlineManager.builder().scopeAwareProvider(scope -> Stream.empty()).build();
+        contextRunner.withBean(DeadlineManager.class, deadlineManager)
+                     .withPropertyValues("axon.extension.tracing.span.traceDeadlineManager=true")
+                     .run(context -> assertInstanceOf(TracingDeadlineManager.class,
+                                                      context.getBean(DeadlineManager.class)));
+        contextRunner.withBean(DeadlineManager.class, deadlineManager)
+                     .run(context -> assertFalse(
+                             context.getBean(DeadlineManager.class) instanceof TracingDeadlineManager
+                     ));
+    }
+
     @EnableAutoConfiguration(exclude = {
             JmxAutoConfiguration.class,
             WebClientAutoConfiguration.class,
@@ -74,4 +394,13 @@ class AxonAutoConfigurationWithTracingTest {
     public static class Config {
 
     }
-}
\ No newline at end of file
+
+    private static class AuditingInterceptor implements MessageHandlerInterceptor<CommandMessage<?>> {
+
+        @Override
+        public Object handle(UnitOfWork<? extends CommandMessage<?>> unitOfWork,
+                             InterceptorChain interceptorChain) throws Exception {
+            return interceptorChain.proceed();
+        }
+    }
+}
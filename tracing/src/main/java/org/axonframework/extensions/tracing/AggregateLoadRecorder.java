@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+/**
+ * Collects what happens while a {@link TracingRepository} loads an aggregate: whether a snapshot was found, how many
+ * events were replayed and how long it took to obtain the aggregate's lock. The recorder of the load in progress is
+ * bound to the loading thread, so the {@link TracingEventStorageEngine} and {@link TracingLockFactory} can report to it
+ * without knowing about the repository.
+ * <p>
+ * An aggregate is loaded by a single thread, so this recorder need not be thread-safe.
+ *
+ * @since 4.12.1
+ */
+final class AggregateLoadRecorder {
+
+    private static final ThreadLocal<AggregateLoadRecorder> CURRENT = new ThreadLocal<>();
+
+    private final AggregateLoadRecorder previous;
+
+    private Boolean snapshotFound;
+    private long eventsReplayed;
+    private long lockWaitNanos = -1;
+
+    private AggregateLoadRecorder(AggregateLoadRecorder previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Starts recording an aggregate load on the current thread. The returned recorder should be {@link #stop()
+     * stopped} by the same thread once the aggregate has been loaded.
+     *
+     * @return the recorder of the aggregate load started on the current thread
+     */
+    static AggregateLoadRecorder start() {
+        AggregateLoadRecorder recorder = new AggregateLoadRecorder(CURRENT.get());
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * Returns the recorder of the aggregate load in progress on the current thread, if any.
+     *
+     * @return the recorder of the aggregate load in progress on the current thread, or {@code null} if there is none
+     */
+    static AggregateLoadRecorder current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops recording on the current thread, restoring the recorder of an enclosing aggregate load, if any.
+     */
+    void stop() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    void snapshotRead(boolean found) {
+        this.snapshotFound = found;
+    }
+
+    void eventReplayed() {
+        eventsReplayed++;
+    }
+
+    void lockObtained(long waitNanos) {
+        lockWaitNanos = Math.max(lockWaitNanos, 0) + waitNanos;
+    }
+
+    /**
+     * Returns whether a snapshot was found, or {@code null} if no snapshot was read.
+     *
+     * @return whether a snapshot was found, or {@code null} if no snapshot was read
+     */
+    Boolean snapshotFound() {
+        return snapshotFound;
+    }
+
+    long eventsReplayed() {
+        return eventsReplayed;
+    }
+
+    /**
+     * Returns the time spent obtaining the aggregate's lock in nanoseconds, or a negative value if no lock was
+     * obtained through a {@link TracingLockFactory}.
+     *
+     * @return the time spent obtaining the aggregate's lock in nanoseconds, or a negative value if unknown
+     */
+    long lockWaitNanos() {
+        return lockWaitNanos;
+    }
+}
@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.responsetypes.ResponseType;
+import org.axonframework.queryhandling.DefaultQueryGateway;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.QueryMessage;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.axonframework.queryhandling.SubscriptionQueryBackpressure;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.reactivestreams.Publisher;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+
+/**
+ * A {@link QueryGateway} caching the results of point queries, delegating all other queries to another QueryGateway.
+ * Only queries with one of the configured query names are cached, keyed by their query name, payload and response
+ * type. Cached results are evicted when they are older than the configured time to live, or when the cache exceeds its
+ * maximum size, evicting the least recently used result first.
+ * <p>
+ * Whether a query was answered from the cache is recorded on the {@link Span} active when the query is dispatched,
+ * which is the {@code query_*} span when this gateway is the delegate of a {@link TracingQueryGateway}. The span is
+ * tagged with {@link #CACHE_HIT_TAG} and receives a {@code cache.hit} or {@code cache.miss} event. The hits and misses
+ * are counted per query name through the {@link #HITS_COUNTER} and {@link #MISSES_COUNTER} counters, from which the hit
+ * rate follows.
+ * <p>
+ * Cached results go stale when the underlying read model changes. Register the {@link
+ * #updateInvalidationInterceptor()} with the {@link QueryUpdateEmitter} to invalidate the cached results of which the
+ * response type matches the payload of an emitted subscription query update, or invalidate results explicitly through
+ * {@link #invalidate(String)} and {@link #invalidateAll()}. Note that a cached result is shared by every query it is
+ * returned for, so it should not be mutated.
+ *
+ * @since 4.12.1
+ */
+public class CachingQueryGateway implements QueryGateway {
+
+    /**
+     * The tag set on the active {@link Span}, marking whether the query was answered from the cache.
+     */
+    public static final String CACHE_HIT_TAG = "cache.hit";
+    /**
+     * The name of the counter of queries answered from the cache, tagged with the query name.
+     */
+    public static final String HITS_COUNTER = "axon.tracing.query-cache.hits";
+    /**
+     * The name of the counter of cacheable queries dispatched to the delegate, tagged with the query name.
+     */
+    public static final String MISSES_COUNTER = "axon.tracing.query-cache.misses";
+    /**
+     * The name of the gauge reporting the number of cached results.
+     */
+    public static final String SIZE_GAUGE = "axon.tracing.query-cache.size";
+
+    private final Tracer tracer;
+    private final QueryGateway delegate;
+    private final Set<String> cachedQueryNames;
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<CacheKey, CacheEntry> cache;
+    private final ConcurrentMap<String, Counter> hitCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> missCounters = new ConcurrentHashMap<>();
+    // Results being queried, marked by invalidations matching them so they are not cached once they arrive
+    private final Set<PendingResult> pendingResults = new HashSet<>();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link CachingQueryGateway}.
+     * <p>
+     * Either a {@link QueryBus} or {@link QueryGateway} can be provided to be used to delegate the dispatching of
+     * queries to. If a QueryBus is provided directly, it will be used to instantiate a {@link DefaultQueryGateway}. A
+     * registered QueryGateway will always take precedence over a configured QueryBus.
+     * <p>
+     * The maximum size defaults to {@code 1000} results and the time to live to one minute. No queries are cached and
+     * no {@link MeterRegistry} is configured by default, in which case no meters are recorded. The {@link Tracer} and
+     * delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link CachingQueryGateway}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link CachingQueryGateway} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link QueryGateway} are not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if they are.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link CachingQueryGateway} instance
+     */
+    protected CachingQueryGateway(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.buildDelegateQueryGateway();
+        this.cachedQueryNames = new HashSet<>(builder.cachedQueryNames);
+        this.maximumSize = builder.maximumSize;
+        this.timeToLiveNanos = builder.timeToLive.toNanos();
+        this.meterRegistry = builder.meterRegistry;
+        this.cache = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+        if (meterRegistry != null) {
+            Gauge.builder(SIZE_GAUGE, this, CachingQueryGateway::size)
+                 .description("The number of cached query results")
+                 .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public <R, Q> CompletableFuture<R> query(String queryName, Q query, ResponseType<R> responseType) {
+        if (!cachedQueryNames.contains(queryName)) {
+            return delegate.query(queryName, query, responseType);
+        }
+        Object payload = query instanceof Message ? ((Message<?>) query).getPayload() : query;
+        CacheKey key = new CacheKey(queryName, payload, responseType);
+        CacheEntry cached = get(key);
+        Span span = tracer.activeSpan();
+        if (cached != null) {
+            recordLookup(span, true);
+            count(hitCounters, HITS_COUNTER, queryName);
+            //noinspection unchecked
+            return CompletableFuture.completedFuture((R) cached.result);
+        }
+        recordLookup(span, false);
+        count(missCounters, MISSES_COUNTER, queryName);
+        PendingResult pending = new PendingResult(key);
+        synchronized (cache) {
+            pendingResults.add(pending);
+        }
+        return delegate.query(queryName, query, responseType)
+                       .whenComplete((result, exception) -> complete(pending, result, exception));
+    }
+
+    @Override
+    public <R, Q> Publisher<R> streamingQuery(String queryName, Q query, Class<R> responseType) {
+        return delegate.streamingQuery(queryName, query, responseType);
+    }
+
+    @Override
+    public <R, Q> Stream<R> scatterGather(String queryName,
+                                          Q query,
+                                          ResponseType<R> responseType,
+                                          long timeout,
+                                          TimeUnit timeUnit) {
+        return delegate.scatterGather(queryName, query, responseType, timeout, timeUnit);
+    }
+
+    @Override
+    public <Q, I, U> SubscriptionQueryResult<I, U> subscriptionQuery(String queryName,
+                                                                     Q query,
+                                                                     ResponseType<I> initialResponseType,
+                                                                     ResponseType<U> updateResponseType,
+                                                                     int updateBufferSize) {
+        return delegate.subscriptionQuery(queryName, query, initialResponseType, updateResponseType, updateBufferSize);
+    }
+
+    @Override
+    @Deprecated
+    public <Q, I, U> SubscriptionQueryResult<I, U> subscriptionQuery(String queryName,
+                                                                     Q query,
+                                                                     ResponseType<I> initialResponseType,
+                                                                     ResponseType<U> updateResponseType,
+                                                                     SubscriptionQueryBackpressure backpressure,
+                                                                     int updateBufferSize) {
+        return subscriptionQuery(queryName, query, initialResponseType, updateResponseType, updateBufferSize);
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            MessageDispatchInterceptor<? super QueryMessage<?, ?>> dispatchInterceptor) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    /**
+     * Returns a {@link MessageDispatchInterceptor} invalidating the cached results of which the expected response type
+     * matches the payload type of a dispatched {@link SubscriptionQueryUpdateMessage}. Register it with the {@link
+     * QueryUpdateEmitter} emitting the updates of the read models which are cached.
+     *
+     * @return a {@link MessageDispatchInterceptor} invalidating cached results on subscription query updates
+     */
+    public MessageDispatchInterceptor<SubscriptionQueryUpdateMessage<?>> updateInvalidationInterceptor() {
+        return messages -> (index, message) -> {
+            invalidate(message.getPayloadType());
+            return message;
+        };
+    }
+
+    /**
+     * Invalidates all cached results of queries with the given {@code queryName}.
+     *
+     * @param queryName the name of the queries to invalidate the cached results of
+     */
+    public void invalidate(String queryName) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.queryName.equals(queryName));
+            pendingResults.stream()
+                          .filter(pending -> pending.key.queryName.equals(queryName))
+                          .forEach(pending -> pending.invalidated = true);
+        }
+    }
+
+    /**
+     * Invalidates all cached results.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+            pendingResults.forEach(pending -> pending.invalidated = true);
+        }
+    }
+
+    /**
+     * Returns the number of cached results, including those which expired but have not been evicted yet.
+     *
+     * @return the number of cached results
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private void invalidate(Class<?> updateType) {
+        synchronized (cache) {
+            cache.values().removeIf(entry -> isUpdatedBy(entry.expectedResponseType, updateType));
+            pendingResults.stream()
+                          .filter(pending -> isUpdatedBy(pending.expectedResponseType(), updateType))
+                          .forEach(pending -> pending.invalidated = true);
+        }
+    }
+
+    private static boolean isUpdatedBy(Class<?> expectedType, Class<?> updateType) {
+        return expectedType.isAssignableFrom(updateType) || updateType.isAssignableFrom(expectedType);
+    }
+
+    private CacheEntry get(CacheKey key) {
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && System.nanoTime() - entry.cachedAtNanos >= timeToLiveNanos) {
+                cache.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void complete(PendingResult pending, Object result, Throwable exception) {
+        CacheEntry entry = new CacheEntry(result, pending.expectedResponseType(), System.nanoTime());
+        synchronized (cache) {
+            pendingResults.remove(pending);
+            if (exception == null && !pending.invalidated) {
+                cache.put(pending.key, entry);
+            }
+        }
+    }
+
+    private void recordLookup(Span span, boolean hit) {
+        if (span != null) {
+            span.setTag(CACHE_HIT_TAG, hit);
+            span.log(hit ? "cache.hit" : "cache.miss");
+        }
+    }
+
+    private void count(ConcurrentMap<String, Counter> counters, String name, String queryName) {
+        if (meterRegistry != null) {
+            counters.computeIfAbsent(queryName, n -> Counter.builder(name).tag("queryName", n).register(meterRegistry))
+                    .increment();
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final String queryName;
+        private final Object payload;
+        private final ResponseType<?> responseType;
+        private final int hashCode;
+
+        private CacheKey(String queryName, Object payload, ResponseType<?> responseType) {
+            this.queryName = queryName;
+            this.payload = payload;
+            this.responseType = responseType;
+            this.hashCode = Objects.hash(queryName, payload, responseType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return queryName.equals(that.queryName)
+                    && Objects.equals(payload, that.payload)
+                    && Objects.equals(responseType, that.responseType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A result being queried from the delegate. Compares by identity, as the same query may be in flight more than
+     * once. The {@code invalidated} flag is guarded by the cache.
+     */
+    private static final class PendingResult {
+
+        private final CacheKey key;
+        private boolean invalidated;
+
+        private PendingResult(CacheKey key) {
+            this.key = key;
+        }
+
+        private Class<?> expectedResponseType() {
+            return key.responseType.getExpectedResponseType();
+        }
+    }
+
+    private static final class CacheEntry {
+
+        private final Object result;
+        private final Class<?> expectedResponseType;
+        private final long cachedAtNanos;
+
+        private CacheEntry(Object result, Class<?> expectedResponseType, long cachedAtNanos) {
+            this.result = result;
+            this.expectedResponseType = expectedResponseType;
+            this.cachedAtNanos = cachedAtNanos;
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link CachingQueryGateway}.
+     * <p>
+     * Either a {@link QueryBus} or {@link QueryGateway} can be provided to be used to delegate the dispatching of
+     * queries to. If a QueryBus is provided directly, it will be used to instantiate a {@link DefaultQueryGateway}. A
+     * registered QueryGateway will always take precedence over a configured QueryBus.
+     * <p>
+     * The maximum size defaults to {@code 1000} results and the time to live to one minute. No queries are cached and
+     * no {@link MeterRegistry} is configured by default, in which case no meters are recorded. The {@link Tracer} and
+     * delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private QueryBus delegateBus;
+        private QueryGateway delegateGateway;
+        private Collection<String> cachedQueryNames = new HashSet<>();
+        private int maximumSize = 1000;
+        private Duration timeToLive = Duration.ofMinutes(1);
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Sets the {@link Tracer} providing the active {@link Span} on which cache hits and misses are recorded.
+         *
+         * @param tracer the {@link Tracer} providing the active {@link Span} on which cache hits and misses are
+         *               recorded
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link QueryBus} used to build a {@link DefaultQueryGateway} this caching gateway delegates the
+         * actual dispatching of queries towards.
+         *
+         * @param delegateBus the {@link QueryBus} used to build the delegate {@link QueryGateway}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateQueryBus(QueryBus delegateBus) {
+            assertNonNull(delegateBus, "Delegate QueryBus may not be null");
+            this.delegateBus = delegateBus;
+            return this;
+        }
+
+        /**
+         * Sets the {@link QueryGateway} this caching gateway delegates the actual dispatching of queries towards.
+         *
+         * @param delegateGateway the {@link QueryGateway} this caching gateway delegates the actual dispatching of
+         *                        queries towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateQueryGateway(QueryGateway delegateGateway) {
+            assertNonNull(delegateGateway, "Delegate QueryGateway may not be null");
+            this.delegateGateway = delegateGateway;
+            return this;
+        }
+
+        /**
+         * Sets the names of the queries of which the results are cached. Defaults to no queries at all.
+         *
+         * @param cachedQueryNames the names of the queries of which the results are cached
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder cachedQueryNames(Collection<String> cachedQueryNames) {
+            assertNonNull(cachedQueryNames, "The cached query names may not be null");
+            this.cachedQueryNames = cachedQueryNames;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached results. The least recently used result is evicted once the cache exceeds
+         * this size. Defaults to {@code 1000}.
+         *
+         * @param maximumSize the maximum number of cached results
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maximumSize(int maximumSize) {
+            assertStrictPositive(maximumSize, "The maximum size should be a positive number");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets the duration a result is cached for. Defaults to one minute.
+         *
+         * @param timeToLive the duration a result is cached for
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder timeToLive(Duration timeToLive) {
+            assertNonNull(timeToLive, "The time to live may not be null");
+            if (timeToLive.isNegative() || timeToLive.isZero()) {
+                throw new AxonConfigurationException("The time to live should be a positive duration");
+            }
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the cache hit and miss counters are registered with. When not set, no meters
+         * are recorded.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the cache hit and miss counters are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link CachingQueryGateway} as specified through this Builder.
+         *
+         * @return a {@link CachingQueryGateway} as specified through this Builder
+         */
+        public CachingQueryGateway build() {
+            return new CachingQueryGateway(this);
+        }
+
+        private QueryGateway buildDelegateQueryGateway() {
+            return delegateGateway != null
+                    ? delegateGateway
+                    : DefaultQueryGateway.builder().queryBus(delegateBus).build();
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            if (delegateGateway == null) {
+                assertNonNull(
+                        delegateBus,
+                        "The delegate QueryGateway or QueryBus is a hard requirement and should be provided"
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * An aggregate identifier reported by the {@link TracingLockFactory} as one of the most contended, together with the
+ * time spent waiting for its lock. The wait is an estimate: it may be overestimated by at most {@link
+ * #getMaxOverestimation()}, which is the wait attributed to the identifier it replaced while it was not tracked yet.
+ *
+ * @since 4.12.1
+ */
+public class ContendedAggregate {
+
+    private final String aggregateIdentifier;
+    private final Duration lockWait;
+    private final Duration maxOverestimation;
+
+    /**
+     * Instantiate a {@link ContendedAggregate} for the given {@code aggregateIdentifier}.
+     *
+     * @param aggregateIdentifier the identifier of the contended aggregate
+     * @param lockWait            the estimated total time spent waiting for the aggregate's lock
+     * @param maxOverestimation   the maximum by which the {@code lockWait} may be overestimated
+     */
+    public ContendedAggregate(String aggregateIdentifier, Duration lockWait, Duration maxOverestimation) {
+        this.aggregateIdentifier = aggregateIdentifier;
+        this.lockWait = lockWait;
+        this.maxOverestimation = maxOverestimation;
+    }
+
+    /**
+     * Returns the identifier of the contended aggregate.
+     *
+     * @return the identifier of the contended aggregate
+     */
+    public String getAggregateIdentifier() {
+        return aggregateIdentifier;
+    }
+
+    /**
+     * Returns the estimated total time spent waiting for the aggregate's lock.
+     *
+     * @return the estimated total time spent waiting for the aggregate's lock
+     */
+    public Duration getLockWait() {
+        return lockWait;
+    }
+
+    /**
+     * Returns the maximum by which {@link #getLockWait()} may be overestimated. A zero duration means the wait is
+     * exact.
+     *
+     * @return the maximum by which {@link #getLockWait()} may be overestimated
+     */
+    public Duration getMaxOverestimation() {
+        return maxOverestimation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ContendedAggregate that = (ContendedAggregate) o;
+        return Objects.equals(aggregateIdentifier, that.aggregateIdentifier)
+                && Objects.equals(lockWait, that.lockWait)
+                && Objects.equals(maxOverestimation, that.maxOverestimation);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(aggregateIdentifier, lockWait, maxOverestimation);
+    }
+
+    @Override
+    public String toString() {
+        return "ContendedAggregate{" +
+                "aggregateIdentifier='" + aggregateIdentifier + '\'' +
+                ", lockWait=" + lockWait +
+                ", maxOverestimation=" + maxOverestimation +
+                '}';
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Span;
+import org.axonframework.common.AxonConfigurationException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy describing how the elements of a streaming query or the updates of a subscription query are recorded on the
+ * {@link Span} of the query.
+ * <p>
+ * The {@link #perElement()} policy logs an event for every element, which holds a log record per element in the span
+ * until it is finished. The {@link #aggregated()} policy instead records the element count, the timestamps of the first
+ * and last element and the maximum gap between two elements as tags when the span is finished, keeping the memory used
+ * per span bounded regardless of the number of elements. An aggregated policy can optionally log every n-th element
+ * through {@link #aggregated(int)}.
+ *
+ * @since 4.12.1
+ */
+public class ElementTracingPolicy {
+
+    /**
+     * The tag holding the number of elements received, set by an aggregated policy.
+     */
+    public static final String ELEMENT_COUNT_TAG = "axon.stream.element-count";
+    /**
+     * The tag holding the epoch timestamp in milliseconds of the first element received, set by an aggregated policy.
+     */
+    public static final String FIRST_ELEMENT_TIMESTAMP_TAG = "axon.stream.first-element-timestamp";
+    /**
+     * The tag holding the epoch timestamp in milliseconds of the last element received, set by an aggregated policy.
+     */
+    public static final String LAST_ELEMENT_TIMESTAMP_TAG = "axon.stream.last-element-timestamp";
+    /**
+     * The tag holding the largest gap in microseconds between two consecutive elements, set by an aggregated policy.
+     */
+    public static final String MAX_INTER_ARRIVAL_GAP_TAG = "axon.stream.max-inter-arrival-gap-micros";
+
+    private static final ElementTracingPolicy PER_ELEMENT = new ElementTracingPolicy(false, 0);
+    private static final ElementTracingPolicy AGGREGATED = new ElementTracingPolicy(true, 0);
+
+    private final boolean aggregated;
+    private final int sampleRate;
+
+    /**
+     * Returns a policy logging an event on the {@link Span} for every element received. This is the default policy.
+     *
+     * @return a policy logging an event on the {@link Span} for every element received
+     */
+    public static ElementTracingPolicy perElement() {
+        return PER_ELEMENT;
+    }
+
+    /**
+     * Returns a policy recording the received elements as aggregated tags when the {@link Span} is finished, without
+     * logging any per-element events.
+     *
+     * @return a policy recording the received elements as aggregated tags when the {@link Span} is finished
+     */
+    public static ElementTracingPolicy aggregated() {
+        return AGGREGATED;
+    }
+
+    /**
+     * Returns a policy recording the received elements as aggregated tags when the {@link Span} is finished, while
+     * logging an event for every {@code sampleRate}-th element. A {@code sampleRate} of {@code 0} disables the sampled
+     * events.
+     *
+     * @param sampleRate the interval of elements for which an event is logged, or {@code 0} to log no events
+     * @return a policy recording the received elements as aggregated tags, sampling every {@code sampleRate}-th element
+     * as an event
+     */
+    public static ElementTracingPolicy aggregated(int sampleRate) {
+        if (sampleRate < 0) {
+            throw new AxonConfigurationException("The sample rate may not be negative");
+        }
+        return sampleRate == 0 ? AGGREGATED : new ElementTracingPolicy(true, sampleRate);
+    }
+
+    private ElementTracingPolicy(boolean aggregated, int sampleRate) {
+        this.aggregated = aggregated;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Returns whether this policy aggregates the received elements into tags.
+     *
+     * @return {@code true} if this policy aggregates the received elements into tags, {@code false} if it logs every
+     * element
+     */
+    public boolean isAggregated() {
+        return aggregated;
+    }
+
+    /**
+     * Returns the interval of elements for which an aggregated policy logs an event, or {@code 0} if it logs none.
+     *
+     * @return the interval of elements for which an aggregated policy logs an event
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Creates a {@link Recorder} recording elements on the given {@code span} according to this policy.
+     *
+     * @param span  the {@link Span} to record elements on
+     * @param event the name of the event logged for a recorded element
+     * @return a {@link Recorder} recording elements on the given {@code span}
+     */
+    Recorder recorder(Span span, String event) {
+        return aggregated ? new AggregatingRecorder(span, event, sampleRate) : new PerElementRecorder(span, event);
+    }
+
+    /**
+     * Records the elements of a single stream on a {@link Span}. The elements of a stream are signalled serially, but
+     * the recorder may be completed by another thread, like the watchdog expiring a subscription query. Recording and
+     * completing are therefore mutually exclusive, and elements recorded after completion are ignored.
+     */
+    interface Recorder {
+
+        /**
+         * Records an element being received.
+         */
+        void record();
+
+        /**
+         * Writes anything aggregated so far to the {@link Span}. To be invoked right before finishing it.
+         */
+        void complete();
+    }
+
+    private static class PerElementRecorder implements Recorder {
+
+        private final Span span;
+        private final String event;
+
+        private boolean completed;
+
+        private PerElementRecorder(Span span, String event) {
+            this.span = span;
+            this.event = event;
+        }
+
+        @Override
+        public synchronized void record() {
+            if (!completed) {
+                span.log(event);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            // Every element has been logged already
+            completed = true;
+        }
+    }
+
+    private static class AggregatingRecorder implements Recorder {
+
+        private final Span span;
+        private final String event;
+        private final int sampleRate;
+
+        private long count;
+        private long firstTimestampMillis;
+        private long firstNanos;
+        private long lastNanos;
+        private long maxGapNanos;
+        private boolean completed;
+
+        private AggregatingRecorder(Span span, String event, int sampleRate) {
+            this.span = span;
+            this.event = event;
+            this.sampleRate = sampleRate;
+        }
+
+        @Override
+        public synchronized void record() {
+            if (completed) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (count == 0) {
+                firstTimestampMillis = System.currentTimeMillis();
+                firstNanos = now;
+            } else {
+                maxGapNanos = Math.max(maxGapNanos, now - lastNanos);
+            }
+            lastNanos = now;
+            count++;
+            if (sampleRate > 0 && count % sampleRate == 0) {
+                Map<String, Object> fields = new HashMap<>();
+                fields.put("event", event);
+                fields.put(ELEMENT_COUNT_TAG, count);
+                span.log(fields);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            span.setTag(ELEMENT_COUNT_TAG, count);
+            if (count > 0) {
+                span.setTag(FIRST_ELEMENT_TIMESTAMP_TAG, firstTimestampMillis);
+                span.setTag(LAST_ELEMENT_TIMESTAMP_TAG,
+                            firstTimestampMillis + TimeUnit.NANOSECONDS.toMillis(lastNanos - firstNanos));
+                span.setTag(MAX_INTER_ARRIVAL_GAP_TAG, TimeUnit.NANOSECONDS.toMicros(maxGapNanos));
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.opentracing.Span;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * Measures the time spent in {@link MessageHandlerInterceptor}s. Interceptors wrapped through {@link
+ * #timed(MessageHandlerInterceptor)} record their self time: the time spent in the interceptor itself before it
+ * proceeds the {@link InterceptorChain} and after the chain returns, excluding the time spent in the interceptors and
+ * handler further down the chain.
+ * <p>
+ * The self time of every invocation is recorded on the {@link #INTERCEPTOR_TIMER} timer, tagged with the name of the
+ * interceptor. The self times of all timed interceptors handling a message are collected in its {@link UnitOfWork} as
+ * well, and written as a single {@link #BREAKDOWN_TAG} tag on the handler's {@link Span} by the {@link
+ * OpenTraceHandlerInterceptor}.
+ *
+ * @since 4.12.1
+ */
+public class HandlerInterceptorTimer {
+
+    /**
+     * The name of the timer recording the self time of timed handler interceptors, tagged with the {@code interceptor}
+     * name.
+     */
+    public static final String INTERCEPTOR_TIMER = "axon.tracing.handler-interceptor.self-time";
+    /**
+     * The tag holding the self time in microseconds of every timed handler interceptor which handled the message, as a
+     * comma separated list of {@code name=micros} entries in order of invocation.
+     */
+    public static final String BREAKDOWN_TAG = "axon.handler-interceptor.self-time-micros";
+
+    private static final String TIMINGS_RESOURCE_KEY = HandlerInterceptorTimer.class.getName() + "/timings";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link HandlerInterceptorTimer}.
+     * <p>
+     * The {@link MeterRegistry} is defaulted to an empty {@link CompositeMeterRegistry}, which does not publish the
+     * timers anywhere.
+     *
+     * @return a Builder to be able to create a {@link HandlerInterceptorTimer}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link HandlerInterceptorTimer} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link HandlerInterceptorTimer} instance
+     */
+    protected HandlerInterceptorTimer(Builder builder) {
+        builder.validate();
+        this.meterRegistry = builder.meterRegistry;
+    }
+
+    /**
+     * Wraps the given {@code interceptor} to record its self time, named after the simple name of its class.
+     *
+     * @param interceptor the {@link MessageHandlerInterceptor} to time
+     * @param <T>         the type of {@link Message} the interceptor handles
+     * @return a {@link MessageHandlerInterceptor} recording the self time of the given {@code interceptor}
+     */
+    public <T extends Message<?>> MessageHandlerInterceptor<T> timed(MessageHandlerInterceptor<T> interceptor) {
+        return timed(nameOf(interceptor), interceptor);
+    }
+
+    /**
+     * Wraps the given {@code interceptor} to record its self time under the given {@code name}.
+     *
+     * @param name        the name the self time of the interceptor is recorded under
+     * @param interceptor the {@link MessageHandlerInterceptor} to time
+     * @param <T>         the type of {@link Message} the interceptor handles
+     * @return a {@link MessageHandlerInterceptor} recording the self time of the given {@code interceptor}
+     */
+    public <T extends Message<?>> MessageHandlerInterceptor<T> timed(String name,
+                                                                     MessageHandlerInterceptor<T> interceptor) {
+        assertNonNull(name, "The interceptor name may not be null");
+        assertNonNull(interceptor, "The interceptor may not be null");
+        if (interceptor instanceof TimedInterceptor) {
+            return interceptor;
+        }
+        Timer timer = Timer.builder(INTERCEPTOR_TIMER)
+                           .description("The time spent in a handler interceptor, excluding the rest of the chain")
+                           .tag("interceptor", name)
+                           .publishPercentileHistogram()
+                           .register(meterRegistry);
+        return new TimedInterceptor<>(name, interceptor, timer);
+    }
+
+    /**
+     * Tags the given {@code span} with the self times of the timed interceptors which handled the message of the given
+     * {@code unitOfWork}, if any.
+     *
+     * @param unitOfWork the {@link UnitOfWork} handling the message
+     * @param span       the {@link Span} of the handled message
+     */
+    static void tagBreakdown(UnitOfWork<?> unitOfWork, Span span) {
+        Map<String, Long> timings = unitOfWork.getResource(TIMINGS_RESOURCE_KEY);
+        if (timings == null || timings.isEmpty()) {
+            return;
+        }
+        StringJoiner breakdown = new StringJoiner(",");
+        timings.forEach((name, nanos) -> breakdown.add(name + "=" + TimeUnit.NANOSECONDS.toMicros(nanos)));
+        span.setTag(BREAKDOWN_TAG, breakdown.toString());
+    }
+
+    private static String nameOf(MessageHandlerInterceptor<?> interceptor) {
+        Class<?> type = interceptor.getClass();
+        String name = type.getName().substring(type.getName().lastIndexOf('.') + 1);
+        // Lambdas are named after the class declaring them, followed by a generated suffix
+        int lambdaSuffix = name.indexOf("$$Lambda");
+        if (lambdaSuffix > 0) {
+            return name.substring(0, lambdaSuffix);
+        }
+        // Anonymous classes have no simple name
+        return type.isAnonymousClass() ? name : type.getSimpleName();
+    }
+
+    private static class TimedInterceptor<T extends Message<?>> implements MessageHandlerInterceptor<T> {
+
+        private final String name;
+        private final MessageHandlerInterceptor<T> delegate;
+        private final Timer timer;
+
+        private TimedInterceptor(String name, MessageHandlerInterceptor<T> delegate, Timer timer) {
+            this.name = name;
+            this.delegate = delegate;
+            this.timer = timer;
+        }
+
+        @Override
+        public Object handle(UnitOfWork<? extends T> unitOfWork, InterceptorChain interceptorChain) throws Exception {
+            Map<String, Long> timings = unitOfWork.getOrComputeResource(TIMINGS_RESOURCE_KEY,
+                                                                        key -> new LinkedHashMap<>());
+            // Reserves the entry upfront, so the breakdown lists the interceptors in order of invocation
+            timings.putIfAbsent(name, 0L);
+            long[] chainNanos = new long[1];
+            long start = System.nanoTime();
+            try {
+                return delegate.handle(unitOfWork, () -> {
+                    long chainStart = System.nanoTime();
+                    try {
+                        return interceptorChain.proceed();
+                    } finally {
+                        chainNanos[0] += System.nanoTime() - chainStart;
+                    }
+                });
+            } finally {
+                long selfNanos = System.nanoTime() - start - chainNanos[0];
+                timer.record(selfNanos, TimeUnit.NANOSECONDS);
+                timings.merge(name, selfNanos, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link HandlerInterceptorTimer}.
+     * <p>
+     * The {@link MeterRegistry} is defaulted to an empty {@link CompositeMeterRegistry}, which does not publish the
+     * timers anywhere.
+     */
+    public static class Builder {
+
+        private MeterRegistry meterRegistry = new CompositeMeterRegistry();
+
+        /**
+         * Sets the {@link MeterRegistry} the interceptor timers are registered with. Defaults to an empty {@link
+         * CompositeMeterRegistry}.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the interceptor timers are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link HandlerInterceptorTimer} as specified through this Builder.
+         *
+         * @return a {@link HandlerInterceptorTimer} as specified through this Builder
+         */
+        public HandlerInterceptorTimer build() {
+            return new HandlerInterceptorTimer(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            // Kept to be overridden
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import org.axonframework.common.AxonNonTransientException;
+
+import java.time.Instant;
+
+/**
+ * Exception thrown by the {@link OpenTraceHandlerInterceptor} when a command or query is rejected because its deadline
+ * passed before it was handled. As the dispatcher is no longer waiting for the result, retrying the message is
+ * pointless.
+ *
+ * @since 4.12.1
+ */
+public class MessageDeadlineExceededException extends AxonNonTransientException {
+
+    private static final long serialVersionUID = -3583915128946217826L;
+
+    /**
+     * Initializes the exception for a message with the given {@code messageName} of which the given {@code deadline}
+     * has passed.
+     *
+     * @param messageName the name of the rejected message
+     * @param deadline    the deadline of the rejected message
+     */
+    public MessageDeadlineExceededException(String messageName, Instant deadline) {
+        super("Rejected [" + messageName + "], as its deadline [" + deadline + "] has passed");
+    }
+}
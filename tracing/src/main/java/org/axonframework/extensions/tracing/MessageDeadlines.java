@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Span;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.queryhandling.QueryMessage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Utility class propagating the deadline of a message through its {@link org.axonframework.messaging.MetaData}. A
+ * deadline is the absolute moment after which the dispatcher of a command or query is no longer interested in its
+ * result, for example because its {@code sendAndWait} timed out. Handlers can retrieve the deadline of the message they
+ * handle through {@link #currentDeadline()} and the budget left through {@link #remainingBudget()}.
+ * <p>
+ * Deadlines are only propagated on {@link CommandMessage}s and {@link QueryMessage}s, as the handling of events is
+ * decoupled from the publisher of the event.
+ *
+ * @since 4.12.1
+ */
+public abstract class MessageDeadlines {
+
+    /**
+     * The metadata key holding the deadline of a message, as milliseconds since the epoch.
+     */
+    public static final String DEADLINE_METADATA_KEY = "axon-deadline";
+    /**
+     * The tag set on a {@link Span} which finished after the deadline of its message.
+     */
+    public static final String DEADLINE_EXCEEDED_TAG = "axon.deadline.exceeded";
+    /**
+     * The key of the {@link UnitOfWork} resource holding the deadline of the message being handled.
+     */
+    public static final String DEADLINE_RESOURCE_KEY = MessageDeadlines.class.getName() + ".deadline";
+
+    private MessageDeadlines() {
+        // Utility class
+    }
+
+    /**
+     * Returns the deadline of the given {@code message}, if it has any.
+     *
+     * @param message the message to retrieve the deadline of
+     * @return the deadline of the given {@code message}, or an empty {@link Optional} if it has none
+     */
+    public static Optional<Instant> deadlineOf(Message<?> message) {
+        Object deadline = message.getMetaData().get(DEADLINE_METADATA_KEY);
+        if (deadline instanceof Number) {
+            return Optional.of(Instant.ofEpochMilli(((Number) deadline).longValue()));
+        }
+        if (deadline instanceof String) {
+            try {
+                return Optional.of(Instant.ofEpochMilli(Long.parseLong((String) deadline)));
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the metadata setting the given {@code deadline} on the given {@code message}. When the message already
+     * has an earlier deadline, or is neither a command nor a query, empty metadata is returned.
+     *
+     * @param message  the message to set the deadline on
+     * @param deadline the deadline to set
+     * @return the metadata to add to the message to set the deadline
+     */
+    public static Map<String, ?> deadlineMetaData(Message<?> message, Instant deadline) {
+        if (!supportsDeadline(message)) {
+            return Collections.emptyMap();
+        }
+        Optional<Instant> existing = deadlineOf(message);
+        if (existing.isPresent() && !existing.get().isAfter(deadline)) {
+            return Collections.emptyMap();
+        }
+        return Collections.singletonMap(DEADLINE_METADATA_KEY, deadline.toEpochMilli());
+    }
+
+    /**
+     * Returns the deadline of the message handled in the current {@link UnitOfWork}, if it has any. Requires the
+     * message to be handled with the {@link OpenTraceHandlerInterceptor} in place.
+     *
+     * @return the deadline of the message handled in the current {@link UnitOfWork}, or an empty {@link Optional} if
+     * there is none
+     */
+    public static Optional<Instant> currentDeadline() {
+        if (!CurrentUnitOfWork.isStarted()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(CurrentUnitOfWork.get().getResource(DEADLINE_RESOURCE_KEY));
+    }
+
+    /**
+     * Returns the budget left until the deadline of the message handled in the current {@link UnitOfWork}. The
+     * returned duration is negative once the deadline has passed.
+     *
+     * @return the budget left until the deadline of the message handled in the current {@link UnitOfWork}, or an empty
+     * {@link Optional} if there is no deadline
+     */
+    public static Optional<Duration> remainingBudget() {
+        return currentDeadline().map(deadline -> Duration.between(Instant.now(), deadline));
+    }
+
+    /**
+     * Returns whether the given {@code message} is a message a deadline is propagated on.
+     *
+     * @param message the message to verify
+     * @return {@code true} if the given {@code message} is a command or query, {@code false} otherwise
+     */
+    static boolean supportsDeadline(Message<?> message) {
+        return message instanceof CommandMessage || message instanceof QueryMessage;
+    }
+
+    /**
+     * Tags the given {@code span} with {@link #DEADLINE_EXCEEDED_TAG} when the given {@code deadline} has passed. To be
+     * invoked right before finishing the span.
+     *
+     * @param span     the span to tag
+     * @param deadline the deadline of the span's message, or {@code null} if it has none
+     */
+    static void tagIfExceeded(Span span, Instant deadline) {
+        if (deadline != null && Instant.now().isAfter(deadline)) {
+            span.setTag(DEADLINE_EXCEEDED_TAG, true);
+        }
+    }
+}
@@ -20,16 +20,24 @@ import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
 import io.opentracing.propagation.Format;
+import org.axonframework.common.AxonConfigurationException;
 import org.axonframework.messaging.Message;
 import org.axonframework.messaging.MessageDispatchInterceptor;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
 /**
  * A {@link MessageDispatchInterceptor} which maps the {@link SpanContext} to {@link
  * org.axonframework.messaging.MetaData}.
+ * <p>
+ * Commands and queries dispatched while handling a message with a deadline inherit that deadline, unless they have an
+ * earlier deadline of their own. See {@link MessageDeadlines} for details.
  *
  * @author Christophe Bouhier
  * @since 4.0
@@ -37,28 +45,129 @@ import java.util.function.BiFunction;
 public class OpenTraceDispatchInterceptor implements MessageDispatchInterceptor<Message<?>> {
 
     private final Tracer tracer;
+    private final TracingMessageFilter messageFilter;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link OpenTraceDispatchInterceptor}.
+     * <p>
+     * The {@link TracingMessageFilter} is defaulted to {@link TracingMessageFilter#traceAll()}. The {@link Tracer} is a
+     * <b>hard requirement</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link OpenTraceDispatchInterceptor}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
 
     /**
      * Initialize a {@link MessageDispatchInterceptor} implementation which uses the provided {@link Tracer} to map a
      * {@link SpanContext} on an ingested {@link Message}.
      *
      * @param tracer the {@link Tracer} used to set a {@link SpanContext} on {@link Message}s
+     * @deprecated in favor of using the {@link Builder}
      */
+    @Deprecated
     public OpenTraceDispatchInterceptor(Tracer tracer) {
         this.tracer = tracer;
+        this.messageFilter = TracingMessageFilter.traceAll();
+    }
+
+    /**
+     * Instantiate a {@link OpenTraceDispatchInterceptor} based on the configuration contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} is not {@code null}, and will throw an {@link AxonConfigurationException} if
+     * it is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link OpenTraceDispatchInterceptor} instance
+     */
+    protected OpenTraceDispatchInterceptor(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.messageFilter = builder.messageFilter;
     }
 
     @Override
     public BiFunction<Integer, Message<?>, Message<?>> handle(List<? extends Message<?>> messages) {
-        ScopeManager scopeManager = tracer.scopeManager();
-        Optional<SpanContext> spanContextOptional = Optional.ofNullable(scopeManager)
-                                                            .map(ScopeManager::activeSpan)
-                                                            .map(Span::context);
-
-        return spanContextOptional.<BiFunction<Integer, Message<?>, Message<?>>>map(spanContext -> (index, message) -> {
-            MapInjector injector = new MapInjector();
-            tracer.inject(spanContext, Format.Builtin.TEXT_MAP, injector);
-            return message.andMetaData(injector.getMetaData());
-        }).orElseGet(() -> (i, m) -> m);
+        Instant deadline = MessageDeadlines.currentDeadline().orElse(null);
+        SpanContext spanContext = Optional.ofNullable(tracer.scopeManager())
+                                          .map(ScopeManager::activeSpan)
+                                          .map(Span::context)
+                                          .orElse(null);
+        if (deadline == null && spanContext == null) {
+            return (i, m) -> m;
+        }
+
+        return (index, message) -> {
+            Message<?> result = message;
+            if (deadline != null) {
+                Map<String, ?> deadlineMetaData = MessageDeadlines.deadlineMetaData(result, deadline);
+                if (!deadlineMetaData.isEmpty()) {
+                    result = result.andMetaData(deadlineMetaData);
+                }
+            }
+            if (spanContext != null && messageFilter.shouldTrace(result)) {
+                MapInjector injector = new MapInjector();
+                tracer.inject(spanContext, Format.Builtin.TEXT_MAP, injector);
+                result = result.andMetaData(injector.getMetaData());
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Builder class to instantiate a {@link OpenTraceDispatchInterceptor}.
+     * <p>
+     * The {@link TracingMessageFilter} is defaulted to {@link TracingMessageFilter#traceAll()}. The {@link Tracer} is a
+     * <b>hard requirement</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+
+        /**
+         * Sets the {@link Tracer} used to set a {@link SpanContext} on dispatched {@link Message}s.
+         *
+         * @param tracer a {@link Tracer} used to set a {@link SpanContext} on dispatched {@link Message}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which dispatched {@link Message}s receive the active {@link
+         * SpanContext}. Suppressed messages are passed on untouched. Defaults to {@link
+         * TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which dispatched {@link Message}s are traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link OpenTraceDispatchInterceptor} as specified through this Builder.
+         *
+         * @return a {@link OpenTraceDispatchInterceptor} as specified through this Builder
+         */
+        public OpenTraceDispatchInterceptor build() {
+            return new OpenTraceDispatchInterceptor(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+        }
     }
 }
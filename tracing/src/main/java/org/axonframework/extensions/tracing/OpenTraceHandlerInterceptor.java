@@ -15,6 +15,7 @@
  */
 package org.axonframework.extensions.tracing;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
@@ -31,28 +32,51 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.axonframework.common.BuilderUtils.assertNonNull;
 
 /**
  * A {@link MessageHandlerInterceptor} which maps the {@link MetaData} to the {@link SpanContext}.
+ * <p>
+ * The deadline of a handled command or query is made available through {@link MessageDeadlines#currentDeadline()}.
+ * Spans finishing after that deadline are tagged with {@link MessageDeadlines#DEADLINE_EXCEEDED_TAG}. Commands
+ * dispatched through a {@link TracingCommandBus} are tagged with the time they were queued, as {@link
+ * TracingCommandBus#QUEUE_TIME_TAG}. The self times of the handler interceptors timed by a {@link
+ * HandlerInterceptorTimer} are tagged as {@link HandlerInterceptorTimer#BREAKDOWN_TAG}.
  *
  * @author Christophe Bouhier
  * @since 4.0
  */
 public class OpenTraceHandlerInterceptor implements MessageHandlerInterceptor<Message<?>> {
 
+    /**
+     * The name of the timer recording the time spent in each phase of the {@link UnitOfWork} handling a message, tagged
+     * with the {@code messageName} and {@code phase}. Only recorded when unit of work phases are recorded.
+     */
+    public static final String UNIT_OF_WORK_PHASE_TIMER = "axon.tracing.unit-of-work.phase";
+
+    /**
+     * The key of the {@link UnitOfWork} resource holding the {@link Span} of the handled message. The span is no longer
+     * active while the unit of work commits, so components taking part in the commit retrieve it from this resource.
+     */
+    static final String SPAN_RESOURCE_KEY = OpenTraceHandlerInterceptor.class.getName() + ".span";
+
     private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     private final Tracer tracer;
     private final MessageTagBuilderService messageTagBuilderService;
+    private final TracingMessageFilter messageFilter;
+    private final boolean rejectExpiredMessages;
+    private final UnitOfWorkPhaseRecorder phaseRecorder;
 
     /**
      * Instantiate a Builder to be able to create a {@link OpenTraceHandlerInterceptor}.
      * <p>
-     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}. The
-     * {@link Tracer} is a <b>hard requirement</b> and as such should be provided.
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()} and the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}. The {@link Tracer} is a <b>hard
+     * requirement</b> and as such should be provided.
      *
      * @return a Builder to be able to create a {@link OpenTraceHandlerInterceptor}
      */
@@ -71,6 +95,9 @@ public class OpenTraceHandlerInterceptor implements MessageHandlerInterceptor<Me
     public OpenTraceHandlerInterceptor(Tracer tracer) {
         this.tracer = tracer;
         this.messageTagBuilderService = MessageTagBuilderService.defaultService();
+        this.messageFilter = TracingMessageFilter.traceAll();
+        this.rejectExpiredMessages = false;
+        this.phaseRecorder = null;
     }
 
     /**
@@ -85,11 +112,26 @@ public class OpenTraceHandlerInterceptor implements MessageHandlerInterceptor<Me
         builder.validate();
         this.tracer = builder.tracer;
         this.messageTagBuilderService = builder.messageTagBuilderService;
+        this.messageFilter = builder.messageFilter;
+        this.rejectExpiredMessages = builder.rejectExpiredMessages;
+        this.phaseRecorder = builder.recordUnitOfWorkPhases
+                ? new UnitOfWorkPhaseRecorder(builder.meterRegistry)
+                : null;
     }
 
     @Override
     public Object handle(UnitOfWork unitOfWork, InterceptorChain interceptorChain) throws Exception {
         Message<?> message = unitOfWork.getMessage();
+        Instant deadline = MessageDeadlines.supportsDeadline(message)
+                ? MessageDeadlines.deadlineOf(message).orElse(null)
+                : null;
+        if (deadline != null) {
+            unitOfWork.resources().put(MessageDeadlines.DEADLINE_RESOURCE_KEY, deadline);
+        }
+        if (!messageFilter.shouldTrace(message)) {
+            rejectIfExpired(message, deadline);
+            return interceptorChain.proceed();
+        }
         String operationName = "handle_" + SpanUtils.messageName(message);
 
         Tracer.SpanBuilder spanBuilder = getParentSpan(message)
@@ -99,14 +141,39 @@ public class OpenTraceHandlerInterceptor implements MessageHandlerInterceptor<Me
         final Span span = messageTagBuilderService.withMessageTags(spanBuilder, unitOfWork.getMessage())
                                                   .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER)
                                                   .start();
+        TracingCommandBus.tagQueueTime(span, message);
+        unitOfWork.resources().put(SPAN_RESOURCE_KEY, span);
 
         try (Scope ignored = tracer.activateSpan(span)) {
+            Runnable phaseCompletion = phaseRecorder != null
+                    ? phaseRecorder.record(unitOfWork, span, SpanUtils.messageName(message))
+                    : null;
             //noinspection unchecked
-            unitOfWork.onCleanup(u -> span.finish());
+            unitOfWork.onCleanup(u -> {
+                if (phaseCompletion != null) {
+                    phaseCompletion.run();
+                }
+                HandlerInterceptorTimer.tagBreakdown(unitOfWork, span);
+                MessageDeadlines.tagIfExceeded(span, deadline);
+                span.finish();
+            });
+            try {
+                rejectIfExpired(message, deadline);
+            } catch (MessageDeadlineExceededException e) {
+                Tags.ERROR.set(span, true);
+                span.log("deadlineExceeded");
+                throw e;
+            }
             return interceptorChain.proceed();
         }
     }
 
+    private void rejectIfExpired(Message<?> message, Instant deadline) {
+        if (rejectExpiredMessages && deadline != null && Instant.now().isAfter(deadline)) {
+            throw new MessageDeadlineExceededException(SpanUtils.messageName(message), deadline);
+        }
+    }
+
     private Optional<SpanContext> getParentSpan(Message<?> message) {
         MetaData metaData = message.getMetaData();
         MapExtractor extractor = new MapExtractor(metaData);
@@ -121,13 +188,18 @@ public class OpenTraceHandlerInterceptor implements MessageHandlerInterceptor<Me
     /**
      * Builder class to instantiate a {@link OpenTraceHandlerInterceptor}.
      * <p>
-     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}. The
-     * {@link Tracer} is a <b>hard requirement</b> and as such should be provided.
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()} and the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}. The {@link Tracer} is a <b>hard
+     * requirement</b> and as such should be provided.
      */
     public static class Builder {
 
         private Tracer tracer;
         private MessageTagBuilderService messageTagBuilderService = MessageTagBuilderService.defaultService();
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+        private boolean rejectExpiredMessages = false;
+        private boolean recordUnitOfWorkPhases = false;
+        private MeterRegistry meterRegistry;
 
         /**
          * Sets the {@link Tracer} used to set a {@link Span} on handled {@link Message}s.
@@ -155,6 +227,61 @@ public class OpenTraceHandlerInterceptor implements MessageHandlerInterceptor<Me
             return this;
         }
 
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which handled {@link Message}s are traced. Suppressed messages
+         * are handled without extracting a parent span or building a {@link Span}. Defaults to {@link
+         * TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which handled {@link Message}s are traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Sets whether commands and queries are rejected with a {@link MessageDeadlineExceededException} when their
+         * deadline, as propagated through {@link MessageDeadlines}, passed before they are handled. Rejecting these
+         * messages sheds load which no dispatcher is waiting for anymore. Defaults to {@code false}.
+         *
+         * @param rejectExpiredMessages whether commands and queries of which the deadline passed are rejected
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder rejectExpiredMessages(boolean rejectExpiredMessages) {
+            this.rejectExpiredMessages = rejectExpiredMessages;
+            return this;
+        }
+
+        /**
+         * Sets whether the phases of the {@link UnitOfWork} handling a traced message are recorded. The start of the
+         * prepare commit, commit, after commit, rollback and cleanup phases is logged as an event on the message's
+         * {@link Span}, and the time spent in each phase, including the handling itself, is recorded on the {@link
+         * OpenTraceHandlerInterceptor#UNIT_OF_WORK_PHASE_TIMER} timer per message name. Defaults to {@code false}.
+         *
+         * @param recordUnitOfWorkPhases whether the phases of the {@link UnitOfWork} handling a traced message are
+         *                               recorded
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder recordUnitOfWorkPhases(boolean recordUnitOfWorkPhases) {
+            this.recordUnitOfWorkPhases = recordUnitOfWorkPhases;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the unit of work phase timers are registered with. When not set, the phases
+         * are only logged on the {@link Span}, allowing Micrometer to be absent from the classpath.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the unit of work phase timers are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
         /**
          * Initializes a {@link OpenTraceHandlerInterceptor} as specified through this Builder.
          *
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Span;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Utility class to propagate a {@link Span} through a Reactor {@link Context} instead of through the thread-bound
+ * {@link io.opentracing.ScopeManager}. Signals of a reactive stream may be delivered on any thread, which makes the
+ * active span of the {@code ScopeManager} unreliable within operators.
+ * <p>
+ * Use {@link #withSpan(Span)} in a {@code contextWrite} operator to expose a {@code Span} to the operators before it,
+ * and {@link #currentSpan(ContextView)} to retrieve it from within such an operator. The tracing gateways of this
+ * extension also read a span stored this way from the subscriber's {@code Context}, using it as the parent of the
+ * spans they start.
+ *
+ * @since 4.12.1
+ */
+public class ReactorTracingContext {
+
+    /**
+     * The key under which the {@link Span} is stored in the Reactor {@link Context}.
+     */
+    public static final String SPAN_KEY = "axon.extension.tracing.span";
+
+    private ReactorTracingContext() {
+        // Utility class
+    }
+
+    /**
+     * Returns a function storing the given {@code span} in a Reactor {@link Context}, to be used in a {@code
+     * contextWrite} operator.
+     *
+     * @param span the {@link Span} to store in the {@link Context}
+     * @return a function storing the given {@code span} in a Reactor {@link Context}
+     */
+    public static Function<Context, Context> withSpan(Span span) {
+        return context -> context.put(SPAN_KEY, span);
+    }
+
+    /**
+     * Retrieve the {@link Span} stored in the given {@code contextView}, if any.
+     *
+     * @param contextView the Reactor {@link ContextView} to retrieve the {@link Span} from
+     * @return an {@link Optional} containing the {@link Span} stored in the given {@code contextView}, or an empty
+     * {@link Optional} if there is none
+     */
+    public static Optional<Span> currentSpan(ContextView contextView) {
+        return contextView.getOrEmpty(SPAN_KEY);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Span;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.axonframework.extensions.tracing.TracingQueryGateway.SCATTER_GATHER_RESPONSE_COUNT_TAG;
+import static org.axonframework.extensions.tracing.TracingQueryGateway.SCATTER_GATHER_SLOWEST_RESPONSE_LATENCY_TAG;
+import static org.axonframework.extensions.tracing.TracingQueryGateway.SCATTER_GATHER_SLOWEST_RESPONSE_TAG;
+import static org.axonframework.extensions.tracing.TracingQueryGateway.SCATTER_GATHER_TIMEOUT_EXCEEDED_TAG;
+import static org.axonframework.extensions.tracing.TracingQueryGateway.SCATTER_GATHER_TIME_TO_FIRST_RESPONSE_TAG;
+import static org.axonframework.extensions.tracing.TracingQueryGateway.SCATTER_GATHER_TIME_TO_LAST_RESPONSE_TAG;
+
+/**
+ * Records the responses of a scatter-gather query on its {@link Span}. The response count, the time to the first and
+ * last response, the slowest response and whether the timeout was exceeded are set as tags once the result stream is
+ * closed. Individual responses are only logged as events as far as the {@link ElementTracingPolicy} allows, keeping the
+ * span small when many handlers respond.
+ * <p>
+ * The time to the first and last response are measured from the dispatch of the query. The slowest response is the one
+ * with the longest wait since the previous response, or since the dispatch for the first response. The timeout counts
+ * as exceeded when the delegate's result stream ran out at or after the deadline, as the delegate then stopped waiting
+ * for the remaining handlers. A stream closed before it was exhausted never counts as timed out.
+ * <p>
+ * The responses of a scatter-gather query are consumed serially, so this recorder need not be thread-safe.
+ *
+ * @since 4.12.1
+ */
+final class ScatterGatherRecorder {
+
+    private final Span span;
+    private final ElementTracingPolicy elementTracingPolicy;
+    private final Instant deadline;
+    private final long startNanos;
+
+    private long count;
+    private long firstNanos;
+    private long lastNanos;
+    private long slowestResponse;
+    private long slowestNanos;
+    private boolean exhausted;
+    private boolean timeoutExceeded;
+
+    ScatterGatherRecorder(Span span, ElementTracingPolicy elementTracingPolicy, Instant deadline) {
+        this.span = span;
+        this.elementTracingPolicy = elementTracingPolicy;
+        this.deadline = deadline;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Wraps the given {@code responses} of the delegate to record every response passing through. When the returned
+     * stream is closed, the given {@code responses} are closed, the aggregated tags are written to the {@link Span} and
+     * the given {@code closeHandler} is invoked.
+     *
+     * @param responses    the result stream of the delegate
+     * @param closeHandler the handler to invoke once the tags are written, typically finishing the {@link Span}
+     * @param <R>          the type of response
+     * @return a stream recording the given {@code responses}
+     */
+    <R> Stream<R> record(Stream<R> responses, Runnable closeHandler) {
+        Spliterator<R> source = responses.spliterator();
+        Spliterator<R> recording = new Spliterators.AbstractSpliterator<R>(
+                source.estimateSize(), source.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED)
+        ) {
+            @Override
+            public boolean tryAdvance(Consumer<? super R> action) {
+                boolean advanced = source.tryAdvance(response -> {
+                    responseReceived();
+                    action.accept(response);
+                });
+                if (!advanced) {
+                    responsesExhausted();
+                }
+                return advanced;
+            }
+        };
+        return StreamSupport.stream(recording, false)
+                            .onClose(responses::close)
+                            .onClose(() -> {
+                                complete();
+                                closeHandler.run();
+                            });
+    }
+
+    private void responseReceived() {
+        long now = System.nanoTime();
+        count++;
+        long waitNanos;
+        if (count == 1) {
+            firstNanos = now;
+            waitNanos = now - startNanos;
+        } else {
+            waitNanos = now - lastNanos;
+        }
+        if (waitNanos >= slowestNanos) {
+            slowestResponse = count;
+            slowestNanos = waitNanos;
+        }
+        lastNanos = now;
+        if (shouldLog()) {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("event", "responseReceived");
+            fields.put("response", count);
+            fields.put("elapsed-micros", micros(now - startNanos));
+            span.log(fields);
+        }
+    }
+
+    private void responsesExhausted() {
+        if (!exhausted) {
+            exhausted = true;
+            timeoutExceeded = !Instant.now().isBefore(deadline);
+        }
+    }
+
+    private void complete() {
+        span.setTag(SCATTER_GATHER_RESPONSE_COUNT_TAG, count);
+        if (count > 0) {
+            span.setTag(SCATTER_GATHER_TIME_TO_FIRST_RESPONSE_TAG, micros(firstNanos - startNanos));
+            span.setTag(SCATTER_GATHER_TIME_TO_LAST_RESPONSE_TAG, micros(lastNanos - startNanos));
+            span.setTag(SCATTER_GATHER_SLOWEST_RESPONSE_TAG, slowestResponse);
+            span.setTag(SCATTER_GATHER_SLOWEST_RESPONSE_LATENCY_TAG, micros(slowestNanos));
+        }
+        span.setTag(SCATTER_GATHER_TIMEOUT_EXCEEDED_TAG, timeoutExceeded);
+    }
+
+    private boolean shouldLog() {
+        if (!elementTracingPolicy.isAggregated()) {
+            return true;
+        }
+        int sampleRate = elementTracingPolicy.getSampleRate();
+        return sampleRate > 0 && count % sampleRate == 0;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
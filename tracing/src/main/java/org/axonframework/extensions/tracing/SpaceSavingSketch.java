@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * A weighted Space-Saving sketch keeping track of the aggregate identifiers with the largest total lock wait, using a
+ * fixed number of counters regardless of the number of identifiers offered.
+ * <p>
+ * An offered identifier which is tracked already has its counter increased. Otherwise it takes a free counter, or
+ * replaces the identifier with the smallest counter when all are taken. The replacing identifier inherits that
+ * counter, which becomes the maximum overestimation of its wait. Any identifier whose actual wait exceeds the total
+ * wait divided by the capacity is guaranteed to be tracked.
+ * <p>
+ * The counters are kept ordered by weight as well, so an offer takes logarithmic rather than linear time in the
+ * capacity.
+ *
+ * @since 4.12.1
+ */
+final class SpaceSavingSketch {
+
+    private static final Comparator<Counter> BY_WEIGHT =
+            Comparator.comparingLong((Counter c) -> c.weight).thenComparingLong(c -> c.sequence);
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private final NavigableSet<Counter> countersByWeight = new TreeSet<>(BY_WEIGHT);
+    private long sequence;
+
+    /**
+     * Instantiate a sketch tracking at most {@code capacity} identifiers.
+     *
+     * @param capacity the maximum number of identifiers tracked
+     */
+    SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Adds the given {@code waitNanos} to the counter of the given {@code identifier}.
+     *
+     * @param identifier the identifier of the aggregate whose lock was waited for
+     * @param waitNanos  the time spent waiting for the lock in nanoseconds
+     */
+    synchronized void offer(String identifier, long waitNanos) {
+        Counter counter = counters.get(identifier);
+        if (counter != null) {
+            // The weight is part of the ordering, so the counter is re-inserted after changing it
+            countersByWeight.remove(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(identifier, 0, sequence++);
+            counters.put(identifier, counter);
+        } else {
+            Counter smallest = countersByWeight.pollFirst();
+            counters.remove(smallest.identifier);
+            counter = new Counter(identifier, smallest.weight, sequence++);
+            counters.put(identifier, counter);
+        }
+        counter.weight += waitNanos;
+        countersByWeight.add(counter);
+    }
+
+    /**
+     * Returns the {@code limit} identifiers with the largest estimated wait, in descending order of that wait.
+     *
+     * @param limit the maximum number of identifiers to return
+     * @return the {@code limit} identifiers with the largest estimated wait
+     */
+    synchronized List<ContendedAggregate> top(int limit) {
+        List<ContendedAggregate> top = new ArrayList<>();
+        Iterator<Counter> descending = countersByWeight.descendingIterator();
+        while (descending.hasNext() && top.size() < limit) {
+            Counter c = descending.next();
+            top.add(new ContendedAggregate(c.identifier, Duration.ofNanos(c.weight), Duration.ofNanos(c.error)));
+        }
+        return top;
+    }
+
+    private static class Counter {
+
+        private final String identifier;
+        private final long error;
+        private final long sequence;
+        private long weight;
+
+        private Counter(String identifier, long error, long sequence) {
+            this.identifier = identifier;
+            this.error = error;
+            this.sequence = sequence;
+            this.weight = error;
+        }
+    }
+}
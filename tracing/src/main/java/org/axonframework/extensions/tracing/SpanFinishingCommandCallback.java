@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.CommandResultMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A {@link CommandCallback} finishing the {@link Span} of a dispatched command once both the dispatch returned and the
+ * result has been received, in whichever order these occur. When no delegate callback is given, the callback completes
+ * itself with the command's result, serving as the {@link CompletableFuture} returned by {@link
+ * TracingCommandGateway#send(Object)}.
+ *
+ * @param <R> the type of result of the command handling
+ * @since 4.12.1
+ */
+final class SpanFinishingCommandCallback<R> extends CompletableFuture<R> implements CommandCallback<Object, R> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final AtomicIntegerFieldUpdater<SpanFinishingCommandCallback> PENDING_SIGNALS =
+            AtomicIntegerFieldUpdater.newUpdater(SpanFinishingCommandCallback.class, "pendingSignals");
+
+    private final Tracer tracer;
+    private final Span span;
+    private final CommandCallback<Object, Object> delegateCallback;
+    // Both the dispatch returning and the result being received need to occur before the span is finished
+    private volatile int pendingSignals = 2;
+
+    /**
+     * Instantiate a callback finishing the given {@code span} once the command has been dispatched and its result has
+     * been received.
+     *
+     * @param tracer           the {@link Tracer} used to activate the {@code span} while invoking the delegate
+     * @param span             the {@link Span} of the dispatched command
+     * @param delegateCallback the callback to invoke with the result, or {@code null} to complete this callback itself
+     */
+    SpanFinishingCommandCallback(Tracer tracer, Span span, CommandCallback<Object, Object> delegateCallback) {
+        this.tracer = tracer;
+        this.span = span;
+        this.delegateCallback = delegateCallback;
+    }
+
+    @Override
+    public void onResult(CommandMessage<?> commandMessage, CommandResultMessage<? extends R> commandResultMessage) {
+        try (Scope ignored = tracer.activateSpan(span)) {
+            span.log("resultReceived");
+            if (delegateCallback != null) {
+                delegateCallback.onResult(commandMessage, commandResultMessage);
+                span.log("afterCallbackInvocation");
+            } else if (commandResultMessage.isExceptional()) {
+                Throwable exception = commandResultMessage.exceptionResult();
+                logger.warn("Command '{}' resulted in {}({})",
+                            commandMessage.getCommandName(), exception.getClass().getName(), exception.getMessage());
+                completeExceptionally(exception);
+            } else {
+                complete(commandResultMessage.getPayload());
+            }
+        } finally {
+            signal();
+        }
+    }
+
+    /**
+     * Returns the {@link Span} of the dispatched command.
+     *
+     * @return the {@link Span} of the dispatched command
+     */
+    Span span() {
+        return span;
+    }
+
+    /**
+     * Signals the dispatch of the command returned, finishing the span if the result has been received already.
+     */
+    void dispatchComplete() {
+        span.log("dispatchComplete");
+        signal();
+    }
+
+    private void signal() {
+        if (PENDING_SIGNALS.decrementAndGet(this) == 0) {
+            span.finish();
+        }
+    }
+}
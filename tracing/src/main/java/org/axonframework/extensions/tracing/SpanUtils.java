@@ -16,11 +16,14 @@
 
 package org.axonframework.extensions.tracing;
 
+import io.opentracing.Span;
 import io.opentracing.Tracer;
 import org.axonframework.commandhandling.CommandMessage;
 import org.axonframework.eventhandling.DomainEventMessage;
 import org.axonframework.eventhandling.EventMessage;
 import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
 import org.axonframework.queryhandling.QueryMessage;
 
 /**
@@ -129,6 +132,41 @@ public class SpanUtils {
         return message.getPayloadType().getSimpleName();
     }
 
+    /**
+     * Returns the {@link Span} operations of Axon components should be traced as a child of. This is the active span of
+     * the given {@code tracer}, or otherwise the span of the message handled by the current {@link UnitOfWork}, or one
+     * of its parents, as registered by the {@link OpenTraceHandlerInterceptor}. The latter applies to operations taking
+     * place while a unit of work commits, like appending events to the event store.
+     *
+     * @param tracer the {@link Tracer} to retrieve the active span from
+     * @return the {@link Span} to trace operations as a child of, or {@code null} if there is none
+     */
+    static Span parentSpan(Tracer tracer) {
+        Span activeSpan = tracer.activeSpan();
+        if (activeSpan != null || !CurrentUnitOfWork.isStarted()) {
+            return activeSpan;
+        }
+        UnitOfWork<?> unitOfWork = handlerUnitOfWork();
+        return unitOfWork != null ? unitOfWork.getResource(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY) : null;
+    }
+
+    /**
+     * Returns the current {@link UnitOfWork}, or the nearest of its parents, holding the span of the message it handles
+     * as registered by the {@link OpenTraceHandlerInterceptor}.
+     *
+     * @return the {@link UnitOfWork} holding the span of the handled message, or {@code null} if there is none
+     */
+    static UnitOfWork<?> handlerUnitOfWork() {
+        UnitOfWork<?> unitOfWork = CurrentUnitOfWork.isStarted() ? CurrentUnitOfWork.get() : null;
+        while (unitOfWork != null) {
+            if (unitOfWork.resources().containsKey(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY)) {
+                return unitOfWork;
+            }
+            unitOfWork = unitOfWork.parent().orElse(null);
+        }
+        return null;
+    }
+
     static String messageName(Class<?> payloadType, String name) {
         if (!payloadType.getName().equals(name)) {
             return name;
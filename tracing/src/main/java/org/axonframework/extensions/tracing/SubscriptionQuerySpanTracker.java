@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentracing.Span;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * Keeps track of the open {@link Span}s of subscription queries. A subscription query's span is finished once the query
+ * is cancelled or its updates complete, but a subscription query which is abandoned without being cancelled would keep
+ * its span open forever. This tracker acts as a watchdog for those spans, expiring every span still open after the
+ * configured maximum span duration.
+ * <p>
+ * The number of open subscription query spans is exposed through the {@link #OPEN_SPANS_GAUGE} gauge on the configured
+ * {@link MeterRegistry}, allowing span leaks to be spotted under load.
+ *
+ * @since 4.12.1
+ */
+public class SubscriptionQuerySpanTracker {
+
+    /**
+     * The name of the gauge reporting the number of open subscription query spans.
+     */
+    public static final String OPEN_SPANS_GAUGE = "axon.tracing.subscription-query.open-spans";
+    /**
+     * The tag set on a subscription query span which is finished because it exceeded the maximum span duration.
+     */
+    public static final String EXPIRED_TAG = "axon.span.expired";
+
+    private final Duration maxSpanDuration;
+    private final AtomicInteger openSpans = new AtomicInteger();
+    private volatile ScheduledThreadPoolExecutor watchdog;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link SubscriptionQuerySpanTracker}.
+     * <p>
+     * The maximum span duration defaults to one hour. No {@link MeterRegistry} is configured by default, in which case
+     * the gauge of open spans is not registered.
+     *
+     * @return a Builder to be able to create a {@link SubscriptionQuerySpanTracker}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the tracker used by components which are built without an explicit {@link SubscriptionQuerySpanTracker}.
+     * It expires spans after one hour and does not register a gauge. As it is shared between all those components,
+     * only a single watchdog thread is started for them, so it should not be {@link #shutdown() shut down}.
+     *
+     * @return the tracker shared by components which are built without an explicit {@link SubscriptionQuerySpanTracker}
+     */
+    public static SubscriptionQuerySpanTracker defaultTracker() {
+        return DefaultTrackerHolder.INSTANCE;
+    }
+
+    /**
+     * Instantiate a {@link SubscriptionQuerySpanTracker} based on the fields contained in the {@link Builder}.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link SubscriptionQuerySpanTracker} instance
+     */
+    protected SubscriptionQuerySpanTracker(Builder builder) {
+        builder.validate();
+        this.maxSpanDuration = builder.maxSpanDuration;
+        if (builder.meterRegistry != null) {
+            Gauge.builder(OPEN_SPANS_GAUGE, openSpans, AtomicInteger::get)
+                 .description("The number of subscription query spans which have not been finished yet")
+                 .register(builder.meterRegistry);
+        }
+    }
+
+    /**
+     * Start tracking an open subscription query {@link Span}. The given {@code expireCallback} is invoked when the
+     * span is still tracked after the maximum span duration. The returned {@link Registration} should be cancelled
+     * once the span is finished. Cancelling it more than once has no further effect.
+     *
+     * @param expireCallback the callback finishing the span when it has been open for the maximum span duration
+     * @return a {@link Registration} to be cancelled once the tracked span is finished
+     */
+    public Registration track(Runnable expireCallback) {
+        openSpans.incrementAndGet();
+        ScheduledFuture<?> expiry = maxSpanDuration.isZero()
+                ? null
+                : watchdog().schedule(expireCallback, maxSpanDuration.toMillis(), TimeUnit.MILLISECONDS);
+        AtomicBoolean released = new AtomicBoolean(false);
+        return () -> {
+            if (!released.compareAndSet(false, true)) {
+                return false;
+            }
+            if (expiry != null) {
+                expiry.cancel(false);
+            }
+            openSpans.decrementAndGet();
+            return true;
+        };
+    }
+
+    /**
+     * Returns the number of subscription query spans currently tracked.
+     *
+     * @return the number of subscription query spans currently tracked
+     */
+    public int openSpans() {
+        return openSpans.get();
+    }
+
+    /**
+     * Shuts down the watchdog of this tracker. Spans which are still open are no longer expired afterwards.
+     */
+    public void shutdown() {
+        ScheduledThreadPoolExecutor current = watchdog;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    private ScheduledThreadPoolExecutor watchdog() {
+        ScheduledThreadPoolExecutor current = watchdog;
+        if (current == null) {
+            synchronized (this) {
+                current = watchdog;
+                if (current == null) {
+                    current = new ScheduledThreadPoolExecutor(1, runnable -> {
+                        Thread thread = new Thread(runnable, "axon-tracing-span-watchdog");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    // Cancelled expiries are removed right away, as most spans finish well within the maximum duration
+                    current.setRemoveOnCancelPolicy(true);
+                    watchdog = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static class DefaultTrackerHolder {
+
+        private static final SubscriptionQuerySpanTracker INSTANCE = builder().build();
+    }
+
+    /**
+     * Builder class to instantiate a {@link SubscriptionQuerySpanTracker}.
+     * <p>
+     * The maximum span duration defaults to one hour. No {@link MeterRegistry} is configured by default, in which case
+     * the gauge of open spans is not registered.
+     */
+    public static class Builder {
+
+        private Duration maxSpanDuration = Duration.ofHours(1);
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Sets the maximum duration a subscription query {@link Span} is kept open. Spans still open after this
+         * duration are finished by the watchdog, marked with the {@link
+         * SubscriptionQuerySpanTracker#EXPIRED_TAG} tag. A duration of zero
+         * disables the watchdog. Defaults to one hour.
+         *
+         * @param maxSpanDuration the maximum duration a subscription query {@link Span} is kept open
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder maxSpanDuration(Duration maxSpanDuration) {
+            assertNonNull(maxSpanDuration, "The maximum span duration may not be null");
+            if (maxSpanDuration.isNegative()) {
+                throw new AxonConfigurationException("The maximum span duration may not be negative");
+            }
+            this.maxSpanDuration = maxSpanDuration;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the gauge of open subscription query spans is registered with. When not set,
+         * the gauge is not registered.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the gauge of open subscription query spans is registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link SubscriptionQuerySpanTracker} as specified through this Builder.
+         *
+         * @return a {@link SubscriptionQuerySpanTracker} as specified through this Builder
+         */
+        public SubscriptionQuerySpanTracker build() {
+            return new SubscriptionQuerySpanTracker(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            // Kept to be overridden
+        }
+    }
+}
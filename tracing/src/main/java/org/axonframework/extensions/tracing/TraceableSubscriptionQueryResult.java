@@ -17,13 +17,23 @@
 package org.axonframework.extensions.tracing;
 
 import io.opentracing.Span;
+import io.opentracing.tag.Tags;
 import org.axonframework.common.Registration;
 import org.axonframework.queryhandling.SubscriptionQueryResult;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
- * Traceable implementation of {@link SubscriptionQueryResult}.
+ * Traceable implementation of {@link SubscriptionQueryResult}. The {@link Span} of the subscription query is stored in
+ * the Reactor {@link reactor.util.context.Context} of both the initial result and the updates, retrievable through
+ * {@link ReactorTracingContext#currentSpan(reactor.util.context.ContextView)}. Received updates are recorded on the span
+ * as described by the given {@link ElementTracingPolicy}.
+ * <p>
+ * The span is finished exactly once: when the result is cancelled, when the updates complete or fail, when the initial
+ * result fails, or when the {@link SubscriptionQuerySpanTracker} expires it after its maximum span duration.
  *
  * @param <I> The type of initial result
  * @param <U> The type of incremental updates
@@ -32,40 +42,101 @@ import reactor.core.publisher.Mono;
  */
 public class TraceableSubscriptionQueryResult<I, U> implements SubscriptionQueryResult<I, U> {
 
+    private static final SubscriptionQuerySpanTracker UNTIMED_TRACKER =
+            SubscriptionQuerySpanTracker.builder().maxSpanDuration(Duration.ZERO).build();
+
     private final Mono<I> initialResult;
     private final Flux<U> updates;
     private final Registration registrationDelegate;
     private final Span span;
+    private final ElementTracingPolicy.Recorder updateRecorder;
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private volatile Registration tracking;
 
     /**
      * Initializes a Traceable SubscriptionQueryResult which contains the original subscriptionQueryResult and the
-     * responsible Span.
+     * responsible Span. Every update is logged on the span, following {@link ElementTracingPolicy#perElement()}, and
+     * the span is not expired after a maximum duration.
      *
      * @param subscriptionQueryResult the original subscriptionQueryResult
      * @param span                    the span wrapping the subscriptionQuery
      */
     public TraceableSubscriptionQueryResult(SubscriptionQueryResult<I, U> subscriptionQueryResult, Span span) {
+        this(subscriptionQueryResult, span, ElementTracingPolicy.perElement(), UNTIMED_TRACKER);
+    }
+
+    /**
+     * Initializes a Traceable SubscriptionQueryResult which contains the original subscriptionQueryResult and the
+     * responsible Span, recording updates on the span as described by the given {@code elementTracingPolicy}. The span
+     * is tracked by the given {@code spanTracker}, which expires it when it is kept open too long.
+     *
+     * @param subscriptionQueryResult the original subscriptionQueryResult
+     * @param span                    the span wrapping the subscriptionQuery
+     * @param elementTracingPolicy    the policy describing how updates are recorded on the span
+     * @param spanTracker             the tracker keeping track of the open span
+     */
+    public TraceableSubscriptionQueryResult(SubscriptionQueryResult<I, U> subscriptionQueryResult,
+                                            Span span,
+                                            ElementTracingPolicy elementTracingPolicy,
+                                            SubscriptionQuerySpanTracker spanTracker) {
         this.initialResult = subscriptionQueryResult.initialResult();
         this.updates = subscriptionQueryResult.updates();
         this.registrationDelegate = subscriptionQueryResult;
         this.span = span;
+        this.updateRecorder = elementTracingPolicy.recorder(span, "updateReceived");
+        this.tracking = spanTracker.track(() -> {
+            span.setTag(SubscriptionQuerySpanTracker.EXPIRED_TAG, true);
+            finishSpan("subscriptionExpired");
+        });
+        if (finished.get()) {
+            // The span expired before the tracking was assigned, so finishing it could not release the tracking
+            tracking.cancel();
+        }
     }
 
     @Override
     public Mono<I> initialResult() {
         span.log("initialResultReceived");
-        return initialResult;
+        return initialResult.doOnError(error -> {
+                                Tags.ERROR.set(span, true);
+                                finishSpan("initialResultFailed");
+                            })
+                            .contextWrite(ReactorTracingContext.withSpan(span));
     }
 
     @Override
     public Flux<U> updates() {
-        return updates.doOnEach(ignored -> span.log("updateReceived"));
+        return updates.doOnNext(ignored -> updateRecorder.record())
+                      .doOnComplete(() -> finishSpan("updatesCompleted"))
+                      .doOnError(error -> {
+                          Tags.ERROR.set(span, true);
+                          finishSpan("updatesFailed");
+                      })
+                      .contextWrite(ReactorTracingContext.withSpan(span));
     }
 
     @Override
     public boolean cancel() {
-        span.log("subscriptionClosed");
-        span.finish();
+        finishSpan("subscriptionClosed");
         return registrationDelegate.cancel();
     }
-}
\ No newline at end of file
+
+    /**
+     * Finishes the span with the given {@code event}, unless it has been finished already.
+     *
+     * @param event the event to log on the span right before finishing it
+     */
+    private void finishSpan(String event) {
+        if (finished.compareAndSet(false, true)) {
+            // The tracking is still unassigned when the span expires while constructing this result, in which case the
+            // constructor releases it
+            Registration currentTracking = tracking;
+            if (currentTracking != null) {
+                currentTracking.cancel();
+            }
+            updateRecorder.complete();
+            span.log(event);
+            span.finish();
+        }
+    }
+}
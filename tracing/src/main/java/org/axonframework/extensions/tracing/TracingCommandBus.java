@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.tag.Tags;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.callbacks.LoggingCallback;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.lifecycle.Lifecycle;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A tracing {@link CommandBus} starting a client {@link Span} for every dispatched command, with the same name,
+ * semantics and tags as the spans of the {@link TracingCommandGateway}. This covers commands which are dispatched on
+ * the bus directly, like those of deadline managers and sagas. This implementation is a wrapper and as such delegates
+ * the actual dispatching of commands to another CommandBus.
+ * <p>
+ * The span context is injected into the metadata of the dispatched command, together with the moment of dispatch. The
+ * {@link OpenTraceHandlerInterceptor} uses the latter to tag the handling span with the time the command spent being
+ * routed and queued, as {@link #QUEUE_TIME_TAG}. For a distributed command bus this includes the time spent on the
+ * network, and is only accurate to the extent the clocks of the dispatching and handling nodes are in sync.
+ * <p>
+ * Use either this bus or the {@link TracingCommandGateway}, as a gateway sending through this bus would start two
+ * client spans per command.
+ *
+ * @since 4.12.1
+ */
+public class TracingCommandBus implements CommandBus, Lifecycle {
+
+    /**
+     * The metadata key holding the moment a command was dispatched, as milliseconds since the epoch.
+     */
+    public static final String DISPATCH_TIMESTAMP_METADATA_KEY = "axon-dispatch-timestamp";
+    /**
+     * The tag holding the milliseconds between dispatching and handling a command, set on the handling {@link Span}.
+     */
+    public static final String QUEUE_TIME_TAG = "axon.command.queue-time-millis";
+
+    private final Tracer tracer;
+    private final CommandBus delegate;
+    private final MessageTagBuilderService messageTagBuilderService;
+    private final TracingMessageFilter messageFilter;
+    private final boolean recordQueueTime;
+    private final HandlerInterceptorTimer handlerInterceptorTimer;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingCommandBus}.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}, the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()} and the queue time is recorded by
+     * default. The {@link Tracer} and delegate {@link CommandBus} are <b>hard requirements</b> and as such should be
+     * provided.
+     *
+     * @return a Builder to be able to create a {@link TracingCommandBus}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingCommandBus} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link CommandBus} are not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingCommandBus} instance
+     */
+    protected TracingCommandBus(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.messageTagBuilderService = builder.messageTagBuilderService;
+        this.messageFilter = builder.messageFilter;
+        this.recordQueueTime = builder.recordQueueTime;
+        this.handlerInterceptorTimer = builder.handlerInterceptorTimer;
+    }
+
+    @Override
+    public <C> void dispatch(CommandMessage<C> command) {
+        dispatch(command, LoggingCallback.INSTANCE);
+    }
+
+    @Override
+    public <C, R> void dispatch(CommandMessage<C> command, CommandCallback<? super C, ? super R> callback) {
+        if (!messageFilter.shouldTrace(command)) {
+            delegate.dispatch(command, callback);
+            return;
+        }
+        Span span = messageTagBuilderService.withCommandMessageTags(
+                tracer.buildSpan("send_" + SpanUtils.messageName(command)), command
+        ).withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT).start();
+        //noinspection unchecked
+        SpanFinishingCommandCallback<R> spanFinishingCallback =
+                new SpanFinishingCommandCallback<>(tracer, span, (CommandCallback<Object, Object>) callback);
+        try (Scope ignored = tracer.activateSpan(span)) {
+            delegate.dispatch(command.andMetaData(tracingMetaData(command, span)), spanFinishingCallback);
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(span, true);
+            span.finish();
+            throw e;
+        }
+        spanFinishingCallback.dispatchComplete();
+    }
+
+    private Map<String, Object> tracingMetaData(CommandMessage<?> command, Span span) {
+        MapInjector injector = new MapInjector();
+        tracer.inject(span.context(), Format.Builtin.TEXT_MAP, injector);
+        Map<String, Object> metaData = new HashMap<>(injector.getMetaData());
+        MessageDeadlines.currentDeadline()
+                        .ifPresent(deadline -> metaData.putAll(MessageDeadlines.deadlineMetaData(command, deadline)));
+        if (recordQueueTime) {
+            metaData.put(DISPATCH_TIMESTAMP_METADATA_KEY, System.currentTimeMillis());
+        }
+        return metaData;
+    }
+
+    @Override
+    public Registration subscribe(String commandName, MessageHandler<? super CommandMessage<?>> handler) {
+        return delegate.subscribe(commandName, handler);
+    }
+
+    @Override
+    public Registration registerHandlerInterceptor(
+            MessageHandlerInterceptor<? super CommandMessage<?>> handlerInterceptor) {
+        return delegate.registerHandlerInterceptor(
+                handlerInterceptorTimer != null ? handlerInterceptorTimer.timed(handlerInterceptor) : handlerInterceptor
+        );
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            MessageDispatchInterceptor<? super CommandMessage<?>> dispatchInterceptor) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    @Override
+    public void registerLifecycleHandlers(LifecycleRegistry lifecycle) {
+        if (delegate instanceof Lifecycle) {
+            ((Lifecycle) delegate).registerLifecycleHandlers(lifecycle);
+        }
+    }
+
+    /**
+     * Returns the {@link CommandBus} this tracing-wrapper delegates the actual dispatching of commands to.
+     *
+     * @return the {@link CommandBus} this tracing-wrapper delegates the actual dispatching of commands to
+     */
+    public CommandBus getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Tags the given handling {@code span} with the {@link #QUEUE_TIME_TAG} when the given {@code message} carries the
+     * moment it was dispatched.
+     *
+     * @param span    the {@link Span} handling the given {@code message}
+     * @param message the message being handled
+     */
+    static void tagQueueTime(Span span, Message<?> message) {
+        Object dispatchTimestamp = message.getMetaData().get(DISPATCH_TIMESTAMP_METADATA_KEY);
+        long dispatchedAt;
+        if (dispatchTimestamp instanceof Number) {
+            dispatchedAt = ((Number) dispatchTimestamp).longValue();
+        } else if (dispatchTimestamp instanceof String) {
+            try {
+                dispatchedAt = Long.parseLong((String) dispatchTimestamp);
+            } catch (NumberFormatException e) {
+                return;
+            }
+        } else {
+            return;
+        }
+        // Clocks of distributed nodes may drift apart, so a handling node may observe a dispatch in its future
+        span.setTag(QUEUE_TIME_TAG, Math.max(0, Instant.now().toEpochMilli() - dispatchedAt));
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingCommandBus}.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}, the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()} and the queue time is recorded by
+     * default. The {@link Tracer} and delegate {@link CommandBus} are <b>hard requirements</b> and as such should be
+     * provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private CommandBus delegate;
+        private MessageTagBuilderService messageTagBuilderService = MessageTagBuilderService.defaultService();
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+        private boolean recordQueueTime = true;
+        private HandlerInterceptorTimer handlerInterceptorTimer;
+
+        /**
+         * Sets the {@link Tracer} used to set a {@link Span} on dispatched {@link CommandMessage}s.
+         *
+         * @param tracer a {@link Tracer} used to set a {@link Span} on dispatched {@link CommandMessage}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link CommandBus} this tracing-wrapper will delegate the actual dispatching of commands towards.
+         *
+         * @param delegate the {@link CommandBus} this tracing-wrapper will delegate the actual dispatching of commands
+         *                 towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateCommandBus(CommandBus delegate) {
+            assertNonNull(delegate, "Delegate CommandBus may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MessageTagBuilderService} to be used to add {@link CommandMessage} information as tags to a
+         * {@link Span}. Defaults to a {@link MessageTagBuilderService#defaultService()}.
+         *
+         * @param messageTagBuilderService the {@link MessageTagBuilderService} to be used to add {@link CommandMessage}
+         *                                 information as tags to a {@link Span}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageTagBuilderService(MessageTagBuilderService messageTagBuilderService) {
+            assertNonNull(messageTagBuilderService, "MessageTagBuilderService may not be null");
+            this.messageTagBuilderService = messageTagBuilderService;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which dispatched {@link CommandMessage}s are traced.
+         * Suppressed commands are passed to the delegate {@link CommandBus} without building a {@link Span}. Defaults
+         * to {@link TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which dispatched {@link CommandMessage}s are
+         *                      traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Sets whether the moment of dispatch is added to the metadata of traced commands, allowing the handling
+         * {@link Span} to be tagged with the {@link TracingCommandBus#QUEUE_TIME_TAG}. Defaults to {@code true}.
+         *
+         * @param recordQueueTime whether the moment of dispatch is added to the metadata of traced commands
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder recordQueueTime(boolean recordQueueTime) {
+            this.recordQueueTime = recordQueueTime;
+            return this;
+        }
+
+        /**
+         * Sets the {@link HandlerInterceptorTimer} timing every handler interceptor registered with this bus. Defaults
+         * to {@code null}, registering handler interceptors with the delegate {@link CommandBus} as is.
+         *
+         * @param handlerInterceptorTimer the {@link HandlerInterceptorTimer} timing every registered handler
+         *                                interceptor
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder handlerInterceptorTimer(HandlerInterceptorTimer handlerInterceptorTimer) {
+            assertNonNull(handlerInterceptorTimer, "HandlerInterceptorTimer may not be null");
+            this.handlerInterceptorTimer = handlerInterceptorTimer;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingCommandBus} as specified through this Builder.
+         *
+         * @return a {@link TracingCommandBus} as specified through this Builder
+         */
+        public TracingCommandBus build() {
+            return new TracingCommandBus(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate CommandBus is a hard requirement and should be provided");
+        }
+    }
+}
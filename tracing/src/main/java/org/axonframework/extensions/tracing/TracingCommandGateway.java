@@ -15,6 +15,8 @@
  */
 package org.axonframework.extensions.tracing;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.Tracer;
@@ -25,19 +27,21 @@ import org.axonframework.commandhandling.CommandExecutionException;
 import org.axonframework.commandhandling.CommandMessage;
 import org.axonframework.commandhandling.CommandResultMessage;
 import org.axonframework.commandhandling.GenericCommandMessage;
-import org.axonframework.commandhandling.GenericCommandResultMessage;
-import org.axonframework.commandhandling.callbacks.FailureLoggingCallback;
 import org.axonframework.commandhandling.callbacks.FutureCallback;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.commandhandling.gateway.RetryScheduler;
 import org.axonframework.common.AxonConfigurationException;
 import org.axonframework.common.Registration;
 import org.axonframework.messaging.MessageDispatchInterceptor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.lang.invoke.MethodHandles;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -47,6 +51,12 @@ import static org.axonframework.common.BuilderUtils.assertNonNull;
  * A tracing {@link CommandGateway} which activates a calling {@link Span}, when the {@link CompletableFuture}
  * completes. This implementation is a wrapper and as such delegates the actual dispatching of commands to another
  * CommandGateway.
+ * <p>
+ * When a {@link RetryScheduler} is configured, every retry of a traced command is logged as a {@code commandRetry}
+ * event on the command's span, holding the number of the retry, the backoff delay and the class of the failure which
+ * caused it. Commands the scheduler gives up on log a {@code retriesExhausted} event instead. The initial dispatches
+ * and retries of all commands are counted on the {@link #RETRY_AMPLIFICATION_COUNTER} counter per command name,
+ * revealing when retries multiply the load on the command handlers.
  *
  * @author Christophe Bouhier
  * @author Allard Buijze
@@ -56,11 +66,37 @@ import static org.axonframework.common.BuilderUtils.assertNonNull;
  */
 public class TracingCommandGateway implements CommandGateway {
 
-    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    /**
+     * The name of the counter counting the dispatches of commands sent through a gateway with a {@link RetryScheduler},
+     * tagged with the {@code commandName} and the {@code dispatch}, being either {@code initial} or {@code retry}. The
+     * rate of all dispatches divided by the rate of the initial dispatches is the factor by which retries amplify the
+     * load of a command.
+     */
+    public static final String RETRY_AMPLIFICATION_COUNTER = "axon.tracing.command.retry-amplification";
+    /**
+     * The field holding the number of the retry, starting at {@code 1}, in the retry events logged on the command's
+     * {@link Span}.
+     */
+    public static final String RETRY_ATTEMPT_FIELD = "axon.command.retry-attempt";
+    /**
+     * The field holding the milliseconds between the failure and the retry of a command, in the {@code commandRetry}
+     * events logged on the command's {@link Span}.
+     */
+    public static final String RETRY_BACKOFF_FIELD = "axon.command.retry-backoff-millis";
+    /**
+     * The field holding the class of the failure causing the retry, in the retry events logged on the command's {@link
+     * Span}.
+     */
+    public static final String RETRY_CAUSE_FIELD = "axon.command.retry-cause";
 
     private final Tracer tracer;
     private final CommandGateway delegate;
     private final MessageTagBuilderService messageTagBuilderService;
+    private final TracingMessageFilter messageFilter;
+    private final boolean virtualThreadAware;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Span> retryableSpans;
+    private final ConcurrentMap<String, ConcurrentMap<String, Counter>> dispatchCounters = new ConcurrentHashMap<>();
 
     /**
      * Instantiate a Builder to be able to create a {@link TracingCommandGateway}.
@@ -69,8 +105,10 @@ public class TracingCommandGateway implements CommandGateway {
      * commands to. If a CommandBus is provided directly, it will be used to instantiate a {@link
      * DefaultCommandGateway}. A registered CommandGateway will always take precedence over a configured CommandBus.
      * <p>
-     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}. The
-     * {@link Tracer} and delegate {@link CommandGateway} are <b>hard requirements</b> and as such should be provided.
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()} and the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}. No {@link MeterRegistry} is configured
+     * by default, in which case retries are only recorded on the spans. The {@link Tracer} and delegate {@link
+     * CommandGateway} are <b>hard requirements</b> and as such should be provided.
      *
      * @return a Builder to be able to create a {@link TracingCommandGateway}
      */
@@ -89,88 +127,189 @@ public class TracingCommandGateway implements CommandGateway {
     protected TracingCommandGateway(Builder builder) {
         builder.validate();
         this.tracer = builder.tracer;
-        this.delegate = builder.buildDelegateCommandGateway();
         this.messageTagBuilderService = builder.messageTagBuilderService;
+        this.messageFilter = builder.messageFilter;
+        this.virtualThreadAware = builder.virtualThreadAware;
+        this.meterRegistry = builder.meterRegistry;
+        if (builder.retryScheduler != null) {
+            this.retryableSpans = new ConcurrentHashMap<>();
+            RetryScheduler retryScheduler = new SpanRecordingRetryScheduler(builder.retryScheduler);
+            this.delegate = builder.buildDelegateCommandGateway(retryScheduler);
+        } else {
+            this.retryableSpans = null;
+            this.delegate = builder.buildDelegateCommandGateway(null);
+        }
     }
 
     @Override
     public <C, R> void send(C command, CommandCallback<? super C, ? super R> callback) {
         CommandMessage<? super C> cmd = GenericCommandMessage.asCommandMessage(command);
-        sendWithSpan("send_" + SpanUtils.messageName(cmd), cmd, (childSpan) -> {
-            CompletableFuture<?> resultReceived = new CompletableFuture<>();
-            delegate.send(cmd, (CommandCallback<Object, R>) (commandMessage, commandResultMessage) -> {
-                try (Scope ignored = tracer.activateSpan(childSpan)) {
-                    childSpan.log("resultReceived");
-                    //noinspection unchecked
-                    callback.onResult((CommandMessage<? extends C>) commandMessage, commandResultMessage);
-                    childSpan.log("afterCallbackInvocation");
-                } finally {
-                    resultReceived.complete(null);
-                }
-            });
-            childSpan.log("dispatchComplete");
-            resultReceived.thenRun(childSpan::finish);
-        });
+        countDispatch(cmd, "initial");
+        if (!messageFilter.shouldTrace(cmd)) {
+            delegate.send(command, callback);
+            return;
+        }
+        Span childSpan = startSpan("send_" + SpanUtils.messageName(cmd), cmd);
+        //noinspection unchecked
+        dispatchWithSpan(cmd, new SpanFinishingCommandCallback<>(
+                tracer, childSpan, (CommandCallback<Object, Object>) callback
+        ));
     }
 
     @Override
     public <R> R sendAndWait(Object command) {
-        return doSendAndExtract(command, FutureCallback::getResult);
+        return doSendAndExtract(command, null, FutureCallback::getResult);
     }
 
     @Override
     public <R> R sendAndWait(Object command, long timeout, TimeUnit unit) {
-        return doSendAndExtract(command, f -> f.getResult(timeout, unit));
+        Instant deadline = Instant.now().plusMillis(unit.toMillis(timeout));
+        return doSendAndExtract(command, deadline, f -> f.getResult(timeout, unit));
     }
 
     @Override
     public <R> CompletableFuture<R> send(Object command) {
-        FutureCallback<Object, R> callback = new FutureCallback<>();
-        send(command, new FailureLoggingCallback<>(logger, callback));
-        CompletableFuture<R> result = new CompletableFuture<>();
-        callback.exceptionally(GenericCommandResultMessage::asCommandResultMessage)
-                .thenAccept(r -> {
-                    try {
-                        if (r.isExceptional()) {
-                            result.completeExceptionally(r.exceptionResult());
-                        } else {
-                            result.complete(r.getPayload());
-                        }
-                    } catch (Exception e) {
-                        result.completeExceptionally(e);
-                    }
-                });
+        CommandMessage<?> cmd = GenericCommandMessage.asCommandMessage(command);
+        countDispatch(cmd, "initial");
+        if (!messageFilter.shouldTrace(cmd)) {
+            return delegate.send(command);
+        }
+        // The callback is the returned future as well, so the span is finished and the result completed in one go
+        SpanFinishingCommandCallback<R> result =
+                new SpanFinishingCommandCallback<>(tracer, startSpan("send_" + SpanUtils.messageName(cmd), cmd), null);
+        dispatchWithSpan(cmd, result);
         return result;
     }
 
     private <R> R doSendAndExtract(Object command,
+                                   Instant deadline,
                                    Function<FutureCallback<Object, R>, CommandResultMessage<? extends R>> resultExtractor) {
         FutureCallback<Object, R> futureCallback = new FutureCallback<>();
 
         CommandMessage<?> cmd = GenericCommandMessage.asCommandMessage(command);
-        sendWithSpan("sendAndWait_" + SpanUtils.messageName(cmd), cmd, (childSpan) -> {
+        if (deadline != null) {
+            cmd = cmd.andMetaData(MessageDeadlines.deadlineMetaData(cmd, deadline));
+        }
+        countDispatch(cmd, "initial");
+        CommandResultMessage<? extends R> commandResultMessage;
+        if (!messageFilter.shouldTrace(cmd)) {
             delegate.send(cmd, futureCallback);
-            futureCallback.thenRun(() -> childSpan.log("resultReceived"));
+            commandResultMessage = resultExtractor.apply(futureCallback);
+        } else if (virtualThreadAware) {
+            commandResultMessage = sendAndWaitWithActiveSpan(cmd, deadline, futureCallback, resultExtractor);
+        } else {
+            Span childSpan = startSpan("sendAndWait_" + SpanUtils.messageName(cmd), cmd);
+            try (Scope ignored = tracer.activateSpan(childSpan)) {
+                sendWithSpan(cmd, childSpan, futureCallback);
+                futureCallback.thenRun(() -> childSpan.log("resultReceived"));
 
-            childSpan.log("dispatchComplete");
-            futureCallback.thenRun(childSpan::finish);
-        });
+                childSpan.log("dispatchComplete");
+                futureCallback.thenRun(() -> {
+                    MessageDeadlines.tagIfExceeded(childSpan, deadline);
+                    childSpan.finish();
+                });
+            }
+            commandResultMessage = resultExtractor.apply(futureCallback);
+        }
 
-        CommandResultMessage<? extends R> commandResultMessage = resultExtractor.apply(futureCallback);
         if (commandResultMessage.isExceptional()) {
             throw asRuntime(commandResultMessage.exceptionResult());
         }
         return commandResultMessage.getPayload();
     }
 
-    private void sendWithSpan(String operation, CommandMessage<?> command, SpanConsumer consumer) {
-        Tracer.SpanBuilder spanBuilder =
-                messageTagBuilderService.withCommandMessageTags(tracer.buildSpan(operation), command)
-                                        .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
-        final Span childSpan = spanBuilder.start();
+    /**
+     * Sends the given {@code command} and waits for its result while keeping the span active on the calling thread. The
+     * span is finished by the calling thread once the result has been extracted, so nothing is chained on the thread
+     * completing the command. The wait itself parks the calling thread on the {@link FutureCallback} rather than
+     * blocking in a synchronized section, allowing a virtual thread to unmount while waiting.
+     */
+    private <R> CommandResultMessage<? extends R> sendAndWaitWithActiveSpan(
+            CommandMessage<?> command,
+            Instant deadline,
+            FutureCallback<Object, R> futureCallback,
+            Function<FutureCallback<Object, R>, CommandResultMessage<? extends R>> resultExtractor
+    ) {
+        Span childSpan = startSpan("sendAndWait_" + SpanUtils.messageName(command), command);
         try (Scope ignored = tracer.activateSpan(childSpan)) {
-            consumer.accept(childSpan);
+            sendWithSpan(command, childSpan, futureCallback);
+            childSpan.log("dispatchComplete");
+            CommandResultMessage<? extends R> commandResultMessage = resultExtractor.apply(futureCallback);
+            childSpan.log("resultReceived");
+            if (commandResultMessage.isExceptional()) {
+                Tags.ERROR.set(childSpan, true);
+            }
+            return commandResultMessage;
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(childSpan, true);
+            throw e;
+        } finally {
+            MessageDeadlines.tagIfExceeded(childSpan, deadline);
+            childSpan.finish();
+        }
+    }
+
+    private Span startSpan(String operation, CommandMessage<?> command) {
+        return messageTagBuilderService.withCommandMessageTags(tracer.buildSpan(operation), command)
+                                       .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT)
+                                       .start();
+    }
+
+    private void dispatchWithSpan(CommandMessage<?> command, SpanFinishingCommandCallback<?> callback) {
+        try (Scope ignored = tracer.activateSpan(callback.span())) {
+            sendWithSpan(command, callback.span(), callback);
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(callback.span(), true);
+            callback.span().finish();
+            throw e;
+        }
+        callback.dispatchComplete();
+    }
+
+    /**
+     * Sends the given {@code command} through the delegate {@link CommandGateway}. When retries are recorded, the
+     * {@code span} is kept retrievable for the {@link RetryScheduler} until the final result of the command is in.
+     */
+    private <R> void sendWithSpan(CommandMessage<?> command, Span span, CommandCallback<Object, R> callback) {
+        if (retryableSpans == null) {
+            delegate.send(command, callback);
+            return;
         }
+        String identifier = command.getIdentifier();
+        retryableSpans.put(identifier, span);
+        try {
+            delegate.send(command, (CommandCallback<Object, R>) (commandMessage, commandResultMessage) -> {
+                retryableSpans.remove(identifier);
+                callback.onResult(commandMessage, commandResultMessage);
+            });
+        } catch (RuntimeException | Error e) {
+            retryableSpans.remove(identifier);
+            throw e;
+        }
+    }
+
+    private void countDispatch(CommandMessage<?> command, String dispatch) {
+        if (retryableSpans == null || meterRegistry == null) {
+            return;
+        }
+        String commandName = command.getCommandName();
+        ConcurrentMap<String, Counter> commandCounters = dispatchCounters.get(commandName);
+        if (commandCounters == null) {
+            commandCounters = dispatchCounters.computeIfAbsent(commandName, name -> new ConcurrentHashMap<>());
+        }
+        Counter counter = commandCounters.get(dispatch);
+        if (counter == null) {
+            counter = commandCounters.computeIfAbsent(dispatch, d -> newDispatchCounter(commandName, d));
+        }
+        counter.increment();
+    }
+
+    private Counter newDispatchCounter(String commandName, String dispatch) {
+        return Counter.builder(RETRY_AMPLIFICATION_COUNTER)
+                      .description("The number of initial dispatches and retries of commands")
+                      .tag("commandName", commandName)
+                      .tag("dispatch", dispatch)
+                      .register(meterRegistry);
     }
 
     private RuntimeException asRuntime(Throwable e) {
@@ -189,10 +328,53 @@ public class TracingCommandGateway implements CommandGateway {
         return delegate.registerDispatchInterceptor(dispatchInterceptor);
     }
 
-    @FunctionalInterface
-    private interface SpanConsumer {
+    /**
+     * A {@link RetryScheduler} recording the retries scheduled by a delegate scheduler on the {@link Span} of the
+     * retried command. The span is active while the retry is dispatched, so the spans of the retried dispatch become
+     * its children.
+     */
+    private class SpanRecordingRetryScheduler implements RetryScheduler {
+
+        private final RetryScheduler delegate;
+
+        private SpanRecordingRetryScheduler(RetryScheduler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean scheduleRetry(CommandMessage commandMessage,
+                                     RuntimeException lastFailure,
+                                     List<Class<? extends Throwable>[]> failures,
+                                     Runnable commandDispatch) {
+            Span span = retryableSpans.get(commandMessage.getIdentifier());
+            int attempt = failures.size();
+            long failedAt = System.nanoTime();
+            boolean scheduled = delegate.scheduleRetry(commandMessage, lastFailure, failures, () -> {
+                countDispatch(commandMessage, "retry");
+                if (span == null) {
+                    commandDispatch.run();
+                    return;
+                }
+                Map<String, Object> fields = retryFields("commandRetry", attempt, lastFailure);
+                fields.put(RETRY_BACKOFF_FIELD, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - failedAt));
+                span.log(fields);
+                try (Scope ignored = tracer.activateSpan(span)) {
+                    commandDispatch.run();
+                }
+            });
+            if (!scheduled && span != null) {
+                span.log(retryFields("retriesExhausted", attempt, lastFailure));
+            }
+            return scheduled;
+        }
 
-        void accept(Span childSpan);
+        private Map<String, Object> retryFields(String event, int attempt, RuntimeException failure) {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("event", event);
+            fields.put(RETRY_ATTEMPT_FIELD, attempt);
+            fields.put(RETRY_CAUSE_FIELD, failure.getClass().getName());
+            return fields;
+        }
     }
 
     /**
@@ -202,8 +384,10 @@ public class TracingCommandGateway implements CommandGateway {
      * commands to. If a CommandBus is provided directly, it will be used to instantiate a {@link
      * DefaultCommandGateway}. A registered CommandGateway will always take precedence over a configured CommandBus.
      * <p>
-     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}. The
-     * {@link Tracer} and delegate {@link CommandGateway} are <b>hard requirements</b> and as such should be provided.
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()} and the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}. No {@link MeterRegistry} is configured
+     * by default, in which case retries are only recorded on the spans. The {@link Tracer} and delegate {@link
+     * CommandGateway} are <b>hard requirements</b> and as such should be provided.
      */
     public static class Builder {
 
@@ -211,6 +395,10 @@ public class TracingCommandGateway implements CommandGateway {
         private CommandBus delegateBus;
         private CommandGateway delegateGateway;
         private MessageTagBuilderService messageTagBuilderService = MessageTagBuilderService.defaultService();
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+        private boolean virtualThreadAware = false;
+        private RetryScheduler retryScheduler;
+        private MeterRegistry meterRegistry;
 
         /**
          * Sets the {@link Tracer} used to set a {@link Span} on dispatched {@link CommandMessage}s.
@@ -265,6 +453,69 @@ public class TracingCommandGateway implements CommandGateway {
             return this;
         }
 
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which sent {@link CommandMessage}s are traced. Suppressed
+         * commands are passed to the delegate {@link CommandGateway} without building a {@link Span}. Defaults to
+         * {@link TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which sent {@link CommandMessage}s are traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Sets whether {@code sendAndWait} keeps the {@link Span} of the command active on the calling thread while
+         * waiting for the result. In this mode the span is finished by the calling thread once the result is in, and
+         * the wait does not enter any synchronized section, which keeps callers running on virtual threads from pinning
+         * their carrier thread. Spans of timed out commands are finished right away, marked as erroneous. Defaults to
+         * {@code false}, in which case the span is finished by the thread completing the command.
+         * <p>
+         * Note that the span is activated through the {@link Tracer}'s {@link io.opentracing.ScopeManager}, which
+         * should be safe to use from virtual threads as well, like OpenTracing's {@code ThreadLocalScopeManager}.
+         *
+         * @param virtualThreadAware whether {@code sendAndWait} keeps the {@link Span} active while waiting for the
+         *                           result
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder virtualThreadAware(boolean virtualThreadAware) {
+            this.virtualThreadAware = virtualThreadAware;
+            return this;
+        }
+
+        /**
+         * Sets the {@link RetryScheduler} of the {@link DefaultCommandGateway} built from the delegate {@link
+         * CommandBus}, deciding whether and when failed commands are retried. Retries of traced commands are logged
+         * on their {@link Span}. Can only be used together with {@link #delegateCommandBus(CommandBus)}, as the
+         * retry scheduler of a given delegate {@link CommandGateway} is out of reach. Defaults to none, in which case
+         * commands are not retried.
+         *
+         * @param retryScheduler the {@link RetryScheduler} deciding whether and when failed commands are retried
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder retryScheduler(RetryScheduler retryScheduler) {
+            assertNonNull(retryScheduler, "RetryScheduler may not be null");
+            this.retryScheduler = retryScheduler;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the {@link TracingCommandGateway#RETRY_AMPLIFICATION_COUNTER} counter is
+         * registered with. Only used when a {@link RetryScheduler} is configured. When not set, retries are
+         * only recorded on the spans.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the retry amplification counter is registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
         /**
          * Initializes a {@link TracingCommandGateway} as specified through this Builder.
          *
@@ -279,13 +530,20 @@ public class TracingCommandGateway implements CommandGateway {
          * commands. Will either use the registered {@link CommandBus} (through {@link #delegateCommandBus(CommandBus)})
          * or a complete CommandGateway through {@link #delegateCommandGateway(CommandGateway)}.
          *
+         * @param retryScheduler the {@link RetryScheduler} of a CommandGateway built from the CommandBus, or {@code
+         *                       null} to not retry commands
          * @return the delegate {@link CommandGateway} this tracing-wrapper gateway will uses to actually dispatch
          * commands
          */
-        private CommandGateway buildDelegateCommandGateway() {
-            return delegateGateway != null
-                    ? delegateGateway
-                    : DefaultCommandGateway.builder().commandBus(delegateBus).build();
+        private CommandGateway buildDelegateCommandGateway(RetryScheduler retryScheduler) {
+            if (delegateGateway != null) {
+                return delegateGateway;
+            }
+            DefaultCommandGateway.Builder gatewayBuilder = DefaultCommandGateway.builder().commandBus(delegateBus);
+            if (retryScheduler != null) {
+                gatewayBuilder.retryScheduler(retryScheduler);
+            }
+            return gatewayBuilder.build();
         }
 
         /**
@@ -296,6 +554,12 @@ public class TracingCommandGateway implements CommandGateway {
          */
         protected void validate() throws AxonConfigurationException {
             assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            if (retryScheduler != null && delegateGateway != null) {
+                throw new AxonConfigurationException(
+                        "A RetryScheduler can only be configured when the delegate CommandGateway is built from a"
+                                + " CommandBus"
+                );
+            }
             if (delegateBus == null) {
                 assertNonNull(
                         delegateGateway, "The delegate CommandGateway is a hard requirement and should be provided"
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentracing.References;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.deadline.DeadlineMessage;
+import org.axonframework.deadline.GenericDeadlineMessage;
+import org.axonframework.lifecycle.Lifecycle;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A tracing {@link DeadlineManager} keeping deadlines within the trace they were scheduled from. Scheduling a deadline
+ * starts a producer {@link Span}, as a child of the active span or the span of the handled message. The context of
+ * this span is injected into the metadata of the scheduled {@link DeadlineMessage}, together with the moment the
+ * deadline is planned to trigger. This implementation is a wrapper and as such delegates the actual scheduling of
+ * deadlines to another DeadlineManager.
+ * <p>
+ * When the deadline triggers, a handler interceptor registered with the delegate starts a consumer span which follows
+ * from the scheduling span, linking the handling of the deadline back to the trace which scheduled it. The handling
+ * span is tagged with the time between the planned and the actual triggering of the deadline, as {@link
+ * #TRIGGER_LAG_TAG}, which is also recorded on the {@link #TRIGGER_LAG_TIMER} timer per deadline name. A growing lag
+ * signals a scheduler which cannot keep up with its deadlines. For a deadline manager triggering deadlines on another
+ * node the lag is only accurate to the extent the clocks of both nodes are in sync.
+ *
+ * @since 4.12.1
+ */
+public class TracingDeadlineManager implements DeadlineManager, Lifecycle {
+
+    /**
+     * The name of the timer recording the time between the planned and the actual triggering of deadlines, tagged with
+     * the {@code deadlineName}.
+     */
+    public static final String TRIGGER_LAG_TIMER = "axon.tracing.deadline.trigger-lag";
+    /**
+     * The metadata key holding the moment a deadline is planned to trigger, as milliseconds since the epoch.
+     */
+    public static final String TRIGGER_TIMESTAMP_METADATA_KEY = "axon-deadline-trigger-timestamp";
+    /**
+     * The tag holding the name of the scheduled or triggered deadline.
+     */
+    public static final String DEADLINE_NAME_TAG = "axon.deadline.name";
+    /**
+     * The tag holding the identifier of the schedule, set on the scheduling {@link Span}.
+     */
+    public static final String SCHEDULE_ID_TAG = "axon.deadline.schedule-id";
+    /**
+     * The tag holding the moment a deadline is planned to trigger, as milliseconds since the epoch.
+     */
+    public static final String TRIGGER_TIMESTAMP_TAG = "axon.deadline.trigger-timestamp";
+    /**
+     * The tag holding the milliseconds between the planned and the actual triggering of a deadline, set on the
+     * handling {@link Span}.
+     */
+    public static final String TRIGGER_LAG_TAG = "axon.deadline.trigger-lag-millis";
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Tracer tracer;
+    private final DeadlineManager delegate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> triggerLagTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingDeadlineManager}.
+     * <p>
+     * No {@link MeterRegistry} is configured by default, in which case the trigger lag is only tagged on the spans.
+     * The {@link Tracer} and delegate {@link DeadlineManager} are <b>hard requirements</b> and as such
+     * should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingDeadlineManager}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingDeadlineManager} based on the fields contained in the {@link Builder}. The handler
+     * interceptor starting the spans of triggered deadlines is registered with the delegate {@link DeadlineManager}
+     * right away, so it precedes any interceptor registered afterwards.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link DeadlineManager} are not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingDeadlineManager} instance
+     */
+    protected TracingDeadlineManager(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.meterRegistry = builder.meterRegistry;
+        delegate.registerHandlerInterceptor(this::handleDeadline);
+    }
+
+    @Override
+    public String schedule(Instant triggerDateTime,
+                           String deadlineName,
+                           Object messageOrPayload,
+                           ScopeDescriptor deadlineScope) {
+        Tracer.SpanBuilder spanBuilder =
+                tracer.buildSpan("scheduleDeadline_" + deadlineName)
+                      .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_PRODUCER)
+                      .withTag(DEADLINE_NAME_TAG, deadlineName)
+                      .withTag(TRIGGER_TIMESTAMP_TAG, triggerDateTime.toEpochMilli());
+        Span parentSpan = SpanUtils.parentSpan(tracer);
+        if (parentSpan != null) {
+            spanBuilder.asChildOf(parentSpan);
+        }
+        Span span = spanBuilder.start();
+        try (Scope ignored = tracer.activateSpan(span)) {
+            DeadlineMessage<Object> deadlineMessage =
+                    GenericDeadlineMessage.asDeadlineMessage(deadlineName, messageOrPayload, triggerDateTime);
+            String scheduleId = delegate.schedule(triggerDateTime,
+                                                  deadlineName,
+                                                  deadlineMessage.andMetaData(tracingMetaData(span, triggerDateTime)),
+                                                  deadlineScope);
+            span.setTag(SCHEDULE_ID_TAG, scheduleId);
+            return scheduleId;
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(span, true);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+
+    private Map<String, Object> tracingMetaData(Span span, Instant triggerDateTime) {
+        MapInjector injector = new MapInjector();
+        tracer.inject(span.context(), Format.Builtin.TEXT_MAP, injector);
+        Map<String, Object> metaData = new HashMap<>(injector.getMetaData());
+        metaData.put(TRIGGER_TIMESTAMP_METADATA_KEY, triggerDateTime.toEpochMilli());
+        return metaData;
+    }
+
+    private Object handleDeadline(UnitOfWork<? extends DeadlineMessage<?>> unitOfWork,
+                                  InterceptorChain interceptorChain) throws Exception {
+        DeadlineMessage<?> deadlineMessage = unitOfWork.getMessage();
+        String deadlineName = deadlineMessage.getDeadlineName();
+        Tracer.SpanBuilder spanBuilder = tracer.buildSpan("deadline_" + deadlineName)
+                                               .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CONSUMER)
+                                               .withTag(DEADLINE_NAME_TAG, deadlineName);
+        SpanContext schedulingContext = schedulingContext(deadlineMessage);
+        if (schedulingContext != null) {
+            spanBuilder.addReference(References.FOLLOWS_FROM, schedulingContext);
+        }
+        Span span = spanBuilder.start();
+        recordTriggerLag(span, deadlineMessage);
+        unitOfWork.resources().put(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY, span);
+        unitOfWork.onRollback(u -> Tags.ERROR.set(span, true));
+        unitOfWork.onCleanup(u -> span.finish());
+        try (Scope ignored = tracer.activateSpan(span)) {
+            return interceptorChain.proceed();
+        }
+    }
+
+    private SpanContext schedulingContext(DeadlineMessage<?> deadlineMessage) {
+        try {
+            return tracer.extract(Format.Builtin.TEXT_MAP, new MapExtractor(deadlineMessage.getMetaData()));
+        } catch (IllegalArgumentException e) {
+            logger.error("Corrupted scheduling span", e);
+            return null;
+        }
+    }
+
+    private void recordTriggerLag(Span span, DeadlineMessage<?> deadlineMessage) {
+        Object triggerTimestamp = deadlineMessage.getMetaData().get(TRIGGER_TIMESTAMP_METADATA_KEY);
+        long plannedAt;
+        if (triggerTimestamp instanceof Number) {
+            plannedAt = ((Number) triggerTimestamp).longValue();
+        } else if (triggerTimestamp instanceof String) {
+            try {
+                plannedAt = Long.parseLong((String) triggerTimestamp);
+            } catch (NumberFormatException e) {
+                return;
+            }
+        } else {
+            return;
+        }
+        // Schedulers may trigger a deadline marginally early, which is not a lag
+        long lagMillis = Math.max(0, Instant.now().toEpochMilli() - plannedAt);
+        span.setTag(TRIGGER_LAG_TAG, lagMillis);
+        if (meterRegistry != null) {
+            triggerLagTimer(deadlineMessage.getDeadlineName()).record(lagMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Timer triggerLagTimer(String deadlineName) {
+        Timer timer = triggerLagTimers.get(deadlineName);
+        if (timer == null) {
+            timer = triggerLagTimers.computeIfAbsent(
+                    deadlineName,
+                    name -> Timer.builder(TRIGGER_LAG_TIMER)
+                                 .description("The time between the planned and the actual triggering of deadlines")
+                                 .tag("deadlineName", name)
+                                 .publishPercentileHistogram()
+                                 .register(meterRegistry)
+            );
+        }
+        return timer;
+    }
+
+    @Override
+    public void cancelSchedule(String deadlineName, String scheduleId) {
+        delegate.cancelSchedule(deadlineName, scheduleId);
+    }
+
+    @Override
+    public void cancelAll(String deadlineName) {
+        delegate.cancelAll(deadlineName);
+    }
+
+    @Override
+    public void cancelAllWithinScope(String deadlineName) {
+        delegate.cancelAllWithinScope(deadlineName);
+    }
+
+    @Override
+    public void cancelAllWithinScope(String deadlineName, ScopeDescriptor scope) {
+        delegate.cancelAllWithinScope(deadlineName, scope);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            MessageDispatchInterceptor<? super DeadlineMessage<?>> dispatchInterceptor) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    @Override
+    public Registration registerHandlerInterceptor(
+            MessageHandlerInterceptor<? super DeadlineMessage<?>> handlerInterceptor) {
+        return delegate.registerHandlerInterceptor(handlerInterceptor);
+    }
+
+    @Override
+    public void registerLifecycleHandlers(LifecycleRegistry lifecycle) {
+        if (delegate instanceof Lifecycle) {
+            ((Lifecycle) delegate).registerLifecycleHandlers(lifecycle);
+        }
+    }
+
+    /**
+     * Returns the {@link DeadlineManager} this tracing-wrapper delegates the actual scheduling of deadlines to.
+     *
+     * @return the {@link DeadlineManager} this tracing-wrapper delegates the actual scheduling of deadlines to
+     */
+    public DeadlineManager getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingDeadlineManager}.
+     * <p>
+     * No {@link MeterRegistry} is configured by default, in which case the trigger lag is only tagged on the spans.
+     * The {@link Tracer} and delegate {@link DeadlineManager} are <b>hard requirements</b> and as such
+     * should be provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private DeadlineManager delegate;
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Sets the {@link Tracer} used to start the {@link Span}s of scheduled and triggered deadlines.
+         *
+         * @param tracer the {@link Tracer} used to start the {@link Span}s of scheduled and triggered deadlines
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link DeadlineManager} this tracing-wrapper delegates the actual scheduling of deadlines to.
+         *
+         * @param delegate the {@link DeadlineManager} this tracing-wrapper delegates the actual scheduling of
+         *                 deadlines to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateDeadlineManager(DeadlineManager delegate) {
+            assertNonNull(delegate, "Delegate DeadlineManager may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the {@link TracingDeadlineManager#TRIGGER_LAG_TIMER} timer is registered
+         * with. When not set, the trigger lag is only tagged on the spans.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the trigger lag timer is registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingDeadlineManager} as specified through this Builder.
+         *
+         * @return a {@link TracingDeadlineManager} as specified through this Builder
+         */
+        public TracingDeadlineManager build() {
+            return new TracingDeadlineManager(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate DeadlineManager is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,555 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertStrictPositive;
+
+/**
+ * An {@link EventStorageEngine} decorator tracing the I/O of the delegate storage engine. Appending events, reading
+ * the events and snapshot of an aggregate and storing a snapshot each get a {@link Span}, a child of the active span
+ * or of the span of the message handled by the current {@link org.axonframework.messaging.unitofwork.UnitOfWork}.
+ * Events are appended while the unit of work commits, after the handler's span has been deactivated.
+ * <p>
+ * Every span is tagged with the number of events it covers as {@link #EVENT_COUNT_TAG}. When a {@link Serializer} is
+ * configured, the size of the serialized payload and metadata is tagged as {@link #SERIALIZED_BYTES_TAG} as well.
+ * Configure the serializer used by the delegate storage engine, so the serialized forms it cached on the messages are
+ * reused rather than serialized again.
+ * <p>
+ * A span reading the events of an aggregate finishes once the returned stream has been consumed or is closed. The
+ * span is active while the delegate storage engine prepares the stream, so a {@link TracingEventUpcasterChain}
+ * configured on it reports to this span.
+ * <p>
+ * A streaming read through {@link #readEvents(TrackingToken, boolean)} may last as long as the application runs, like
+ * the one the event producer of an embedded event store keeps open to wait for new events. It therefore gets a span
+ * per batch of events rather than a single span, each summarizing at most {@link Builder#streamBatchSize(int)}
+ * events. A batch span starts when fetching its first event starts and finishes once its last event has been fetched,
+ * so waiting for new events that never arrive is not part of it. It is tagged with the time spent fetching its events
+ * from the delegate as {@link #FETCH_TIME_TAG}, which excludes the time the consumer of the stream spent on them.
+ * <p>
+ * When the events of an aggregate are read while a {@link TracingRepository} loads it, the snapshot hit and the number
+ * of replayed events are reported to the repository's load span as well.
+ *
+ * @since 4.12.1
+ */
+public class TracingEventStorageEngine implements EventStorageEngine {
+
+    /**
+     * The tag holding the number of events appended or read.
+     */
+    public static final String EVENT_COUNT_TAG = "axon.event-store.event-count";
+    /**
+     * The tag holding the size in bytes of the serialized payload and metadata of the events appended or read.
+     */
+    public static final String SERIALIZED_BYTES_TAG = "axon.event-store.serialized-bytes";
+    /**
+     * The tag holding the identifier of the aggregate of which the events or snapshot are read.
+     */
+    public static final String AGGREGATE_IDENTIFIER_TAG = "axon.event-store.aggregate-identifier";
+    /**
+     * The tag holding whether a snapshot was found when reading the snapshot of an aggregate.
+     */
+    public static final String SNAPSHOT_FOUND_TAG = "axon.event-store.snapshot-found";
+    /**
+     * The tag holding the time in microseconds spent fetching the events of a batch of a streaming read from the
+     * delegate storage engine.
+     */
+    public static final String FETCH_TIME_TAG = "axon.event-store.fetch-micros";
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Tracer tracer;
+    private final EventStorageEngine delegate;
+    private final Serializer serializer;
+    private final int streamBatchSize;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingEventStorageEngine}.
+     * <p>
+     * The {@link Serializer} is optional; the serialized size of events is only tagged when it is provided. The stream
+     * batch size defaults to {@code 100}. The {@link Tracer} and delegate {@link EventStorageEngine} are <b>hard
+     * requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingEventStorageEngine}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingEventStorageEngine} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link EventStorageEngine} are not {@code null}, and will throw
+     * an {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingEventStorageEngine} instance
+     */
+    protected TracingEventStorageEngine(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.serializer = builder.serializer;
+        this.streamBatchSize = builder.streamBatchSize;
+    }
+
+    @Override
+    public void appendEvents(List<? extends EventMessage<?>> events) {
+        Span span = startSpan("appendEvents");
+        try {
+            delegate.appendEvents(events);
+            Summary summary = new Summary();
+            events.forEach(summary::record);
+            summary.tag(span);
+        } catch (RuntimeException e) {
+            Tags.ERROR.set(span, true);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+
+    @Override
+    public void storeSnapshot(DomainEventMessage<?> snapshot) {
+        Span span = startSpan("storeSnapshot");
+        span.setTag(AGGREGATE_IDENTIFIER_TAG, snapshot.getAggregateIdentifier());
+        try {
+            delegate.storeSnapshot(snapshot);
+            Summary summary = new Summary();
+            summary.record(snapshot);
+            summary.tag(span);
+        } catch (RuntimeException e) {
+            Tags.ERROR.set(span, true);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+
+    @Override
+    public Optional<DomainEventMessage<?>> readSnapshot(String aggregateIdentifier) {
+        Span span = startSpan("readSnapshot");
+        span.setTag(AGGREGATE_IDENTIFIER_TAG, aggregateIdentifier);
+        try {
+            Optional<DomainEventMessage<?>> snapshot = delegate.readSnapshot(aggregateIdentifier);
+            span.setTag(SNAPSHOT_FOUND_TAG, snapshot.isPresent());
+            AggregateLoadRecorder loadRecorder = AggregateLoadRecorder.current();
+            if (loadRecorder != null) {
+                loadRecorder.snapshotRead(snapshot.isPresent());
+            }
+            Summary summary = new Summary();
+            snapshot.ifPresent(summary::record);
+            summary.tag(span);
+            return snapshot;
+        } catch (RuntimeException e) {
+            Tags.ERROR.set(span, true);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+
+    @Override
+    public DomainEventStream readEvents(String aggregateIdentifier, long firstSequenceNumber) {
+        Span span = startSpan("readEvents");
+        span.setTag(AGGREGATE_IDENTIFIER_TAG, aggregateIdentifier);
+        try (Scope ignored = tracer.activateSpan(span)) {
+            return new TracingDomainEventStream(delegate.readEvents(aggregateIdentifier, firstSequenceNumber),
+                                                new SpanSummary(span),
+                                                AggregateLoadRecorder.current());
+        } catch (RuntimeException e) {
+            Tags.ERROR.set(span, true);
+            span.finish();
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<? extends TrackedEventMessage<?>> readEvents(TrackingToken trackingToken, boolean mayBlock) {
+        Span parentSpan = SpanUtils.parentSpan(tracer);
+        Stream<? extends TrackedEventMessage<?>> events = delegate.readEvents(trackingToken, mayBlock);
+        BatchingSpliterator batches = new BatchingSpliterator(events::spliterator, parentSpan);
+        return StreamSupport.stream(batches, false)
+                            .onClose(() -> {
+                                try {
+                                    events.close();
+                                } finally {
+                                    batches.finishBatch();
+                                }
+                            });
+    }
+
+    @Override
+    public Optional<Long> lastSequenceNumberFor(String aggregateIdentifier) {
+        return delegate.lastSequenceNumberFor(aggregateIdentifier);
+    }
+
+    @Override
+    public TrackingToken createTailToken() {
+        return delegate.createTailToken();
+    }
+
+    @Override
+    public TrackingToken createHeadToken() {
+        return delegate.createHeadToken();
+    }
+
+    @Override
+    public TrackingToken createTokenAt(Instant dateTime) {
+        return delegate.createTokenAt(dateTime);
+    }
+
+    /**
+     * Returns the {@link EventStorageEngine} this tracing-wrapper delegates to.
+     *
+     * @return the {@link EventStorageEngine} this tracing-wrapper delegates to
+     */
+    public EventStorageEngine getDelegate() {
+        return delegate;
+    }
+
+    private Span startSpan(String operationName) {
+        Tracer.SpanBuilder spanBuilder = tracer.buildSpan(operationName)
+                                               .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
+        Span parentSpan = SpanUtils.parentSpan(tracer);
+        return (parentSpan != null ? spanBuilder.asChildOf(parentSpan) : spanBuilder).start();
+    }
+
+    /**
+     * Counts the events of a single operation and, when a {@link Serializer} is configured, their serialized size.
+     */
+    private class Summary {
+
+        private long count;
+        private long serializedBytes;
+        private boolean sized = serializer != null;
+
+        void record(EventMessage<?> event) {
+            count++;
+            if (sized) {
+                try {
+                    serializedBytes += event.serializePayload(serializer, byte[].class).getData().length
+                            + event.serializeMetaData(serializer, byte[].class).getData().length;
+                } catch (RuntimeException e) {
+                    logger.debug("Unable to determine the serialized size of event [{}]", event.getIdentifier(), e);
+                    sized = false;
+                }
+            }
+        }
+
+        void tag(Span span) {
+            span.setTag(EVENT_COUNT_TAG, count);
+            if (sized) {
+                span.setTag(SERIALIZED_BYTES_TAG, serializedBytes);
+            }
+        }
+    }
+
+    /**
+     * A {@link Summary} of events read through a stream, finishing its {@link Span} exactly once.
+     */
+    private class SpanSummary extends Summary {
+
+        private final Span span;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+
+        private SpanSummary(Span span) {
+            this.span = span;
+        }
+
+        void finish() {
+            if (finished.compareAndSet(false, true)) {
+                tag(span);
+                span.finish();
+            }
+        }
+    }
+
+    private static class TracingDomainEventStream implements DomainEventStream {
+
+        private final DomainEventStream delegate;
+        private final SpanSummary summary;
+        private final AggregateLoadRecorder loadRecorder;
+
+        private TracingDomainEventStream(DomainEventStream delegate,
+                                         SpanSummary summary,
+                                         AggregateLoadRecorder loadRecorder) {
+            this.delegate = delegate;
+            this.summary = summary;
+            this.loadRecorder = loadRecorder;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = delegate.hasNext();
+            if (!hasNext) {
+                summary.finish();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public DomainEventMessage<?> next() {
+            DomainEventMessage<?> event = delegate.next();
+            summary.record(event);
+            if (loadRecorder != null) {
+                loadRecorder.eventReplayed();
+            }
+            return event;
+        }
+
+        @Override
+        public DomainEventMessage<?> peek() {
+            return delegate.peek();
+        }
+
+        @Override
+        public Long getLastSequenceNumber() {
+            return delegate.getLastSequenceNumber();
+        }
+    }
+
+    /**
+     * A {@link Summary} of a batch of events of a streaming read, finishing its {@link Span} exactly once, at the
+     * moment its last event was fetched.
+     */
+    private class Batch extends Summary {
+
+        private final Span span;
+        private final long startMicros;
+        private final long startNanos;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private int size;
+        private long fetchNanos;
+        private long lastFetchedNanos;
+
+        private Batch(Span parentSpan, long startMicros, long startNanos) {
+            Tracer.SpanBuilder spanBuilder = tracer.buildSpan("readEventStream")
+                                                   .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT)
+                                                   .withStartTimestamp(startMicros);
+            this.span = (parentSpan != null ? spanBuilder.asChildOf(parentSpan) : spanBuilder).start();
+            this.startMicros = startMicros;
+            this.startNanos = startNanos;
+            this.lastFetchedNanos = startNanos;
+        }
+
+        void fetched(TrackedEventMessage<?> event, long fetchStartNanos, long fetchEndNanos) {
+            record(event);
+            size++;
+            fetchNanos += fetchEndNanos - fetchStartNanos;
+            lastFetchedNanos = fetchEndNanos;
+        }
+
+        void failed(long fetchStartNanos, long fetchEndNanos) {
+            Tags.ERROR.set(span, true);
+            fetchNanos += fetchEndNanos - fetchStartNanos;
+            lastFetchedNanos = fetchEndNanos;
+        }
+
+        void finish() {
+            if (finished.compareAndSet(false, true)) {
+                tag(span);
+                span.setTag(FETCH_TIME_TAG, TimeUnit.NANOSECONDS.toMicros(fetchNanos));
+                span.finish(startMicros + TimeUnit.NANOSECONDS.toMicros(lastFetchedNanos - startNanos));
+            }
+        }
+    }
+
+    /**
+     * Splits the events of a streaming read into {@link Batch batches} of at most {@code streamBatchSize} events. A
+     * batch ends once it is full, or once the stream has run out or is closed.
+     */
+    private class BatchingSpliterator extends Spliterators.AbstractSpliterator<TrackedEventMessage<?>> {
+
+        private final Supplier<Spliterator<? extends TrackedEventMessage<?>>> delegateSupplier;
+        private final Span parentSpan;
+        private Spliterator<? extends TrackedEventMessage<?>> delegate;
+        private TrackedEventMessage<?> fetched;
+        private volatile Batch batch;
+
+        private BatchingSpliterator(Supplier<Spliterator<? extends TrackedEventMessage<?>>> delegateSupplier,
+                                    Span parentSpan) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.delegateSupplier = delegateSupplier;
+            this.parentSpan = parentSpan;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TrackedEventMessage<?>> action) {
+            if (delegate == null) {
+                // Obtaining the spliterator consumes the delegate stream, so it is deferred until the first element
+                delegate = delegateSupplier.get();
+            }
+            long fetchStartMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+            long fetchStartNanos = System.nanoTime();
+            boolean advanced;
+            try {
+                advanced = delegate.tryAdvance(event -> fetched = event);
+            } catch (RuntimeException e) {
+                currentBatch(fetchStartMicros, fetchStartNanos).failed(fetchStartNanos, System.nanoTime());
+                finishBatch();
+                throw e;
+            }
+            if (!advanced) {
+                finishBatch();
+                return false;
+            }
+            TrackedEventMessage<?> event = fetched;
+            fetched = null;
+            Batch current = currentBatch(fetchStartMicros, fetchStartNanos);
+            current.fetched(event, fetchStartNanos, System.nanoTime());
+            if (current.size >= streamBatchSize) {
+                // Finished before handing out the event, so the batch excludes the time spent consuming it
+                finishBatch();
+            }
+            action.accept(event);
+            return true;
+        }
+
+        private Batch currentBatch(long fetchStartMicros, long fetchStartNanos) {
+            Batch current = batch;
+            if (current == null) {
+                current = new Batch(parentSpan, fetchStartMicros, fetchStartNanos);
+                batch = current;
+            }
+            return current;
+        }
+
+        void finishBatch() {
+            Batch current = batch;
+            batch = null;
+            if (current != null) {
+                current.finish();
+            }
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingEventStorageEngine}.
+     * <p>
+     * The {@link Serializer} is optional; the serialized size of events is only tagged when it is provided. The stream
+     * batch size defaults to {@code 100}. The {@link Tracer} and delegate {@link EventStorageEngine} are <b>hard
+     * requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private EventStorageEngine delegate;
+        private Serializer serializer;
+        private int streamBatchSize = 100;
+
+        /**
+         * Sets the {@link Tracer} used to start the event store {@link Span}s.
+         *
+         * @param tracer the {@link Tracer} used to start the event store {@link Span}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link EventStorageEngine} this tracing-wrapper delegates the actual storage of events towards.
+         *
+         * @param delegate the {@link EventStorageEngine} this tracing-wrapper delegates the actual storage of events
+         *                 towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateStorageEngine(EventStorageEngine delegate) {
+            assertNonNull(delegate, "Delegate EventStorageEngine may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Serializer} used to determine the serialized size of the events appended and read. This
+         * should be the event serializer of the delegate {@link EventStorageEngine}, so the serialized forms cached on
+         * the messages are reused. Defaults to {@code null}, omitting the {@link #SERIALIZED_BYTES_TAG} tag.
+         *
+         * @param serializer the {@link Serializer} used to determine the serialized size of events
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder serializer(Serializer serializer) {
+            assertNonNull(serializer, "Serializer may not be null");
+            this.serializer = serializer;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of events of a streaming read summarized by a single {@link Span}. A streaming read
+         * gets a span per batch of events, so a read spanning many events, like a replay, does not end up in a single
+         * span lasting as long as the read. Defaults to {@code 100}.
+         *
+         * @param streamBatchSize the maximum number of events of a streaming read summarized by a single {@link Span}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder streamBatchSize(int streamBatchSize) {
+            assertStrictPositive(streamBatchSize, "The stream batch size should be a positive number");
+            this.streamBatchSize = streamBatchSize;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingEventStorageEngine} as specified through this Builder.
+         *
+         * @return a {@link TracingEventStorageEngine} as specified through this Builder
+         */
+        public TracingEventStorageEngine build() {
+            return new TracingEventStorageEngine(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate EventStorageEngine is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.serialization.LazyDeserializingObject;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * An {@link EventUpcaster} chaining the given upcasters like an {@link EventUpcasterChain}, while measuring the cost of
+ * every upcaster in the chain. Configure it as the upcaster chain of an event storage engine to find out which
+ * upcasters slow down reading events.
+ * <p>
+ * An {@link IntermediateEventRepresentation} is upcast lazily: the functions given to {@link
+ * IntermediateEventRepresentation#upcast(SerializedType, Class, Function, Function)} run once the event's data is
+ * read, usually when it is deserialized. This chain therefore times these functions, and counts every call to {@code
+ * upcast} as an intermediate representation created by the upcaster. When a {@link MeterRegistry} is configured, both
+ * are recorded per upcaster and upcast event type on the {@link #UPCASTER_TIMER} timer and the {@link
+ * #CREATED_REPRESENTATIONS_COUNTER} counter.
+ * <p>
+ * When a {@link Span} is active while the chain is applied to a stream of events, like the span of a {@link
+ * TracingEventStorageEngine} reading events, a single {@code upcasterChain} event is logged on it once the stream has
+ * been consumed or is closed. It summarizes the number of events read and the time spent and representations created
+ * per upcaster, in the order of the chain.
+ * <p>
+ * Functions which run while a message is handled, like those of the events a tracking event processor deserializes
+ * once its handlers need them, are attributed to the {@link Span} of that handler instead. It is tagged with the time
+ * spent per upcaster as {@link #HANDLER_TIME_TAG}, so the cost of lazy upcasting is visible per handled event.
+ * Functions running outside of both, like those of a stream which is never closed, are only recorded on the meters.
+ *
+ * @since 4.12.1
+ */
+public class TracingEventUpcasterChain implements EventUpcaster {
+
+    /**
+     * The name of the timer recording the time spent in the upcast functions of an upcaster, tagged with the {@code
+     * upcaster} name and the upcast {@code eventType}.
+     */
+    public static final String UPCASTER_TIMER = "axon.tracing.upcaster";
+    /**
+     * The name of the counter counting the intermediate representations created by an upcaster, tagged with the
+     * {@code upcaster} name and the upcast {@code eventType}.
+     */
+    public static final String CREATED_REPRESENTATIONS_COUNTER = "axon.tracing.upcaster.created-representations";
+    /**
+     * The field holding the number of events read in the summary logged on the active span.
+     */
+    public static final String EVENT_COUNT_FIELD = "axon.upcaster.event-count";
+    /**
+     * The field holding the time spent per upcaster in the summary logged on the active span, as a comma separated
+     * list of {@code name=micros} entries in the order of the chain.
+     */
+    public static final String TIME_BREAKDOWN_FIELD = "axon.upcaster.time-micros";
+    /**
+     * The field holding the representations created per upcaster in the summary logged on the active span, as a comma
+     * separated list of {@code name=count} entries in the order of the chain.
+     */
+    public static final String CREATED_BREAKDOWN_FIELD = "axon.upcaster.created-representations";
+    /**
+     * The tag holding the time spent per upcaster while a message was handled, set on the span of its handler, as a
+     * comma separated list of {@code name=micros} entries in the order of the chain.
+     */
+    public static final String HANDLER_TIME_TAG = "axon.upcaster.handler-time-micros";
+
+    private final Tracer tracer;
+    private final List<EventUpcaster> upcasters;
+    private final List<String> names;
+    private final List<ConcurrentMap<String, Meters>> meters;
+    private final MeterRegistry meterRegistry;
+    private final String handlerTimingsResourceKey =
+            TracingEventUpcasterChain.class.getName() + ".handlerTimings@" + System.identityHashCode(this);
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingEventUpcasterChain}.
+     * <p>
+     * The {@link Tracer} is a <b>hard requirement</b> and as such should be provided. The upcasters default to an empty
+     * list. No {@link MeterRegistry} is configured by default, in which case no meters are recorded.
+     *
+     * @return a Builder to be able to create a {@link TracingEventUpcasterChain}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingEventUpcasterChain} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} is not {@code null}, and will throw an {@link AxonConfigurationException} if
+     * it is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingEventUpcasterChain} instance
+     */
+    protected TracingEventUpcasterChain(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.upcasters = new ArrayList<>(builder.upcasters);
+        this.names = new ArrayList<>();
+        this.meters = new ArrayList<>();
+        for (EventUpcaster upcaster : upcasters) {
+            names.add(nameOf(upcaster));
+            meters.add(new ConcurrentHashMap<>());
+        }
+        this.meterRegistry = builder.meterRegistry;
+    }
+
+    @Override
+    public Stream<IntermediateEventRepresentation> upcast(Stream<IntermediateEventRepresentation> representations) {
+        Span span = SpanUtils.parentSpan(tracer);
+        ChainSummary summary = span != null ? new ChainSummary(span) : null;
+        Stream<IntermediateEventRepresentation> result =
+                summary != null ? representations.peek(summary::eventRead) : representations;
+        for (int stage = 0; stage < upcasters.size(); stage++) {
+            int upcasterIndex = stage;
+            result = upcasters.get(stage)
+                              .upcast(result.map(ir -> new TimedRepresentation(unwrap(ir), upcasterIndex, summary)));
+        }
+        Stream<IntermediateEventRepresentation> upcast = result.map(TracingEventUpcasterChain::unwrap);
+        if (summary == null) {
+            return upcast;
+        }
+        return StreamSupport.stream(new SummarizingSpliterator(upcast::spliterator, summary), false)
+                            .onClose(() -> {
+                                try {
+                                    upcast.close();
+                                } finally {
+                                    summary.log();
+                                }
+                            });
+    }
+
+    private static IntermediateEventRepresentation unwrap(IntermediateEventRepresentation representation) {
+        return representation instanceof TimedRepresentation
+                ? ((TimedRepresentation) representation).delegate
+                : representation;
+    }
+
+    private Meters meters(int upcasterIndex, String eventType) {
+        if (meterRegistry == null) {
+            return null;
+        }
+        ConcurrentMap<String, Meters> metersPerType = meters.get(upcasterIndex);
+        Meters typeMeters = metersPerType.get(eventType);
+        if (typeMeters == null) {
+            typeMeters = metersPerType.computeIfAbsent(eventType, t -> new Meters(names.get(upcasterIndex), t));
+        }
+        return typeMeters;
+    }
+
+    private void tagHandlerSpan(int upcasterIndex, long durationNanos) {
+        UnitOfWork<?> unitOfWork = SpanUtils.handlerUnitOfWork();
+        if (unitOfWork == null) {
+            return;
+        }
+        AtomicLongArray handlerNanos = unitOfWork.getOrComputeResource(
+                handlerTimingsResourceKey, k -> new AtomicLongArray(upcasters.size())
+        );
+        handlerNanos.addAndGet(upcasterIndex, durationNanos);
+        Span handlerSpan = unitOfWork.getResource(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY);
+        handlerSpan.setTag(HANDLER_TIME_TAG, timeBreakdown(handlerNanos));
+    }
+
+    private String timeBreakdown(AtomicLongArray nanos) {
+        StringJoiner breakdown = new StringJoiner(",");
+        for (int i = 0; i < upcasters.size(); i++) {
+            breakdown.add(names.get(i) + "=" + TimeUnit.NANOSECONDS.toMicros(nanos.get(i)));
+        }
+        return breakdown.toString();
+    }
+
+    private static String nameOf(EventUpcaster upcaster) {
+        String simpleName = upcaster.getClass().getSimpleName();
+        if (simpleName.isEmpty()) {
+            String name = upcaster.getClass().getName();
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+        int lambdaMarker = simpleName.indexOf("$$Lambda");
+        return lambdaMarker >= 0 ? simpleName.substring(0, lambdaMarker) : simpleName;
+    }
+
+    private class Meters {
+
+        private final Timer timer;
+        private final Counter created;
+
+        private Meters(String upcaster, String eventType) {
+            this.timer = Timer.builder(UPCASTER_TIMER)
+                              .description("The time spent in the upcast functions of an upcaster")
+                              .tag("upcaster", upcaster)
+                              .tag("eventType", eventType)
+                              .publishPercentileHistogram()
+                              .register(meterRegistry);
+            this.created = Counter.builder(CREATED_REPRESENTATIONS_COUNTER)
+                                  .description("The number of intermediate representations created by an upcaster")
+                                  .tag("upcaster", upcaster)
+                                  .tag("eventType", eventType)
+                                  .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Summarizes a single application of the chain to a stream of events, to be logged on the {@link Span} active
+     * while the chain was applied. Upcast functions may run on other threads than the one reading the stream.
+     */
+    private class ChainSummary {
+
+        private final Span span;
+        private final AtomicLong eventCount = new AtomicLong();
+        private final AtomicLongArray nanos = new AtomicLongArray(upcasters.size());
+        private final AtomicLongArray created = new AtomicLongArray(upcasters.size());
+        private final AtomicBoolean logged = new AtomicBoolean(false);
+
+        private ChainSummary(Span span) {
+            this.span = span;
+        }
+
+        void eventRead(IntermediateEventRepresentation representation) {
+            eventCount.incrementAndGet();
+        }
+
+        void log() {
+            if (!logged.compareAndSet(false, true)) {
+                return;
+            }
+            StringJoiner createdBreakdown = new StringJoiner(",");
+            for (int i = 0; i < upcasters.size(); i++) {
+                createdBreakdown.add(names.get(i) + "=" + created.get(i));
+            }
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("event", "upcasterChain");
+            fields.put(EVENT_COUNT_FIELD, eventCount.get());
+            fields.put(TIME_BREAKDOWN_FIELD, timeBreakdown(nanos));
+            fields.put(CREATED_BREAKDOWN_FIELD, createdBreakdown.toString());
+            span.log(fields);
+        }
+    }
+
+    /**
+     * Decorates the representation offered to a single upcaster, timing the upcast functions that upcaster passes to
+     * {@link #upcast(SerializedType, Class, Function, Function)}.
+     */
+    private class TimedRepresentation implements IntermediateEventRepresentation {
+
+        private final IntermediateEventRepresentation delegate;
+        private final int upcasterIndex;
+        private final ChainSummary summary;
+
+        private TimedRepresentation(IntermediateEventRepresentation delegate,
+                                    int upcasterIndex,
+                                    ChainSummary summary) {
+            this.delegate = delegate;
+            this.upcasterIndex = upcasterIndex;
+            this.summary = summary;
+        }
+
+        @Override
+        public <T> IntermediateEventRepresentation upcast(SerializedType outputType,
+                                                          Class<T> expectedRepresentationType,
+                                                          Function<T, T> upcastFunction,
+                                                          Function<MetaData, MetaData> metaDataUpcastFunction) {
+            Meters typeMeters = meters(upcasterIndex, delegate.getType().getName());
+            if (typeMeters != null) {
+                typeMeters.created.increment();
+            }
+            if (summary != null) {
+                summary.created.incrementAndGet(upcasterIndex);
+            }
+            return delegate.upcast(outputType,
+                                   expectedRepresentationType,
+                                   timed(upcastFunction, typeMeters),
+                                   timed(metaDataUpcastFunction, typeMeters));
+        }
+
+        private <T> Function<T, T> timed(Function<T, T> function, Meters typeMeters) {
+            return input -> {
+                long start = System.nanoTime();
+                try {
+                    return function.apply(input);
+                } finally {
+                    long durationNanos = System.nanoTime() - start;
+                    if (typeMeters != null) {
+                        typeMeters.timer.record(durationNanos, TimeUnit.NANOSECONDS);
+                    }
+                    if (summary != null) {
+                        summary.nanos.addAndGet(upcasterIndex, durationNanos);
+                    }
+                    tagHandlerSpan(upcasterIndex, durationNanos);
+                }
+            };
+        }
+
+        @Override
+        public SerializedType getType() {
+            return delegate.getType();
+        }
+
+        @Override
+        public SerializedObject<?> getData() {
+            return delegate.getData();
+        }
+
+        @Override
+        public <D> SerializedObject<D> getData(Class<D> requiredType) {
+            return delegate.getData(requiredType);
+        }
+
+        @Override
+        public Class<?> getContentType() {
+            return delegate.getContentType();
+        }
+
+        @Override
+        public String getMessageIdentifier() {
+            return delegate.getMessageIdentifier();
+        }
+
+        @Override
+        public Optional<String> getAggregateType() {
+            return delegate.getAggregateType();
+        }
+
+        @Override
+        public Optional<String> getAggregateIdentifier() {
+            return delegate.getAggregateIdentifier();
+        }
+
+        @Override
+        public Optional<Long> getSequenceNumber() {
+            return delegate.getSequenceNumber();
+        }
+
+        @Override
+        public Optional<TrackingToken> getTrackingToken() {
+            return delegate.getTrackingToken();
+        }
+
+        @Override
+        public Instant getTimestamp() {
+            return delegate.getTimestamp();
+        }
+
+        @Override
+        public LazyDeserializingObject<MetaData> getMetaData() {
+            return delegate.getMetaData();
+        }
+
+        @Override
+        public boolean canConvertDataTo(Class<?> requiredType) {
+            return delegate.canConvertDataTo(requiredType);
+        }
+    }
+
+    private static class SummarizingSpliterator
+            extends Spliterators.AbstractSpliterator<IntermediateEventRepresentation> {
+
+        private final Supplier<Spliterator<IntermediateEventRepresentation>> delegateSupplier;
+        private final ChainSummary summary;
+        private Spliterator<IntermediateEventRepresentation> delegate;
+
+        private SummarizingSpliterator(Supplier<Spliterator<IntermediateEventRepresentation>> delegateSupplier,
+                                       ChainSummary summary) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.delegateSupplier = delegateSupplier;
+            this.summary = summary;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super IntermediateEventRepresentation> action) {
+            if (delegate == null) {
+                // Obtaining the spliterator consumes the upcast stream, so it is deferred until the first element
+                delegate = delegateSupplier.get();
+            }
+            boolean advanced = delegate.tryAdvance(action);
+            if (!advanced) {
+                summary.log();
+            }
+            return advanced;
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingEventUpcasterChain}.
+     * <p>
+     * The {@link Tracer} is a <b>hard requirement</b> and as such should be provided. The upcasters default to an empty
+     * list. No {@link MeterRegistry} is configured by default, in which case no meters are recorded.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private List<? extends EventUpcaster> upcasters = new ArrayList<>();
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Sets the {@link Tracer} whose active {@link Span} the summary of the upcast events is logged on.
+         *
+         * @param tracer a {@link Tracer} whose active {@link Span} the summary of the upcast events is logged on
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link EventUpcaster}s to chain, in the order they are applied. Defaults to an empty list.
+         *
+         * @param upcasters the {@link EventUpcaster}s to chain, in the order they are applied
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder upcasters(EventUpcaster... upcasters) {
+            return upcasters(Arrays.asList(upcasters));
+        }
+
+        /**
+         * Sets the {@link EventUpcaster}s to chain, in the order they are applied. Defaults to an empty list.
+         *
+         * @param upcasters the {@link EventUpcaster}s to chain, in the order they are applied
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder upcasters(List<? extends EventUpcaster> upcasters) {
+            assertNonNull(upcasters, "The upcasters may not be null");
+            this.upcasters = upcasters;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the upcaster meters are registered with. When not set, no meters are
+         * recorded.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the upcaster meters are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingEventUpcasterChain} as specified through this Builder.
+         *
+         * @return a {@link TracingEventUpcasterChain} as specified through this Builder
+         */
+        public TracingEventUpcasterChain build() {
+            return new TracingEventUpcasterChain(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+        }
+    }
+}
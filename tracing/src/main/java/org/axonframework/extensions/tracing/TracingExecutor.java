@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * An {@link Executor} propagating the trace context to the tasks it runs. The {@link Span} active when a task is
+ * submitted is activated on the thread running the task, for the duration of the task. This allows, for example, the
+ * handlers of an {@link org.axonframework.commandhandling.AsynchronousCommandBus} to continue the span active at
+ * dispatch, without extracting it from the message's metadata again.
+ * <p>
+ * Tasks submitted while no span is active are passed to the delegate {@link Executor} as is. Otherwise, a single
+ * wrapper is allocated per task, holding the captured span.
+ *
+ * @since 4.12.1
+ */
+public class TracingExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Tracer tracer;
+
+    /**
+     * Initialize a {@link TracingExecutor} running tasks on the given {@code delegate}, propagating the {@link Span}
+     * active in the given {@code tracer} at submit to the running task.
+     *
+     * @param delegate the {@link Executor} actually running the tasks
+     * @param tracer   the {@link Tracer} used to capture and activate the {@link Span} of a task
+     */
+    public TracingExecutor(Executor delegate, Tracer tracer) {
+        assertNonNull(delegate, "Delegate Executor may not be null");
+        assertNonNull(tracer, "Tracer may not be null");
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(wrap(command));
+    }
+
+    /**
+     * Wraps the given {@code task} to run with the {@link Span} active at this moment, or returns it as is when no span
+     * is active.
+     *
+     * @param task the task to wrap
+     * @return the task running with the currently active {@link Span}
+     */
+    protected Runnable wrap(Runnable task) {
+        Span span = tracer.activeSpan();
+        return span == null ? task : new TracedRunnable(tracer, span, task);
+    }
+
+    /**
+     * Wraps the given {@code task} to run with the {@link Span} active at this moment, or returns it as is when no span
+     * is active.
+     *
+     * @param task the task to wrap
+     * @param <T>  the type of result of the task
+     * @return the task running with the currently active {@link Span}
+     */
+    protected <T> Callable<T> wrap(Callable<T> task) {
+        Span span = tracer.activeSpan();
+        return span == null ? task : new TracedCallable<>(tracer, span, task);
+    }
+
+    /**
+     * Wraps all given {@code tasks} to run with the {@link Span} active at this moment, or returns them as is when no
+     * span is active.
+     *
+     * @param tasks the tasks to wrap
+     * @param <T>   the type of result of the tasks
+     * @return the tasks running with the currently active {@link Span}
+     */
+    protected <T> Collection<? extends Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+        Span span = tracer.activeSpan();
+        if (span == null) {
+            return tasks;
+        }
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(new TracedCallable<>(tracer, span, task));
+        }
+        return wrapped;
+    }
+
+    private static final class TracedRunnable implements Runnable {
+
+        private final Tracer tracer;
+        private final Span span;
+        private final Runnable delegate;
+
+        private TracedRunnable(Tracer tracer, Span span, Runnable delegate) {
+            this.tracer = tracer;
+            this.span = span;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            try (Scope ignored = tracer.activateSpan(span)) {
+                delegate.run();
+            }
+        }
+    }
+
+    private static final class TracedCallable<T> implements Callable<T> {
+
+        private final Tracer tracer;
+        private final Span span;
+        private final Callable<T> delegate;
+
+        private TracedCallable(Tracer tracer, Span span, Callable<T> delegate) {
+            this.tracer = tracer;
+            this.span = span;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public T call() throws Exception {
+            try (Scope ignored = tracer.activateSpan(span)) {
+                return delegate.call();
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentracing.Span;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.lock.Lock;
+import org.axonframework.common.lock.LockFactory;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A {@link LockFactory} decorator measuring the time spent obtaining a lock from the delegate lock factory. When the
+ * lock is obtained while a {@link TracingRepository} loads an aggregate, the wait is tagged on the span of that load.
+ * The total wait of a handler is tagged on its span as well, as {@link TracingRepository#LOCK_WAIT_TAG}.
+ * <p>
+ * When a {@link MeterRegistry} is configured, every wait is recorded on the {@link #LOCK_WAIT_TIMER} timer, whose
+ * histogram shows how commands serialize on the locks of hot aggregates. To tell which aggregates those are, the waits
+ * are offered to a Space-Saving sketch of a fixed capacity, exposed through {@link #contendedAggregates(int)}. Its
+ * memory use does not depend on the number of aggregates. Only waits of at least the {@link
+ * Builder#contentionThreshold(Duration) contention threshold} are offered, so obtaining an uncontended lock does not
+ * synchronize on the sketch.
+ * <p>
+ * Configure this lock factory on the repositories of the aggregates to trace, like the {@link
+ * org.axonframework.common.lock.PessimisticLockFactory} it decorates.
+ *
+ * @since 4.12.1
+ */
+public class TracingLockFactory implements LockFactory {
+
+    /**
+     * The name of the timer recording the time spent waiting for aggregate locks, tagged with the {@code
+     * aggregateType}.
+     */
+    public static final String LOCK_WAIT_TIMER = "axon.tracing.aggregate.lock-wait";
+
+    private static final String LOCK_WAIT_RESOURCE_KEY = TracingLockFactory.class.getName() + ".lockWait";
+
+    private final LockFactory delegate;
+    private final Timer lockWaitTimer;
+    private final SpaceSavingSketch contendedAggregates;
+    private final long contentionThresholdNanos;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingLockFactory}.
+     * <p>
+     * The delegate {@link LockFactory} is a <b>hard requirement</b> and as such should be provided. The aggregate type
+     * defaults to {@code unknown}, the number of tracked aggregates to {@code 100} and the contention threshold to one
+     * millisecond. No {@link MeterRegistry} is configured by default, in which case the waits are not timed.
+     *
+     * @return a Builder to be able to create a {@link TracingLockFactory}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingLockFactory} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the delegate {@link LockFactory} is not {@code null}, and will throw an {@link
+     * AxonConfigurationException} if it is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingLockFactory} instance
+     */
+    protected TracingLockFactory(Builder builder) {
+        builder.validate();
+        this.delegate = builder.delegate;
+        if (builder.meterRegistry != null) {
+            this.lockWaitTimer = Timer.builder(LOCK_WAIT_TIMER)
+                                      .description("The time spent waiting for the lock of an aggregate")
+                                      .tag("aggregateType", builder.aggregateType)
+                                      .publishPercentileHistogram()
+                                      .register(builder.meterRegistry);
+        } else {
+            this.lockWaitTimer = null;
+        }
+        this.contendedAggregates = new SpaceSavingSketch(builder.trackedAggregates);
+        this.contentionThresholdNanos = builder.contentionThreshold.toNanos();
+    }
+
+    @Override
+    public Lock obtainLock(String identifier) {
+        long start = System.nanoTime();
+        Lock lock = delegate.obtainLock(identifier);
+        long waitNanos = System.nanoTime() - start;
+        AggregateLoadRecorder loadRecorder = AggregateLoadRecorder.current();
+        if (loadRecorder != null) {
+            loadRecorder.lockObtained(waitNanos);
+        }
+        tagHandlerSpan(waitNanos);
+        if (lockWaitTimer != null) {
+            lockWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        }
+        if (waitNanos >= contentionThresholdNanos) {
+            contendedAggregates.offer(identifier, waitNanos);
+        }
+        return lock;
+    }
+
+    private static void tagHandlerSpan(long waitNanos) {
+        UnitOfWork<?> unitOfWork = SpanUtils.handlerUnitOfWork();
+        if (unitOfWork == null) {
+            return;
+        }
+        long totalWaitNanos = unitOfWork.<AtomicLong>getOrComputeResource(LOCK_WAIT_RESOURCE_KEY, k -> new AtomicLong())
+                                        .addAndGet(waitNanos);
+        Span handlerSpan = unitOfWork.getResource(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY);
+        handlerSpan.setTag(TracingRepository.LOCK_WAIT_TAG, TimeUnit.NANOSECONDS.toMicros(totalWaitNanos));
+    }
+
+    /**
+     * Returns the {@code limit} aggregate identifiers with the largest estimated total lock wait, in descending order
+     * of that wait. At most as many identifiers as configured through {@link Builder#trackedAggregates(int)} are
+     * tracked. Identifiers whose wait takes up a large share of the total wait are reliably reported, while the waits
+     * of the others are estimates, as described by {@link ContendedAggregate#getMaxOverestimation()}. Waits shorter
+     * than the {@link Builder#contentionThreshold(Duration) contention threshold} are not counted.
+     *
+     * @param limit the maximum number of aggregate identifiers to return
+     * @return the {@code limit} most contended aggregate identifiers
+     */
+    public List<ContendedAggregate> contendedAggregates(int limit) {
+        return contendedAggregates.top(limit);
+    }
+
+    /**
+     * Returns the {@link LockFactory} this tracing-wrapper delegates to.
+     *
+     * @return the {@link LockFactory} this tracing-wrapper delegates to
+     */
+    public LockFactory getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingLockFactory}.
+     * <p>
+     * The delegate {@link LockFactory} is a <b>hard requirement</b> and as such should be provided. The aggregate type
+     * defaults to {@code unknown}, the number of tracked aggregates to {@code 100} and the contention threshold to one
+     * millisecond. No {@link MeterRegistry} is configured by default, in which case the waits are not timed.
+     */
+    public static class Builder {
+
+        private LockFactory delegate;
+        private String aggregateType = "unknown";
+        private int trackedAggregates = 100;
+        private Duration contentionThreshold = Duration.ofMillis(1);
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Sets the {@link LockFactory} this tracing-wrapper delegates obtaining locks towards.
+         *
+         * @param delegate the {@link LockFactory} this tracing-wrapper delegates obtaining locks towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateLockFactory(LockFactory delegate) {
+            assertNonNull(delegate, "Delegate LockFactory may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the type of the aggregates locked through this lock factory, used to tag the {@link
+         * TracingLockFactory#LOCK_WAIT_TIMER} timer. Defaults to {@code unknown}.
+         *
+         * @param aggregateType the type of the aggregates locked through this lock factory
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder aggregateType(String aggregateType) {
+            assertNonNull(aggregateType, "The aggregate type may not be null");
+            this.aggregateType = aggregateType;
+            return this;
+        }
+
+        /**
+         * Sets the number of aggregate identifiers tracked to find the most contended aggregates. The memory used is
+         * proportional to this number. Defaults to {@code 100}.
+         *
+         * @param trackedAggregates the number of aggregate identifiers tracked to find the most contended aggregates
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder trackedAggregates(int trackedAggregates) {
+            if (trackedAggregates <= 0) {
+                throw new AxonConfigurationException("The number of tracked aggregates should be positive");
+            }
+            this.trackedAggregates = trackedAggregates;
+            return this;
+        }
+
+        /**
+         * Sets the minimum lock wait counted towards the most contended aggregates. Shorter waits, like those of
+         * uncontended locks, are only recorded on the {@link TracingLockFactory#LOCK_WAIT_TIMER} timer. Defaults to
+         * one millisecond.
+         *
+         * @param contentionThreshold the minimum lock wait counted towards the most contended aggregates
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder contentionThreshold(Duration contentionThreshold) {
+            assertNonNull(contentionThreshold, "The contention threshold may not be null");
+            if (contentionThreshold.isNegative()) {
+                throw new AxonConfigurationException("The contention threshold may not be negative");
+            }
+            this.contentionThreshold = contentionThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the {@link TracingLockFactory#LOCK_WAIT_TIMER} timer is registered with.
+         * When not set, the waits are not timed.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the lock wait timer is registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingLockFactory} as specified through this Builder.
+         *
+         * @return a {@link TracingLockFactory} as specified through this Builder
+         */
+        public TracingLockFactory build() {
+            return new TracingLockFactory(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(delegate, "The delegate LockFactory is a hard requirement and should be provided");
+        }
+    }
+}
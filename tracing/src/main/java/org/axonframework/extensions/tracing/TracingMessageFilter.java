@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.deadline.DeadlineMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.queryhandling.QueryMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * Filter deciding whether a {@link Message} should be traced at all. Messages which are suppressed by this filter do
+ * not get a {@link io.opentracing.Span}, nor will span context be extracted from or injected in their {@link
+ * org.axonframework.messaging.MetaData}.
+ * <p>
+ * A message is matched on its payload type's fully qualified class name and its message name. The message name is the
+ * command name for a {@link CommandMessage}, the query name for a {@link QueryMessage} and the deadline name for a
+ * {@link DeadlineMessage}. A pattern either is an exact name, like {@code com.acme.Heartbeat}, or ends in a {@code *}
+ * wildcard. A wildcard directly following a dot matches a complete package including its sub packages, like {@code
+ * com.acme.monitoring.*}, while a wildcard ending a partial segment matches every name starting with that segment in
+ * the given package, like {@code com.acme.Heart*} or {@code refresh*}. A single {@code *} matches every message. A
+ * {@code *} anywhere else in a pattern is rejected when building the filter.
+ * <p>
+ * A message is traced if no include patterns are configured or if one of the include patterns matches, <em>and</em>
+ * none of the exclude patterns match. Patterns are compiled once, into a hash set for the exact names and a prefix
+ * trie for the wildcard patterns, so that matching does not depend on the number of configured patterns.
+ *
+ * @since 4.12.1
+ */
+public class TracingMessageFilter {
+
+    private static final String WILDCARD = "*";
+    private static final TracingMessageFilter TRACE_ALL = builder().build();
+
+    private final CompiledPatterns includes;
+    private final CompiledPatterns excludes;
+    private final boolean tracesAll;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingMessageFilter}.
+     * <p>
+     * Both the include and exclude patterns default to an empty list, resulting in a filter which traces every message.
+     *
+     * @return a Builder to be able to create a {@link TracingMessageFilter}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a {@link TracingMessageFilter} which traces every {@link Message}.
+     *
+     * @return a {@link TracingMessageFilter} which traces every {@link Message}
+     */
+    public static TracingMessageFilter traceAll() {
+        return TRACE_ALL;
+    }
+
+    /**
+     * Instantiate a {@link TracingMessageFilter} based on the configuration contained in the {@link Builder}.
+     * <p>
+     * Will throw an {@link AxonConfigurationException} if a pattern contains a {@code *} wildcard anywhere but at its
+     * end.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingMessageFilter} instance
+     */
+    protected TracingMessageFilter(Builder builder) {
+        this.includes = new CompiledPatterns(builder.includes);
+        this.excludes = new CompiledPatterns(builder.excludes);
+        this.tracesAll = includes.isEmpty() && excludes.isEmpty();
+    }
+
+    /**
+     * Validates whether the given {@code message} should be traced.
+     *
+     * @param message the {@link Message} to validate
+     * @return {@code true} if the given {@code message} should be traced, {@code false} otherwise
+     */
+    public boolean shouldTrace(Message<?> message) {
+        return tracesAll || shouldTrace(message.getPayloadType(), messageName(message));
+    }
+
+    /**
+     * Validates whether a message with the given {@code payloadType} and {@code messageName} should be traced.
+     *
+     * @param payloadType the payload type of the message to validate
+     * @param messageName the name of the message to validate, like the command or query name
+     * @return {@code true} if a message with the given {@code payloadType} and {@code messageName} should be traced,
+     * {@code false} otherwise
+     */
+    public boolean shouldTrace(Class<?> payloadType, String messageName) {
+        if (tracesAll) {
+            return true;
+        }
+        String payloadTypeName = payloadType.getName();
+        boolean included = includes.isEmpty()
+                || includes.matches(payloadTypeName)
+                || includes.matches(messageName);
+        return included && !excludes.matches(payloadTypeName) && !excludes.matches(messageName);
+    }
+
+    private static String messageName(Message<?> message) {
+        if (message instanceof CommandMessage) {
+            return ((CommandMessage<?>) message).getCommandName();
+        } else if (message instanceof QueryMessage) {
+            return ((QueryMessage<?, ?>) message).getQueryName();
+        } else if (message instanceof DeadlineMessage) {
+            return ((DeadlineMessage<?>) message).getDeadlineName();
+        }
+        return message.getPayloadType().getName();
+    }
+
+    /**
+     * A set of patterns compiled into a {@link Set} of exact names and a trie of package segments for the wildcard
+     * patterns. A wildcard ending a partial segment is kept as a segment prefix on the node of its package.
+     */
+    private static class CompiledPatterns {
+
+        private final Set<String> exactNames = new HashSet<>();
+        private final TrieNode wildcards = new TrieNode();
+        private boolean hasWildcards = false;
+
+        private CompiledPatterns(List<String> patterns) {
+            for (String pattern : patterns) {
+                String trimmed = pattern.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                int wildcard = trimmed.indexOf(WILDCARD);
+                if (wildcard >= 0 && wildcard < trimmed.length() - 1) {
+                    throw new AxonConfigurationException(
+                            "The pattern [" + trimmed + "] may only contain a " + WILDCARD + " wildcard at its end"
+                    );
+                }
+                if (wildcard >= 0) {
+                    addWildcard(trimmed.substring(0, wildcard));
+                } else {
+                    exactNames.add(trimmed);
+                }
+            }
+        }
+
+        private void addWildcard(String prefix) {
+            int lastDot = prefix.lastIndexOf('.');
+            String packageName = prefix.substring(0, lastDot + 1);
+            String segmentPrefix = prefix.substring(lastDot + 1);
+            TrieNode node = wildcards;
+            int start = 0;
+            while (start < packageName.length()) {
+                int end = packageName.indexOf('.', start);
+                if (end > start) {
+                    node = node.children.computeIfAbsent(packageName.substring(start, end), k -> new TrieNode());
+                }
+                start = end + 1;
+            }
+            if (segmentPrefix.isEmpty()) {
+                node.terminal = true;
+            } else {
+                node.segmentPrefixes.add(segmentPrefix);
+            }
+            hasWildcards = true;
+        }
+
+        private boolean isEmpty() {
+            return exactNames.isEmpty() && !hasWildcards;
+        }
+
+        private boolean matches(String name) {
+            if (name == null) {
+                return false;
+            }
+            if (exactNames.contains(name)) {
+                return true;
+            }
+            if (!hasWildcards) {
+                return false;
+            }
+            TrieNode node = wildcards;
+            int start = 0;
+            while (!node.terminal) {
+                for (String segmentPrefix : node.segmentPrefixes) {
+                    if (name.startsWith(segmentPrefix, start)) {
+                        return true;
+                    }
+                }
+                int end = name.indexOf('.', start);
+                if (end < 0) {
+                    // The last segment is the simple name, which is never a package to match on
+                    return false;
+                }
+                node = node.children.get(name.substring(start, end));
+                if (node == null) {
+                    return false;
+                }
+                start = end + 1;
+            }
+            return true;
+        }
+    }
+
+    private static class TrieNode {
+
+        private final Map<String, TrieNode> children = new HashMap<>();
+        private final List<String> segmentPrefixes = new ArrayList<>();
+        private boolean terminal = false;
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingMessageFilter}.
+     * <p>
+     * Both the include and exclude patterns default to an empty list, resulting in a filter which traces every message.
+     */
+    public static class Builder {
+
+        private final List<String> includes = new ArrayList<>();
+        private final List<String> excludes = new ArrayList<>();
+
+        /**
+         * Adds the given {@code patterns} as include patterns. When any include pattern is present, only messages
+         * matching one of them are traced.
+         *
+         * @param patterns the payload type or message name patterns of messages to trace
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder includes(String... patterns) {
+            return includes(asList(patterns));
+        }
+
+        /**
+         * Adds the given {@link List} of {@code patterns} as include patterns. When any include pattern is present,
+         * only messages matching one of them are traced.
+         *
+         * @param patterns the payload type or message name patterns of messages to trace
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder includes(List<String> patterns) {
+            assertNonNull(patterns, "The include patterns may not be null");
+            this.includes.addAll(patterns);
+            return this;
+        }
+
+        /**
+         * Adds the given {@code patterns} as exclude patterns. Messages matching any of them are not traced.
+         *
+         * @param patterns the payload type or message name patterns of messages to suppress
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder excludes(String... patterns) {
+            return excludes(asList(patterns));
+        }
+
+        /**
+         * Adds the given {@link List} of {@code patterns} as exclude patterns. Messages matching any of them are not
+         * traced.
+         *
+         * @param patterns the payload type or message name patterns of messages to suppress
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder excludes(List<String> patterns) {
+            assertNonNull(patterns, "The exclude patterns may not be null");
+            this.excludes.addAll(patterns);
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingMessageFilter} as specified through this Builder.
+         *
+         * @return a {@link TracingMessageFilter} as specified through this Builder
+         */
+        public TracingMessageFilter build() {
+            return new TracingMessageFilter(this);
+        }
+    }
+}
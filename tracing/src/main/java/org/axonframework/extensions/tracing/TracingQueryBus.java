@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.lifecycle.Lifecycle;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.QueryMessage;
+import org.axonframework.queryhandling.QueryResponseMessage;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.axonframework.queryhandling.StreamingQueryMessage;
+import org.axonframework.queryhandling.SubscriptionQueryBackpressure;
+import org.axonframework.queryhandling.SubscriptionQueryMessage;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A tracing {@link QueryBus} starting a client {@link Span} for every dispatched query, with the same semantics and
+ * tags as the spans of the {@link TracingQueryGateway}. This covers queries which are dispatched on the bus directly,
+ * rather than through a gateway. This implementation is a wrapper and as such delegates the actual dispatching of
+ * queries to another QueryBus.
+ * <p>
+ * The span context is injected into the metadata of the dispatched query. The {@link QueryUpdateEmitter} of this bus
+ * is a {@link TracingQueryUpdateEmitter}, tracing the emission of subscription query updates as well.
+ * <p>
+ * Use either this bus or the {@link TracingQueryGateway}, as a gateway dispatching through this bus would start two
+ * client spans per query.
+ *
+ * @since 4.12.1
+ */
+public class TracingQueryBus implements QueryBus, Lifecycle {
+
+    private final Tracer tracer;
+    private final QueryBus delegate;
+    private final MessageTagBuilderService messageTagBuilderService;
+    private final TracingMessageFilter messageFilter;
+    private final ElementTracingPolicy elementTracingPolicy;
+    private final SubscriptionQuerySpanTracker subscriptionQuerySpanTracker;
+    private final QueryUpdateEmitter queryUpdateEmitter;
+    private final HandlerInterceptorTimer handlerInterceptorTimer;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingQueryBus}.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}, the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}, the {@link ElementTracingPolicy} to
+     * {@link ElementTracingPolicy#perElement()} and the {@link SubscriptionQuerySpanTracker} to the shared {@link
+     * SubscriptionQuerySpanTracker#defaultTracker()}, expiring subscription query spans after one hour. The {@link
+     * Tracer} and delegate {@link QueryBus} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingQueryBus}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingQueryBus} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link QueryBus} are not {@code null}, and will throw an {@link
+     * AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingQueryBus} instance
+     */
+    protected TracingQueryBus(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.messageTagBuilderService = builder.messageTagBuilderService;
+        this.messageFilter = builder.messageFilter;
+        this.elementTracingPolicy = builder.elementTracingPolicy;
+        this.subscriptionQuerySpanTracker = builder.subscriptionQuerySpanTracker;
+        this.handlerInterceptorTimer = builder.handlerInterceptorTimer;
+        this.queryUpdateEmitter = tracingQueryUpdateEmitter(builder, delegate.queryUpdateEmitter());
+    }
+
+    private static QueryUpdateEmitter tracingQueryUpdateEmitter(Builder builder, QueryUpdateEmitter delegateEmitter) {
+        // The emitter of the delegate is already traced when it was wrapped on its own, like in Spring Boot
+        if (delegateEmitter instanceof TracingQueryUpdateEmitter) {
+            return delegateEmitter;
+        }
+        return TracingQueryUpdateEmitter.builder()
+                                        .tracer(builder.tracer)
+                                        .delegateQueryUpdateEmitter(delegateEmitter)
+                                        .messageTagBuilderService(builder.messageTagBuilderService)
+                                        .messageFilter(builder.messageFilter)
+                                        .build();
+    }
+
+    @Override
+    public <Q, R> CompletableFuture<QueryResponseMessage<R>> query(QueryMessage<Q, R> query) {
+        if (!messageFilter.shouldTrace(query)) {
+            return delegate.query(query);
+        }
+        Span span = startSpan("query_" + SpanUtils.messageName(query), query);
+        try (Scope ignored = tracer.activateSpan(span)) {
+            return delegate.query(query.andMetaData(tracingMetaData(query, span, null)))
+                           .whenComplete((r, e) -> {
+                               span.log("resultReceived");
+                               span.finish();
+                           });
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(span, true);
+            span.finish();
+            throw e;
+        }
+    }
+
+    @Override
+    public <Q, R> Stream<QueryResponseMessage<R>> scatterGather(QueryMessage<Q, R> query,
+                                                                long timeout,
+                                                                TimeUnit unit) {
+        if (!messageFilter.shouldTrace(query)) {
+            return delegate.scatterGather(query, timeout, unit);
+        }
+        Instant deadline = Instant.now().plusMillis(unit.toMillis(timeout));
+        Span span = startSpan("scatterGather_" + SpanUtils.messageName(query), query);
+        ScatterGatherRecorder recorder = new ScatterGatherRecorder(span, elementTracingPolicy, deadline);
+        try (Scope ignored = tracer.activateSpan(span)) {
+            return recorder.record(
+                    delegate.scatterGather(query.andMetaData(tracingMetaData(query, span, deadline)), timeout, unit),
+                    () -> {
+                        span.log("resultReceived");
+                        span.finish();
+                    }
+            );
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(span, true);
+            span.finish();
+            throw e;
+        }
+    }
+
+    @Override
+    public <Q, R> Publisher<QueryResponseMessage<R>> streamingQuery(StreamingQueryMessage<Q, R> query) {
+        if (!messageFilter.shouldTrace(query)) {
+            return delegate.streamingQuery(query);
+        }
+        String operation = "streamingQuery_" + SpanUtils.messageName(query);
+        Span callerSpan = tracer.activeSpan();
+        return Flux.deferContextual(contextView -> {
+            Span parentSpan = ReactorTracingContext.currentSpan(contextView).orElse(callerSpan);
+            Tracer.SpanBuilder spanBuilder = buildSpan(operation, query);
+            Span span = parentSpan != null ? spanBuilder.asChildOf(parentSpan).start() : spanBuilder.start();
+            // Only activate the span while subscribing, as that is when the delegate dispatches the query
+            Publisher<QueryResponseMessage<R>> tracedSource = subscriber -> {
+                try (Scope ignored = tracer.activateSpan(span)) {
+                    delegate.streamingQuery(query.andMetaData(tracingMetaData(query, span, null)))
+                            .subscribe(subscriber);
+                }
+            };
+            ElementTracingPolicy.Recorder recorder = elementTracingPolicy.recorder(span, "answerReceived");
+            return Flux.from(tracedSource)
+                       .doOnSubscribe(unused -> span.log("subscriptionStarted"))
+                       .doOnNext(unused -> recorder.record())
+                       .doFinally(unused -> {
+                           recorder.complete();
+                           span.log("subscriptionTerminated");
+                           span.finish();
+                       })
+                       .contextWrite(ReactorTracingContext.withSpan(span));
+        });
+    }
+
+    @Override
+    public <Q, I, U> SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQueryUpdateMessage<U>>
+    subscriptionQuery(SubscriptionQueryMessage<Q, I, U> query) {
+        return tracedSubscriptionQuery(query, delegate::subscriptionQuery);
+    }
+
+    @Override
+    public <Q, I, U> SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQueryUpdateMessage<U>>
+    subscriptionQuery(SubscriptionQueryMessage<Q, I, U> query, int updateBufferSize) {
+        return tracedSubscriptionQuery(query, q -> delegate.subscriptionQuery(q, updateBufferSize));
+    }
+
+    @Override
+    @Deprecated
+    public <Q, I, U> SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQueryUpdateMessage<U>>
+    subscriptionQuery(SubscriptionQueryMessage<Q, I, U> query,
+                      SubscriptionQueryBackpressure backpressure,
+                      int updateBufferSize) {
+        return tracedSubscriptionQuery(query, q -> delegate.subscriptionQuery(q, backpressure, updateBufferSize));
+    }
+
+    private <Q, I, U> SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQueryUpdateMessage<U>>
+    tracedSubscriptionQuery(
+            SubscriptionQueryMessage<Q, I, U> query,
+            Function<SubscriptionQueryMessage<Q, I, U>,
+                    SubscriptionQueryResult<QueryResponseMessage<I>, SubscriptionQueryUpdateMessage<U>>> dispatcher
+    ) {
+        if (!messageFilter.shouldTrace(query)) {
+            return dispatcher.apply(query);
+        }
+        Span span = startSpan("subscriptionQuery_" + SpanUtils.messageName(query), query);
+        try (Scope ignored = tracer.activateSpan(span)) {
+            return new TraceableSubscriptionQueryResult<>(
+                    dispatcher.apply(query.andMetaData(tracingMetaData(query, span, null))),
+                    span, elementTracingPolicy, subscriptionQuerySpanTracker
+            );
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(span, true);
+            span.finish();
+            throw e;
+        }
+    }
+
+    private Span startSpan(String operation, QueryMessage<?, ?> query) {
+        return buildSpan(operation, query).start();
+    }
+
+    private Tracer.SpanBuilder buildSpan(String operation, QueryMessage<?, ?> query) {
+        return messageTagBuilderService.withQueryMessageTags(tracer.buildSpan(operation), query)
+                                       .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
+    }
+
+    private Map<String, Object> tracingMetaData(QueryMessage<?, ?> query, Span span, Instant deadline) {
+        MapInjector injector = new MapInjector();
+        tracer.inject(span.context(), Format.Builtin.TEXT_MAP, injector);
+        Map<String, Object> metaData = new HashMap<>(injector.getMetaData());
+        Instant effectiveDeadline = MessageDeadlines.currentDeadline()
+                                                    .filter(current -> deadline == null || current.isBefore(deadline))
+                                                    .orElse(deadline);
+        if (effectiveDeadline != null) {
+            metaData.putAll(MessageDeadlines.deadlineMetaData(query, effectiveDeadline));
+        }
+        return metaData;
+    }
+
+    @Override
+    public QueryUpdateEmitter queryUpdateEmitter() {
+        return queryUpdateEmitter;
+    }
+
+    @Override
+    public <R> Registration subscribe(String queryName,
+                                      Type responseType,
+                                      MessageHandler<? super QueryMessage<?, R>> handler) {
+        return delegate.subscribe(queryName, responseType, handler);
+    }
+
+    @Override
+    public Registration registerHandlerInterceptor(
+            MessageHandlerInterceptor<? super QueryMessage<?, ?>> handlerInterceptor) {
+        return delegate.registerHandlerInterceptor(
+                handlerInterceptorTimer != null ? handlerInterceptorTimer.timed(handlerInterceptor) : handlerInterceptor
+        );
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            MessageDispatchInterceptor<? super QueryMessage<?, ?>> dispatchInterceptor) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    @Override
+    public void registerLifecycleHandlers(LifecycleRegistry lifecycle) {
+        if (delegate instanceof Lifecycle) {
+            ((Lifecycle) delegate).registerLifecycleHandlers(lifecycle);
+        }
+    }
+
+    /**
+     * Returns the {@link QueryBus} this tracing-wrapper delegates the actual dispatching of queries to.
+     *
+     * @return the {@link QueryBus} this tracing-wrapper delegates the actual dispatching of queries to
+     */
+    public QueryBus getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingQueryBus}.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}, the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}, the {@link ElementTracingPolicy} to
+     * {@link ElementTracingPolicy#perElement()} and the {@link SubscriptionQuerySpanTracker} to the shared {@link
+     * SubscriptionQuerySpanTracker#defaultTracker()}, expiring subscription query spans after one hour. The {@link
+     * Tracer} and delegate {@link QueryBus} are <b>hard requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private QueryBus delegate;
+        private MessageTagBuilderService messageTagBuilderService = MessageTagBuilderService.defaultService();
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+        private ElementTracingPolicy elementTracingPolicy = ElementTracingPolicy.perElement();
+        private SubscriptionQuerySpanTracker subscriptionQuerySpanTracker;
+        private HandlerInterceptorTimer handlerInterceptorTimer;
+
+        /**
+         * Sets the {@link Tracer} used to set a {@link Span} on dispatched {@link QueryMessage}s.
+         *
+         * @param tracer a {@link Tracer} used to set a {@link Span} on dispatched {@link QueryMessage}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link QueryBus} this tracing-wrapper will delegate the actual dispatching of queries towards.
+         *
+         * @param delegate the {@link QueryBus} this tracing-wrapper will delegate the actual dispatching of queries
+         *                 towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateQueryBus(QueryBus delegate) {
+            assertNonNull(delegate, "Delegate QueryBus may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MessageTagBuilderService} to be used to add {@link QueryMessage} information as tags to a
+         * {@link Span}. Defaults to a {@link MessageTagBuilderService#defaultService()}.
+         *
+         * @param messageTagBuilderService the {@link MessageTagBuilderService} to be used to add {@link QueryMessage}
+         *                                 information as tags to a {@link Span}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageTagBuilderService(MessageTagBuilderService messageTagBuilderService) {
+            assertNonNull(messageTagBuilderService, "MessageTagBuilderService may not be null");
+            this.messageTagBuilderService = messageTagBuilderService;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which dispatched {@link QueryMessage}s and emitted updates are
+         * traced. Suppressed messages are passed to the delegate without building a {@link Span}. Defaults to {@link
+         * TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which dispatched {@link QueryMessage}s and
+         *                      emitted updates are traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ElementTracingPolicy} describing how the elements of a streaming query, the updates of a
+         * subscription query and the responses of a scatter-gather query are recorded on the query's {@link Span}.
+         * Defaults to {@link ElementTracingPolicy#perElement()}.
+         *
+         * @param elementTracingPolicy the {@link ElementTracingPolicy} describing how streamed elements are recorded on
+         *                             the query's {@link Span}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder elementTracingPolicy(ElementTracingPolicy elementTracingPolicy) {
+            assertNonNull(elementTracingPolicy, "ElementTracingPolicy may not be null");
+            this.elementTracingPolicy = elementTracingPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SubscriptionQuerySpanTracker} keeping track of the open subscription query {@link Span}s,
+         * expiring those which are kept open too long. Defaults to the shared {@link
+         * SubscriptionQuerySpanTracker#defaultTracker()}, expiring spans after one hour.
+         *
+         * @param subscriptionQuerySpanTracker the {@link SubscriptionQuerySpanTracker} keeping track of the open
+         *                                     subscription query {@link Span}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder subscriptionQuerySpanTracker(SubscriptionQuerySpanTracker subscriptionQuerySpanTracker) {
+            assertNonNull(subscriptionQuerySpanTracker, "SubscriptionQuerySpanTracker may not be null");
+            this.subscriptionQuerySpanTracker = subscriptionQuerySpanTracker;
+            return this;
+        }
+
+        /**
+         * Sets the {@link HandlerInterceptorTimer} timing every handler interceptor registered with this bus. Defaults
+         * to {@code null}, registering handler interceptors with the delegate {@link QueryBus} as is.
+         *
+         * @param handlerInterceptorTimer the {@link HandlerInterceptorTimer} timing every registered handler
+         *                                interceptor
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder handlerInterceptorTimer(HandlerInterceptorTimer handlerInterceptorTimer) {
+            assertNonNull(handlerInterceptorTimer, "HandlerInterceptorTimer may not be null");
+            this.handlerInterceptorTimer = handlerInterceptorTimer;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingQueryBus} as specified through this Builder.
+         *
+         * @return a {@link TracingQueryBus} as specified through this Builder
+         */
+        public TracingQueryBus build() {
+            if (subscriptionQuerySpanTracker == null) {
+                subscriptionQuerySpanTracker = SubscriptionQuerySpanTracker.defaultTracker();
+            }
+            return new TracingQueryBus(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate QueryBus is a hard requirement and should be provided");
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.axonframework.queryhandling.SubscriptionQueryResult;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
@@ -57,9 +58,43 @@ import static org.axonframework.queryhandling.QueryMessage.queryName;
  */
 public class TracingQueryGateway implements QueryGateway {
 
+    /**
+     * The tag holding the number of responses a scatter-gather query received.
+     */
+    public static final String SCATTER_GATHER_RESPONSE_COUNT_TAG = "axon.scatter-gather.response-count";
+    /**
+     * The tag holding the time in microseconds from dispatching a scatter-gather query to its first response.
+     */
+    public static final String SCATTER_GATHER_TIME_TO_FIRST_RESPONSE_TAG =
+            "axon.scatter-gather.time-to-first-response-micros";
+    /**
+     * The tag holding the time in microseconds from dispatching a scatter-gather query to its last response.
+     */
+    public static final String SCATTER_GATHER_TIME_TO_LAST_RESPONSE_TAG =
+            "axon.scatter-gather.time-to-last-response-micros";
+    /**
+     * The tag holding the position, starting at {@code 1}, of the scatter-gather response with the longest wait since
+     * the previous response, or since dispatching the query for the first response.
+     */
+    public static final String SCATTER_GATHER_SLOWEST_RESPONSE_TAG = "axon.scatter-gather.slowest-response";
+    /**
+     * The tag holding the time in microseconds the slowest scatter-gather response took to arrive after the previous
+     * response, or after dispatching the query for the first response.
+     */
+    public static final String SCATTER_GATHER_SLOWEST_RESPONSE_LATENCY_TAG =
+            "axon.scatter-gather.slowest-response-micros";
+    /**
+     * The tag marking whether the result stream of a scatter-gather query ran out at or after its deadline, meaning the
+     * delegate stopped waiting for the remaining handlers.
+     */
+    public static final String SCATTER_GATHER_TIMEOUT_EXCEEDED_TAG = "axon.scatter-gather.timeout-exceeded";
+
     private final Tracer tracer;
     private final QueryGateway delegate;
     private final MessageTagBuilderService messageTagBuilderService;
+    private final TracingMessageFilter messageFilter;
+    private final ElementTracingPolicy elementTracingPolicy;
+    private final SubscriptionQuerySpanTracker subscriptionQuerySpanTracker;
 
     /**
      * Instantiate a {@link TracingQueryGateway} based on the fields contained in the {@link Builder}.
@@ -74,6 +109,9 @@ public class TracingQueryGateway implements QueryGateway {
         this.tracer = builder.tracer;
         this.delegate = builder.buildDelegateQueryGateway();
         this.messageTagBuilderService = builder.messageTagBuilderService;
+        this.messageFilter = builder.messageFilter;
+        this.elementTracingPolicy = builder.elementTracingPolicy;
+        this.subscriptionQuerySpanTracker = builder.subscriptionQuerySpanTracker;
     }
 
     /**
@@ -83,8 +121,11 @@ public class TracingQueryGateway implements QueryGateway {
      * queries to. If a QueryBus is provided directly, it will be used to instantiate a {@link DefaultQueryGateway}. A
      * registered QueryGateway will always take precedence over a configured QueryBus.
      * <p>
-     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}. The
-     * {@link Tracer} and delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be provided.
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}, the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}, the {@link ElementTracingPolicy} to
+     * {@link ElementTracingPolicy#perElement()} and the {@link SubscriptionQuerySpanTracker} to the shared {@link
+     * SubscriptionQuerySpanTracker#defaultTracker()}, expiring subscription query spans after one hour. The {@link
+     * Tracer} and delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be provided.
      *
      * @return a Builder to be able to create a {@link TracingQueryGateway}
      */
@@ -95,6 +136,9 @@ public class TracingQueryGateway implements QueryGateway {
     @Override
     public <R, Q> CompletableFuture<R> query(String queryName, Q query, ResponseType<R> responseType) {
         QueryMessage<?, R> queryMessage = new GenericQueryMessage<>(asMessage(query), queryName, responseType);
+        if (!messageFilter.shouldTrace(queryMessage)) {
+            return delegate.query(queryName, queryMessage, responseType);
+        }
         return getWithSpan(
                 "query_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName),
                 queryMessage,
@@ -112,15 +156,27 @@ public class TracingQueryGateway implements QueryGateway {
                                           ResponseType<R> responseType,
                                           long timeout,
                                           TimeUnit timeUnit) {
-        QueryMessage<?, R> queryMessage = new GenericQueryMessage<>(asMessage(query), queryName, responseType);
+        Instant deadline = Instant.now().plusMillis(timeUnit.toMillis(timeout));
+        QueryMessage<?, R> untimedMessage = new GenericQueryMessage<>(asMessage(query), queryName, responseType);
+        QueryMessage<?, R> queryMessage =
+                untimedMessage.andMetaData(MessageDeadlines.deadlineMetaData(untimedMessage, deadline));
+        if (!messageFilter.shouldTrace(queryMessage)) {
+            return delegate.scatterGather(queryName, queryMessage, responseType, timeout, timeUnit);
+        }
         return getWithSpan(
                 "scatterGather_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName),
                 queryMessage,
-                (childSpan) -> delegate.scatterGather(queryName, queryMessage, responseType, timeout, timeUnit)
-                                       .onClose(() -> {
-                                           childSpan.log("resultReceived");
-                                           childSpan.finish();
-                                       })
+                (childSpan) -> {
+                    ScatterGatherRecorder recorder =
+                            new ScatterGatherRecorder(childSpan, elementTracingPolicy, deadline);
+                    return recorder.record(
+                            delegate.scatterGather(queryName, queryMessage, responseType, timeout, timeUnit),
+                            () -> {
+                                childSpan.log("resultReceived");
+                                childSpan.finish();
+                            }
+                    );
+                }
         );
     }
 
@@ -134,17 +190,32 @@ public class TracingQueryGateway implements QueryGateway {
         GenericStreamingQueryMessage<Q, R> queryMessagesMessage = new GenericStreamingQueryMessage<>(query,
                                                                                                                queryName,
                                                                                                                responseType);
-        return getWithSpan(
-                "streamingQuery_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName),
-                queryMessagesMessage,
-                (childSpan) -> Flux.from(delegate.streamingQuery(queryName, queryMessagesMessage, responseType))
-                        .doOnSubscribe(unused ->  childSpan.log("subscriptionStarted"))
-                        .doOnNext(unused -> childSpan.log("answerReceived"))
-                        .doFinally(unused -> {
-                            childSpan.log("subscriptionTerminated");
-                            childSpan.finish();
-                        })
-        );
+        if (!messageFilter.shouldTrace(queryMessagesMessage)) {
+            return delegate.streamingQuery(queryName, queryMessagesMessage, responseType);
+        }
+        String operation = "streamingQuery_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName);
+        Span callerSpan = tracer.activeSpan();
+        return Flux.deferContextual(contextView -> {
+            Span parentSpan = ReactorTracingContext.currentSpan(contextView).orElse(callerSpan);
+            Tracer.SpanBuilder spanBuilder = buildSpan(operation, queryMessagesMessage);
+            final Span childSpan = parentSpan != null ? spanBuilder.asChildOf(parentSpan).start() : spanBuilder.start();
+            // Only activate the span while subscribing, as that is when the delegate dispatches the query
+            Publisher<R> tracedSource = subscriber -> {
+                try (Scope ignored = tracer.activateSpan(childSpan)) {
+                    delegate.streamingQuery(queryName, queryMessagesMessage, responseType).subscribe(subscriber);
+                }
+            };
+            ElementTracingPolicy.Recorder recorder = elementTracingPolicy.recorder(childSpan, "answerReceived");
+            return Flux.from(tracedSource)
+                       .doOnSubscribe(unused -> childSpan.log("subscriptionStarted"))
+                       .doOnNext(unused -> recorder.record())
+                       .doFinally(unused -> {
+                           recorder.complete();
+                           childSpan.log("subscriptionTerminated");
+                           childSpan.finish();
+                       })
+                       .contextWrite(ReactorTracingContext.withSpan(childSpan));
+        });
     }
 
     @Override
@@ -156,6 +227,11 @@ public class TracingQueryGateway implements QueryGateway {
         SubscriptionQueryMessage<?, I, U> queryMessage = new GenericSubscriptionQueryMessage<>(
                 asMessage(query), queryName, initialResponseType, updateResponseType
         );
+        if (!messageFilter.shouldTrace(queryMessage)) {
+            return delegate.subscriptionQuery(
+                    queryName, queryMessage, initialResponseType, updateResponseType, updateBufferSize
+            );
+        }
         return getWithSpan(
                 "subscriptionQuery_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName),
                 queryMessage,
@@ -164,7 +240,9 @@ public class TracingQueryGateway implements QueryGateway {
                             queryName, queryMessage, initialResponseType, updateResponseType,
                             updateBufferSize
                     );
-                    return new TraceableSubscriptionQueryResult<>(subscriptionQueryResult, childSpan);
+                    return new TraceableSubscriptionQueryResult<>(
+                            subscriptionQueryResult, childSpan, elementTracingPolicy, subscriptionQuerySpanTracker
+                    );
                 }
         );
     }
@@ -181,15 +259,17 @@ public class TracingQueryGateway implements QueryGateway {
     }
 
     private <R, T> T getWithSpan(String operation, QueryMessage<?, R> query, SpanSupplier<T> supplier) {
-        Tracer.SpanBuilder spanBuilder =
-                messageTagBuilderService.withQueryMessageTags(tracer.buildSpan(operation), query)
-                                        .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
-        final Span childSpan = spanBuilder.start();
+        final Span childSpan = buildSpan(operation, query).start();
         try (Scope ignored = tracer.activateSpan(childSpan)) {
             return supplier.get(childSpan);
         }
     }
 
+    private Tracer.SpanBuilder buildSpan(String operation, QueryMessage<?, ?> query) {
+        return messageTagBuilderService.withQueryMessageTags(tracer.buildSpan(operation), query)
+                                       .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
+    }
+
     @Override
     public Registration registerDispatchInterceptor(
             MessageDispatchInterceptor<? super QueryMessage<?, ?>> dispatchInterceptor) {
@@ -209,8 +289,11 @@ public class TracingQueryGateway implements QueryGateway {
      * queries to. If a QueryBus is provided directly, it will be used to instantiate a {@link DefaultQueryGateway}. A
      * registered QueryGateway will always take precedence over a configured QueryBus.
      * <p>
-     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}. The
-     * {@link Tracer} and delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be provided.
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}, the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}, the {@link ElementTracingPolicy} to
+     * {@link ElementTracingPolicy#perElement()} and the {@link SubscriptionQuerySpanTracker} to the shared {@link
+     * SubscriptionQuerySpanTracker#defaultTracker()}, expiring subscription query spans after one hour. The {@link
+     * Tracer} and delegate {@link QueryGateway} are <b>hard requirements</b> and as such should be provided.
      */
     public static class Builder {
 
@@ -218,6 +301,9 @@ public class TracingQueryGateway implements QueryGateway {
         private QueryBus delegateBus;
         private QueryGateway delegateGateway;
         private MessageTagBuilderService messageTagBuilderService = MessageTagBuilderService.defaultService();
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+        private ElementTracingPolicy elementTracingPolicy = ElementTracingPolicy.perElement();
+        private SubscriptionQuerySpanTracker subscriptionQuerySpanTracker;
 
         /**
          * Sets the {@link Tracer} used to set a {@link Span} on dispatched {@link QueryMessage}s.
@@ -272,12 +358,60 @@ public class TracingQueryGateway implements QueryGateway {
             return this;
         }
 
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which dispatched {@link QueryMessage}s are traced. Suppressed
+         * queries are passed to the delegate {@link QueryGateway} without building a {@link Span}. Defaults to {@link
+         * TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which dispatched {@link QueryMessage}s are
+         *                      traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ElementTracingPolicy} describing how the elements of a streaming query, the updates of a
+         * subscription query and the responses of a scatter-gather query are recorded on the query's {@link Span}.
+         * Defaults to {@link ElementTracingPolicy#perElement()}.
+         *
+         * @param elementTracingPolicy the {@link ElementTracingPolicy} describing how streamed elements are recorded on
+         *                             the query's {@link Span}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder elementTracingPolicy(ElementTracingPolicy elementTracingPolicy) {
+            assertNonNull(elementTracingPolicy, "ElementTracingPolicy may not be null");
+            this.elementTracingPolicy = elementTracingPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SubscriptionQuerySpanTracker} keeping track of the open subscription query {@link Span}s,
+         * expiring those which are kept open too long. Defaults to the shared {@link
+         * SubscriptionQuerySpanTracker#defaultTracker()}, expiring spans after one hour.
+         *
+         * @param subscriptionQuerySpanTracker the {@link SubscriptionQuerySpanTracker} keeping track of the open
+         *                                     subscription query {@link Span}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder subscriptionQuerySpanTracker(SubscriptionQuerySpanTracker subscriptionQuerySpanTracker) {
+            assertNonNull(subscriptionQuerySpanTracker, "SubscriptionQuerySpanTracker may not be null");
+            this.subscriptionQuerySpanTracker = subscriptionQuerySpanTracker;
+            return this;
+        }
+
         /**
          * Initializes a {@link TracingQueryGateway} as specified through this Builder.
          *
          * @return a {@link TracingQueryGateway} as specified through this Builder
          */
         public TracingQueryGateway build() {
+            if (subscriptionQuerySpanTracker == null) {
+                subscriptionQuerySpanTracker = SubscriptionQuerySpanTracker.defaultTracker();
+            }
             return new TracingQueryGateway(this);
         }
 
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.axonframework.queryhandling.SubscriptionQueryBackpressure;
+import org.axonframework.queryhandling.SubscriptionQueryMessage;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.axonframework.queryhandling.UpdateHandlerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A tracing {@link QueryUpdateEmitter} starting a producer {@link Span} for every emitted update. Besides the cost of
+ * the emission itself, the span is tagged with the number of subscription queries the filter was evaluated for, the
+ * number of subscription queries it matched and the time spent evaluating the filter. This implementation is a wrapper
+ * and as such delegates the actual emission of updates to another QueryUpdateEmitter.
+ * <p>
+ * Updates emitted while a {@link UnitOfWork} is started are emitted once it has been committed, like Axon's own
+ * emitters do. The emission span is started at that moment as well, as a child of the span active when the update was
+ * emitted.
+ *
+ * @since 4.12.1
+ */
+public class TracingQueryUpdateEmitter implements QueryUpdateEmitter {
+
+    /**
+     * The tag holding the number of subscription queries the filter of an emitted update was evaluated for.
+     */
+    public static final String FILTER_EVALUATIONS_TAG = "axon.query-update.filter-evaluations";
+    /**
+     * The tag holding the number of subscription queries matched by the filter of an emitted update.
+     */
+    public static final String MATCHED_SUBSCRIPTIONS_TAG = "axon.query-update.matched-subscriptions";
+    /**
+     * The tag holding the time in microseconds spent evaluating the filter of an emitted update.
+     */
+    public static final String FILTER_TIME_TAG = "axon.query-update.filter-time-micros";
+
+    private final String updateTasksKey = toString() + "/update-tasks";
+
+    private final Tracer tracer;
+    private final QueryUpdateEmitter delegate;
+    private final MessageTagBuilderService messageTagBuilderService;
+    private final TracingMessageFilter messageFilter;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingQueryUpdateEmitter}.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()} and the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}. The {@link Tracer} and delegate {@link
+     * QueryUpdateEmitter} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingQueryUpdateEmitter}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingQueryUpdateEmitter} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link QueryUpdateEmitter} are not {@code null}, and will throw
+     * an {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingQueryUpdateEmitter} instance
+     */
+    protected TracingQueryUpdateEmitter(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.messageTagBuilderService = builder.messageTagBuilderService;
+        this.messageFilter = builder.messageFilter;
+    }
+
+    @Override
+    public <U> void emit(Predicate<SubscriptionQueryMessage<?, ?, U>> filter,
+                         SubscriptionQueryUpdateMessage<U> update) {
+        Runnable emission = messageFilter.shouldTrace(update)
+                ? tracedEmission(tracer.activeSpan(), filter, update)
+                : () -> delegate.emit(filter, update);
+        runOnAfterCommitOrNow(emission);
+    }
+
+    private <U> Runnable tracedEmission(Span parentSpan,
+                                        Predicate<SubscriptionQueryMessage<?, ?, U>> filter,
+                                        SubscriptionQueryUpdateMessage<U> update) {
+        return () -> {
+            Tracer.SpanBuilder spanBuilder = messageTagBuilderService.withMessageTags(
+                    tracer.buildSpan("emitUpdate_" + SpanUtils.messageName(update)), update
+            ).withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_PRODUCER);
+            Span span = parentSpan != null ? spanBuilder.asChildOf(parentSpan).start() : spanBuilder.start();
+            MeasuringFilter<U> measuringFilter = new MeasuringFilter<>(filter);
+            try (Scope ignored = tracer.activateSpan(span)) {
+                delegate.emit(measuringFilter, update);
+            } catch (RuntimeException | Error e) {
+                Tags.ERROR.set(span, true);
+                throw e;
+            } finally {
+                span.setTag(FILTER_EVALUATIONS_TAG, measuringFilter.evaluations);
+                span.setTag(MATCHED_SUBSCRIPTIONS_TAG, measuringFilter.matches);
+                span.setTag(FILTER_TIME_TAG, TimeUnit.NANOSECONDS.toMicros(measuringFilter.nanos));
+                span.finish();
+            }
+        };
+    }
+
+    /**
+     * Runs the given {@code emission} once the current {@link UnitOfWork} has been committed, or right away if there
+     * is no started UnitOfWork. Emissions are collected in a single list, as the after commit handlers of a UnitOfWork
+     * are invoked in reverse order while updates should be emitted in order.
+     */
+    private void runOnAfterCommitOrNow(Runnable emission) {
+        if (!CurrentUnitOfWork.isStarted() || CurrentUnitOfWork.get().phase() != UnitOfWork.Phase.STARTED) {
+            emission.run();
+            return;
+        }
+        UnitOfWork<?> unitOfWork = CurrentUnitOfWork.get();
+        List<Runnable> emissions = unitOfWork.getOrComputeResource(updateTasksKey, key -> {
+            List<Runnable> tasks = new ArrayList<>();
+            unitOfWork.afterCommit(u -> tasks.forEach(Runnable::run));
+            return tasks;
+        });
+        emissions.add(emission);
+    }
+
+    @Override
+    public void complete(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter) {
+        delegate.complete(filter);
+    }
+
+    @Override
+    public void completeExceptionally(Predicate<SubscriptionQueryMessage<?, ?, ?>> filter, Throwable cause) {
+        delegate.completeExceptionally(filter, cause);
+    }
+
+    @Override
+    public boolean queryUpdateHandlerRegistered(SubscriptionQueryMessage<?, ?, ?> query) {
+        return delegate.queryUpdateHandlerRegistered(query);
+    }
+
+    @Override
+    @Deprecated
+    public <U> UpdateHandlerRegistration<U> registerUpdateHandler(SubscriptionQueryMessage<?, ?, ?> query,
+                                                                  SubscriptionQueryBackpressure backpressure,
+                                                                  int updateBufferSize) {
+        return delegate.registerUpdateHandler(query, backpressure, updateBufferSize);
+    }
+
+    @Override
+    public <U> UpdateHandlerRegistration<U> registerUpdateHandler(SubscriptionQueryMessage<?, ?, ?> query,
+                                                                  int updateBufferSize) {
+        return delegate.registerUpdateHandler(query, updateBufferSize);
+    }
+
+    @Override
+    public Set<SubscriptionQueryMessage<?, ?, ?>> activeSubscriptions() {
+        return delegate.activeSubscriptions();
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            MessageDispatchInterceptor<? super SubscriptionQueryUpdateMessage<?>> dispatchInterceptor) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    /**
+     * A filter counting and timing its evaluations. The filter of a single update is evaluated by the thread emitting
+     * it, so the counters need not be thread-safe.
+     */
+    private static final class MeasuringFilter<U> implements Predicate<SubscriptionQueryMessage<?, ?, U>> {
+
+        private final Predicate<SubscriptionQueryMessage<?, ?, U>> delegate;
+        private long evaluations;
+        private long matches;
+        private long nanos;
+
+        private MeasuringFilter(Predicate<SubscriptionQueryMessage<?, ?, U>> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean test(SubscriptionQueryMessage<?, ?, U> query) {
+            long start = System.nanoTime();
+            try {
+                boolean matched = delegate.test(query);
+                if (matched) {
+                    matches++;
+                }
+                return matched;
+            } finally {
+                nanos += System.nanoTime() - start;
+                evaluations++;
+            }
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingQueryUpdateEmitter}.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()} and the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}. The {@link Tracer} and delegate {@link
+     * QueryUpdateEmitter} are <b>hard requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private QueryUpdateEmitter delegate;
+        private MessageTagBuilderService messageTagBuilderService = MessageTagBuilderService.defaultService();
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+
+        /**
+         * Sets the {@link Tracer} used to set a {@link Span} on emitted {@link SubscriptionQueryUpdateMessage}s.
+         *
+         * @param tracer a {@link Tracer} used to set a {@link Span} on emitted {@link SubscriptionQueryUpdateMessage}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link QueryUpdateEmitter} this tracing-wrapper will delegate the actual emission of updates
+         * towards.
+         *
+         * @param delegate the {@link QueryUpdateEmitter} this tracing-wrapper will delegate the actual emission of
+         *                 updates towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateQueryUpdateEmitter(QueryUpdateEmitter delegate) {
+            assertNonNull(delegate, "Delegate QueryUpdateEmitter may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MessageTagBuilderService} to be used to add {@link SubscriptionQueryUpdateMessage}
+         * information as tags to a {@link Span}. Defaults to a {@link MessageTagBuilderService#defaultService()}.
+         *
+         * @param messageTagBuilderService the {@link MessageTagBuilderService} to be used to add {@link
+         *                                 SubscriptionQueryUpdateMessage} information as tags to a {@link Span}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageTagBuilderService(MessageTagBuilderService messageTagBuilderService) {
+            assertNonNull(messageTagBuilderService, "MessageTagBuilderService may not be null");
+            this.messageTagBuilderService = messageTagBuilderService;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which emitted {@link SubscriptionQueryUpdateMessage}s are
+         * traced. Suppressed updates are passed to the delegate {@link QueryUpdateEmitter} without building a {@link
+         * Span}. Defaults to {@link TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which emitted updates are traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingQueryUpdateEmitter} as specified through this Builder.
+         *
+         * @return a {@link TracingQueryUpdateEmitter} as specified through this Builder
+         */
+        public TracingQueryUpdateEmitter build() {
+            return new TracingQueryUpdateEmitter(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate QueryUpdateEmitter is a hard requirement and should be provided");
+        }
+    }
+}
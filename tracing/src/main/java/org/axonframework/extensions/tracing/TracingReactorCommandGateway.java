@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.tag.Tags;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.CommandResultMessage;
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.extensions.reactor.commandhandling.gateway.DefaultReactorCommandGateway;
+import org.axonframework.extensions.reactor.commandhandling.gateway.ReactorCommandGateway;
+import org.axonframework.extensions.reactor.messaging.ReactorMessageDispatchInterceptor;
+import org.axonframework.extensions.reactor.messaging.ReactorResultHandlerInterceptor;
+import reactor.core.publisher.Mono;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A tracing {@link ReactorCommandGateway} which starts a {@link Span} per command once the returned {@link Mono} is
+ * subscribed to, and finishes it on the terminal signal or on cancellation. This implementation is a wrapper and as
+ * such delegates the actual dispatching of commands to another ReactorCommandGateway.
+ * <p>
+ * The span is never activated on a thread. Instead, the span's context is injected in the command's {@link
+ * org.axonframework.messaging.MetaData} directly and the span is stored in the Reactor {@link
+ * reactor.util.context.Context} through {@link ReactorTracingContext}. A span found in the subscriber's {@code Context}
+ * is used as the parent, falling back to the span active on the thread sending the command.
+ *
+ * @since 4.12.1
+ */
+public class TracingReactorCommandGateway implements ReactorCommandGateway {
+
+    private final Tracer tracer;
+    private final ReactorCommandGateway delegate;
+    private final MessageTagBuilderService messageTagBuilderService;
+    private final TracingMessageFilter messageFilter;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingReactorCommandGateway}.
+     * <p>
+     * Either a {@link CommandBus} or {@link ReactorCommandGateway} can be provided to be used to delegate the
+     * dispatching of commands to. If a CommandBus is provided directly, it will be used to instantiate a {@link
+     * DefaultReactorCommandGateway}. A registered ReactorCommandGateway will always take precedence over a configured
+     * CommandBus.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()} and the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}. The {@link Tracer} and delegate {@link
+     * ReactorCommandGateway} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingReactorCommandGateway}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingReactorCommandGateway} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link ReactorCommandGateway} are not {@code null}, and will
+     * throw an {@link AxonConfigurationException} if they are.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingReactorCommandGateway} instance
+     */
+    protected TracingReactorCommandGateway(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.buildDelegateCommandGateway();
+        this.messageTagBuilderService = builder.messageTagBuilderService;
+        this.messageFilter = builder.messageFilter;
+    }
+
+    @Override
+    public <R> Mono<R> send(Object command) {
+        CommandMessage<?> cmd = GenericCommandMessage.asCommandMessage(command);
+        if (!messageFilter.shouldTrace(cmd)) {
+            return delegate.send(command);
+        }
+        String operation = "send_" + SpanUtils.messageName(cmd);
+        Span callerSpan = tracer.activeSpan();
+        return Mono.deferContextual(contextView -> {
+            Span parentSpan = ReactorTracingContext.currentSpan(contextView).orElse(callerSpan);
+            Span childSpan = startSpan(operation, cmd, parentSpan);
+            return delegate.<R>send(withSpanContext(cmd, childSpan))
+                           .doOnError(error -> Tags.ERROR.set(childSpan, true))
+                           .doFinally(signal -> {
+                               childSpan.log("resultReceived");
+                               childSpan.finish();
+                           })
+                           .contextWrite(ReactorTracingContext.withSpan(childSpan));
+        });
+    }
+
+    private Span startSpan(String operation, CommandMessage<?> command, Span parentSpan) {
+        Tracer.SpanBuilder spanBuilder =
+                messageTagBuilderService.withCommandMessageTags(tracer.buildSpan(operation), command)
+                                        .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
+        return parentSpan != null ? spanBuilder.asChildOf(parentSpan).start() : spanBuilder.start();
+    }
+
+    private CommandMessage<?> withSpanContext(CommandMessage<?> command, Span span) {
+        MapInjector injector = new MapInjector();
+        tracer.inject(span.context(), Format.Builtin.TEXT_MAP, injector);
+        return command.andMetaData(injector.getMetaData());
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            ReactorMessageDispatchInterceptor<CommandMessage<?>> dispatchInterceptor
+    ) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    @Override
+    public Registration registerResultHandlerInterceptor(
+            ReactorResultHandlerInterceptor<CommandMessage<?>, CommandResultMessage<?>> resultHandlerInterceptor
+    ) {
+        return delegate.registerResultHandlerInterceptor(resultHandlerInterceptor);
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingReactorCommandGateway}.
+     * <p>
+     * Either a {@link CommandBus} or {@link ReactorCommandGateway} can be provided to be used to delegate the
+     * dispatching of commands to. If a CommandBus is provided directly, it will be used to instantiate a {@link
+     * DefaultReactorCommandGateway}. A registered ReactorCommandGateway will always take precedence over a configured
+     * CommandBus.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()} and the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()}. The {@link Tracer} and delegate {@link
+     * ReactorCommandGateway} are <b>hard requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private CommandBus delegateBus;
+        private ReactorCommandGateway delegateGateway;
+        private MessageTagBuilderService messageTagBuilderService = MessageTagBuilderService.defaultService();
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+
+        /**
+         * Sets the {@link Tracer} used to set a {@link Span} on dispatched {@link CommandMessage}s.
+         *
+         * @param tracer a {@link Tracer} used to set a {@link Span} on dispatched {@link CommandMessage}s.
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link CommandBus} used to build a {@link DefaultReactorCommandGateway} this tracing-wrapper will
+         * delegate the actual sending of commands towards.
+         *
+         * @param delegateBus the {@link CommandBus} used to build the {@link ReactorCommandGateway} this
+         *                    tracing-wrapper will delegate the actual sending of commands towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateCommandBus(CommandBus delegateBus) {
+            assertNonNull(delegateBus, "Delegate CommandBus may not be null");
+            this.delegateBus = delegateBus;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ReactorCommandGateway} this tracing-wrapper will delegate the actual sending of commands
+         * towards.
+         *
+         * @param delegateGateway the {@link ReactorCommandGateway} this tracing-wrapper will delegate the actual
+         *                        sending of commands towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateCommandGateway(ReactorCommandGateway delegateGateway) {
+            assertNonNull(delegateGateway, "Delegate ReactorCommandGateway may not be null");
+            this.delegateGateway = delegateGateway;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MessageTagBuilderService} to be used to add {@link CommandMessage} information as tags to a
+         * {@link Span}. Defaults to a {@link MessageTagBuilderService#defaultService()}.
+         *
+         * @param messageTagBuilderService the {@link MessageTagBuilderService} to be used to add {@link CommandMessage}
+         *                                 information as tags to a {@link Span}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageTagBuilderService(MessageTagBuilderService messageTagBuilderService) {
+            assertNonNull(messageTagBuilderService, "MessageTagBuilderService may not be null");
+            this.messageTagBuilderService = messageTagBuilderService;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which sent {@link CommandMessage}s are traced. Suppressed
+         * commands are passed to the delegate {@link ReactorCommandGateway} without starting a {@link Span}. Defaults
+         * to {@link TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which sent {@link CommandMessage}s are traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingReactorCommandGateway} as specified through this Builder.
+         *
+         * @return a {@link TracingReactorCommandGateway} as specified through this Builder
+         */
+        public TracingReactorCommandGateway build() {
+            return new TracingReactorCommandGateway(this);
+        }
+
+        /**
+         * Instantiate the delegate {@link ReactorCommandGateway} this tracing-wrapper gateway will use to actually
+         * dispatch commands. Will either use the registered {@link CommandBus} (through {@link
+         * #delegateCommandBus(CommandBus)}) or a complete ReactorCommandGateway through {@link
+         * #delegateCommandGateway(ReactorCommandGateway)}.
+         *
+         * @return the delegate {@link ReactorCommandGateway} this tracing-wrapper gateway will use to actually
+         * dispatch commands
+         */
+        private ReactorCommandGateway buildDelegateCommandGateway() {
+            return delegateGateway != null
+                    ? delegateGateway
+                    : DefaultReactorCommandGateway.builder().commandBus(delegateBus).build();
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            if (delegateBus == null) {
+                assertNonNull(
+                        delegateGateway,
+                        "The delegate ReactorCommandGateway is a hard requirement and should be provided"
+                );
+            }
+        }
+    }
+}
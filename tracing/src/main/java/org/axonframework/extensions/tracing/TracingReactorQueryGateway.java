@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.Registration;
+import org.axonframework.extensions.reactor.messaging.ReactorMessageDispatchInterceptor;
+import org.axonframework.extensions.reactor.messaging.ReactorResultHandlerInterceptor;
+import org.axonframework.extensions.reactor.queryhandling.gateway.DefaultReactorQueryGateway;
+import org.axonframework.extensions.reactor.queryhandling.gateway.ReactorQueryGateway;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.ResultMessage;
+import org.axonframework.messaging.responsetypes.ResponseType;
+import org.axonframework.queryhandling.GenericQueryMessage;
+import org.axonframework.queryhandling.GenericStreamingQueryMessage;
+import org.axonframework.queryhandling.GenericSubscriptionQueryMessage;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.QueryMessage;
+import org.axonframework.queryhandling.SubscriptionQueryBackpressure;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.ObjectUtils.nullSafeTypeOf;
+import static org.axonframework.messaging.GenericMessage.asMessage;
+
+/**
+ * A tracing {@link ReactorQueryGateway} which starts a {@link Span} per query once the returned publisher is subscribed
+ * to, and finishes it on the terminal signal or on cancellation. This implementation is a wrapper and as such delegates
+ * the actual dispatching of queries to another ReactorQueryGateway.
+ * <p>
+ * The span is never activated on a thread. Instead, the span's context is injected in the query's {@link
+ * org.axonframework.messaging.MetaData} directly and the span is stored in the Reactor {@link
+ * reactor.util.context.Context} through {@link ReactorTracingContext}. A span found in the subscriber's {@code Context}
+ * is used as the parent, falling back to the span active on the thread dispatching the query.
+ *
+ * @since 4.12.1
+ */
+public class TracingReactorQueryGateway implements ReactorQueryGateway {
+
+    private final Tracer tracer;
+    private final ReactorQueryGateway delegate;
+    private final MessageTagBuilderService messageTagBuilderService;
+    private final TracingMessageFilter messageFilter;
+    private final SubscriptionQuerySpanTracker subscriptionQuerySpanTracker;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingReactorQueryGateway}.
+     * <p>
+     * Either a {@link QueryBus} or {@link ReactorQueryGateway} can be provided to be used to delegate the dispatching
+     * of queries to. If a QueryBus is provided directly, it will be used to instantiate a {@link
+     * DefaultReactorQueryGateway}. A registered ReactorQueryGateway will always take precedence over a configured
+     * QueryBus.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}, the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()} and the {@link
+     * SubscriptionQuerySpanTracker} to the shared {@link SubscriptionQuerySpanTracker#defaultTracker()}, expiring
+     * subscription query spans after one hour. The {@link Tracer} and delegate {@link ReactorQueryGateway} are <b>hard
+     * requirements</b> and as such should be provided.
+     *
+     * @return a Builder to be able to create a {@link TracingReactorQueryGateway}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingReactorQueryGateway} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link ReactorQueryGateway} are not {@code null}, and will throw
+     * an {@link AxonConfigurationException} if they are.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingReactorQueryGateway} instance
+     */
+    protected TracingReactorQueryGateway(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.buildDelegateQueryGateway();
+        this.messageTagBuilderService = builder.messageTagBuilderService;
+        this.messageFilter = builder.messageFilter;
+        this.subscriptionQuerySpanTracker = builder.subscriptionQuerySpanTracker;
+    }
+
+    @Override
+    public <R, Q> Mono<R> query(String queryName, Q query, ResponseType<R> responseType) {
+        QueryMessage<?, R> queryMessage = new GenericQueryMessage<>(asMessage(query), queryName, responseType);
+        if (!messageFilter.shouldTrace(queryMessage)) {
+            return delegate.query(queryName, queryMessage, responseType);
+        }
+        String operation = "query_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName);
+        Span callerSpan = tracer.activeSpan();
+        return Mono.deferContextual(contextView -> {
+            Span childSpan = startSpan(operation, queryMessage, ReactorTracingContext.currentSpan(contextView)
+                                                                                     .orElse(callerSpan));
+            return delegate.query(queryName, withSpanContext(queryMessage, childSpan), responseType)
+                           .doOnError(error -> Tags.ERROR.set(childSpan, true))
+                           .doFinally(signal -> {
+                               childSpan.log("resultReceived");
+                               childSpan.finish();
+                           })
+                           .contextWrite(ReactorTracingContext.withSpan(childSpan));
+        });
+    }
+
+    @Override
+    public <R, Q> Flux<R> scatterGather(String queryName, Q query, ResponseType<R> responseType, Duration timeout) {
+        QueryMessage<?, R> queryMessage = new GenericQueryMessage<>(asMessage(query), queryName, responseType);
+        if (!messageFilter.shouldTrace(queryMessage)) {
+            return delegate.scatterGather(queryName, queryMessage, responseType, timeout);
+        }
+        String operation = "scatterGather_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName);
+        return traceFlux(operation, queryMessage, tracedQuery -> delegate.scatterGather(
+                queryName, tracedQuery, responseType, timeout
+        ));
+    }
+
+    @Override
+    public <R, Q> Flux<R> streamingQuery(String queryName, Q query, Class<R> responseType) {
+        QueryMessage<Q, ?> queryMessage = new GenericStreamingQueryMessage<>(query, queryName, responseType);
+        if (!messageFilter.shouldTrace(queryMessage)) {
+            return delegate.streamingQuery(queryName, queryMessage, responseType);
+        }
+        String operation = "streamingQuery_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName);
+        return traceFlux(operation, queryMessage, tracedQuery -> delegate.streamingQuery(
+                queryName, tracedQuery, responseType
+        ));
+    }
+
+    @Override
+    public <Q, I, U> Mono<SubscriptionQueryResult<I, U>> subscriptionQuery(String queryName,
+                                                                           Q query,
+                                                                           ResponseType<I> initialResponseType,
+                                                                           ResponseType<U> updateResponseType,
+                                                                           SubscriptionQueryBackpressure backpressure,
+                                                                           int updateBufferSize) {
+        QueryMessage<?, I> queryMessage = new GenericSubscriptionQueryMessage<>(
+                asMessage(query), queryName, initialResponseType, updateResponseType
+        );
+        if (!messageFilter.shouldTrace(queryMessage)) {
+            return delegate.subscriptionQuery(
+                    queryName, queryMessage, initialResponseType, updateResponseType, backpressure, updateBufferSize
+            );
+        }
+        String operation = "subscriptionQuery_" + SpanUtils.messageName(nullSafeTypeOf(query), queryName);
+        Span callerSpan = tracer.activeSpan();
+        return Mono.deferContextual(contextView -> {
+            Span childSpan = startSpan(operation, queryMessage, ReactorTracingContext.currentSpan(contextView)
+                                                                                     .orElse(callerSpan));
+            // On success the TraceableSubscriptionQueryResult becomes responsible for finishing the span
+            return delegate.subscriptionQuery(queryName, withSpanContext(queryMessage, childSpan),
+                                              initialResponseType, updateResponseType,
+                                              backpressure, updateBufferSize)
+                           .<SubscriptionQueryResult<I, U>>map(
+                                   result -> new TraceableSubscriptionQueryResult<>(
+                                           result, childSpan, ElementTracingPolicy.perElement(),
+                                           subscriptionQuerySpanTracker
+                                   )
+                           )
+                           .doOnError(error -> {
+                               Tags.ERROR.set(childSpan, true);
+                               childSpan.finish();
+                           })
+                           .doOnCancel(childSpan::finish)
+                           .contextWrite(ReactorTracingContext.withSpan(childSpan));
+        });
+    }
+
+    private <R> Flux<R> traceFlux(String operation,
+                                  QueryMessage<?, ?> queryMessage,
+                                  Function<Message<?>, Flux<R>> dispatcher) {
+        Span callerSpan = tracer.activeSpan();
+        return Flux.deferContextual(contextView -> {
+            Span childSpan = startSpan(operation, queryMessage, ReactorTracingContext.currentSpan(contextView)
+                                                                                     .orElse(callerSpan));
+            return dispatcher.apply(withSpanContext(queryMessage, childSpan))
+                             .doOnError(error -> Tags.ERROR.set(childSpan, true))
+                             .doFinally(signal -> {
+                                 childSpan.log("subscriptionTerminated");
+                                 childSpan.finish();
+                             })
+                             .contextWrite(ReactorTracingContext.withSpan(childSpan));
+        });
+    }
+
+    private Span startSpan(String operation, QueryMessage<?, ?> query, Span parentSpan) {
+        Tracer.SpanBuilder spanBuilder =
+                messageTagBuilderService.withQueryMessageTags(tracer.buildSpan(operation), query)
+                                        .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
+        return parentSpan != null ? spanBuilder.asChildOf(parentSpan).start() : spanBuilder.start();
+    }
+
+    private Message<?> withSpanContext(QueryMessage<?, ?> query, Span span) {
+        MapInjector injector = new MapInjector();
+        tracer.inject(span.context(), Format.Builtin.TEXT_MAP, injector);
+        return query.andMetaData(injector.getMetaData());
+    }
+
+    @Override
+    public Registration registerDispatchInterceptor(
+            ReactorMessageDispatchInterceptor<QueryMessage<?, ?>> dispatchInterceptor
+    ) {
+        return delegate.registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    @Override
+    public Registration registerResultHandlerInterceptor(
+            ReactorResultHandlerInterceptor<QueryMessage<?, ?>, ResultMessage<?>> resultHandlerInterceptor
+    ) {
+        return delegate.registerResultHandlerInterceptor(resultHandlerInterceptor);
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingReactorQueryGateway}.
+     * <p>
+     * Either a {@link QueryBus} or {@link ReactorQueryGateway} can be provided to be used to delegate the dispatching
+     * of queries to. If a QueryBus is provided directly, it will be used to instantiate a {@link
+     * DefaultReactorQueryGateway}. A registered ReactorQueryGateway will always take precedence over a configured
+     * QueryBus.
+     * <p>
+     * The {@link MessageTagBuilderService} is defaulted to a {@link MessageTagBuilderService#defaultService()}, the
+     * {@link TracingMessageFilter} to {@link TracingMessageFilter#traceAll()} and the {@link
+     * SubscriptionQuerySpanTracker} to the shared {@link SubscriptionQuerySpanTracker#defaultTracker()}, expiring
+     * subscription query spans after one hour. The {@link Tracer} and delegate {@link ReactorQueryGateway} are <b>hard
+     * requirements</b> and as such should be provided.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private QueryBus delegateBus;
+        private ReactorQueryGateway delegateGateway;
+        private MessageTagBuilderService messageTagBuilderService = MessageTagBuilderService.defaultService();
+        private TracingMessageFilter messageFilter = TracingMessageFilter.traceAll();
+        private SubscriptionQuerySpanTracker subscriptionQuerySpanTracker;
+
+        /**
+         * Sets the {@link Tracer} used to set a {@link Span} on dispatched {@link QueryMessage}s.
+         *
+         * @param tracer a {@link Tracer} used to set a {@link Span} on dispatched {@link QueryMessage}s.
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link QueryBus} used to build a {@link DefaultReactorQueryGateway} this tracing-wrapper will
+         * delegate the actual sending of queries towards.
+         *
+         * @param delegateBus the {@link QueryBus} used to build the {@link ReactorQueryGateway} this tracing-wrapper
+         *                    will delegate the actual sending of queries towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateQueryBus(QueryBus delegateBus) {
+            assertNonNull(delegateBus, "Delegate QueryBus may not be null");
+            this.delegateBus = delegateBus;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ReactorQueryGateway} this tracing-wrapper will delegate the actual sending of queries
+         * towards.
+         *
+         * @param delegateGateway the {@link ReactorQueryGateway} this tracing-wrapper will delegate the actual sending
+         *                        of queries towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateQueryGateway(ReactorQueryGateway delegateGateway) {
+            assertNonNull(delegateGateway, "Delegate ReactorQueryGateway may not be null");
+            this.delegateGateway = delegateGateway;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MessageTagBuilderService} to be used to add {@link QueryMessage} information as tags to a
+         * {@link Span}. Defaults to a {@link MessageTagBuilderService#defaultService()}.
+         *
+         * @param messageTagBuilderService the {@link MessageTagBuilderService} to be used to add {@link QueryMessage}
+         *                                 information as tags to a {@link Span}
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageTagBuilderService(MessageTagBuilderService messageTagBuilderService) {
+            assertNonNull(messageTagBuilderService, "MessageTagBuilderService may not be null");
+            this.messageTagBuilderService = messageTagBuilderService;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TracingMessageFilter} deciding which dispatched {@link QueryMessage}s are traced. Suppressed
+         * queries are passed to the delegate {@link ReactorQueryGateway} without starting a {@link Span}. Defaults to
+         * {@link TracingMessageFilter#traceAll()}.
+         *
+         * @param messageFilter the {@link TracingMessageFilter} deciding which dispatched {@link QueryMessage}s are
+         *                      traced
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder messageFilter(TracingMessageFilter messageFilter) {
+            assertNonNull(messageFilter, "TracingMessageFilter may not be null");
+            this.messageFilter = messageFilter;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SubscriptionQuerySpanTracker} keeping track of the open subscription query {@link Span}s,
+         * expiring those which are kept open too long. Defaults to the shared {@link
+         * SubscriptionQuerySpanTracker#defaultTracker()}, expiring spans after one hour.
+         *
+         * @param subscriptionQuerySpanTracker the {@link SubscriptionQuerySpanTracker} keeping track of the open
+         *                                     subscription query {@link Span}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder subscriptionQuerySpanTracker(SubscriptionQuerySpanTracker subscriptionQuerySpanTracker) {
+            assertNonNull(subscriptionQuerySpanTracker, "SubscriptionQuerySpanTracker may not be null");
+            this.subscriptionQuerySpanTracker = subscriptionQuerySpanTracker;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingReactorQueryGateway} as specified through this Builder.
+         *
+         * @return a {@link TracingReactorQueryGateway} as specified through this Builder
+         */
+        public TracingReactorQueryGateway build() {
+            if (subscriptionQuerySpanTracker == null) {
+                subscriptionQuerySpanTracker = SubscriptionQuerySpanTracker.defaultTracker();
+            }
+            return new TracingReactorQueryGateway(this);
+        }
+
+        /**
+         * Instantiate the delegate {@link ReactorQueryGateway} this tracing-wrapper gateway will use to actually
+         * dispatch queries. Will either use the registered {@link QueryBus} (through {@link
+         * #delegateQueryBus(QueryBus)}) or a complete ReactorQueryGateway through {@link
+         * #delegateQueryGateway(ReactorQueryGateway)}.
+         *
+         * @return the delegate {@link ReactorQueryGateway} this tracing-wrapper gateway will use to actually dispatch
+         * queries
+         */
+        private ReactorQueryGateway buildDelegateQueryGateway() {
+            return delegateGateway != null
+                    ? delegateGateway
+                    : DefaultReactorQueryGateway.builder().queryBus(delegateBus).build();
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            if (delegateBus == null) {
+                assertNonNull(
+                        delegateGateway, "The delegate ReactorQueryGateway is a hard requirement and should be provided"
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.axonframework.modelling.command.Aggregate;
+import org.axonframework.modelling.command.Repository;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A {@link Repository} decorator tracing the loading of aggregates. Every load gets a {@link Span} named after the
+ * aggregate type, like {@code load_GiftCard}, as a child of the active span, which is the {@code handle_*} span of
+ * the command being handled. The span is active while the delegate repository loads the aggregate, so the spans of a
+ * {@link TracingEventStorageEngine} reading the aggregate's snapshot and events become its children.
+ * <p>
+ * The load span is tagged with the aggregate's identifier, type and version. When the aggregate is read through a
+ * {@link TracingEventStorageEngine}, it is tagged with whether a snapshot was found and the number of events replayed
+ * on top of it as well. When the aggregate's lock is obtained through a {@link TracingLockFactory}, the time spent
+ * waiting for the lock is tagged too.
+ * <p>
+ * When a {@link MeterRegistry} is configured, the load times are recorded on the {@link #LOAD_TIMER} timer, tagged
+ * with the {@code aggregateType} and whether a {@code snapshot} was found, and the number of replayed events on the
+ * {@link #EVENTS_REPLAYED_SUMMARY} distribution summary, tagged with the {@code aggregateType}. The latter shows the
+ * number of events to tune the snapshot threshold of an aggregate type with.
+ *
+ * @param <T> the type of aggregate this repository stores
+ * @since 4.12.1
+ */
+public class TracingRepository<T> implements Repository<T> {
+
+    /**
+     * The name of the timer recording the time it takes to load an aggregate.
+     */
+    public static final String LOAD_TIMER = "axon.tracing.aggregate.load";
+    /**
+     * The name of the distribution summary recording the number of events replayed to load an aggregate.
+     */
+    public static final String EVENTS_REPLAYED_SUMMARY = "axon.tracing.aggregate.events-replayed";
+    /**
+     * The tag holding the identifier of the loaded aggregate.
+     */
+    public static final String AGGREGATE_IDENTIFIER_TAG = "axon.aggregate.identifier";
+    /**
+     * The tag holding the type of the loaded aggregate.
+     */
+    public static final String AGGREGATE_TYPE_TAG = "axon.aggregate.type";
+    /**
+     * The tag holding the version of the loaded aggregate.
+     */
+    public static final String AGGREGATE_VERSION_TAG = "axon.aggregate.version";
+    /**
+     * The tag holding the number of events replayed to load the aggregate.
+     */
+    public static final String EVENTS_REPLAYED_TAG = "axon.aggregate.events-replayed";
+    /**
+     * The tag holding whether a snapshot was found to load the aggregate from.
+     */
+    public static final String SNAPSHOT_HIT_TAG = "axon.aggregate.snapshot-hit";
+    /**
+     * The tag holding the time in microseconds spent waiting for the aggregate's lock.
+     */
+    public static final String LOCK_WAIT_TAG = "axon.aggregate.lock-wait-micros";
+
+    private final Tracer tracer;
+    private final Repository<T> delegate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> loadTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> eventsReplayedSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingRepository}.
+     * <p>
+     * No {@link MeterRegistry} is configured by default, in which case no meters are recorded. The {@link Tracer} and
+     * delegate {@link Repository} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @param <T> the type of aggregate the {@link TracingRepository} stores
+     * @return a Builder to be able to create a {@link TracingRepository}
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Instantiate a {@link TracingRepository} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link Repository} are not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingRepository} instance
+     */
+    protected TracingRepository(Builder<T> builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.meterRegistry = builder.meterRegistry;
+    }
+
+    @Override
+    public Aggregate<T> load(String aggregateIdentifier) {
+        return traceLoad(aggregateIdentifier, () -> delegate.load(aggregateIdentifier));
+    }
+
+    @Override
+    public Aggregate<T> load(String aggregateIdentifier, Long expectedVersion) {
+        return traceLoad(aggregateIdentifier, () -> delegate.load(aggregateIdentifier, expectedVersion));
+    }
+
+    @Override
+    public Aggregate<T> loadOrCreate(String aggregateIdentifier, Callable<T> factoryMethod) throws Exception {
+        return traceLoad(aggregateIdentifier, () -> delegate.loadOrCreate(aggregateIdentifier, factoryMethod));
+    }
+
+    @Override
+    public Aggregate<T> newInstance(Callable<T> factoryMethod) throws Exception {
+        return delegate.newInstance(factoryMethod);
+    }
+
+    @Override
+    public Aggregate<T> newInstance(Callable<T> factoryMethod, Consumer<Aggregate<T>> initMethod) throws Exception {
+        return delegate.newInstance(factoryMethod, initMethod);
+    }
+
+    @Override
+    public void send(Message<?> message, ScopeDescriptor scopeDescription) throws Exception {
+        delegate.send(message, scopeDescription);
+    }
+
+    @Override
+    public boolean canResolve(ScopeDescriptor scopeDescription) {
+        return delegate.canResolve(scopeDescription);
+    }
+
+    /**
+     * Returns the {@link Repository} this tracing-wrapper delegates to.
+     *
+     * @return the {@link Repository} this tracing-wrapper delegates to
+     */
+    public Repository<T> getDelegate() {
+        return delegate;
+    }
+
+    private <X extends Exception> Aggregate<T> traceLoad(String aggregateIdentifier,
+                                                         LoadOperation<T, X> loadOperation) throws X {
+        Span span = tracer.buildSpan("loadAggregate")
+                          .withTag(AGGREGATE_IDENTIFIER_TAG, aggregateIdentifier)
+                          .start();
+        long start = System.nanoTime();
+        AggregateLoadRecorder loadRecorder = AggregateLoadRecorder.start();
+        try (Scope ignored = tracer.activateSpan(span)) {
+            Aggregate<T> aggregate = loadOperation.load();
+            String aggregateType = aggregate.type();
+            span.setOperationName("load_" + aggregateType);
+            span.setTag(AGGREGATE_TYPE_TAG, aggregateType);
+            if (aggregate.version() != null) {
+                span.setTag(AGGREGATE_VERSION_TAG, aggregate.version());
+            }
+            record(span, loadRecorder, aggregateType, System.nanoTime() - start);
+            return aggregate;
+        } catch (Exception e) {
+            Tags.ERROR.set(span, true);
+            throw e;
+        } finally {
+            loadRecorder.stop();
+            span.finish();
+        }
+    }
+
+    private void record(Span span, AggregateLoadRecorder loadRecorder, String aggregateType, long loadNanos) {
+        Boolean snapshotFound = loadRecorder.snapshotFound();
+        if (snapshotFound != null) {
+            span.setTag(SNAPSHOT_HIT_TAG, snapshotFound);
+            span.setTag(EVENTS_REPLAYED_TAG, loadRecorder.eventsReplayed());
+            if (meterRegistry != null) {
+                eventsReplayedSummary(aggregateType).record(loadRecorder.eventsReplayed());
+            }
+        }
+        if (loadRecorder.lockWaitNanos() >= 0) {
+            span.setTag(LOCK_WAIT_TAG, TimeUnit.NANOSECONDS.toMicros(loadRecorder.lockWaitNanos()));
+        }
+        if (meterRegistry != null) {
+            String snapshot = snapshotFound == null ? "unknown" : snapshotFound ? "hit" : "miss";
+            loadTimer(aggregateType, snapshot).record(loadNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer loadTimer(String aggregateType, String snapshot) {
+        ConcurrentMap<String, Timer> aggregateTimers = loadTimers.get(aggregateType);
+        if (aggregateTimers == null) {
+            aggregateTimers = loadTimers.computeIfAbsent(aggregateType, type -> new ConcurrentHashMap<>());
+        }
+        Timer timer = aggregateTimers.get(snapshot);
+        if (timer == null) {
+            timer = aggregateTimers.computeIfAbsent(snapshot, outcome -> newLoadTimer(aggregateType, outcome));
+        }
+        return timer;
+    }
+
+    private Timer newLoadTimer(String aggregateType, String snapshot) {
+        return Timer.builder(LOAD_TIMER)
+                    .description("The time it takes to load an aggregate")
+                    .tag("aggregateType", aggregateType)
+                    .tag("snapshot", snapshot)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+    }
+
+    private DistributionSummary eventsReplayedSummary(String aggregateType) {
+        DistributionSummary summary = eventsReplayedSummaries.get(aggregateType);
+        if (summary == null) {
+            summary = eventsReplayedSummaries.computeIfAbsent(
+                    aggregateType,
+                    type -> DistributionSummary.builder(EVENTS_REPLAYED_SUMMARY)
+                                               .description("The number of events replayed to load an aggregate")
+                                               .tag("aggregateType", type)
+                                               .publishPercentileHistogram()
+                                               .register(meterRegistry)
+            );
+        }
+        return summary;
+    }
+
+    @FunctionalInterface
+    private interface LoadOperation<T, X extends Exception> {
+
+        Aggregate<T> load() throws X;
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingRepository}.
+     * <p>
+     * No {@link MeterRegistry} is configured by default, in which case no meters are recorded. The {@link Tracer} and
+     * delegate {@link Repository} are <b>hard requirements</b> and as such should be provided.
+     *
+     * @param <T> the type of aggregate the {@link TracingRepository} stores
+     */
+    public static class Builder<T> {
+
+        private Tracer tracer;
+        private Repository<T> delegate;
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Sets the {@link Tracer} used to start the aggregate load {@link Span}s.
+         *
+         * @param tracer the {@link Tracer} used to start the aggregate load {@link Span}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Repository} this tracing-wrapper delegates the actual loading of aggregates towards.
+         *
+         * @param delegate the {@link Repository} this tracing-wrapper delegates the actual loading of aggregates
+         *                 towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> delegateRepository(Repository<T> delegate) {
+            assertNonNull(delegate, "Delegate Repository may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the aggregate load meters are registered with. When not set, no meters are
+         * recorded.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the aggregate load meters are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingRepository} as specified through this Builder.
+         *
+         * @return a {@link TracingRepository} as specified through this Builder
+         */
+        public TracingRepository<T> build() {
+            return new TracingRepository<>(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate Repository is a hard requirement and should be provided");
+        }
+    }
+}
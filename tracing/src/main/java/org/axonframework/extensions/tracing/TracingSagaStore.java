@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.modelling.saga.AssociationValue;
+import org.axonframework.modelling.saga.AssociationValues;
+import org.axonframework.modelling.saga.repository.SagaStore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A {@link SagaStore} decorator tracing how sagas are resolved for the events they handle. Finding the sagas associated
+ * with an event, loading a saga, and inserting, updating or deleting it when the unit of work commits are each logged
+ * as an event on the {@link Span} of the handled event, as started by the {@link OpenTraceHandlerInterceptor}. Each
+ * log event holds the saga type and the duration of the operation, making the time spent in the saga store visible
+ * within the handler's span.
+ * <p>
+ * The handler's span is tagged with the number of sagas loaded and created while handling the event, as {@link
+ * #SAGAS_LOADED_TAG} and {@link #SAGAS_CREATED_TAG}. The operations are recorded on the {@link #SAGA_STORE_TIMER}
+ * timer, tagged with the {@code operation} and the {@code sagaType}, and the number of sagas found per lookup on the
+ * {@link #ASSOCIATED_SAGAS_SUMMARY} distribution summary, tagged with the {@code sagaType}.
+ * <p>
+ * Only the key of the association value an event is looked up by is logged by default. Its value usually identifies a
+ * business entity, like a customer, and is therefore only logged when {@link Builder#logAssociationValues(boolean)} is
+ * enabled.
+ *
+ * @param <T> the type of saga this store stores
+ * @since 4.12.1
+ */
+public class TracingSagaStore<T> implements SagaStore<T> {
+
+    /**
+     * The name of the timer recording the latency of saga store operations, tagged with the {@code operation} and the
+     * {@code sagaType}.
+     */
+    public static final String SAGA_STORE_TIMER = "axon.tracing.saga-store";
+    /**
+     * The name of the distribution summary recording the number of sagas associated with the association value of an
+     * event, tagged with the {@code sagaType}.
+     */
+    public static final String ASSOCIATED_SAGAS_SUMMARY = "axon.tracing.saga-store.associated-sagas";
+    /**
+     * The tag holding the number of sagas loaded while handling an event.
+     */
+    public static final String SAGAS_LOADED_TAG = "axon.saga.loaded-count";
+    /**
+     * The tag holding the number of sagas created while handling an event.
+     */
+    public static final String SAGAS_CREATED_TAG = "axon.saga.created-count";
+    /**
+     * The field holding the saga type in the events logged on the handler's span.
+     */
+    public static final String SAGA_TYPE_FIELD = "axon.saga.type";
+    /**
+     * The field holding the saga identifier in the events logged on the handler's span.
+     */
+    public static final String SAGA_IDENTIFIER_FIELD = "axon.saga.identifier";
+    /**
+     * The field holding the key of the association value looked up in the {@code findSagas} events logged on the
+     * handler's span.
+     */
+    public static final String ASSOCIATION_KEY_FIELD = "axon.saga.association-key";
+    /**
+     * The field holding the value of the association value looked up in the {@code findSagas} events logged on the
+     * handler's span. Only logged when {@link Builder#logAssociationValues(boolean)} is enabled.
+     */
+    public static final String ASSOCIATION_VALUE_FIELD = "axon.saga.association-value";
+    /**
+     * The field holding the number of sagas found in the {@code findSagas} events logged on the handler's span.
+     */
+    public static final String SAGAS_FOUND_FIELD = "axon.saga.found-count";
+    /**
+     * The field holding the duration in microseconds of the operation in the events logged on the handler's span.
+     */
+    public static final String DURATION_FIELD = "axon.saga.duration-micros";
+
+    private static final String LOADED_RESOURCE_KEY = TracingSagaStore.class.getName() + ".loaded";
+    private static final String CREATED_RESOURCE_KEY = TracingSagaStore.class.getName() + ".created";
+
+    private final Tracer tracer;
+    private final SagaStore<T> delegate;
+    private final MeterRegistry meterRegistry;
+    private final boolean logAssociationValues;
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> associatedSagasSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingSagaStore}.
+     * <p>
+     * No {@link MeterRegistry} is configured by default, in which case no meters are recorded, and association values
+     * are not logged by default. The {@link Tracer} and delegate {@link SagaStore} are <b>hard requirements</b> and as
+     * such should be provided.
+     *
+     * @param <T> the type of saga the {@link TracingSagaStore} stores
+     * @return a Builder to be able to create a {@link TracingSagaStore}
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Instantiate a {@link TracingSagaStore} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link SagaStore} are not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingSagaStore} instance
+     */
+    protected TracingSagaStore(Builder<T> builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.meterRegistry = builder.meterRegistry;
+        this.logAssociationValues = builder.logAssociationValues;
+    }
+
+    @Override
+    public Set<String> findSagas(Class<? extends T> sagaType, AssociationValue associationValue) {
+        long start = System.nanoTime();
+        Set<String> sagaIdentifiers = delegate.findSagas(sagaType, associationValue);
+        long durationNanos = System.nanoTime() - start;
+
+        String sagaTypeName = sagaType.getSimpleName();
+        if (meterRegistry != null) {
+            associatedSagasSummary(sagaTypeName).record(sagaIdentifiers.size());
+        }
+        record("findSagas", sagaTypeName, durationNanos, fields -> {
+            fields.put(ASSOCIATION_KEY_FIELD, associationValue.getKey());
+            if (logAssociationValues) {
+                fields.put(ASSOCIATION_VALUE_FIELD, associationValue.getValue());
+            }
+            fields.put(SAGAS_FOUND_FIELD, sagaIdentifiers.size());
+        });
+        return sagaIdentifiers;
+    }
+
+    @Override
+    public <S extends T> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier) {
+        long start = System.nanoTime();
+        Entry<S> entry = delegate.loadSaga(sagaType, sagaIdentifier);
+        long durationNanos = System.nanoTime() - start;
+
+        if (entry != null) {
+            count(LOADED_RESOURCE_KEY, SAGAS_LOADED_TAG);
+        }
+        logSagaOperation("loadSaga", sagaType, sagaIdentifier, durationNanos);
+        return entry;
+    }
+
+    @Override
+    public void insertSaga(Class<? extends T> sagaType,
+                           String sagaIdentifier,
+                           T saga,
+                           Set<AssociationValue> associationValues) {
+        long start = System.nanoTime();
+        delegate.insertSaga(sagaType, sagaIdentifier, saga, associationValues);
+        long durationNanos = System.nanoTime() - start;
+
+        count(CREATED_RESOURCE_KEY, SAGAS_CREATED_TAG);
+        logSagaOperation("insertSaga", sagaType, sagaIdentifier, durationNanos);
+    }
+
+    @Override
+    public void updateSaga(Class<? extends T> sagaType,
+                           String sagaIdentifier,
+                           T saga,
+                           AssociationValues associationValues) {
+        long start = System.nanoTime();
+        delegate.updateSaga(sagaType, sagaIdentifier, saga, associationValues);
+        logSagaOperation("updateSaga", sagaType, sagaIdentifier, System.nanoTime() - start);
+    }
+
+    @Override
+    public void deleteSaga(Class<? extends T> sagaType,
+                           String sagaIdentifier,
+                           Set<AssociationValue> associationValues) {
+        long start = System.nanoTime();
+        delegate.deleteSaga(sagaType, sagaIdentifier, associationValues);
+        logSagaOperation("deleteSaga", sagaType, sagaIdentifier, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the {@link SagaStore} this tracing-wrapper delegates to.
+     *
+     * @return the {@link SagaStore} this tracing-wrapper delegates to
+     */
+    public SagaStore<T> getDelegate() {
+        return delegate;
+    }
+
+    private void logSagaOperation(String operation, Class<?> sagaType, String sagaIdentifier, long durationNanos) {
+        record(operation, sagaType.getSimpleName(), durationNanos,
+               fields -> fields.put(SAGA_IDENTIFIER_FIELD, sagaIdentifier));
+    }
+
+    private void record(String operation,
+                        String sagaTypeName,
+                        long durationNanos,
+                        Consumer<Map<String, Object>> operationFields) {
+        if (meterRegistry != null) {
+            timer(operation, sagaTypeName).record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+        Span span = SpanUtils.parentSpan(tracer);
+        if (span == null) {
+            return;
+        }
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("event", operation);
+        fields.put(SAGA_TYPE_FIELD, sagaTypeName);
+        fields.put(DURATION_FIELD, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        operationFields.accept(fields);
+        span.log(fields);
+    }
+
+    private Timer timer(String operation, String sagaTypeName) {
+        ConcurrentMap<String, Timer> operationTimers = timers.get(operation);
+        if (operationTimers == null) {
+            operationTimers = timers.computeIfAbsent(operation, o -> new ConcurrentHashMap<>());
+        }
+        Timer timer = operationTimers.get(sagaTypeName);
+        if (timer == null) {
+            timer = operationTimers.computeIfAbsent(sagaTypeName, type -> newTimer(operation, type));
+        }
+        return timer;
+    }
+
+    private Timer newTimer(String operation, String sagaTypeName) {
+        return Timer.builder(SAGA_STORE_TIMER)
+                    .description("The latency of saga store operations")
+                    .tag("operation", operation)
+                    .tag("sagaType", sagaTypeName)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+    }
+
+    private DistributionSummary associatedSagasSummary(String sagaTypeName) {
+        DistributionSummary summary = associatedSagasSummaries.get(sagaTypeName);
+        if (summary == null) {
+            summary = associatedSagasSummaries.computeIfAbsent(
+                    sagaTypeName,
+                    type -> DistributionSummary.builder(ASSOCIATED_SAGAS_SUMMARY)
+                                               .description("The number of sagas associated with the association "
+                                                                    + "value of an event")
+                                               .tag("sagaType", type)
+                                               .register(meterRegistry)
+            );
+        }
+        return summary;
+    }
+
+    private static void count(String resourceKey, String tag) {
+        UnitOfWork<?> unitOfWork = SpanUtils.handlerUnitOfWork();
+        if (unitOfWork == null) {
+            return;
+        }
+        long count = unitOfWork.<AtomicLong>getOrComputeResource(resourceKey, k -> new AtomicLong())
+                               .incrementAndGet();
+        Span handlerSpan = unitOfWork.getResource(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY);
+        handlerSpan.setTag(tag, count);
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingSagaStore}.
+     * <p>
+     * No {@link MeterRegistry} is configured by default, in which case no meters are recorded, and association values
+     * are not logged by default. The {@link Tracer} and delegate {@link SagaStore} are <b>hard requirements</b> and as
+     * such should be provided.
+     *
+     * @param <T> the type of saga the {@link TracingSagaStore} stores
+     */
+    public static class Builder<T> {
+
+        private Tracer tracer;
+        private SagaStore<T> delegate;
+        private MeterRegistry meterRegistry;
+        private boolean logAssociationValues = false;
+
+        /**
+         * Sets the {@link Tracer} whose active {@link Span} the saga store operations are logged on.
+         *
+         * @param tracer the {@link Tracer} whose active {@link Span} the saga store operations are logged on
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SagaStore} this tracing-wrapper delegates all operations towards.
+         *
+         * @param delegate the {@link SagaStore} this tracing-wrapper delegates all operations towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> delegateSagaStore(SagaStore<T> delegate) {
+            assertNonNull(delegate, "Delegate SagaStore may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the saga store meters are registered with. When not set, no meters are
+         * recorded.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the saga store meters are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Sets whether the value of the association value an event is looked up by is logged, next to its key. As the
+         * value usually identifies a business entity, it ends up in the tracing backend when enabled. Defaults to
+         * {@code false}.
+         *
+         * @param logAssociationValues whether the value of looked up association values is logged
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<T> logAssociationValues(boolean logAssociationValues) {
+            this.logAssociationValues = logAssociationValues;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingSagaStore} as specified through this Builder.
+         *
+         * @return a {@link TracingSagaStore} as specified through this Builder
+         */
+        public TracingSagaStore<T> build() {
+            return new TracingSagaStore<>(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate SagaStore is a hard requirement and should be provided");
+        }
+    }
+}
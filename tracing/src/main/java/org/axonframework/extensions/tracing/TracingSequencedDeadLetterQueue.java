@@ -0,0 +1,558 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentracing.References;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.deadletter.Cause;
+import org.axonframework.messaging.deadletter.DeadLetter;
+import org.axonframework.messaging.deadletter.DeadLetterQueueOverflowException;
+import org.axonframework.messaging.deadletter.EnqueueDecision;
+import org.axonframework.messaging.deadletter.NoSuchDeadLetterException;
+import org.axonframework.messaging.deadletter.SequencedDeadLetterQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A {@link SequencedDeadLetterQueue} decorator tracing the cost of dead-lettering and reprocessing messages. Enqueueing
+ * a dead letter is logged as an event on the {@link Span} of the failed handler, as started by the {@link
+ * OpenTraceHandlerInterceptor}, and the context of that span is stored in the diagnostics of the dead letter. The
+ * number of enqueued letters and the size of their sequence are recorded on the {@link #ENQUEUED_COUNTER} counter and
+ * the {@link #SEQUENCE_SIZE_SUMMARY} distribution summary.
+ * <p>
+ * Processing dead letters starts a span per processed sequence, with a child span for every letter evaluated. The span
+ * of an evaluated letter follows from the span of the handler which originally failed, linking each retry back to the
+ * original failure. It is tagged with the attempt, the time the letter spent in the queue and the outcome of the
+ * evaluation. The number of retries of a letter is kept in its diagnostics. Evaluations are recorded on the {@link
+ * #PROCESSING_TIMER} timer per outcome, giving the retry throughput and cost, while evicted letters record the number
+ * of attempts they needed and their total time in the queue on the {@link #ATTEMPTS_SUMMARY} distribution summary and
+ * the {@link #TIME_IN_QUEUE_TIMER} timer. All meters are tagged with the {@code processingGroup}, and are only recorded
+ * when a {@link MeterRegistry} is configured.
+ *
+ * @param <M> the type of message contained in the dead letters of this queue
+ * @since 4.12.1
+ */
+public class TracingSequencedDeadLetterQueue<M extends Message<?>> implements SequencedDeadLetterQueue<M> {
+
+    /**
+     * The name of the counter counting the dead letters enqueued, tagged with the {@code processingGroup}.
+     */
+    public static final String ENQUEUED_COUNTER = "axon.tracing.dead-letter.enqueued";
+    /**
+     * The name of the distribution summary recording the size of a sequence after enqueueing a dead letter in it,
+     * tagged with the {@code processingGroup}.
+     */
+    public static final String SEQUENCE_SIZE_SUMMARY = "axon.tracing.dead-letter.sequence-size";
+    /**
+     * The name of the timer recording the latency of evaluating dead letters, tagged with the {@code processingGroup}
+     * and the {@code outcome}, being {@code evicted}, {@code requeued}, {@code ignored} or {@code failed}.
+     */
+    public static final String PROCESSING_TIMER = "axon.tracing.dead-letter.processing";
+    /**
+     * The name of the distribution summary recording the number of attempts needed to successfully evaluate a dead
+     * letter, tagged with the {@code processingGroup}.
+     */
+    public static final String ATTEMPTS_SUMMARY = "axon.tracing.dead-letter.attempts";
+    /**
+     * The name of the timer recording the time evicted dead letters spent in the queue, tagged with the {@code
+     * processingGroup}.
+     */
+    public static final String TIME_IN_QUEUE_TIMER = "axon.tracing.dead-letter.time-in-queue";
+    /**
+     * The diagnostics key holding the number of times a dead letter has been requeued after being evaluated.
+     */
+    public static final String RETRIES_DIAGNOSTICS_KEY = "axon-dead-letter-retries";
+    /**
+     * The tag holding the processing group of the dead-letter queue.
+     */
+    public static final String PROCESSING_GROUP_TAG = "axon.dead-letter.processing-group";
+    /**
+     * The tag holding the number of dead letters evaluated, set on the span of a processed sequence.
+     */
+    public static final String EVALUATED_COUNT_TAG = "axon.dead-letter.evaluated-count";
+    /**
+     * The tag holding whether an entire sequence was processed successfully, set on the span of a processed sequence.
+     */
+    public static final String SEQUENCE_PROCESSED_TAG = "axon.dead-letter.sequence-processed";
+    /**
+     * The tag holding the attempt at evaluating a dead letter, starting at {@code 1} for the first retry.
+     */
+    public static final String ATTEMPT_TAG = "axon.dead-letter.attempt";
+    /**
+     * The tag holding the milliseconds an evaluated dead letter has spent in the queue.
+     */
+    public static final String TIME_IN_QUEUE_TAG = "axon.dead-letter.time-in-queue-millis";
+    /**
+     * The tag holding the outcome of evaluating a dead letter.
+     */
+    public static final String OUTCOME_TAG = "axon.dead-letter.outcome";
+    /**
+     * The tag and field holding the class of the failure which caused a dead letter to be enqueued or requeued.
+     */
+    public static final String CAUSE_TAG = "axon.dead-letter.cause";
+    /**
+     * The field holding the size of the sequence in the {@code deadLetterEnqueued} events logged on the handler's span.
+     */
+    public static final String SEQUENCE_SIZE_FIELD = "axon.dead-letter.sequence-size";
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String EVICTED_OUTCOME = "evicted";
+    private static final String REQUEUED_OUTCOME = "requeued";
+    private static final String IGNORED_OUTCOME = "ignored";
+    private static final String FAILED_OUTCOME = "failed";
+    private static final List<String> OUTCOMES =
+            Arrays.asList(EVICTED_OUTCOME, REQUEUED_OUTCOME, IGNORED_OUTCOME, FAILED_OUTCOME);
+
+    private final Tracer tracer;
+    private final SequencedDeadLetterQueue<M> delegate;
+    private final String processingGroup;
+    private final Counter enqueuedCounter;
+    private final DistributionSummary sequenceSizeSummary;
+    private final DistributionSummary attemptsSummary;
+    private final Timer timeInQueueTimer;
+    private final Map<String, Timer> processingTimers;
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingSequencedDeadLetterQueue}.
+     * <p>
+     * The processing group defaults to {@code unknown}. No {@link MeterRegistry} is configured by default, in which
+     * case no meters are recorded. The {@link Tracer} and delegate {@link SequencedDeadLetterQueue} are <b>hard
+     * requirements</b> and as such should be provided.
+     *
+     * @param <M> the type of message contained in the dead letters of the {@link TracingSequencedDeadLetterQueue}
+     * @return a Builder to be able to create a {@link TracingSequencedDeadLetterQueue}
+     */
+    public static <M extends Message<?>> Builder<M> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Instantiate a {@link TracingSequencedDeadLetterQueue} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link SequencedDeadLetterQueue} are not {@code null}, and will
+     * throw an {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingSequencedDeadLetterQueue} instance
+     */
+    protected TracingSequencedDeadLetterQueue(Builder<M> builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.processingGroup = builder.processingGroup;
+        MeterRegistry meterRegistry = builder.meterRegistry;
+        if (meterRegistry == null) {
+            this.enqueuedCounter = null;
+            this.sequenceSizeSummary = null;
+            this.attemptsSummary = null;
+            this.timeInQueueTimer = null;
+            this.processingTimers = null;
+            return;
+        }
+        this.enqueuedCounter = Counter.builder(ENQUEUED_COUNTER)
+                                      .description("The number of dead letters enqueued")
+                                      .tag("processingGroup", processingGroup)
+                                      .register(meterRegistry);
+        this.sequenceSizeSummary = DistributionSummary.builder(SEQUENCE_SIZE_SUMMARY)
+                                                      .description("The size of a sequence after enqueueing a "
+                                                                           + "dead letter in it")
+                                                      .tag("processingGroup", processingGroup)
+                                                      .register(meterRegistry);
+        this.attemptsSummary = DistributionSummary.builder(ATTEMPTS_SUMMARY)
+                                                  .description("The number of attempts needed to successfully "
+                                                                       + "evaluate a dead letter")
+                                                  .tag("processingGroup", processingGroup)
+                                                  .register(meterRegistry);
+        this.timeInQueueTimer = Timer.builder(TIME_IN_QUEUE_TIMER)
+                                     .description("The time evicted dead letters spent in the queue")
+                                     .tag("processingGroup", processingGroup)
+                                     .publishPercentileHistogram()
+                                     .register(meterRegistry);
+        this.processingTimers = new HashMap<>();
+        for (String outcome : OUTCOMES) {
+            processingTimers.put(outcome, Timer.builder(PROCESSING_TIMER)
+                                               .description("The latency of evaluating dead letters")
+                                               .tag("processingGroup", processingGroup)
+                                               .tag("outcome", outcome)
+                                               .publishPercentileHistogram()
+                                               .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public void enqueue(Object sequenceIdentifier, DeadLetter<? extends M> letter)
+            throws DeadLetterQueueOverflowException {
+        DeadLetter<? extends M> tracedLetter = withFailedHandlerContext(letter);
+        delegate.enqueue(sequenceIdentifier, tracedLetter);
+        recordEnqueued(sequenceIdentifier, tracedLetter);
+    }
+
+    @Override
+    public boolean enqueueIfPresent(Object sequenceIdentifier, Supplier<DeadLetter<? extends M>> letterBuilder)
+            throws DeadLetterQueueOverflowException {
+        AtomicReference<DeadLetter<? extends M>> tracedLetter = new AtomicReference<>();
+        boolean enqueued = delegate.enqueueIfPresent(sequenceIdentifier, () -> {
+            tracedLetter.set(withFailedHandlerContext(letterBuilder.get()));
+            return tracedLetter.get();
+        });
+        if (enqueued) {
+            recordEnqueued(sequenceIdentifier, tracedLetter.get());
+        }
+        return enqueued;
+    }
+
+    private DeadLetter<? extends M> withFailedHandlerContext(DeadLetter<? extends M> letter) {
+        Span span = SpanUtils.parentSpan(tracer);
+        if (span == null) {
+            return letter;
+        }
+        MapInjector injector = new MapInjector();
+        tracer.inject(span.context(), Format.Builtin.TEXT_MAP, injector);
+        return letter.withDiagnostics(diagnostics -> diagnostics.mergedWith(injector.getMetaData()));
+    }
+
+    private void recordEnqueued(Object sequenceIdentifier, DeadLetter<? extends M> letter) {
+        long sequenceSize = delegate.sequenceSize(sequenceIdentifier);
+        if (enqueuedCounter != null) {
+            enqueuedCounter.increment();
+            sequenceSizeSummary.record(sequenceSize);
+        }
+        Span span = SpanUtils.parentSpan(tracer);
+        if (span == null) {
+            return;
+        }
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("event", "deadLetterEnqueued");
+        fields.put(SEQUENCE_SIZE_FIELD, sequenceSize);
+        letter.cause().map(Cause::type).ifPresent(cause -> fields.put(CAUSE_TAG, cause));
+        span.log(fields);
+    }
+
+    @Override
+    public boolean process(Predicate<DeadLetter<? extends M>> sequenceFilter,
+                           Function<DeadLetter<? extends M>, EnqueueDecision<M>> processingTask) {
+        Tracer.SpanBuilder spanBuilder = tracer.buildSpan("processDeadLetters")
+                                               .withTag(PROCESSING_GROUP_TAG, processingGroup);
+        Span parentSpan = SpanUtils.parentSpan(tracer);
+        if (parentSpan != null) {
+            spanBuilder.asChildOf(parentSpan);
+        }
+        Span span = spanBuilder.start();
+        AtomicInteger evaluated = new AtomicInteger();
+        try (Scope ignored = tracer.activateSpan(span)) {
+            boolean processed = delegate.process(sequenceFilter, letter -> {
+                evaluated.incrementAndGet();
+                return evaluate(span, letter, processingTask);
+            });
+            span.setTag(SEQUENCE_PROCESSED_TAG, processed);
+            return processed;
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(span, true);
+            throw e;
+        } finally {
+            span.setTag(EVALUATED_COUNT_TAG, evaluated.get());
+            span.finish();
+        }
+    }
+
+    private EnqueueDecision<M> evaluate(Span processSpan,
+                                        DeadLetter<? extends M> letter,
+                                        Function<DeadLetter<? extends M>, EnqueueDecision<M>> processingTask) {
+        long attempt = retries(letter) + 1;
+        Duration timeInQueue = Duration.between(letter.enqueuedAt(), Instant.now());
+        Tracer.SpanBuilder spanBuilder = tracer.buildSpan("evaluateDeadLetter")
+                                               .asChildOf(processSpan)
+                                               .withTag(PROCESSING_GROUP_TAG, processingGroup)
+                                               .withTag(ATTEMPT_TAG, attempt)
+                                               .withTag(TIME_IN_QUEUE_TAG, timeInQueue.toMillis());
+        SpanContext failedHandlerContext = failedHandlerContext(letter);
+        if (failedHandlerContext != null) {
+            spanBuilder.addReference(References.FOLLOWS_FROM, failedHandlerContext);
+        }
+        Span span = spanBuilder.start();
+        String outcome = FAILED_OUTCOME;
+        long start = System.nanoTime();
+        try (Scope ignored = tracer.activateSpan(span)) {
+            EnqueueDecision<M> decision = processingTask.apply(letter);
+            Optional<Throwable> cause = decision.enqueueCause();
+            if (!decision.shouldEnqueue()) {
+                outcome = EVICTED_OUTCOME;
+                if (attemptsSummary != null) {
+                    attemptsSummary.record(attempt);
+                    timeInQueueTimer.record(timeInQueue);
+                }
+            } else if (cause.isPresent()) {
+                outcome = REQUEUED_OUTCOME;
+                Tags.ERROR.set(span, true);
+                span.setTag(CAUSE_TAG, cause.get().getClass().getName());
+                decision = new RetryCountingDecision(decision, attempt, failedHandlerContext);
+            } else {
+                outcome = IGNORED_OUTCOME;
+            }
+            return decision;
+        } catch (RuntimeException | Error e) {
+            Tags.ERROR.set(span, true);
+            throw e;
+        } finally {
+            span.setTag(OUTCOME_TAG, outcome);
+            if (processingTimers != null) {
+                processingTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            span.finish();
+        }
+    }
+
+    private static long retries(DeadLetter<?> letter) {
+        Object retries = letter.diagnostics().get(RETRIES_DIAGNOSTICS_KEY);
+        if (retries instanceof Number) {
+            return ((Number) retries).longValue();
+        } else if (retries instanceof String) {
+            try {
+                return Long.parseLong((String) retries);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private SpanContext failedHandlerContext(DeadLetter<?> letter) {
+        try {
+            return tracer.extract(Format.Builtin.TEXT_MAP, new MapExtractor(letter.diagnostics()));
+        } catch (IllegalArgumentException e) {
+            logger.error("Corrupted failed handler span", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void evict(DeadLetter<? extends M> letter) {
+        delegate.evict(letter);
+    }
+
+    @Override
+    public void requeue(DeadLetter<? extends M> letter,
+                        UnaryOperator<DeadLetter<? extends M>> letterUpdater) throws NoSuchDeadLetterException {
+        delegate.requeue(letter, letterUpdater);
+    }
+
+    @Override
+    public boolean contains(Object sequenceIdentifier) {
+        return delegate.contains(sequenceIdentifier);
+    }
+
+    @Override
+    public Iterable<DeadLetter<? extends M>> deadLetterSequence(Object sequenceIdentifier) {
+        return delegate.deadLetterSequence(sequenceIdentifier);
+    }
+
+    @Override
+    public Iterable<Iterable<DeadLetter<? extends M>>> deadLetters() {
+        return delegate.deadLetters();
+    }
+
+    @Override
+    public boolean isFull(Object sequenceIdentifier) {
+        return delegate.isFull(sequenceIdentifier);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long sequenceSize(Object sequenceIdentifier) {
+        return delegate.sequenceSize(sequenceIdentifier);
+    }
+
+    @Override
+    public long amountOfSequences() {
+        return delegate.amountOfSequences();
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    /**
+     * Returns the {@link SequencedDeadLetterQueue} this tracing-wrapper delegates to.
+     *
+     * @return the {@link SequencedDeadLetterQueue} this tracing-wrapper delegates to
+     */
+    public SequencedDeadLetterQueue<M> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * An {@link EnqueueDecision} requeueing a dead letter with its number of retries and the context of the failed
+     * handler's span added to its diagnostics. The latter is restored in case the diagnostics of the decision replace
+     * those of the letter.
+     */
+    private class RetryCountingDecision implements EnqueueDecision<M> {
+
+        private final EnqueueDecision<M> delegate;
+        private final long retries;
+        private final SpanContext failedHandlerContext;
+
+        private RetryCountingDecision(EnqueueDecision<M> delegate, long retries, SpanContext failedHandlerContext) {
+            this.delegate = delegate;
+            this.retries = retries;
+            this.failedHandlerContext = failedHandlerContext;
+        }
+
+        @Override
+        public boolean shouldEnqueue() {
+            return delegate.shouldEnqueue();
+        }
+
+        @Override
+        public Optional<Throwable> enqueueCause() {
+            return delegate.enqueueCause();
+        }
+
+        @Override
+        public DeadLetter<? extends M> withDiagnostics(DeadLetter<? extends M> letter) {
+            Map<String, Object> tracingDiagnostics = new HashMap<>();
+            if (failedHandlerContext != null) {
+                MapInjector injector = new MapInjector();
+                tracer.inject(failedHandlerContext, Format.Builtin.TEXT_MAP, injector);
+                tracingDiagnostics.putAll(injector.getMetaData());
+            }
+            tracingDiagnostics.put(RETRIES_DIAGNOSTICS_KEY, retries);
+            return delegate.withDiagnostics(letter)
+                           .withDiagnostics(diagnostics -> diagnostics.mergedWith(tracingDiagnostics));
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingSequencedDeadLetterQueue}.
+     * <p>
+     * The processing group defaults to {@code unknown}. No {@link MeterRegistry} is configured by default, in which
+     * case no meters are recorded. The {@link Tracer} and delegate {@link SequencedDeadLetterQueue} are <b>hard
+     * requirements</b> and as such should be provided.
+     *
+     * @param <M> the type of message contained in the dead letters of the {@link TracingSequencedDeadLetterQueue}
+     */
+    public static class Builder<M extends Message<?>> {
+
+        private Tracer tracer;
+        private SequencedDeadLetterQueue<M> delegate;
+        private String processingGroup = "unknown";
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Sets the {@link Tracer} used to trace enqueueing and processing dead letters.
+         *
+         * @param tracer the {@link Tracer} used to trace enqueueing and processing dead letters
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<M> tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SequencedDeadLetterQueue} this tracing-wrapper delegates all operations towards.
+         *
+         * @param delegate the {@link SequencedDeadLetterQueue} this tracing-wrapper delegates all operations towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<M> delegateQueue(SequencedDeadLetterQueue<M> delegate) {
+            assertNonNull(delegate, "Delegate SequencedDeadLetterQueue may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the name of the processing group the dead-letter queue belongs to, used to tag the spans and meters.
+         * Defaults to {@code unknown}.
+         *
+         * @param processingGroup the name of the processing group the dead-letter queue belongs to
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<M> processingGroup(String processingGroup) {
+            assertNonNull(processingGroup, "The processing group may not be null");
+            this.processingGroup = processingGroup;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the dead-letter meters are registered with. When not set, no meters are
+         * recorded.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the dead-letter meters are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder<M> meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingSequencedDeadLetterQueue} as specified through this Builder.
+         *
+         * @return a {@link TracingSequencedDeadLetterQueue} as specified through this Builder
+         */
+        public TracingSequencedDeadLetterQueue<M> build() {
+            return new TracingSequencedDeadLetterQueue<>(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate,
+                          "The delegate SequencedDeadLetterQueue is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A {@link Serializer} decorator measuring the time spent serializing, deserializing and checking whether objects can
+ * be serialized to a representation, and the size of the serialized form. The size is known for {@code byte[]} and
+ * {@link String} representations, counting bytes and characters respectively.
+ * <p>
+ * The measurements are recorded on the {@link #SERIALIZER_TIMER} timer and the {@link #SERIALIZED_SIZE_SUMMARY}
+ * distribution summary, tagged with the {@code operation} and the serialized {@code type}. For {@code canSerializeTo}
+ * the type is the requested representation. When a {@link Span} is active, every operation is logged on it as well.
+ * Without an active span no more is done than timing the operation and recording the meters, which are looked up
+ * rather than created after the first use of a type.
+ *
+ * @since 4.12.1
+ */
+public class TracingSerializer implements Serializer {
+
+    /**
+     * The name of the timer recording the time spent in the delegate serializer, tagged with the {@code operation}
+     * and the serialized {@code type}.
+     */
+    public static final String SERIALIZER_TIMER = "axon.tracing.serializer";
+    /**
+     * The name of the distribution summary recording the size of serialized objects, tagged with the {@code operation}
+     * and the serialized {@code type}.
+     */
+    public static final String SERIALIZED_SIZE_SUMMARY = "axon.tracing.serializer.serialized-size";
+    /**
+     * The field holding the serialized type in the events logged on the active span.
+     */
+    public static final String TYPE_FIELD = "axon.serializer.type";
+    /**
+     * The field holding the size of the serialized form in the events logged on the active span.
+     */
+    public static final String SERIALIZED_SIZE_FIELD = "axon.serializer.serialized-size";
+    /**
+     * The field holding the duration in microseconds of the operation in the events logged on the active span.
+     */
+    public static final String DURATION_FIELD = "axon.serializer.duration-micros";
+
+    private static final String SERIALIZE = "serialize";
+    private static final String DESERIALIZE = "deserialize";
+    private static final String CAN_SERIALIZE_TO = "canSerializeTo";
+
+    private final Tracer tracer;
+    private final Serializer delegate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Meters> serializeMeters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Meters> deserializeMeters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Meters> canSerializeToMeters = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingSerializer}.
+     * <p>
+     * The {@link Tracer} and delegate {@link Serializer} are <b>hard requirements</b> and as such should be provided.
+     * The {@link MeterRegistry} is defaulted to an empty {@link CompositeMeterRegistry}, which does not publish the
+     * meters anywhere.
+     *
+     * @return a Builder to be able to create a {@link TracingSerializer}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingSerializer} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link Serializer} are not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingSerializer} instance
+     */
+    protected TracingSerializer(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.meterRegistry = builder.meterRegistry;
+    }
+
+    @Override
+    public <T> SerializedObject<T> serialize(Object object, Class<T> expectedRepresentation) {
+        long start = System.nanoTime();
+        SerializedObject<T> serializedObject = delegate.serialize(object, expectedRepresentation);
+        long durationNanos = System.nanoTime() - start;
+        record(SERIALIZE, serializeMeters, serializedObject.getType().getName(),
+               durationNanos, sizeOf(serializedObject.getData()));
+        return serializedObject;
+    }
+
+    @Override
+    public <T> boolean canSerializeTo(Class<T> expectedRepresentation) {
+        long start = System.nanoTime();
+        boolean canSerializeTo = delegate.canSerializeTo(expectedRepresentation);
+        long durationNanos = System.nanoTime() - start;
+        record(CAN_SERIALIZE_TO, canSerializeToMeters, expectedRepresentation.getName(), durationNanos, -1);
+        return canSerializeTo;
+    }
+
+    @Override
+    public <S, T> T deserialize(SerializedObject<S> serializedObject) {
+        long start = System.nanoTime();
+        T deserialized = delegate.deserialize(serializedObject);
+        long durationNanos = System.nanoTime() - start;
+        record(DESERIALIZE, deserializeMeters, serializedObject.getType().getName(),
+               durationNanos, sizeOf(serializedObject.getData()));
+        return deserialized;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Class classForType(SerializedType type) {
+        return delegate.classForType(type);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public SerializedType typeForClass(Class type) {
+        return delegate.typeForClass(type);
+    }
+
+    @Override
+    public Converter getConverter() {
+        return delegate.getConverter();
+    }
+
+    /**
+     * Returns the {@link Serializer} this tracing-wrapper delegates to.
+     *
+     * @return the {@link Serializer} this tracing-wrapper delegates to
+     */
+    public Serializer getDelegate() {
+        return delegate;
+    }
+
+    private void record(String operation, ConcurrentMap<String, Meters> metersPerType, String type,
+                        long durationNanos, long size) {
+        Meters meters = metersPerType.get(type);
+        if (meters == null) {
+            meters = metersPerType.computeIfAbsent(type, t -> new Meters(operation, t));
+        }
+        meters.timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (size >= 0) {
+            meters.serializedSize.record(size);
+        }
+
+        Span activeSpan = tracer.activeSpan();
+        if (activeSpan != null) {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("event", operation);
+            fields.put(TYPE_FIELD, type);
+            fields.put(DURATION_FIELD, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+            if (size >= 0) {
+                fields.put(SERIALIZED_SIZE_FIELD, size);
+            }
+            activeSpan.log(fields);
+        }
+    }
+
+    private static long sizeOf(Object data) {
+        if (data instanceof byte[]) {
+            return ((byte[]) data).length;
+        } else if (data instanceof String) {
+            return ((String) data).length();
+        }
+        return -1;
+    }
+
+    private class Meters {
+
+        private final Timer timer;
+        private final DistributionSummary serializedSize;
+
+        private Meters(String operation, String type) {
+            this.timer = Timer.builder(SERIALIZER_TIMER)
+                              .description("The time spent in the serializer")
+                              .tag("operation", operation)
+                              .tag("type", type)
+                              .publishPercentileHistogram()
+                              .register(meterRegistry);
+            this.serializedSize = DistributionSummary.builder(SERIALIZED_SIZE_SUMMARY)
+                                                     .description("The size of the serialized form")
+                                                     .tag("operation", operation)
+                                                     .tag("type", type)
+                                                     .publishPercentileHistogram()
+                                                     .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingSerializer}.
+     * <p>
+     * The {@link Tracer} and delegate {@link Serializer} are <b>hard requirements</b> and as such should be provided.
+     * The {@link MeterRegistry} is defaulted to an empty {@link CompositeMeterRegistry}, which does not publish the
+     * meters anywhere.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private Serializer delegate;
+        private MeterRegistry meterRegistry = new CompositeMeterRegistry();
+
+        /**
+         * Sets the {@link Tracer} whose active {@link Span} the serializer operations are logged on.
+         *
+         * @param tracer a {@link Tracer} whose active {@link Span} the serializer operations are logged on
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Serializer} this tracing-wrapper delegates all operations towards.
+         *
+         * @param delegate the {@link Serializer} this tracing-wrapper delegates all operations towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateSerializer(Serializer delegate) {
+            assertNonNull(delegate, "Delegate Serializer may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the serializer meters are registered with. Defaults to an empty {@link
+         * CompositeMeterRegistry}.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the serializer meters are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingSerializer} as specified through this Builder.
+         *
+         * @return a {@link TracingSerializer} as specified through this Builder
+         */
+        public TracingSerializer build() {
+            return new TracingSerializer(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate Serializer is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.Segment;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.UnableToClaimTokenException;
+import org.axonframework.eventhandling.tokenstore.UnableToInitializeTokenException;
+import org.axonframework.eventhandling.tokenstore.UnableToRetrieveIdentifierException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+
+/**
+ * A {@link TokenStore} decorator measuring the claim operations of streaming event processors: fetching, storing,
+ * extending and releasing the claim on a token. The latency of each operation is recorded on the {@link
+ * #TOKEN_STORE_TIMER} timer, tagged with the {@code operation}, the {@code processor} name and the {@code segment}.
+ * Claims which fail because another node owns the token are counted by the {@link #FAILED_CLAIMS_COUNTER} counter,
+ * showing the claim contention between nodes.
+ * <p>
+ * When an operation takes place while a message is handled, like storing the token when the unit of work of a batch
+ * commits, the operation gets a {@link Span} as a child of the active span or the span of the handled message. Claim
+ * operations performed by the processor outside of handling events, like extending claims in between batches, are
+ * only recorded on the meters, to prevent a trace per operation.
+ *
+ * @since 4.12.1
+ */
+public class TracingTokenStore implements TokenStore {
+
+    /**
+     * The name of the timer recording the latency of token store operations, tagged with the {@code operation}, the
+     * {@code processor} name and the {@code segment}.
+     */
+    public static final String TOKEN_STORE_TIMER = "axon.tracing.token-store";
+    /**
+     * The name of the counter counting the claims which failed because the token is owned by another node, tagged with
+     * the {@code operation}, the {@code processor} name and the {@code segment}.
+     */
+    public static final String FAILED_CLAIMS_COUNTER = "axon.tracing.token-store.failed-claims";
+    /**
+     * The tag holding the name of the processor a token store operation was performed for.
+     */
+    public static final String PROCESSOR_NAME_TAG = "axon.processor.name";
+    /**
+     * The tag holding the segment a token store operation was performed for.
+     */
+    public static final String SEGMENT_TAG = "axon.processor.segment";
+    /**
+     * The tag set on the span of a token store operation which failed to claim the token.
+     */
+    public static final String CLAIM_FAILED_TAG = "axon.token-store.claim-failed";
+
+    private final Tracer tracer;
+    private final TokenStore delegate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, ConcurrentMap<Integer, SegmentMeters>> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiate a Builder to be able to create a {@link TracingTokenStore}.
+     * <p>
+     * The {@link Tracer} and delegate {@link TokenStore} are <b>hard requirements</b> and as such should be provided.
+     * No {@link MeterRegistry} is configured by default, in which case no meters are recorded. This allows Micrometer
+     * to be absent from the classpath.
+     *
+     * @return a Builder to be able to create a {@link TracingTokenStore}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Instantiate a {@link TracingTokenStore} based on the fields contained in the {@link Builder}.
+     * <p>
+     * Will assert that the {@link Tracer} and delegate {@link TokenStore} are not {@code null}, and will throw an
+     * {@link AxonConfigurationException} if either of them is.
+     *
+     * @param builder the {@link Builder} used to instantiate a {@link TracingTokenStore} instance
+     */
+    protected TracingTokenStore(Builder builder) {
+        builder.validate();
+        this.tracer = builder.tracer;
+        this.delegate = builder.delegate;
+        this.meterRegistry = builder.meterRegistry;
+    }
+
+    @Override
+    public void initializeTokenSegments(String processorName, int segmentCount) {
+        delegate.initializeTokenSegments(processorName, segmentCount);
+    }
+
+    @Override
+    public void initializeTokenSegments(String processorName, int segmentCount, TrackingToken initialToken) {
+        delegate.initializeTokenSegments(processorName, segmentCount, initialToken);
+    }
+
+    @Override
+    public void storeToken(TrackingToken token, String processorName, int segment) {
+        trace("storeToken", processorName, segment, () -> {
+            delegate.storeToken(token, processorName, segment);
+            return null;
+        });
+    }
+
+    @Override
+    public TrackingToken fetchToken(String processorName, int segment) {
+        return trace("fetchToken", processorName, segment, () -> delegate.fetchToken(processorName, segment));
+    }
+
+    @Override
+    public TrackingToken fetchToken(String processorName, Segment segment) {
+        return trace("fetchToken", processorName, segment.getSegmentId(),
+                     () -> delegate.fetchToken(processorName, segment));
+    }
+
+    @Override
+    public void extendClaim(String processorName, int segment) {
+        trace("extendClaim", processorName, segment, () -> {
+            delegate.extendClaim(processorName, segment);
+            return null;
+        });
+    }
+
+    @Override
+    public void releaseClaim(String processorName, int segment) {
+        trace("releaseClaim", processorName, segment, () -> {
+            delegate.releaseClaim(processorName, segment);
+            return null;
+        });
+    }
+
+    @Override
+    public void initializeSegment(TrackingToken token, String processorName, int segment)
+            throws UnableToInitializeTokenException {
+        delegate.initializeSegment(token, processorName, segment);
+    }
+
+    @Override
+    public void deleteToken(String processorName, int segment) {
+        delegate.deleteToken(processorName, segment);
+    }
+
+    @Override
+    public boolean requiresExplicitSegmentInitialization() {
+        return delegate.requiresExplicitSegmentInitialization();
+    }
+
+    @Override
+    public int[] fetchSegments(String processorName) {
+        return delegate.fetchSegments(processorName);
+    }
+
+    @Override
+    public List<Segment> fetchAvailableSegments(String processorName) {
+        return delegate.fetchAvailableSegments(processorName);
+    }
+
+    @Override
+    public Optional<String> retrieveStorageIdentifier() throws UnableToRetrieveIdentifierException {
+        return delegate.retrieveStorageIdentifier();
+    }
+
+    /**
+     * Returns the {@link TokenStore} this tracing-wrapper delegates to.
+     *
+     * @return the {@link TokenStore} this tracing-wrapper delegates to
+     */
+    public TokenStore getDelegate() {
+        return delegate;
+    }
+
+    private <R> R trace(String operation, String processorName, int segment, Supplier<R> invocation) {
+        Span parentSpan = SpanUtils.parentSpan(tracer);
+        Span span = parentSpan == null ? null : tracer.buildSpan(operation)
+                                                      .asChildOf(parentSpan)
+                                                      .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT)
+                                                      .withTag(PROCESSOR_NAME_TAG, processorName)
+                                                      .withTag(SEGMENT_TAG, segment)
+                                                      .start();
+        long start = System.nanoTime();
+        try (Scope ignored = span != null ? tracer.activateSpan(span) : null) {
+            return invocation.get();
+        } catch (UnableToClaimTokenException e) {
+            if (meterRegistry != null) {
+                meters(processorName, segment).failedClaims(operation).increment();
+            }
+            if (span != null) {
+                span.setTag(CLAIM_FAILED_TAG, true);
+                Tags.ERROR.set(span, true);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            if (span != null) {
+                Tags.ERROR.set(span, true);
+            }
+            throw e;
+        } finally {
+            if (meterRegistry != null) {
+                meters(processorName, segment).timer(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (span != null) {
+                span.finish();
+            }
+        }
+    }
+
+    private SegmentMeters meters(String processorName, int segment) {
+        ConcurrentMap<Integer, SegmentMeters> processorMeters = meters.get(processorName);
+        if (processorMeters == null) {
+            processorMeters = meters.computeIfAbsent(processorName, p -> new ConcurrentHashMap<>());
+        }
+        SegmentMeters segmentMeters = processorMeters.get(segment);
+        if (segmentMeters == null) {
+            segmentMeters = processorMeters.computeIfAbsent(segment, s -> new SegmentMeters(processorName, s));
+        }
+        return segmentMeters;
+    }
+
+    /**
+     * The meters of a single segment of a processor, per operation. The timers do not publish a percentile histogram,
+     * as there is a timer per operation and segment, and the number of segments may be large.
+     */
+    private class SegmentMeters {
+
+        private final String processorName;
+        private final String segment;
+        private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Counter> failedClaims = new ConcurrentHashMap<>();
+
+        private SegmentMeters(String processorName, int segment) {
+            this.processorName = processorName;
+            this.segment = Integer.toString(segment);
+        }
+
+        Timer timer(String operation) {
+            Timer timer = timers.get(operation);
+            if (timer == null) {
+                timer = timers.computeIfAbsent(operation, this::newTimer);
+            }
+            return timer;
+        }
+
+        Counter failedClaims(String operation) {
+            Counter counter = failedClaims.get(operation);
+            if (counter == null) {
+                counter = failedClaims.computeIfAbsent(operation, this::newFailedClaimsCounter);
+            }
+            return counter;
+        }
+
+        private Timer newTimer(String operation) {
+            return Timer.builder(TOKEN_STORE_TIMER)
+                        .description("The latency of token store operations")
+                        .tag("operation", operation)
+                        .tag("processor", processorName)
+                        .tag("segment", segment)
+                        .register(meterRegistry);
+        }
+
+        private Counter newFailedClaimsCounter(String operation) {
+            return Counter.builder(FAILED_CLAIMS_COUNTER)
+                          .description("The number of token claims which failed as the token is owned by another node")
+                          .tag("operation", operation)
+                          .tag("processor", processorName)
+                          .tag("segment", segment)
+                          .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Builder class to instantiate a {@link TracingTokenStore}.
+     * <p>
+     * The {@link Tracer} and delegate {@link TokenStore} are <b>hard requirements</b> and as such should be provided.
+     * No {@link MeterRegistry} is configured by default, in which case no meters are recorded. This allows Micrometer
+     * to be absent from the classpath.
+     */
+    public static class Builder {
+
+        private Tracer tracer;
+        private TokenStore delegate;
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Sets the {@link Tracer} used to start the token store {@link Span}s.
+         *
+         * @param tracer the {@link Tracer} used to start the token store {@link Span}s
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder tracer(Tracer tracer) {
+            assertNonNull(tracer, "Tracer may not be null");
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TokenStore} this tracing-wrapper delegates all operations towards.
+         *
+         * @param delegate the {@link TokenStore} this tracing-wrapper delegates all operations towards
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder delegateTokenStore(TokenStore delegate) {
+            assertNonNull(delegate, "Delegate TokenStore may not be null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the {@link MeterRegistry} the token store meters are registered with. When not set, no meters are
+         * recorded.
+         *
+         * @param meterRegistry the {@link MeterRegistry} the token store meters are registered with
+         * @return the current Builder instance, for fluent interfacing
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            assertNonNull(meterRegistry, "MeterRegistry may not be null");
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Initializes a {@link TracingTokenStore} as specified through this Builder.
+         *
+         * @return a {@link TracingTokenStore} as specified through this Builder
+         */
+        public TracingTokenStore build() {
+            return new TracingTokenStore(this);
+        }
+
+        /**
+         * Validate whether the fields contained in this Builder as set accordingly.
+         *
+         * @throws AxonConfigurationException if one field is asserted to be incorrect according to the Builder's
+         *                                    specifications
+         */
+        protected void validate() throws AxonConfigurationException {
+            assertNonNull(tracer, "The Tracer is a hard requirement and should be provided");
+            assertNonNull(delegate, "The delegate TokenStore is a hard requirement and should be provided");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentracing.Span;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the phases of the {@link UnitOfWork} handling a message as events on the message's {@link Span}, and the
+ * time spent in each phase on the {@link OpenTraceHandlerInterceptor#UNIT_OF_WORK_PHASE_TIMER} timer.
+ * <p>
+ * The handlers of the after commit, rollback and cleanup phases are invoked in reverse order of registration. The
+ * markers of these phases are therefore registered as late as possible, from within the marker of the preceding phase,
+ * so that they are invoked before the handlers registered while handling the message.
+ *
+ * @since 4.12.1
+ */
+final class UnitOfWorkPhaseRecorder {
+
+    static final String HANDLE_PHASE = "handle";
+    static final String PREPARE_COMMIT_PHASE = "prepareCommit";
+    static final String COMMIT_PHASE = "commit";
+    static final String AFTER_COMMIT_PHASE = "afterCommit";
+    static final String ROLLBACK_PHASE = "rollback";
+    static final String CLEANUP_PHASE = "cleanup";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiate a recorder registering the phase timers with the given {@code meterRegistry}. When the {@code
+     * meterRegistry} is {@code null}, the phases are only logged on the span.
+     *
+     * @param meterRegistry the {@link MeterRegistry} to register the phase timers with, or {@code null} to skip the
+     *                      timers
+     */
+    UnitOfWorkPhaseRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts recording the phases of the given {@code unitOfWork} on the given {@code span}. The returned {@link
+     * Runnable} should be invoked right before finishing the span, ending the cleanup phase.
+     *
+     * @param unitOfWork  the {@link UnitOfWork} to record the phases of
+     * @param span        the {@link Span} of the message handled in the given {@code unitOfWork}
+     * @param messageName the name of the handled message, tagging the phase timers
+     * @return a {@link Runnable} to be invoked right before finishing the span
+     */
+    Runnable record(UnitOfWork<?> unitOfWork, Span span, String messageName) {
+        PhaseMarkers markers = new PhaseMarkers(span, messageName);
+        unitOfWork.onPrepareCommit(u -> {
+            markers.mark(PREPARE_COMMIT_PHASE);
+            u.onRollback(markers::rollback);
+        });
+        unitOfWork.onCommit(u -> {
+            markers.mark(COMMIT_PHASE);
+            u.onRollback(markers::rollback);
+            u.afterCommit(uow -> {
+                markers.mark(AFTER_COMMIT_PHASE);
+                uow.onCleanup(c -> markers.mark(CLEANUP_PHASE));
+            });
+        });
+        unitOfWork.onRollback(markers::rollback);
+        return markers::complete;
+    }
+
+    private Timer timer(ConcurrentMap<String, Timer> messageTimers, String messageName, String phase) {
+        // Timers are cached per message name and phase, as registering them on every record would be a lookup in the
+        // registry by a newly created identifier
+        return messageTimers.computeIfAbsent(
+                phase,
+                p -> Timer.builder(OpenTraceHandlerInterceptor.UNIT_OF_WORK_PHASE_TIMER)
+                          .description("The time spent in each phase of the unit of work handling a message")
+                          .tag("messageName", messageName)
+                          .tag("phase", p)
+                          .publishPercentileHistogram()
+                          .register(meterRegistry)
+        );
+    }
+
+    /**
+     * The markers of a single {@link UnitOfWork}. The phases of a unit of work are executed by a single thread, so
+     * the markers need not be thread-safe.
+     */
+    private final class PhaseMarkers {
+
+        private final Span span;
+        private final ConcurrentMap<String, Timer> messageTimers;
+        private final String messageName;
+        private final long startEpochMicros;
+        private final long startNanos;
+        private String currentPhase = HANDLE_PHASE;
+        private long currentPhaseStartNanos;
+        private boolean rolledBack;
+
+        private PhaseMarkers(Span span, String messageName) {
+            this.span = span;
+            this.messageTimers = timers.computeIfAbsent(messageName, n -> new ConcurrentHashMap<>());
+            this.messageName = messageName;
+            this.startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+            this.startNanos = System.nanoTime();
+            this.currentPhaseStartNanos = startNanos;
+        }
+
+        private void mark(String phase) {
+            long now = completeCurrentPhase();
+            // Derived from the monotonic clock, so the markers are ordered even when the wall clock is adjusted
+            span.log(startEpochMicros + TimeUnit.NANOSECONDS.toMicros(now - startNanos), phase);
+            currentPhase = phase;
+            currentPhaseStartNanos = now;
+        }
+
+        private void rollback(UnitOfWork<?> unitOfWork) {
+            // Registered in several phases, of which the latest registration is invoked first
+            if (!rolledBack) {
+                rolledBack = true;
+                mark(ROLLBACK_PHASE);
+                unitOfWork.onCleanup(u -> mark(CLEANUP_PHASE));
+            }
+        }
+
+        private void complete() {
+            completeCurrentPhase();
+        }
+
+        private long completeCurrentPhase() {
+            long now = System.nanoTime();
+            if (meterRegistry != null) {
+                timer(messageTimers, messageName, currentPhase)
+                        .record(now - currentPhaseStartNanos, TimeUnit.NANOSECONDS);
+            }
+            return now;
+        }
+    }
+}
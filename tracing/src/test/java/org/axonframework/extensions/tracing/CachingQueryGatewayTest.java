@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.queryhandling.GenericQueryMessage;
+import org.axonframework.queryhandling.GenericSubscriptionQueryUpdateMessage;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.axonframework.messaging.responsetypes.ResponseTypes.instanceOf;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class validating the {@link CachingQueryGateway}.
+ */
+class CachingQueryGatewayTest {
+
+    private static final String CACHED_QUERY = "cachedQuery";
+    private static final String OTHER_QUERY = "otherQuery";
+
+    private QueryGateway mockDelegate;
+    private MockTracer mockTracer;
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingQueryGateway testSubject;
+
+    @BeforeEach
+    void setUp() {
+        mockDelegate = mock(QueryGateway.class);
+        when(mockDelegate.query(anyString(), any(), eq(instanceOf(String.class))))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture("result"));
+        when(mockDelegate.query(anyString(), any(), eq(instanceOf(Integer.class))))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(42));
+        mockTracer = new MockTracer();
+        meterRegistry = new SimpleMeterRegistry();
+
+        testSubject = CachingQueryGateway.builder()
+                                         .tracer(mockTracer)
+                                         .delegateQueryGateway(mockDelegate)
+                                         .cachedQueryNames(Collections.singleton(CACHED_QUERY))
+                                         .meterRegistry(meterRegistry)
+                                         .build();
+    }
+
+    @Test
+    void testCachedQueryIsDispatchedOnce() throws ExecutionException, InterruptedException {
+        assertEquals("result", testSubject.query(CACHED_QUERY, "payload", instanceOf(String.class)).get());
+        assertEquals("result", testSubject.query(CACHED_QUERY, "payload", instanceOf(String.class)).get());
+
+        verify(mockDelegate, times(1)).query(CACHED_QUERY, "payload", instanceOf(String.class));
+        assertEquals(1, testSubject.size());
+        assertEquals(1.0, meterRegistry.counter(CachingQueryGateway.HITS_COUNTER, "queryName", CACHED_QUERY).count());
+        assertEquals(1.0,
+                     meterRegistry.counter(CachingQueryGateway.MISSES_COUNTER, "queryName", CACHED_QUERY).count());
+    }
+
+    @Test
+    void testQueriesWithDifferentPayloadsAreCachedSeparately() {
+        testSubject.query(CACHED_QUERY, "payload1", instanceOf(String.class));
+        testSubject.query(CACHED_QUERY, "payload2", instanceOf(String.class));
+
+        verify(mockDelegate).query(CACHED_QUERY, "payload1", instanceOf(String.class));
+        verify(mockDelegate).query(CACHED_QUERY, "payload2", instanceOf(String.class));
+        assertEquals(2, testSubject.size());
+    }
+
+    @Test
+    void testQueryMessagesAreKeyedByTheirPayload() {
+        testSubject.query(CACHED_QUERY,
+                          new GenericQueryMessage<>("payload", CACHED_QUERY, instanceOf(String.class)),
+                          instanceOf(String.class));
+        testSubject.query(CACHED_QUERY,
+                          new GenericQueryMessage<>("payload", CACHED_QUERY, instanceOf(String.class)),
+                          instanceOf(String.class));
+
+        verify(mockDelegate, times(1)).query(eq(CACHED_QUERY), any(), eq(instanceOf(String.class)));
+    }
+
+    @Test
+    void testQueriesWithOtherNamesAreNotCached() {
+        testSubject.query(OTHER_QUERY, "payload", instanceOf(String.class));
+        testSubject.query(OTHER_QUERY, "payload", instanceOf(String.class));
+
+        verify(mockDelegate, times(2)).query(OTHER_QUERY, "payload", instanceOf(String.class));
+        assertEquals(0, testSubject.size());
+    }
+
+    @Test
+    void testHitsAndMissesAreRecordedOnTheActiveSpan() {
+        MockSpan missSpan = mockTracer.buildSpan("query_cachedQuery").start();
+        try (Scope ignored = mockTracer.activateSpan(missSpan)) {
+            testSubject.query(CACHED_QUERY, "payload", instanceOf(String.class));
+        }
+        MockSpan hitSpan = mockTracer.buildSpan("query_cachedQuery").start();
+        try (Scope ignored = mockTracer.activateSpan(hitSpan)) {
+            testSubject.query(CACHED_QUERY, "payload", instanceOf(String.class));
+        }
+
+        assertEquals(false, missSpan.tags().get(CachingQueryGateway.CACHE_HIT_TAG));
+        assertEquals("cache.miss", missSpan.logEntries().get(0).fields().get("event"));
+        assertEquals(true, hitSpan.tags().get(CachingQueryGateway.CACHE_HIT_TAG));
+        assertEquals("cache.hit", hitSpan.logEntries().get(0).fields().get("event"));
+    }
+
+    @Test
+    void testExpiredResultsAreDispatchedAgain() throws InterruptedException {
+        testSubject = CachingQueryGateway.builder()
+                                         .tracer(mockTracer)
+                                         .delegateQueryGateway(mockDelegate)
+                                         .cachedQueryNames(Collections.singleton(CACHED_QUERY))
+                                         .timeToLive(Duration.ofMillis(5))
+                                         .build();
+
+        testSubject.query(CACHED_QUERY, "payload", instanceOf(String.class));
+        Thread.sleep(10);
+        testSubject.query(CACHED_QUERY, "payload", instanceOf(String.class));
+
+        verify(mockDelegate, times(2)).query(CACHED_QUERY, "payload", instanceOf(String.class));
+    }
+
+    @Test
+    void testLeastRecentlyUsedResultIsEvictedWhenExceedingMaximumSize() {
+        testSubject = CachingQueryGateway.builder()
+                                         .tracer(mockTracer)
+                                         .delegateQueryGateway(mockDelegate)
+                                         .cachedQueryNames(Collections.singleton(CACHED_QUERY))
+                                         .maximumSize(2)
+                                         .build();
+
+        testSubject.query(CACHED_QUERY, "payload1", instanceOf(String.class));
+        testSubject.query(CACHED_QUERY, "payload2", instanceOf(String.class));
+        testSubject.query(CACHED_QUERY, "payload1", instanceOf(String.class));
+        testSubject.query(CACHED_QUERY, "payload3", instanceOf(String.class));
+        testSubject.query(CACHED_QUERY, "payload1", instanceOf(String.class));
+        testSubject.query(CACHED_QUERY, "payload2", instanceOf(String.class));
+
+        assertEquals(2, testSubject.size());
+        verify(mockDelegate, times(1)).query(CACHED_QUERY, "payload1", instanceOf(String.class));
+        verify(mockDelegate, times(2)).query(CACHED_QUERY, "payload2", instanceOf(String.class));
+    }
+
+    @Test
+    void testFailedResultsAreNotCached() {
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("failure"));
+        when(mockDelegate.query(CACHED_QUERY, "failing", instanceOf(String.class))).thenReturn(failed);
+
+        testSubject.query(CACHED_QUERY, "failing", instanceOf(String.class));
+
+        assertEquals(0, testSubject.size());
+    }
+
+    @Test
+    void testSubscriptionQueryUpdatesInvalidateResultsOfMatchingResponseType() {
+        testSubject.query(CACHED_QUERY, "payload", instanceOf(String.class));
+        testSubject.query(CACHED_QUERY, "payload", instanceOf(Integer.class));
+        MessageDispatchInterceptor<SubscriptionQueryUpdateMessage<?>> interceptor =
+                testSubject.updateInvalidationInterceptor();
+
+        interceptor.handle(new GenericSubscriptionQueryUpdateMessage<>("update"));
+
+        assertEquals(1, testSubject.size());
+        testSubject.query(CACHED_QUERY, "payload", instanceOf(String.class));
+        testSubject.query(CACHED_QUERY, "payload", instanceOf(Integer.class));
+        verify(mockDelegate, times(2)).query(CACHED_QUERY, "payload", instanceOf(String.class));
+        verify(mockDelegate, times(1)).query(CACHED_QUERY, "payload", instanceOf(Integer.class));
+    }
+
+    @Test
+    void testResultDispatchedBeforeInvalidationIsNotCached() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        when(mockDelegate.query(CACHED_QUERY, "pending", instanceOf(String.class))).thenReturn(pending);
+
+        testSubject.query(CACHED_QUERY, "pending", instanceOf(String.class));
+        testSubject.invalidate(CACHED_QUERY);
+        pending.complete("stale");
+
+        assertEquals(0, testSubject.size());
+    }
+
+    @Test
+    void testInvalidationsOfOtherResultsDoNotPreventCachingOfPendingResult() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        when(mockDelegate.query(CACHED_QUERY, "pending", instanceOf(String.class))).thenReturn(pending);
+
+        testSubject.query(CACHED_QUERY, "pending", instanceOf(String.class));
+        testSubject.invalidate(OTHER_QUERY);
+        testSubject.updateInvalidationInterceptor().handle(new GenericSubscriptionQueryUpdateMessage<>(42));
+        pending.complete("fresh");
+
+        assertEquals(1, testSubject.size());
+    }
+
+    @Test
+    void testBuildWithoutDelegateThrowsAxonConfigurationException() {
+        CachingQueryGateway.Builder builder = CachingQueryGateway.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuilderRejectsNonPositiveTimeToLive() {
+        CachingQueryGateway.Builder builder = CachingQueryGateway.builder();
+
+        assertThrows(AxonConfigurationException.class, () -> builder.timeToLive(Duration.ZERO));
+        assertThrows(AxonConfigurationException.class, () -> builder.maximumSize(0));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link ElementTracingPolicy}.
+ */
+class ElementTracingPolicyTest {
+
+    private MockTracer mockTracer;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+    }
+
+    @Test
+    void testPerElementPolicyLogsEveryElement() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        ElementTracingPolicy.Recorder testSubject = ElementTracingPolicy.perElement().recorder(span, "element");
+
+        testSubject.record();
+        testSubject.record();
+        testSubject.complete();
+
+        assertEquals(2, span.logEntries().size());
+        assertTrue(span.tags().isEmpty());
+    }
+
+    @Test
+    void testAggregatedPolicyKeepsLogEntriesBounded() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        ElementTracingPolicy.Recorder testSubject = ElementTracingPolicy.aggregated().recorder(span, "element");
+
+        for (int i = 0; i < 100_000; i++) {
+            testSubject.record();
+        }
+        testSubject.complete();
+
+        assertTrue(span.logEntries().isEmpty());
+        assertEquals(100_000L, span.tags().get(ElementTracingPolicy.ELEMENT_COUNT_TAG));
+        assertNotNull(span.tags().get(ElementTracingPolicy.FIRST_ELEMENT_TIMESTAMP_TAG));
+        assertNotNull(span.tags().get(ElementTracingPolicy.LAST_ELEMENT_TIMESTAMP_TAG));
+        assertNotNull(span.tags().get(ElementTracingPolicy.MAX_INTER_ARRIVAL_GAP_TAG));
+    }
+
+    @Test
+    void testAggregatedPolicyOnlyTagsCountWithoutElements() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        ElementTracingPolicy.Recorder testSubject = ElementTracingPolicy.aggregated().recorder(span, "element");
+
+        testSubject.complete();
+
+        assertEquals(0L, span.tags().get(ElementTracingPolicy.ELEMENT_COUNT_TAG));
+        assertFalse(span.tags().containsKey(ElementTracingPolicy.FIRST_ELEMENT_TIMESTAMP_TAG));
+    }
+
+    @Test
+    void testAggregatedPolicySamplesEveryNthElement() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        ElementTracingPolicy.Recorder testSubject = ElementTracingPolicy.aggregated(10).recorder(span, "element");
+
+        for (int i = 0; i < 35; i++) {
+            testSubject.record();
+        }
+
+        assertEquals(3, span.logEntries().size());
+        assertEquals(30L, span.logEntries().get(2).fields().get(ElementTracingPolicy.ELEMENT_COUNT_TAG));
+    }
+
+    @Test
+    void testElementsRecordedAfterCompletionAreIgnored() {
+        MockSpan perElementSpan = mockTracer.buildSpan("test").start();
+        ElementTracingPolicy.Recorder perElement =
+                ElementTracingPolicy.perElement().recorder(perElementSpan, "element");
+        MockSpan aggregatedSpan = mockTracer.buildSpan("test").start();
+        ElementTracingPolicy.Recorder aggregated =
+                ElementTracingPolicy.aggregated().recorder(aggregatedSpan, "element");
+
+        perElement.record();
+        perElement.complete();
+        perElement.record();
+        aggregated.record();
+        aggregated.complete();
+        aggregated.record();
+        aggregated.complete();
+
+        assertEquals(1, perElementSpan.logEntries().size());
+        assertEquals(1L, aggregatedSpan.tags().get(ElementTracingPolicy.ELEMENT_COUNT_TAG));
+    }
+
+    @Test
+    void testNegativeSampleRateIsRejected() {
+        assertThrows(AxonConfigurationException.class, () -> ElementTracingPolicy.aggregated(-1));
+    }
+}
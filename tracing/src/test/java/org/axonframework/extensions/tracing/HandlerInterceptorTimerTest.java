@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.axonframework.messaging.DefaultInterceptorChain;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.ResultMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link HandlerInterceptorTimer}.
+ */
+class HandlerInterceptorTimerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockTracer mockTracer;
+
+    private HandlerInterceptorTimer testSubject;
+
+    @BeforeEach
+    void before() {
+        meterRegistry = new SimpleMeterRegistry();
+        mockTracer = new MockTracer();
+
+        testSubject = HandlerInterceptorTimer.builder().meterRegistry(meterRegistry).build();
+    }
+
+    @Test
+    void testSelfTimeExcludesTheRestOfTheChain() throws Exception {
+        MessageHandlerInterceptor<Message<?>> slow = testSubject.timed("slow", (unitOfWork, chain) -> {
+            Thread.sleep(50);
+            return chain.proceed();
+        });
+        MessageHandlerInterceptor<Message<?>> fast = testSubject.timed("fast", (unitOfWork, chain) -> chain.proceed());
+        OpenTraceHandlerInterceptor tracingInterceptor =
+                OpenTraceHandlerInterceptor.builder().tracer(mockTracer).build();
+        DefaultUnitOfWork<Message<?>> unitOfWork = new DefaultUnitOfWork<>(new GenericMessage<>("payload"));
+
+        Object result = unitOfWork.executeWithResult(() -> new DefaultInterceptorChain<>(
+                unitOfWork, Arrays.asList(tracingInterceptor, slow, fast), message -> {
+            Thread.sleep(50);
+            return "handled";
+        }).proceed()).getPayload();
+
+        assertEquals("handled", result);
+        Timer slowTimer = interceptorTimer("slow");
+        Timer fastTimer = interceptorTimer("fast");
+        assertEquals(1, slowTimer.count());
+        assertEquals(1, fastTimer.count());
+        assertTrue(slowTimer.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertTrue(fastTimer.totalTime(TimeUnit.MILLISECONDS) < 50);
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        String breakdown = (String) span.tags().get(HandlerInterceptorTimer.BREAKDOWN_TAG);
+        assertTrue(breakdown.matches("slow=\\d+,fast=\\d+"), breakdown);
+    }
+
+    @Test
+    void testSelfTimeIsRecordedWhenTheInterceptorFails() throws Exception {
+        MessageHandlerInterceptor<Message<?>> failing = testSubject.timed("failing", (unitOfWork, chain) -> {
+            throw new IllegalStateException("denied");
+        });
+        DefaultUnitOfWork<Message<?>> unitOfWork = new DefaultUnitOfWork<>(new GenericMessage<>("payload"));
+
+        ResultMessage<?> result = unitOfWork.executeWithResult(() -> new DefaultInterceptorChain<>(
+                unitOfWork, Arrays.asList(failing), message -> "handled"
+        ).proceed());
+
+        assertTrue(result.isExceptional());
+
+        assertEquals(1, interceptorTimer("failing").count());
+    }
+
+    @Test
+    void testInterceptorIsNamedAfterItsClass() {
+        testSubject.timed(new NamedInterceptor());
+        testSubject.timed((MessageHandlerInterceptor<Message<?>>) (unitOfWork, chain) -> chain.proceed());
+
+        assertNotNull(interceptorTimer("NamedInterceptor"));
+        assertNotNull(interceptorTimer("HandlerInterceptorTimerTest"));
+    }
+
+    @Test
+    void testTimedInterceptorIsNotWrappedTwice() {
+        MessageHandlerInterceptor<Message<?>> timed = testSubject.timed(new NamedInterceptor());
+
+        assertSame(timed, testSubject.timed(timed));
+    }
+
+    @Test
+    void testBreakdownIsOmittedWithoutTimedInterceptors() throws Exception {
+        OpenTraceHandlerInterceptor tracingInterceptor =
+                OpenTraceHandlerInterceptor.builder().tracer(mockTracer).build();
+        DefaultUnitOfWork<Message<?>> unitOfWork = new DefaultUnitOfWork<>(new GenericMessage<>("payload"));
+
+        unitOfWork.executeWithResult(() -> new DefaultInterceptorChain<>(
+                unitOfWork, Arrays.asList(tracingInterceptor), message -> "handled"
+        ).proceed());
+
+        assertFalse(mockTracer.finishedSpans().get(0).tags().containsKey(HandlerInterceptorTimer.BREAKDOWN_TAG));
+    }
+
+    private Timer interceptorTimer(String name) {
+        return meterRegistry.get(HandlerInterceptorTimer.INTERCEPTOR_TIMER).tag("interceptor", name).timer();
+    }
+
+    private static class NamedInterceptor implements MessageHandlerInterceptor<Message<?>> {
+
+        @Override
+        public Object handle(UnitOfWork<? extends Message<?>> unitOfWork,
+                             InterceptorChain interceptorChain) throws Exception {
+            return interceptorChain.proceed();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class validating the {@link MessageDeadlines}.
+ */
+class MessageDeadlinesTest {
+
+    @Test
+    void testDeadlineOfReadsNumericAndTextualMetaData() {
+        Instant deadline = Instant.ofEpochMilli(1_000_000L);
+
+        assertEquals(deadline, MessageDeadlines.deadlineOf(commandWithDeadline(1_000_000L)).orElse(null));
+        assertEquals(deadline, MessageDeadlines.deadlineOf(commandWithDeadline("1000000")).orElse(null));
+        assertFalse(MessageDeadlines.deadlineOf(commandWithDeadline("not-a-number")).isPresent());
+        assertFalse(MessageDeadlines.deadlineOf(new GenericCommandMessage<>("payload")).isPresent());
+    }
+
+    @Test
+    void testDeadlineMetaDataKeepsTheEarliestDeadline() {
+        Message<?> command = commandWithDeadline(2000L);
+
+        Map<String, ?> later = MessageDeadlines.deadlineMetaData(command, Instant.ofEpochMilli(3000L));
+        Map<String, ?> earlier = MessageDeadlines.deadlineMetaData(command, Instant.ofEpochMilli(1000L));
+
+        assertTrue(later.isEmpty());
+        assertEquals(1000L, earlier.get(MessageDeadlines.DEADLINE_METADATA_KEY));
+    }
+
+    @Test
+    void testDeadlineMetaDataIsNotSetOnEvents() {
+        Map<String, ?> result = MessageDeadlines.deadlineMetaData(new GenericEventMessage<>("payload"), Instant.now());
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void testCurrentDeadlineAndRemainingBudgetAreReadFromTheUnitOfWork() {
+        assertFalse(MessageDeadlines.currentDeadline().isPresent());
+
+        Instant deadline = Instant.now().plusSeconds(60);
+        UnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(new GenericCommandMessage<>("payload"));
+        try {
+            unitOfWork.resources().put(MessageDeadlines.DEADLINE_RESOURCE_KEY, deadline);
+
+            assertEquals(deadline, MessageDeadlines.currentDeadline().orElse(null));
+            Duration remaining = MessageDeadlines.remainingBudget().orElseThrow(IllegalStateException::new);
+            assertTrue(remaining.compareTo(Duration.ofSeconds(60)) <= 0);
+            assertTrue(remaining.compareTo(Duration.ofSeconds(50)) > 0);
+        } finally {
+            unitOfWork.rollback();
+        }
+    }
+
+    private static Message<?> commandWithDeadline(Object deadline) {
+        return new GenericCommandMessage<>("payload").andMetaData(
+                Collections.singletonMap(MessageDeadlines.DEADLINE_METADATA_KEY, deadline)
+        );
+    }
+}
@@ -20,11 +20,16 @@ import io.opentracing.Scope;
 import io.opentracing.ScopeManager;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
 import org.axonframework.messaging.GenericMessage;
 import org.axonframework.messaging.Message;
 import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
 import org.junit.jupiter.api.*;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.BiFunction;
@@ -67,4 +72,50 @@ class OpenTraceDispatchInterceptorTest {
             assertEquals(String.valueOf(span.context().traceId()), metaData.get("traceid"));
         }
     }
+
+    @Test
+    void testDispatchOfSuppressedMessageLeavesMetaDataUntouched() {
+        OpenTraceDispatchInterceptor testSubject =
+                OpenTraceDispatchInterceptor.builder()
+                                            .tracer(mockTracer)
+                                            .messageFilter(TracingMessageFilter.builder()
+                                                                               .excludes("java.lang.*")
+                                                                               .build())
+                                            .build();
+        MockSpan span = mockTracer.buildSpan("test").start();
+        try (final Scope ignored = mockTracer.scopeManager().activate(span)) {
+            GenericMessage<String> msg = new GenericMessage<>("Payload");
+
+            Message<?> result = testSubject.handle(Collections.singletonList(msg)).apply(0, msg);
+
+            assertSame(msg, result);
+            assertTrue(result.getMetaData().isEmpty());
+        }
+    }
+
+    @Test
+    void testDispatchWhileHandlingPropagatesTheDeadline() {
+        long deadline = Instant.now().plusSeconds(60).toEpochMilli();
+        Message<?> handledCommand = new GenericCommandMessage<>("handled").andMetaData(
+                Collections.singletonMap(MessageDeadlines.DEADLINE_METADATA_KEY, deadline)
+        );
+        DefaultUnitOfWork<Message<?>> unitOfWork = DefaultUnitOfWork.startAndGet(handledCommand);
+        unitOfWork.resources().put(MessageDeadlines.DEADLINE_RESOURCE_KEY, Instant.ofEpochMilli(deadline));
+        try {
+            GenericCommandMessage<String> command = new GenericCommandMessage<>("Payload");
+            GenericCommandMessage<String> earlierCommand = new GenericCommandMessage<>("Payload").andMetaData(
+                    Collections.singletonMap(MessageDeadlines.DEADLINE_METADATA_KEY, deadline - 1000)
+            );
+            GenericEventMessage<String> event = new GenericEventMessage<>("Payload");
+            BiFunction<Integer, Message<?>, Message<?>> handle =
+                    openTraceDispatchInterceptor.handle(Arrays.asList(command, earlierCommand, event));
+
+            assertEquals(deadline, handle.apply(0, command).getMetaData().get(MessageDeadlines.DEADLINE_METADATA_KEY));
+            assertEquals(deadline - 1000,
+                         handle.apply(1, earlierCommand).getMetaData().get(MessageDeadlines.DEADLINE_METADATA_KEY));
+            assertSame(event, handle.apply(2, event));
+        } finally {
+            unitOfWork.rollback();
+        }
+    }
 }
@@ -16,10 +16,12 @@
 
 package org.axonframework.extensions.tracing;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.opentracing.ScopeManager;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
 import io.opentracing.tag.Tags;
+import org.axonframework.commandhandling.GenericCommandMessage;
 import org.axonframework.common.AxonConfigurationException;
 import org.axonframework.eventhandling.GenericDomainEventMessage;
 import org.axonframework.messaging.InterceptorChain;
@@ -27,8 +29,13 @@ import org.axonframework.messaging.Message;
 import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
 import org.junit.jupiter.api.*;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -89,6 +96,196 @@ class OpenTraceHandlerInterceptorTest {
         assertEquals(Tags.SPAN_KIND_SERVER, mockSpan.tags().get(Tags.SPAN_KIND.getKey()));
     }
 
+    @Test
+    void testHandleSuppressedMessageDoesNotCreateSpan() throws Exception {
+        OpenTraceHandlerInterceptor testSubject =
+                OpenTraceHandlerInterceptor.builder()
+                                           .tracer(mockTracer)
+                                           .messageFilter(TracingMessageFilter.builder()
+                                                                              .excludes(MyEvent.class.getName())
+                                                                              .build())
+                                           .build();
+        Message<MyEvent> message = new GenericDomainEventMessage<>("Payload", "aggregate_1", 0, new MyEvent());
+        unitOfWork.transformMessage(m -> message);
+
+        testSubject.handle(unitOfWork, mockInterceptorChain);
+        unitOfWork.start();
+        unitOfWork.commit();
+
+        verify(mockInterceptorChain).proceed();
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+    }
+
+    @Test
+    void testDeadlineOfHandledCommandIsExposedThroughTheUnitOfWork() throws Exception {
+        Instant deadline = Instant.now().plusSeconds(60);
+        AtomicReference<Instant> currentDeadline = new AtomicReference<>();
+        when(mockInterceptorChain.proceed()).thenAnswer(invocation -> {
+            currentDeadline.set(MessageDeadlines.currentDeadline().orElse(null));
+            return null;
+        });
+        unitOfWork.transformMessage(m -> commandWithDeadline(deadline));
+
+        unitOfWork.start();
+        openTraceDispatchInterceptor.handle(unitOfWork, mockInterceptorChain);
+        unitOfWork.commit();
+
+        assertEquals(deadline.toEpochMilli(), currentDeadline.get().toEpochMilli());
+        assertNull(mockTracer.finishedSpans().get(0).tags().get(MessageDeadlines.DEADLINE_EXCEEDED_TAG));
+    }
+
+    @Test
+    void testSpanFinishingAfterDeadlineIsTagged() throws Exception {
+        unitOfWork.transformMessage(m -> commandWithDeadline(Instant.now().minusSeconds(1)));
+
+        openTraceDispatchInterceptor.handle(unitOfWork, mockInterceptorChain);
+        unitOfWork.start();
+        unitOfWork.commit();
+
+        verify(mockInterceptorChain).proceed();
+        assertEquals(true, mockTracer.finishedSpans().get(0).tags().get(MessageDeadlines.DEADLINE_EXCEEDED_TAG));
+    }
+
+    @Test
+    void testExpiredCommandIsRejectedWhenConfigured() throws Exception {
+        OpenTraceHandlerInterceptor testSubject = OpenTraceHandlerInterceptor.builder()
+                                                                             .tracer(mockTracer)
+                                                                             .rejectExpiredMessages(true)
+                                                                             .build();
+        unitOfWork.transformMessage(m -> commandWithDeadline(Instant.now().minusSeconds(1)));
+
+        assertThrows(MessageDeadlineExceededException.class,
+                     () -> testSubject.handle(unitOfWork, mockInterceptorChain));
+        unitOfWork.start();
+        unitOfWork.rollback();
+
+        verify(mockInterceptorChain, never()).proceed();
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals(true, span.tags().get(Tags.ERROR.getKey()));
+        assertEquals(true, span.tags().get(MessageDeadlines.DEADLINE_EXCEEDED_TAG));
+    }
+
+    @Test
+    void testExpiredEventIsNotRejected() throws Exception {
+        OpenTraceHandlerInterceptor testSubject = OpenTraceHandlerInterceptor.builder()
+                                                                             .tracer(mockTracer)
+                                                                             .rejectExpiredMessages(true)
+                                                                             .build();
+        Message<MyEvent> message = new GenericDomainEventMessage<>("Payload", "aggregate_1", 0, new MyEvent())
+                .andMetaData(Collections.singletonMap(MessageDeadlines.DEADLINE_METADATA_KEY, 0L));
+        unitOfWork.transformMessage(m -> message);
+
+        testSubject.handle(unitOfWork, mockInterceptorChain);
+
+        verify(mockInterceptorChain).proceed();
+    }
+
+    @Test
+    void testSpanIsTaggedWithQueueTimeOfCommandsDispatchedThroughTracingCommandBus() throws Exception {
+        // Serialized metadata may turn the dispatch timestamp into a String
+        String dispatchTimestamp = String.valueOf(Instant.now().minusSeconds(2).toEpochMilli());
+        unitOfWork.transformMessage(m -> new GenericCommandMessage<>("payload").andMetaData(
+                Collections.singletonMap(TracingCommandBus.DISPATCH_TIMESTAMP_METADATA_KEY, dispatchTimestamp)
+        ));
+
+        openTraceDispatchInterceptor.handle(unitOfWork, mockInterceptorChain);
+        unitOfWork.start();
+        unitOfWork.commit();
+
+        Object queueTime = mockTracer.finishedSpans().get(0).tags().get(TracingCommandBus.QUEUE_TIME_TAG);
+        assertTrue(((Number) queueTime).longValue() >= 2000);
+    }
+
+    @Test
+    void testUnitOfWorkPhasesAreRecordedWhenConfigured() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OpenTraceHandlerInterceptor testSubject = OpenTraceHandlerInterceptor.builder()
+                                                                             .tracer(mockTracer)
+                                                                             .recordUnitOfWorkPhases(true)
+                                                                             .meterRegistry(meterRegistry)
+                                                                             .build();
+        AtomicReference<List<String>> eventsBeforeOtherAfterCommitHandler = new AtomicReference<>();
+        when(mockInterceptorChain.proceed()).thenAnswer(invocation -> {
+            MockSpan handlerSpan = (MockSpan) mockTracer.activeSpan();
+            unitOfWork.afterCommit(u -> eventsBeforeOtherAfterCommitHandler.set(logEvents(handlerSpan)));
+            return null;
+        });
+        unitOfWork.transformMessage(m -> new GenericCommandMessage<>("payload"));
+
+        unitOfWork.start();
+        testSubject.handle(unitOfWork, mockInterceptorChain);
+        unitOfWork.commit();
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals(Arrays.asList("prepareCommit", "commit", "afterCommit", "cleanup"), logEvents(span));
+        assertEquals(Arrays.asList("prepareCommit", "commit", "afterCommit"),
+                     eventsBeforeOtherAfterCommitHandler.get());
+        long previousTimestamp = span.startMicros();
+        for (MockSpan.LogEntry logEntry : span.logEntries()) {
+            assertTrue(logEntry.timestampMicros() >= previousTimestamp);
+            previousTimestamp = logEntry.timestampMicros();
+        }
+        for (String phase : Arrays.asList("handle", "prepareCommit", "commit", "afterCommit", "cleanup")) {
+            assertEquals(1, meterRegistry.get(OpenTraceHandlerInterceptor.UNIT_OF_WORK_PHASE_TIMER)
+                                         .tag("messageName", "String")
+                                         .tag("phase", phase)
+                                         .timer()
+                                         .count());
+        }
+    }
+
+    @Test
+    void testUnitOfWorkRollbackIsRecordedWhenConfigured() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OpenTraceHandlerInterceptor testSubject = OpenTraceHandlerInterceptor.builder()
+                                                                             .tracer(mockTracer)
+                                                                             .recordUnitOfWorkPhases(true)
+                                                                             .meterRegistry(meterRegistry)
+                                                                             .build();
+        when(mockInterceptorChain.proceed()).thenAnswer(invocation -> {
+            unitOfWork.onPrepareCommit(u -> {
+                throw new IllegalStateException("failure");
+            });
+            return null;
+        });
+        unitOfWork.transformMessage(m -> new GenericCommandMessage<>("payload"));
+
+        unitOfWork.start();
+        testSubject.handle(unitOfWork, mockInterceptorChain);
+        assertThrows(IllegalStateException.class, unitOfWork::commit);
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals(Arrays.asList("prepareCommit", "rollback", "cleanup"), logEvents(span));
+        assertEquals(1, meterRegistry.get(OpenTraceHandlerInterceptor.UNIT_OF_WORK_PHASE_TIMER)
+                                     .tag("phase", "rollback")
+                                     .timer()
+                                     .count());
+    }
+
+    @Test
+    void testUnitOfWorkPhasesAreNotRecordedByDefault() throws Exception {
+        unitOfWork.transformMessage(m -> new GenericCommandMessage<>("payload"));
+
+        unitOfWork.start();
+        openTraceDispatchInterceptor.handle(unitOfWork, mockInterceptorChain);
+        unitOfWork.commit();
+
+        assertTrue(mockTracer.finishedSpans().get(0).logEntries().isEmpty());
+    }
+
+    private static List<String> logEvents(MockSpan span) {
+        return span.logEntries()
+                   .stream()
+                   .map(logEntry -> String.valueOf(logEntry.fields().get("event")))
+                   .collect(Collectors.toList());
+    }
+
+    private static Message<?> commandWithDeadline(Instant deadline) {
+        return new GenericCommandMessage<>("payload").andMetaData(
+                Collections.singletonMap(MessageDeadlines.DEADLINE_METADATA_KEY, deadline.toEpochMilli())
+        );
+    }
+
     @Test
     void testBuildWithNullMessageTagBuilderServiceThrowsAxonConfigurationException() {
         OpenTraceHandlerInterceptor.Builder builder = OpenTraceHandlerInterceptor.builder();
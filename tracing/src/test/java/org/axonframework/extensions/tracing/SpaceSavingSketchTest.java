@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link SpaceSavingSketch}.
+ */
+class SpaceSavingSketchTest {
+
+    @Test
+    void testTrackedIdentifiersAreCountedExactly() {
+        SpaceSavingSketch testSubject = new SpaceSavingSketch(3);
+
+        testSubject.offer("a", 10);
+        testSubject.offer("b", 30);
+        testSubject.offer("a", 15);
+
+        List<ContendedAggregate> top = testSubject.top(3);
+        assertEquals(2, top.size());
+        assertEquals(new ContendedAggregate("b", Duration.ofNanos(30), Duration.ZERO), top.get(0));
+        assertEquals(new ContendedAggregate("a", Duration.ofNanos(25), Duration.ZERO), top.get(1));
+    }
+
+    @Test
+    void testNewIdentifierReplacesSmallestCounterWhenFull() {
+        SpaceSavingSketch testSubject = new SpaceSavingSketch(2);
+
+        testSubject.offer("a", 50);
+        testSubject.offer("b", 10);
+        testSubject.offer("c", 5);
+
+        List<ContendedAggregate> top = testSubject.top(5);
+        assertEquals(2, top.size());
+        assertEquals(new ContendedAggregate("a", Duration.ofNanos(50), Duration.ZERO), top.get(0));
+        assertEquals(new ContendedAggregate("c", Duration.ofNanos(15), Duration.ofNanos(10)), top.get(1));
+    }
+
+    @Test
+    void testHeavyHittersSurviveManyColdIdentifiers() {
+        SpaceSavingSketch testSubject = new SpaceSavingSketch(10);
+
+        for (int i = 0; i < 10_000; i++) {
+            testSubject.offer("cold-" + i, 1);
+            if (i % 10 == 0) {
+                testSubject.offer("hot", 100);
+            }
+            if (i % 20 == 0) {
+                testSubject.offer("warm", 100);
+            }
+        }
+
+        List<ContendedAggregate> top = testSubject.top(2);
+        assertEquals("hot", top.get(0).getAggregateIdentifier());
+        assertEquals("warm", top.get(1).getAggregateIdentifier());
+        assertEquals(10, testSubject.top(Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void testEqualWeightsAreTrackedSeparately() {
+        SpaceSavingSketch testSubject = new SpaceSavingSketch(3);
+
+        testSubject.offer("a", 10);
+        testSubject.offer("b", 10);
+        testSubject.offer("c", 10);
+        testSubject.offer("b", 5);
+
+        List<ContendedAggregate> top = testSubject.top(3);
+        assertEquals(3, top.size());
+        assertEquals("b", top.get(0).getAggregateIdentifier());
+    }
+}
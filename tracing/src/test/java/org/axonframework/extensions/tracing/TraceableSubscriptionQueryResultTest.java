@@ -16,8 +16,12 @@
 
 package org.axonframework.extensions.tracing;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.Registration;
 import org.axonframework.queryhandling.DefaultSubscriptionQueryResult;
 import org.axonframework.queryhandling.SubscriptionQueryResult;
 import org.junit.jupiter.api.*;
@@ -25,6 +29,11 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * Test class for the {@link DefaultSubscriptionQueryResult}.
  *
@@ -65,4 +74,192 @@ class TraceableSubscriptionQueryResultTest {
                     .expectComplete()
                     .verify();
     }
+
+    @Test
+    void testSpanIsAvailableInReactorContext() {
+        Mono<String> initialResult = Mono.deferContextual(
+                contextView -> Mono.just(ReactorTracingContext.currentSpan(contextView).isPresent() ? "span" : "none")
+        );
+        Flux<String> updates = Flux.deferContextual(
+                contextView -> Flux.just(ReactorTracingContext.currentSpan(contextView).isPresent() ? "span" : "none")
+        );
+        Span span = mockTracer.buildSpan("test").start();
+
+        TraceableSubscriptionQueryResult<String, String> testSubject = new TraceableSubscriptionQueryResult<>(
+                new DefaultSubscriptionQueryResult<>(initialResult, updates, () -> true), span
+        );
+
+        StepVerifier.create(testSubject.initialResult())
+                    .expectNext("span")
+                    .expectComplete()
+                    .verify();
+        StepVerifier.create(testSubject.updates())
+                    .expectNext("span")
+                    .expectComplete()
+                    .verify();
+    }
+
+    @Test
+    void testUpdatesAreLoggedPerElementByDefault() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        TraceableSubscriptionQueryResult<String, String> testSubject = new TraceableSubscriptionQueryResult<>(
+                new DefaultSubscriptionQueryResult<>(Mono.empty(), Flux.just("update1", "update2"), () -> true), span
+        );
+
+        StepVerifier.create(testSubject.updates())
+                    .expectNext("update1", "update2")
+                    .verifyComplete();
+        testSubject.close();
+
+        long updateEvents = span.logEntries().stream()
+                                .filter(entry -> "updateReceived".equals(entry.fields().get("event")))
+                                .count();
+        assertEquals(2, updateEvents);
+        assertNull(span.tags().get(ElementTracingPolicy.ELEMENT_COUNT_TAG));
+    }
+
+    @Test
+    void testUpdatesAreAggregatedIntoTagsWhenClosed() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        TraceableSubscriptionQueryResult<String, String> testSubject = new TraceableSubscriptionQueryResult<>(
+                new DefaultSubscriptionQueryResult<>(Mono.empty(), Flux.range(0, 1000).map(String::valueOf), () -> true),
+                span,
+                ElementTracingPolicy.aggregated(),
+                SubscriptionQuerySpanTracker.builder().build()
+        );
+
+        StepVerifier.create(testSubject.updates())
+                    .expectNextCount(1000)
+                    .verifyComplete();
+        testSubject.close();
+
+        assertEquals(1, mockTracer.finishedSpans().size());
+        assertEquals(1000L, span.tags().get(ElementTracingPolicy.ELEMENT_COUNT_TAG));
+        assertNotNull(span.tags().get(ElementTracingPolicy.MAX_INTER_ARRIVAL_GAP_TAG));
+        assertTrue(span.logEntries().stream().noneMatch(entry -> "updateReceived".equals(entry.fields().get("event"))));
+    }
+
+    @Test
+    void testSpanIsFinishedOnceWhenUpdatesComplete() {
+        SubscriptionQuerySpanTracker tracker = SubscriptionQuerySpanTracker.builder().build();
+        MockSpan span = mockTracer.buildSpan("test").start();
+        TraceableSubscriptionQueryResult<String, String> testSubject = new TraceableSubscriptionQueryResult<>(
+                new DefaultSubscriptionQueryResult<>(Mono.just("initial"), Flux.just("update"), () -> true),
+                span, ElementTracingPolicy.perElement(), tracker
+        );
+        assertEquals(1, tracker.openSpans());
+
+        StepVerifier.create(testSubject.updates())
+                    .expectNext("update")
+                    .verifyComplete();
+
+        assertEquals(1, mockTracer.finishedSpans().size());
+        assertEquals(0, tracker.openSpans());
+
+        testSubject.close();
+        assertEquals(1, mockTracer.finishedSpans().size());
+        assertEquals(0, tracker.openSpans());
+    }
+
+    @Test
+    void testSpanIsFinishedWithErrorWhenUpdatesFail() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        TraceableSubscriptionQueryResult<String, String> testSubject = new TraceableSubscriptionQueryResult<>(
+                new DefaultSubscriptionQueryResult<>(
+                        Mono.just("initial"), Flux.error(new IllegalStateException("failure")), () -> true
+                ),
+                span
+        );
+
+        StepVerifier.create(testSubject.updates())
+                    .expectError(IllegalStateException.class)
+                    .verify();
+
+        assertEquals(1, mockTracer.finishedSpans().size());
+        assertEquals(true, span.tags().get(Tags.ERROR.getKey()));
+    }
+
+    @Test
+    void testSpanIsFinishedWithErrorWhenInitialResultFails() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        TraceableSubscriptionQueryResult<String, String> testSubject = new TraceableSubscriptionQueryResult<>(
+                new DefaultSubscriptionQueryResult<>(
+                        Mono.error(new IllegalStateException("failure")), Flux.never(), () -> true
+                ),
+                span
+        );
+
+        StepVerifier.create(testSubject.initialResult())
+                    .expectError(IllegalStateException.class)
+                    .verify();
+
+        assertEquals(1, mockTracer.finishedSpans().size());
+        assertEquals(true, span.tags().get(Tags.ERROR.getKey()));
+    }
+
+    @Test
+    void testAbandonedSpanIsExpiredByTheWatchdog() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SubscriptionQuerySpanTracker tracker = SubscriptionQuerySpanTracker.builder()
+                                                                           .maxSpanDuration(Duration.ofMillis(50))
+                                                                           .meterRegistry(meterRegistry)
+                                                                           .build();
+        MockSpan span = mockTracer.buildSpan("test").start();
+        TraceableSubscriptionQueryResult<String, String> testSubject = new TraceableSubscriptionQueryResult<>(
+                new DefaultSubscriptionQueryResult<>(Mono.just("initial"), Flux.never(), () -> true),
+                span, ElementTracingPolicy.perElement(), tracker
+        );
+        assertEquals(1.0, meterRegistry.get(SubscriptionQuerySpanTracker.OPEN_SPANS_GAUGE).gauge().value());
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (mockTracer.finishedSpans().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, mockTracer.finishedSpans().size());
+        assertEquals(true, span.tags().get(SubscriptionQuerySpanTracker.EXPIRED_TAG));
+        assertEquals(0.0, meterRegistry.get(SubscriptionQuerySpanTracker.OPEN_SPANS_GAUGE).gauge().value());
+
+        testSubject.close();
+        assertEquals(1, mockTracer.finishedSpans().size());
+        tracker.shutdown();
+    }
+
+    @Test
+    void testDefaultTrackerIsShared() {
+        SubscriptionQuerySpanTracker tracker = SubscriptionQuerySpanTracker.defaultTracker();
+        assertSame(tracker, SubscriptionQuerySpanTracker.defaultTracker());
+
+        int openSpans = tracker.openSpans();
+        Registration tracking = tracker.track(() -> {
+        });
+        assertEquals(openSpans + 1, tracker.openSpans());
+
+        assertTrue(tracking.cancel());
+        assertEquals(openSpans, tracker.openSpans());
+    }
+
+    @Test
+    void testSpanExpiredWhileConstructingReleasesItsTracking() {
+        SubscriptionQuerySpanTracker.Builder trackerBuilder = SubscriptionQuerySpanTracker.builder();
+        SubscriptionQuerySpanTracker tracker = new SubscriptionQuerySpanTracker(trackerBuilder) {
+            @Override
+            public Registration track(Runnable expireCallback) {
+                Registration tracking = super.track(expireCallback);
+                expireCallback.run();
+                return tracking;
+            }
+        };
+        MockSpan span = mockTracer.buildSpan("test").start();
+        TraceableSubscriptionQueryResult<String, String> testSubject = new TraceableSubscriptionQueryResult<>(
+                new DefaultSubscriptionQueryResult<>(Mono.just("initial"), Flux.never(), () -> true),
+                span, ElementTracingPolicy.perElement(), tracker
+        );
+
+        assertEquals(1, mockTracer.finishedSpans().size());
+        assertEquals(0, tracker.openSpans());
+
+        testSubject.close();
+        assertEquals(0, tracker.openSpans());
+    }
 }
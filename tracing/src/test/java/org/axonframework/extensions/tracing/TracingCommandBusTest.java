@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.callbacks.FutureCallback;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.axonframework.commandhandling.GenericCommandResultMessage.asCommandResultMessage;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingCommandBus}.
+ */
+class TracingCommandBusTest {
+
+    private CommandBus mockCommandBus;
+    private MockTracer mockTracer;
+
+    private TracingCommandBus testSubject;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        mockCommandBus = mock(CommandBus.class);
+
+        doAnswer(invocation -> {
+            ((CommandCallback) invocation.getArguments()[1])
+                    .onResult((CommandMessage) invocation.getArguments()[0], asCommandResultMessage("result"));
+            return null;
+        }).when(mockCommandBus).dispatch(isA(CommandMessage.class), isA(CommandCallback.class));
+
+        testSubject = TracingCommandBus.builder()
+                                       .tracer(mockTracer)
+                                       .delegateCommandBus(mockCommandBus)
+                                       .build();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    void testDispatchStartsClientSpanAndInjectsItsContext() {
+        MockSpan parentSpan = mockTracer.buildSpan("parent").start();
+        AtomicReference<Object> callbackResult = new AtomicReference<>();
+        try (Scope ignored = mockTracer.activateSpan(parentSpan)) {
+            testSubject.dispatch(asCommandMessage(new MyCommand()),
+                                 (command, result) -> callbackResult.set(result.getPayload()));
+        }
+
+        assertEquals("result", callbackResult.get());
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        MockSpan span = mockSpans.get(0);
+        assertEquals("send_MyCommand", span.operationName());
+        assertEquals(parentSpan.context().spanId(), span.parentId());
+        assertEquals(Tags.SPAN_KIND_CLIENT, span.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals(3, span.logEntries().size());
+
+        ArgumentCaptor<CommandMessage> commandCaptor = ArgumentCaptor.forClass(CommandMessage.class);
+        verify(mockCommandBus).dispatch(commandCaptor.capture(), isA(CommandCallback.class));
+        CommandMessage<?> dispatched = commandCaptor.getValue();
+        assertEquals(String.valueOf(span.context().spanId()), dispatched.getMetaData().get("spanid"));
+        assertEquals(String.valueOf(span.context().traceId()), dispatched.getMetaData().get("traceid"));
+        assertTrue(dispatched.getMetaData().containsKey(TracingCommandBus.DISPATCH_TIMESTAMP_METADATA_KEY));
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    void testDispatchFinishesSpanOnceResultIsReceivedAsynchronously() {
+        reset(mockCommandBus);
+        ArgumentCaptor<CommandMessage> commandCaptor = ArgumentCaptor.forClass(CommandMessage.class);
+        ArgumentCaptor<CommandCallback> callbackCaptor = ArgumentCaptor.forClass(CommandCallback.class);
+
+        testSubject.dispatch(asCommandMessage(new MyCommand()));
+
+        verify(mockCommandBus).dispatch(commandCaptor.capture(), callbackCaptor.capture());
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        callbackCaptor.getValue().onResult(commandCaptor.getValue(), asCommandResultMessage("result"));
+
+        assertEquals(1, mockTracer.finishedSpans().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testDispatchFinishesSpanWhenDispatchFails() {
+        reset(mockCommandBus);
+        doThrow(new IllegalStateException("failure"))
+                .when(mockCommandBus).dispatch(isA(CommandMessage.class), isA(CommandCallback.class));
+
+        assertThrows(IllegalStateException.class, () -> testSubject.dispatch(asCommandMessage(new MyCommand())));
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals(true, mockSpans.get(0).tags().get(Tags.ERROR.getKey()));
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    void testSuppressedCommandIsDispatchedUntouched() {
+        TracingCommandBus filteringSubject =
+                TracingCommandBus.builder()
+                                 .tracer(mockTracer)
+                                 .delegateCommandBus(mockCommandBus)
+                                 .messageFilter(TracingMessageFilter.builder()
+                                                                    .excludes(MyCommand.class.getName())
+                                                                    .build())
+                                 .build();
+        CommandMessage<MyCommand> command = asCommandMessage(new MyCommand());
+        CommandCallback<MyCommand, Object> callback = (c, r) -> {
+        };
+
+        filteringSubject.dispatch(command, callback);
+
+        verify(mockCommandBus).dispatch(command, callback);
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    void testDispatchTimestampIsOmittedWhenQueueTimeIsNotRecorded() {
+        TracingCommandBus untimedSubject = TracingCommandBus.builder()
+                                                            .tracer(mockTracer)
+                                                            .delegateCommandBus(mockCommandBus)
+                                                            .recordQueueTime(false)
+                                                            .build();
+
+        untimedSubject.dispatch(asCommandMessage(new MyCommand()));
+
+        ArgumentCaptor<CommandMessage> commandCaptor = ArgumentCaptor.forClass(CommandMessage.class);
+        verify(mockCommandBus).dispatch(commandCaptor.capture(), isA(CommandCallback.class));
+        assertFalse(commandCaptor.getValue()
+                                 .getMetaData()
+                                 .containsKey(TracingCommandBus.DISPATCH_TIMESTAMP_METADATA_KEY));
+        assertEquals(1, mockTracer.finishedSpans().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSubscriptionsAndInterceptorsAreRegisteredWithTheDelegate() {
+        MessageHandler<CommandMessage<?>> handler = mock(MessageHandler.class);
+        MessageHandlerInterceptor<CommandMessage<?>> handlerInterceptor = mock(MessageHandlerInterceptor.class);
+        MessageDispatchInterceptor<CommandMessage<?>> dispatchInterceptor = mock(MessageDispatchInterceptor.class);
+
+        testSubject.subscribe("myCommand", handler);
+        testSubject.registerHandlerInterceptor(handlerInterceptor);
+        testSubject.registerDispatchInterceptor(dispatchInterceptor);
+
+        verify(mockCommandBus).subscribe("myCommand", handler);
+        verify(mockCommandBus).registerHandlerInterceptor(handlerInterceptor);
+        verify(mockCommandBus).registerDispatchInterceptor(dispatchInterceptor);
+    }
+
+    @Test
+    void testHandlingSpanIsChildOfDispatchSpanAndTaggedWithQueueTime() {
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.registerHandlerInterceptor(OpenTraceHandlerInterceptor.builder().tracer(mockTracer).build());
+        commandBus.subscribe(MyCommand.class.getName(), message -> "handled");
+        TracingCommandBus tracingCommandBus = TracingCommandBus.builder()
+                                                               .tracer(mockTracer)
+                                                               .delegateCommandBus(commandBus)
+                                                               .build();
+        FutureCallback<MyCommand, Object> callback = new FutureCallback<>();
+
+        tracingCommandBus.dispatch(asCommandMessage(new MyCommand()), callback);
+
+        assertEquals("handled", callback.getResult().getPayload());
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(2, mockSpans.size());
+        MockSpan handlerSpan = mockSpans.get(0);
+        MockSpan dispatchSpan = mockSpans.get(1);
+        assertEquals("handle_MyCommand", handlerSpan.operationName());
+        assertEquals("send_MyCommand", dispatchSpan.operationName());
+        assertEquals(dispatchSpan.context().spanId(), handlerSpan.parentId());
+        assertTrue(((Number) handlerSpan.tags().get(TracingCommandBus.QUEUE_TIME_TAG)).longValue() >= 0);
+    }
+
+    @Test
+    void testHandlerInterceptorsAreTimedWhenConfigured() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.subscribe(MyCommand.class.getName(), message -> "handled");
+        TracingCommandBus timingSubject =
+                TracingCommandBus.builder()
+                                 .tracer(mockTracer)
+                                 .delegateCommandBus(commandBus)
+                                 .handlerInterceptorTimer(
+                                         HandlerInterceptorTimer.builder().meterRegistry(meterRegistry).build()
+                                 )
+                                 .build();
+        timingSubject.registerHandlerInterceptor(OpenTraceHandlerInterceptor.builder().tracer(mockTracer).build());
+        timingSubject.registerHandlerInterceptor(new ValidatingInterceptor());
+
+        FutureCallback<Object, Object> callback = new FutureCallback<>();
+        timingSubject.dispatch(asCommandMessage(new MyCommand()), callback);
+
+        assertEquals("handled", callback.getResult().getPayload());
+        assertEquals(1, meterRegistry.get(HandlerInterceptorTimer.INTERCEPTOR_TIMER)
+                                     .tag("interceptor", "ValidatingInterceptor")
+                                     .timer()
+                                     .count());
+        MockSpan handlingSpan = mockTracer.finishedSpans().get(0);
+        assertTrue(handlingSpan.tags().get(HandlerInterceptorTimer.BREAKDOWN_TAG).toString()
+                               .matches("OpenTraceHandlerInterceptor=\\d+,ValidatingInterceptor=\\d+"));
+    }
+
+    @Test
+    void testBuildWithoutTracerThrowsAxonConfigurationException() {
+        TracingCommandBus.Builder builder = TracingCommandBus.builder().delegateCommandBus(mockCommandBus);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuildWithoutDelegateCommandBusThrowsAxonConfigurationException() {
+        TracingCommandBus.Builder builder = TracingCommandBus.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    private static class MyCommand {
+
+    }
+
+    private static class ValidatingInterceptor implements MessageHandlerInterceptor<CommandMessage<?>> {
+
+        @Override
+        public Object handle(UnitOfWork<? extends CommandMessage<?>> unitOfWork,
+                             InterceptorChain interceptorChain) throws Exception {
+            return interceptorChain.proceed();
+        }
+    }
+}
@@ -16,20 +16,32 @@
 
 package org.axonframework.extensions.tracing;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.opentracing.Scope;
 import io.opentracing.ScopeManager;
 import io.opentracing.Span;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
 import org.axonframework.commandhandling.CommandBus;
 import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandExecutionException;
 import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.GenericCommandResultMessage;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.IntervalRetryScheduler;
+import org.axonframework.common.AxonConfigurationException;
 import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.axonframework.commandhandling.GenericCommandResultMessage.asCommandResultMessage;
 import static org.junit.jupiter.api.Assertions.*;
@@ -187,6 +199,232 @@ class TracingCommandGatewayTest {
         assertNull(scopeManager.activeSpan(), "There should be no activeSpan");
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    void testSendWithoutCallbackFinishesSpanOnceResultIsReceivedAsynchronously() throws Exception {
+        reset(mockCommandBus);
+        ArgumentCaptor<CommandMessage> commandCaptor = ArgumentCaptor.forClass(CommandMessage.class);
+        ArgumentCaptor<CommandCallback> callbackCaptor = ArgumentCaptor.forClass(CommandCallback.class);
+
+        CompletableFuture<Object> future = testSubject.send(new MyCommand());
+
+        verify(mockCommandBus).dispatch(commandCaptor.capture(), callbackCaptor.capture());
+        assertFalse(future.isDone());
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        callbackCaptor.getValue().onResult(commandCaptor.getValue(), asCommandResultMessage("result"));
+
+        assertEquals("result", future.get());
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals("send_MyCommand", mockSpans.get(0).operationName());
+        assertEquals(2, mockSpans.get(0).logEntries().size());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    void testSendWithoutCallbackCompletesExceptionallyOnExceptionalResult() {
+        reset(mockCommandBus);
+        IllegalStateException exception = new IllegalStateException("failure");
+        doAnswer(invocation -> {
+            ((CommandCallback) invocation.getArguments()[1])
+                    .onResult((CommandMessage) invocation.getArguments()[0], asCommandResultMessage(exception));
+            return null;
+        }).when(mockCommandBus).dispatch(isA(CommandMessage.class), isA(CommandCallback.class));
+
+        CompletableFuture<Object> future = testSubject.send(new MyCommand());
+
+        assertTrue(future.isCompletedExceptionally());
+        ExecutionException result = assertThrows(ExecutionException.class, future::get);
+        assertSame(exception, result.getCause());
+        assertEquals(1, mockTracer.finishedSpans().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSendFinishesSpanWhenDispatchFails() {
+        reset(mockCommandBus);
+        doThrow(new IllegalStateException("failure"))
+                .when(mockCommandBus).dispatch(isA(CommandMessage.class), isA(CommandCallback.class));
+
+        assertThrows(IllegalStateException.class, () -> testSubject.send(new MyCommand()));
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals(true, mockSpans.get(0).tags().get(Tags.ERROR.getKey()));
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @Test
+    void testVirtualThreadAwareSendAndWaitFinishesSpanOnCallingThread() {
+        TracingCommandGateway virtualThreadAwareSubject = TracingCommandGateway.builder()
+                                                                               .tracer(mockTracer)
+                                                                               .delegateCommandBus(mockCommandBus)
+                                                                               .virtualThreadAware(true)
+                                                                               .build();
+        MockSpan span = mockTracer.buildSpan("test").start();
+        ScopeManager scopeManager = mockTracer.scopeManager();
+        try (final Scope ignored = scopeManager.activate(span)) {
+
+            Object result = virtualThreadAwareSubject.sendAndWait(new MyCommand());
+
+            assertEquals("result", result);
+            assertEquals(span, mockTracer.activeSpan());
+
+            List<MockSpan> mockSpans = mockTracer.finishedSpans();
+            assertEquals(1, mockSpans.size());
+            assertEquals("sendAndWait_MyCommand", mockSpans.get(0).operationName());
+            assertEquals(span.context().spanId(), mockSpans.get(0).parentId());
+            List<MockSpan.LogEntry> logEntries = mockSpans.get(0).logEntries();
+            assertEquals(2, logEntries.size());
+            assertEquals("dispatchComplete", logEntries.get(0).fields().get("event"));
+            assertEquals("resultReceived", logEntries.get(1).fields().get("event"));
+        }
+        assertNull(scopeManager.activeSpan(), "There should be no activeSpan");
+    }
+
+    @Test
+    void testVirtualThreadAwareSendAndWaitFinishesSpanOnTimeout() {
+        reset(mockCommandBus);
+        TracingCommandGateway virtualThreadAwareSubject = TracingCommandGateway.builder()
+                                                                               .tracer(mockTracer)
+                                                                               .delegateCommandBus(mockCommandBus)
+                                                                               .virtualThreadAware(true)
+                                                                               .build();
+
+        assertThrows(CommandExecutionException.class,
+                     () -> virtualThreadAwareSubject.sendAndWait(new MyCommand(), 10, TimeUnit.MILLISECONDS));
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals(true, mockSpans.get(0).tags().get(Tags.ERROR.getKey()));
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    void testSendAndWaitWithTimeoutPropagatesDeadline() {
+        ArgumentCaptor<CommandMessage> commandCaptor = ArgumentCaptor.forClass(CommandMessage.class);
+        long before = System.currentTimeMillis();
+
+        testSubject.sendAndWait(new MyCommand(), 10, TimeUnit.SECONDS);
+
+        verify(mockCommandBus).dispatch(commandCaptor.capture(), isA(CommandCallback.class));
+        long deadline = (long) commandCaptor.getValue().getMetaData().get(MessageDeadlines.DEADLINE_METADATA_KEY);
+        assertTrue(deadline >= before + 10_000 && deadline <= System.currentTimeMillis() + 10_000);
+        assertNull(mockTracer.finishedSpans().get(0).tags().get(MessageDeadlines.DEADLINE_EXCEEDED_TAG));
+    }
+
+    @Test
+    void testRetriesAreLoggedOnSendSpan() throws ExecutionException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        List<Span> dispatchingSpans = new ArrayList<>();
+        failFirstDispatches(2, dispatchingSpans);
+        TracingCommandGateway retryingSubject = retryingGateway(2, meterRegistry);
+
+        CompletableFuture<Object> future = retryingSubject.send(new MyCommand());
+
+        assertEquals("result", future.get());
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        MockSpan sendSpan = mockSpans.get(0);
+        List<Map<String, ?>> retries = retryEvents(sendSpan, "commandRetry");
+        assertEquals(2, retries.size());
+        assertEquals(1, retries.get(0).get(TracingCommandGateway.RETRY_ATTEMPT_FIELD));
+        assertEquals(2, retries.get(1).get(TracingCommandGateway.RETRY_ATTEMPT_FIELD));
+        assertEquals(IllegalStateException.class.getName(),
+                     retries.get(0).get(TracingCommandGateway.RETRY_CAUSE_FIELD));
+        assertNotNull(retries.get(0).get(TracingCommandGateway.RETRY_BACKOFF_FIELD));
+        // The retried dispatches run with the span of the sent command active
+        assertEquals(3, dispatchingSpans.size());
+        assertSame(sendSpan, dispatchingSpans.get(1));
+        assertSame(sendSpan, dispatchingSpans.get(2));
+
+        String commandName = MyCommand.class.getName();
+        assertEquals(1, meterRegistry.get(TracingCommandGateway.RETRY_AMPLIFICATION_COUNTER)
+                                     .tag("commandName", commandName)
+                                     .tag("dispatch", "initial")
+                                     .counter()
+                                     .count());
+        assertEquals(2, meterRegistry.get(TracingCommandGateway.RETRY_AMPLIFICATION_COUNTER)
+                                     .tag("commandName", commandName)
+                                     .tag("dispatch", "retry")
+                                     .counter()
+                                     .count());
+    }
+
+    @Test
+    void testExhaustedRetriesAreLoggedOnSendAndWaitSpan() {
+        failFirstDispatches(Integer.MAX_VALUE, new ArrayList<>());
+        TracingCommandGateway retryingSubject = retryingGateway(1, new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, () -> retryingSubject.sendAndWait(new MyCommand()));
+
+        MockSpan sendSpan = mockTracer.finishedSpans().get(0);
+        assertEquals("sendAndWait_MyCommand", sendSpan.operationName());
+        assertEquals(1, retryEvents(sendSpan, "commandRetry").size());
+        List<Map<String, ?>> exhausted = retryEvents(sendSpan, "retriesExhausted");
+        assertEquals(1, exhausted.size());
+        assertEquals(2, exhausted.get(0).get(TracingCommandGateway.RETRY_ATTEMPT_FIELD));
+    }
+
+    @Test
+    void testRetrySchedulerRequiresDelegateCommandBus() {
+        IntervalRetryScheduler retryScheduler =
+                IntervalRetryScheduler.builder().retryExecutor(mock(ScheduledExecutorService.class)).build();
+        TracingCommandGateway.Builder builder = TracingCommandGateway.builder()
+                                                                     .tracer(mockTracer)
+                                                                     .delegateCommandGateway(mock(CommandGateway.class))
+                                                                     .retryScheduler(retryScheduler);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void failFirstDispatches(int failures, List<Span> dispatchingSpans) {
+        reset(mockCommandBus);
+        AtomicInteger dispatches = new AtomicInteger();
+        doAnswer(invocation -> {
+            dispatchingSpans.add(mockTracer.activeSpan());
+            //noinspection rawtypes
+            ((CommandCallback<?, ?>) invocation.getArguments()[1]).onResult(
+                    (CommandMessage) invocation.getArguments()[0],
+                    dispatches.getAndIncrement() < failures
+                            ? GenericCommandResultMessage.asCommandResultMessage(new IllegalStateException("busy"))
+                            : asCommandResultMessage("result")
+            );
+            return null;
+        }).when(mockCommandBus).dispatch(isA(CommandMessage.class), isA(CommandCallback.class));
+    }
+
+    private TracingCommandGateway retryingGateway(int maxRetryCount, SimpleMeterRegistry meterRegistry) {
+        ScheduledExecutorService retryExecutor = mock(ScheduledExecutorService.class);
+        when(retryExecutor.schedule(isA(Runnable.class), anyLong(), any())).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return null;
+        });
+        return TracingCommandGateway.builder()
+                                    .tracer(mockTracer)
+                                    .delegateCommandBus(mockCommandBus)
+                                    .retryScheduler(IntervalRetryScheduler.builder()
+                                                                          .retryExecutor(retryExecutor)
+                                                                          .maxRetryCount(maxRetryCount)
+                                                                          .retryInterval(10)
+                                                                          .build())
+                                    .meterRegistry(meterRegistry)
+                                    .build();
+    }
+
+    private static List<Map<String, ?>> retryEvents(MockSpan span, String event) {
+        List<Map<String, ?>> events = new ArrayList<>();
+        for (MockSpan.LogEntry logEntry : span.logEntries()) {
+            if (event.equals(logEntry.fields().get("event"))) {
+                events.add(logEntry.fields());
+            }
+        }
+        return events;
+    }
+
     private static class MyCommand {
 
     }
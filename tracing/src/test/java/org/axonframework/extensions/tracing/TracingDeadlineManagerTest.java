@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.References;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.deadline.DeadlineMessage;
+import org.axonframework.deadline.SimpleDeadlineManager;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.ScopeAware;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.junit.jupiter.api.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingDeadlineManager}.
+ */
+class TracingDeadlineManagerTest {
+
+    private MockTracer mockTracer;
+    private SimpleMeterRegistry meterRegistry;
+    private List<Runnable> scheduledTasks;
+    private ScopeDescriptor scope;
+    private List<DeadlineMessage<?>> triggeredDeadlines;
+    private List<Span> activeSpans;
+
+    private TracingDeadlineManager testSubject;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        meterRegistry = new SimpleMeterRegistry();
+        scheduledTasks = new ArrayList<>();
+        scope = mock(ScopeDescriptor.class);
+        triggeredDeadlines = new ArrayList<>();
+        activeSpans = new ArrayList<>();
+
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            scheduledTasks.add(invocation.getArgument(0));
+            return mock(ScheduledFuture.class);
+        });
+        ScopeAware deadlineHandler = new ScopeAware() {
+            @Override
+            public void send(Message<?> message, ScopeDescriptor scopeDescription) {
+                triggeredDeadlines.add((DeadlineMessage<?>) message);
+                activeSpans.add(mockTracer.activeSpan());
+            }
+
+            @Override
+            public boolean canResolve(ScopeDescriptor scopeDescription) {
+                return true;
+            }
+        };
+        SimpleDeadlineManager delegate = SimpleDeadlineManager.builder()
+                                                              .scopeAwareProvider(s -> Stream.of(deadlineHandler))
+                                                              .scheduledExecutorService(scheduler)
+                                                              .build();
+
+        testSubject = TracingDeadlineManager.builder()
+                                            .tracer(mockTracer)
+                                            .delegateDeadlineManager(delegate)
+                                            .meterRegistry(meterRegistry)
+                                            .build();
+    }
+
+    @Test
+    void testSchedulingIsTracedAsChildOfActiveSpan() {
+        MockSpan handlerSpan = mockTracer.buildSpan("handle_PlaceOrder").start();
+        String scheduleId;
+        try (Scope ignored = mockTracer.activateSpan(handlerSpan)) {
+            scheduleId = testSubject.schedule(Instant.now().plusSeconds(60), "paymentDue", "payload", scope);
+        }
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        MockSpan schedulingSpan = finishedSpans.get(0);
+        assertEquals("scheduleDeadline_paymentDue", schedulingSpan.operationName());
+        assertEquals(handlerSpan.context().spanId(), schedulingSpan.parentId());
+        assertEquals(Tags.SPAN_KIND_PRODUCER, schedulingSpan.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals("paymentDue", schedulingSpan.tags().get(TracingDeadlineManager.DEADLINE_NAME_TAG));
+        assertEquals(scheduleId, schedulingSpan.tags().get(TracingDeadlineManager.SCHEDULE_ID_TAG));
+        assertNotNull(schedulingSpan.tags().get(TracingDeadlineManager.TRIGGER_TIMESTAMP_TAG));
+    }
+
+    @Test
+    void testTriggeredDeadlineFollowsFromSchedulingSpan() {
+        Instant triggerDateTime = Instant.now().plusSeconds(60);
+        testSubject.schedule(triggerDateTime, "paymentDue", "payload", scope);
+        MockSpan schedulingSpan = mockTracer.finishedSpans().get(0);
+
+        scheduledTasks.forEach(Runnable::run);
+
+        assertEquals(1, triggeredDeadlines.size());
+        DeadlineMessage<?> deadlineMessage = triggeredDeadlines.get(0);
+        assertEquals("payload", deadlineMessage.getPayload());
+        assertEquals(triggerDateTime.toEpochMilli(),
+                     deadlineMessage.getMetaData().get(TracingDeadlineManager.TRIGGER_TIMESTAMP_METADATA_KEY));
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(2, finishedSpans.size());
+        MockSpan deadlineSpan = finishedSpans.get(1);
+        assertEquals("deadline_paymentDue", deadlineSpan.operationName());
+        assertEquals(Tags.SPAN_KIND_CONSUMER, deadlineSpan.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals(schedulingSpan.context().traceId(), deadlineSpan.context().traceId());
+        assertEquals(1, deadlineSpan.references().size());
+        assertEquals(References.FOLLOWS_FROM, deadlineSpan.references().get(0).getReferenceType());
+        assertEquals(schedulingSpan.context().spanId(), deadlineSpan.references().get(0).getContext().spanId());
+        assertSame(deadlineSpan, activeSpans.get(0));
+    }
+
+    @Test
+    void testTriggerLagIsTaggedAndRecordedPerDeadlineName() {
+        testSubject.schedule(Instant.now().minusSeconds(5), "paymentDue", "payload", scope);
+
+        scheduledTasks.forEach(Runnable::run);
+
+        MockSpan deadlineSpan = mockTracer.finishedSpans().get(1);
+        long lagMillis = (long) deadlineSpan.tags().get(TracingDeadlineManager.TRIGGER_LAG_TAG);
+        assertTrue(lagMillis >= 5000, "Unexpected lag of " + lagMillis + "ms");
+        Timer triggerLag = meterRegistry.get(TracingDeadlineManager.TRIGGER_LAG_TIMER)
+                                        .tag("deadlineName", "paymentDue")
+                                        .timer();
+        assertEquals(1, triggerLag.count());
+        assertTrue(triggerLag.totalTime(TimeUnit.MILLISECONDS) >= 5000);
+    }
+
+    @Test
+    void testTriggerLagTimerIsReusedPerDeadlineName() {
+        testSubject.schedule(Instant.now(), "paymentDue", "payload", scope);
+        testSubject.schedule(Instant.now(), "paymentDue", "payload", scope);
+
+        scheduledTasks.forEach(Runnable::run);
+
+        assertEquals(1, meterRegistry.find(TracingDeadlineManager.TRIGGER_LAG_TIMER).timers().size());
+        assertEquals(2, meterRegistry.get(TracingDeadlineManager.TRIGGER_LAG_TIMER).timer().count());
+    }
+
+    @Test
+    void testDeadlineScheduledWithoutTracingStartsNewTrace() {
+        testSubject.getDelegate().schedule(Instant.now(), "paymentDue", "payload", scope);
+
+        scheduledTasks.forEach(Runnable::run);
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        MockSpan deadlineSpan = finishedSpans.get(0);
+        assertEquals("deadline_paymentDue", deadlineSpan.operationName());
+        assertTrue(deadlineSpan.references().isEmpty());
+        assertNull(deadlineSpan.tags().get(TracingDeadlineManager.TRIGGER_LAG_TAG));
+        assertTrue(meterRegistry.find(TracingDeadlineManager.TRIGGER_LAG_TIMER).timers().isEmpty());
+    }
+
+    @Test
+    void testBuildWithoutDelegateThrowsAxonConfigurationException() {
+        TracingDeadlineManager.Builder builder = TracingDeadlineManager.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.axonframework.eventhandling.GenericEventMessage.asEventMessage;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingEventStorageEngine}.
+ */
+class TracingEventStorageEngineTest {
+
+    private static final String AGGREGATE_ID = "aggregateId";
+
+    private MockTracer mockTracer;
+
+    private TracingEventStorageEngine testSubject;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+
+        testSubject = TracingEventStorageEngine.builder()
+                                               .tracer(mockTracer)
+                                               .delegateStorageEngine(new InMemoryEventStorageEngine())
+                                               .serializer(XStreamSerializer.defaultSerializer())
+                                               .build();
+    }
+
+    @Test
+    void testAppendEventsIsTracedAsChildOfActiveSpan() {
+        MockSpan parentSpan = mockTracer.buildSpan("parent").start();
+        try (Scope ignored = mockTracer.activateSpan(parentSpan)) {
+            testSubject.appendEvents(domainEvent(0), domainEvent(1));
+        }
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals("appendEvents", span.operationName());
+        assertEquals(parentSpan.context().spanId(), span.parentId());
+        assertEquals(Tags.SPAN_KIND_CLIENT, span.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals(2L, span.tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+        assertTrue((Long) span.tags().get(TracingEventStorageEngine.SERIALIZED_BYTES_TAG) > 0);
+    }
+
+    @Test
+    void testAppendEventsDuringCommitIsTracedAsChildOfHandlerSpan() {
+        MockSpan handlerSpan = mockTracer.buildSpan("handle").start();
+        UnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(asEventMessage("handled"));
+        unitOfWork.resources().put(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY, handlerSpan);
+        unitOfWork.onPrepareCommit(u -> testSubject.appendEvents(domainEvent(0)));
+
+        unitOfWork.commit();
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals("appendEvents", span.operationName());
+        assertEquals(handlerSpan.context().spanId(), span.parentId());
+    }
+
+    @Test
+    void testSerializedSizeIsOmittedWithoutSerializer() {
+        TracingEventStorageEngine unsizedSubject =
+                TracingEventStorageEngine.builder()
+                                         .tracer(mockTracer)
+                                         .delegateStorageEngine(new InMemoryEventStorageEngine())
+                                         .build();
+
+        unsizedSubject.appendEvents(domainEvent(0));
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals(1L, span.tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+        assertFalse(span.tags().containsKey(TracingEventStorageEngine.SERIALIZED_BYTES_TAG));
+    }
+
+    @Test
+    void testReadEventsSpanFinishesOnceTheStreamIsConsumed() {
+        testSubject.appendEvents(domainEvent(0), domainEvent(1), domainEvent(2));
+        mockTracer.reset();
+
+        DomainEventStream events = testSubject.readEvents(AGGREGATE_ID);
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+        int read = 0;
+        while (events.hasNext()) {
+            events.next();
+            read++;
+        }
+
+        assertEquals(3, read);
+        assertEquals(2L, events.getLastSequenceNumber());
+        List<MockSpan> spans = mockTracer.finishedSpans();
+        assertEquals(1, spans.size());
+        assertEquals("readEvents", spans.get(0).operationName());
+        assertEquals(AGGREGATE_ID, spans.get(0).tags().get(TracingEventStorageEngine.AGGREGATE_IDENTIFIER_TAG));
+        assertEquals(3L, spans.get(0).tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+    }
+
+    @Test
+    void testStreamingReadIsSummarizedPerBatch() {
+        testSubject = TracingEventStorageEngine.builder()
+                                               .tracer(mockTracer)
+                                               .delegateStorageEngine(new InMemoryEventStorageEngine())
+                                               .serializer(XStreamSerializer.defaultSerializer())
+                                               .streamBatchSize(2)
+                                               .build();
+        testSubject.appendEvents(domainEvent(0), domainEvent(1), domainEvent(2));
+        mockTracer.reset();
+
+        List<? extends TrackedEventMessage<?>> events;
+        try (Stream<? extends TrackedEventMessage<?>> stream = testSubject.readEvents(null, false)) {
+            events = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(3, events.size());
+        List<MockSpan> spans = mockTracer.finishedSpans();
+        assertEquals(2, spans.size());
+        assertEquals("readEventStream", spans.get(0).operationName());
+        assertEquals(2L, spans.get(0).tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+        assertTrue((Long) spans.get(0).tags().get(TracingEventStorageEngine.SERIALIZED_BYTES_TAG) > 0);
+        assertNotNull(spans.get(0).tags().get(TracingEventStorageEngine.FETCH_TIME_TAG));
+        assertEquals("readEventStream", spans.get(1).operationName());
+        assertEquals(1L, spans.get(1).tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+    }
+
+    @Test
+    void testStreamingReadSpanFinishesWhenStreamIsClosedEarly() {
+        testSubject.appendEvents(domainEvent(0), domainEvent(1), domainEvent(2));
+        mockTracer.reset();
+
+        Stream<? extends TrackedEventMessage<?>> stream = testSubject.readEvents(null, false);
+        assertTrue(stream.findFirst().isPresent());
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+        stream.close();
+
+        List<MockSpan> spans = mockTracer.finishedSpans();
+        assertEquals(1, spans.size());
+        assertEquals(1L, spans.get(0).tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+    }
+
+    @Test
+    void testBlockingStreamingReadIsTracedPerBatch() {
+        testSubject.appendEvents(domainEvent(0), domainEvent(1));
+        mockTracer.reset();
+
+        try (Stream<? extends TrackedEventMessage<?>> stream = testSubject.readEvents(null, true)) {
+            assertTrue(stream.findFirst().isPresent());
+            assertTrue(mockTracer.finishedSpans().isEmpty());
+        }
+
+        List<MockSpan> spans = mockTracer.finishedSpans();
+        assertEquals(1, spans.size());
+        assertEquals("readEventStream", spans.get(0).operationName());
+        assertEquals(1L, spans.get(0).tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+    }
+
+    @Test
+    void testFailingStreamingReadMarksBatchAsErroneous() {
+        EventStorageEngine failingEngine = mock(EventStorageEngine.class);
+        when(failingEngine.readEvents(null, true)).thenAnswer(invocation -> Stream.generate(() -> {
+            throw new IllegalStateException("unavailable");
+        }));
+        TracingEventStorageEngine failingSubject = TracingEventStorageEngine.builder()
+                                                                            .tracer(mockTracer)
+                                                                            .delegateStorageEngine(failingEngine)
+                                                                            .build();
+
+        try (Stream<? extends TrackedEventMessage<?>> stream = failingSubject.readEvents(null, true)) {
+            assertThrows(IllegalStateException.class, stream::findFirst);
+        }
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals(true, span.tags().get(Tags.ERROR.getKey()));
+        assertEquals(0L, span.tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+    }
+
+    @Test
+    void testSnapshotsAreTraced() {
+        assertFalse(testSubject.readSnapshot(AGGREGATE_ID).isPresent());
+        testSubject.storeSnapshot(domainEvent(5));
+        assertTrue(testSubject.readSnapshot(AGGREGATE_ID).isPresent());
+
+        List<MockSpan> spans = mockTracer.finishedSpans();
+        assertEquals(Arrays.asList("readSnapshot", "storeSnapshot", "readSnapshot"),
+                     spans.stream().map(MockSpan::operationName).collect(Collectors.toList()));
+        assertEquals(false, spans.get(0).tags().get(TracingEventStorageEngine.SNAPSHOT_FOUND_TAG));
+        assertEquals(0L, spans.get(0).tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+        assertEquals(1L, spans.get(1).tags().get(TracingEventStorageEngine.EVENT_COUNT_TAG));
+        assertEquals(true, spans.get(2).tags().get(TracingEventStorageEngine.SNAPSHOT_FOUND_TAG));
+        assertEquals(AGGREGATE_ID, spans.get(2).tags().get(TracingEventStorageEngine.AGGREGATE_IDENTIFIER_TAG));
+    }
+
+    @Test
+    void testReadSpanIsActiveWhileDelegatePreparesTheStream() {
+        EventStorageEngine mockEngine = mock(EventStorageEngine.class);
+        List<String> activeSpans = new ArrayList<>();
+        when(mockEngine.readEvents(AGGREGATE_ID, 0)).thenAnswer(invocation -> {
+            activeSpans.add(((MockSpan) mockTracer.activeSpan()).operationName());
+            return DomainEventStream.empty();
+        });
+        TracingEventStorageEngine subject = TracingEventStorageEngine.builder()
+                                                                     .tracer(mockTracer)
+                                                                     .delegateStorageEngine(mockEngine)
+                                                                     .build();
+
+        subject.readEvents(AGGREGATE_ID, 0);
+
+        assertEquals(Collections.singletonList("readEvents"), activeSpans);
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @Test
+    void testFailingAppendMarksSpanAsErroneous() {
+        EventStorageEngine failingEngine = mock(EventStorageEngine.class);
+        doThrow(new IllegalStateException("unavailable")).when(failingEngine).appendEvents(anyList());
+        TracingEventStorageEngine failingSubject = TracingEventStorageEngine.builder()
+                                                                            .tracer(mockTracer)
+                                                                            .delegateStorageEngine(failingEngine)
+                                                                            .build();
+
+        assertThrows(IllegalStateException.class, () -> failingSubject.appendEvents(domainEvent(0)));
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals(true, span.tags().get(Tags.ERROR.getKey()));
+    }
+
+    @Test
+    void testBuildWithoutTracerThrowsAxonConfigurationException() {
+        TracingEventStorageEngine.Builder builder =
+                TracingEventStorageEngine.builder().delegateStorageEngine(new InMemoryEventStorageEngine());
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuildWithoutDelegateStorageEngineThrowsAxonConfigurationException() {
+        TracingEventStorageEngine.Builder builder = TracingEventStorageEngine.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuildWithNonPositiveStreamBatchSizeThrowsAxonConfigurationException() {
+        TracingEventStorageEngine.Builder builder = TracingEventStorageEngine.builder();
+
+        assertThrows(AxonConfigurationException.class, () -> builder.streamBatchSize(0));
+    }
+
+    private static DomainEventMessage<?> domainEvent(long sequenceNumber) {
+        return new GenericDomainEventMessage<>("aggregate", AGGREGATE_ID, sequenceNumber, "event-" + sequenceNumber);
+    }
+}
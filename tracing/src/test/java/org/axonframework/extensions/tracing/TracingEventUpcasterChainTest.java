@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link TracingEventUpcasterChain}.
+ */
+class TracingEventUpcasterChainTest {
+
+    private static final String ORDER_PLACED = "OrderPlaced";
+
+    private final Serializer serializer = XStreamSerializer.defaultSerializer();
+
+    private MockTracer mockTracer;
+    private SimpleMeterRegistry meterRegistry;
+
+    private TracingEventUpcasterChain testSubject;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        meterRegistry = new SimpleMeterRegistry();
+
+        testSubject = TracingEventUpcasterChain.builder()
+                                               .tracer(mockTracer)
+                                               .upcasters(new RevisionUpcaster(), new PassThroughUpcaster())
+                                               .meterRegistry(meterRegistry)
+                                               .build();
+    }
+
+    @Test
+    void testEventsAreUpcastByTheChainedUpcasters() {
+        List<String> upcastPayloads = testSubject.upcast(Stream.of(event("1"), event("2")))
+                                                 .map(ir -> ir.getData(String.class).getData())
+                                                 .collect(Collectors.toList());
+
+        assertEquals(2, upcastPayloads.size());
+        upcastPayloads.forEach(payload -> assertEquals("<order revision=\"1\"/>", payload));
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+    }
+
+    @Test
+    void testUpcastersAreMeasuredPerEventType() {
+        readFully(testSubject.upcast(Stream.of(event("1"), event("2"))));
+
+        assertEquals(2, meterRegistry.get(TracingEventUpcasterChain.CREATED_REPRESENTATIONS_COUNTER)
+                                     .tag("upcaster", "RevisionUpcaster")
+                                     .tag("eventType", ORDER_PLACED)
+                                     .counter()
+                                     .count());
+        assertTrue(meterRegistry.get(TracingEventUpcasterChain.UPCASTER_TIMER)
+                                .tag("upcaster", "RevisionUpcaster")
+                                .tag("eventType", ORDER_PLACED)
+                                .timer()
+                                .count() >= 2);
+        assertNull(meterRegistry.find(TracingEventUpcasterChain.CREATED_REPRESENTATIONS_COUNTER)
+                                .tag("upcaster", "PassThroughUpcaster")
+                                .counter());
+    }
+
+    @Test
+    void testSummaryIsLoggedOnActiveSpanOnceStreamIsConsumed() {
+        MockSpan span = mockTracer.buildSpan("readEvents").start();
+        Stream<IntermediateEventRepresentation> upcast;
+        try (Scope ignored = mockTracer.activateSpan(span)) {
+            upcast = testSubject.upcast(Stream.of(event("1"), event("2"), event("3")));
+        }
+        assertTrue(span.logEntries().isEmpty());
+
+        readFully(upcast);
+        upcast.close();
+
+        List<MockSpan.LogEntry> logEntries = span.logEntries();
+        assertEquals(1, logEntries.size());
+        Map<String, ?> fields = logEntries.get(0).fields();
+        assertEquals("upcasterChain", fields.get("event"));
+        assertEquals(3L, fields.get(TracingEventUpcasterChain.EVENT_COUNT_FIELD));
+        assertEquals("RevisionUpcaster=3,PassThroughUpcaster=0",
+                     fields.get(TracingEventUpcasterChain.CREATED_BREAKDOWN_FIELD));
+        String timeBreakdown = (String) fields.get(TracingEventUpcasterChain.TIME_BREAKDOWN_FIELD);
+        assertTrue(timeBreakdown.matches("RevisionUpcaster=\\d+,PassThroughUpcaster=0"), timeBreakdown);
+    }
+
+    @Test
+    void testSummaryIsLoggedWhenStreamIsClosedEarly() {
+        MockSpan span = mockTracer.buildSpan("readEvents").start();
+        Stream<IntermediateEventRepresentation> upcast;
+        try (Scope ignored = mockTracer.activateSpan(span)) {
+            upcast = testSubject.upcast(Stream.of(event("1"), event("2")));
+        }
+
+        Iterator<IntermediateEventRepresentation> iterator = upcast.iterator();
+        iterator.next().getData(String.class);
+        upcast.close();
+
+        assertEquals(1, span.logEntries().size());
+        assertEquals(1L, span.logEntries().get(0).fields().get(TracingEventUpcasterChain.EVENT_COUNT_FIELD));
+    }
+
+    @Test
+    void testLazyUpcastingIsTaggedOnTheSpanOfTheHandler() {
+        List<IntermediateEventRepresentation> upcast =
+                testSubject.upcast(Stream.of(event("1"), event("2"))).collect(Collectors.toList());
+        MockSpan handlerSpan = mockTracer.buildSpan("handle_OrderPlaced").start();
+
+        DefaultUnitOfWork<GenericMessage<String>> unitOfWork = DefaultUnitOfWork.startAndGet(
+                new GenericMessage<>("event")
+        );
+        unitOfWork.resources().put(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY, handlerSpan);
+        upcast.forEach(ir -> ir.getData(String.class).getData());
+        unitOfWork.commit();
+
+        String timeBreakdown = (String) handlerSpan.tags().get(TracingEventUpcasterChain.HANDLER_TIME_TAG);
+        assertNotNull(timeBreakdown);
+        assertTrue(timeBreakdown.matches("RevisionUpcaster=\\d+,PassThroughUpcaster=0"), timeBreakdown);
+    }
+
+    @Test
+    void testSummaryIsLoggedWithoutMeterRegistry() {
+        testSubject = TracingEventUpcasterChain.builder()
+                                               .tracer(mockTracer)
+                                               .upcasters(new RevisionUpcaster())
+                                               .build();
+        MockSpan span = mockTracer.buildSpan("readEvents").start();
+        Stream<IntermediateEventRepresentation> upcast;
+        try (Scope ignored = mockTracer.activateSpan(span)) {
+            upcast = testSubject.upcast(Stream.of(event("1")));
+        }
+
+        readFully(upcast);
+        upcast.close();
+
+        assertEquals("RevisionUpcaster=1",
+                     span.logEntries().get(0).fields().get(TracingEventUpcasterChain.CREATED_BREAKDOWN_FIELD));
+    }
+
+    @Test
+    void testBuildWithoutTracerThrowsAxonConfigurationException() {
+        TracingEventUpcasterChain.Builder builder = TracingEventUpcasterChain.builder();
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    private static void readFully(Stream<IntermediateEventRepresentation> upcast) {
+        // Reads the data of every event before advancing, like deserializing events one by one does
+        Iterator<IntermediateEventRepresentation> iterator = upcast.iterator();
+        while (iterator.hasNext()) {
+            iterator.next().getData(String.class);
+        }
+    }
+
+    private IntermediateEventRepresentation event(String eventIdentifier) {
+        byte[] metaData = serializer.serialize(MetaData.emptyInstance(), byte[].class).getData();
+        return new InitialEventRepresentation(new GenericDomainEventEntry<>(
+                "Order", "orderId", 0, eventIdentifier, Instant.now(), ORDER_PLACED, null,
+                "<order/>".getBytes(StandardCharsets.UTF_8), metaData
+        ), serializer);
+    }
+
+    private static class RevisionUpcaster extends SingleEventUpcaster {
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return ORDER_PLACED.equals(intermediateRepresentation.getType().getName())
+                    && intermediateRepresentation.getType().getRevision() == null;
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.upcastPayload(
+                    new SimpleSerializedType(ORDER_PLACED, "1"),
+                    String.class,
+                    payload -> payload.replace("<order/>", "<order revision=\"1\"/>")
+            );
+        }
+    }
+
+    private static class PassThroughUpcaster extends SingleEventUpcaster {
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return false;
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class validating the {@link TracingExecutorService}.
+ */
+class TracingExecutorServiceTest {
+
+    private MockTracer mockTracer;
+    private ExecutorService delegate;
+
+    private TracingExecutorService testSubject;
+
+    @BeforeEach
+    void setUp() {
+        mockTracer = new MockTracer();
+        delegate = Executors.newSingleThreadExecutor();
+
+        testSubject = new TracingExecutorService(delegate, mockTracer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        delegate.shutdownNow();
+    }
+
+    @Test
+    void testSubmittedCallableRunsWithSpanActiveAtSubmit() throws Exception {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        Future<Span> result;
+        try (Scope ignored = mockTracer.activateSpan(span)) {
+            result = testSubject.submit(mockTracer::activeSpan);
+        }
+
+        assertEquals(span, result.get(1, TimeUnit.SECONDS));
+        assertNull(testSubject.submit(mockTracer::activeSpan).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testInvokedCallablesRunWithSpanActiveAtSubmit() throws Exception {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        Callable<Span> task = mockTracer::activeSpan;
+        List<Future<Span>> results;
+        try (Scope ignored = mockTracer.activateSpan(span)) {
+            results = testSubject.invokeAll(Arrays.asList(task, task));
+        }
+
+        assertEquals(2, results.size());
+        for (Future<Span> result : results) {
+            assertEquals(span, result.get());
+        }
+    }
+
+    @Test
+    void testShutdownIsDelegated() throws InterruptedException {
+        testSubject.shutdown();
+
+        assertTrue(testSubject.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(delegate.isShutdown());
+        assertTrue(testSubject.isTerminated());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class validating the {@link TracingExecutor}.
+ */
+class TracingExecutorTest {
+
+    private MockTracer mockTracer;
+    private List<Runnable> submittedTasks;
+
+    private TracingExecutor testSubject;
+
+    @BeforeEach
+    void setUp() {
+        mockTracer = new MockTracer();
+        submittedTasks = new ArrayList<>();
+        Executor deferringExecutor = submittedTasks::add;
+
+        testSubject = new TracingExecutor(deferringExecutor, mockTracer);
+    }
+
+    @Test
+    void testSpanActiveAtSubmitIsActiveWhileRunningTask() {
+        AtomicReference<Span> activeSpanInTask = new AtomicReference<>();
+        MockSpan span = mockTracer.buildSpan("test").start();
+        try (Scope ignored = mockTracer.activateSpan(span)) {
+            testSubject.execute(() -> activeSpanInTask.set(mockTracer.activeSpan()));
+        }
+        assertNull(mockTracer.activeSpan());
+
+        submittedTasks.get(0).run();
+
+        assertEquals(span, activeSpanInTask.get());
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @Test
+    void testTaskIsPassedAsIsWithoutActiveSpan() {
+        Runnable task = () -> {
+        };
+
+        testSubject.execute(task);
+
+        assertSame(task, submittedTasks.get(0));
+    }
+
+    @Test
+    void testSpanIsDeactivatedWhenTaskFails() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        try (Scope ignored = mockTracer.activateSpan(span)) {
+            testSubject.execute(() -> {
+                throw new IllegalStateException("failure");
+            });
+        }
+
+        assertThrows(IllegalStateException.class, () -> submittedTasks.get(0).run());
+        assertNull(mockTracer.activeSpan());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.lock.Lock;
+import org.axonframework.common.lock.LockFactory;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingLockFactory}.
+ */
+class TracingLockFactoryTest {
+
+    private LockFactory mockLockFactory;
+    private Lock mockLock;
+    private SimpleMeterRegistry meterRegistry;
+
+    private TracingLockFactory testSubject;
+
+    @BeforeEach
+    void before() {
+        mockLockFactory = mock(LockFactory.class);
+        mockLock = mock(Lock.class);
+        when(mockLockFactory.obtainLock(anyString())).thenReturn(mockLock);
+        meterRegistry = new SimpleMeterRegistry();
+
+        testSubject = TracingLockFactory.builder()
+                                        .delegateLockFactory(mockLockFactory)
+                                        .aggregateType("GiftCard")
+                                        .trackedAggregates(10)
+                                        .contentionThreshold(Duration.ZERO)
+                                        .meterRegistry(meterRegistry)
+                                        .build();
+    }
+
+    @Test
+    void testLockWaitIsRecordedOnTimer() {
+        assertSame(mockLock, testSubject.obtainLock("aggregateId"));
+        testSubject.obtainLock("aggregateId");
+
+        Timer timer = meterRegistry.get(TracingLockFactory.LOCK_WAIT_TIMER).tag("aggregateType", "GiftCard").timer();
+        assertEquals(2, timer.count());
+        verify(mockLockFactory, times(2)).obtainLock("aggregateId");
+    }
+
+    @Test
+    void testTotalLockWaitIsTaggedOnHandlerSpan() throws Exception {
+        when(mockLockFactory.obtainLock("hot")).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return mockLock;
+        });
+        MockSpan handlerSpan = new MockTracer().buildSpan("handle_MyCommand").start();
+
+        DefaultUnitOfWork<GenericMessage<String>> unitOfWork = new DefaultUnitOfWork<>(new GenericMessage<>("command"));
+        unitOfWork.resources().put(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY, handlerSpan);
+        unitOfWork.executeWithResult(() -> {
+            testSubject.obtainLock("hot");
+            // Locks obtained by nested units of work count towards the handler's span too
+            return new DefaultUnitOfWork<>(new GenericMessage<>("nested"))
+                    .executeWithResult(() -> testSubject.obtainLock("hot"))
+                    .getPayload();
+        });
+
+        long lockWaitMicros = (Long) handlerSpan.tags().get(TracingRepository.LOCK_WAIT_TAG);
+        assertTrue(lockWaitMicros >= TimeUnit.MILLISECONDS.toMicros(10), "Unexpected lock wait " + lockWaitMicros);
+    }
+
+    @Test
+    void testMostContendedAggregatesAreReported() {
+        when(mockLockFactory.obtainLock("hot")).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return mockLock;
+        });
+
+        for (int i = 0; i < 100; i++) {
+            testSubject.obtainLock("cold-" + i);
+            if (i % 25 == 0) {
+                testSubject.obtainLock("hot");
+            }
+        }
+
+        List<ContendedAggregate> contended = testSubject.contendedAggregates(1);
+        assertEquals(1, contended.size());
+        assertEquals("hot", contended.get(0).getAggregateIdentifier());
+        assertTrue(contended.get(0).getLockWait().toMillis() >= 20);
+        assertEquals(10, testSubject.contendedAggregates(Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void testLockWaitIsReportedToAggregateLoadInProgress() {
+        AggregateLoadRecorder recorder = AggregateLoadRecorder.start();
+        try {
+            testSubject.obtainLock("aggregateId");
+        } finally {
+            recorder.stop();
+        }
+
+        assertTrue(recorder.lockWaitNanos() >= 0);
+    }
+
+    @Test
+    void testWaitsBelowContentionThresholdAreOnlyRecordedOnTimer() {
+        testSubject = TracingLockFactory.builder()
+                                        .delegateLockFactory(mockLockFactory)
+                                        .contentionThreshold(Duration.ofMinutes(1))
+                                        .meterRegistry(meterRegistry)
+                                        .build();
+
+        for (int i = 0; i < 20; i++) {
+            testSubject.obtainLock("cold-" + i);
+        }
+
+        assertTrue(testSubject.contendedAggregates(Integer.MAX_VALUE).isEmpty());
+        Timer timer = meterRegistry.get(TracingLockFactory.LOCK_WAIT_TIMER).tag("aggregateType", "unknown").timer();
+        assertEquals(20, timer.count());
+    }
+
+    @Test
+    void testBuildWithoutDelegateLockFactoryThrowsAxonConfigurationException() {
+        TracingLockFactory.Builder builder = TracingLockFactory.builder();
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testContendedAggregatesAreTrackedWithoutMeterRegistry() {
+        testSubject = TracingLockFactory.builder()
+                                        .delegateLockFactory(mockLockFactory)
+                                        .contentionThreshold(Duration.ZERO)
+                                        .build();
+
+        assertSame(mockLock, testSubject.obtainLock("aggregateId"));
+
+        assertEquals("aggregateId", testSubject.contendedAggregates(1).get(0).getAggregateIdentifier());
+    }
+
+    @Test
+    void testBuildWithNonPositiveTrackedAggregatesThrowsAxonConfigurationException() {
+        TracingLockFactory.Builder builder = TracingLockFactory.builder();
+
+        assertThrows(AxonConfigurationException.class, () -> builder.trackedAggregates(0));
+        assertThrows(AxonConfigurationException.class, () -> builder.contentionThreshold(Duration.ofMillis(-1)));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.deadline.GenericDeadlineMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.queryhandling.GenericQueryMessage;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link TracingMessageFilter}.
+ */
+class TracingMessageFilterTest {
+
+    @Test
+    void testTraceAllTracesEveryMessage() {
+        TracingMessageFilter testSubject = TracingMessageFilter.traceAll();
+
+        assertTrue(testSubject.shouldTrace(GenericEventMessage.asEventMessage(new Heartbeat())));
+        assertTrue(testSubject.shouldTrace(GenericCommandMessage.asCommandMessage("command")));
+    }
+
+    @Test
+    void testExactPayloadTypeIsExcluded() {
+        TracingMessageFilter testSubject = TracingMessageFilter.builder()
+                                                               .excludes(Heartbeat.class.getName())
+                                                               .build();
+
+        assertFalse(testSubject.shouldTrace(GenericEventMessage.asEventMessage(new Heartbeat())));
+        assertTrue(testSubject.shouldTrace(GenericEventMessage.asEventMessage("other")));
+    }
+
+    @Test
+    void testWildcardPackageIsExcludedIncludingSubPackages() {
+        TracingMessageFilter testSubject = TracingMessageFilter.builder()
+                                                               .excludes("org.axonframework.extensions.*")
+                                                               .build();
+
+        assertFalse(testSubject.shouldTrace(GenericEventMessage.asEventMessage(new Heartbeat())));
+        assertTrue(testSubject.shouldTrace(GenericEventMessage.asEventMessage("java.lang is not excluded")));
+    }
+
+    @Test
+    void testWildcardDoesNotMatchPartialSegments() {
+        TracingMessageFilter testSubject = TracingMessageFilter.builder()
+                                                               .excludes("org.axonframework.ext.*")
+                                                               .build();
+
+        assertTrue(testSubject.shouldTrace(GenericEventMessage.asEventMessage(new Heartbeat())));
+    }
+
+    @Test
+    void testMessageNamesAreMatched() {
+        TracingMessageFilter testSubject = TracingMessageFilter.builder()
+                                                               .excludes("refreshCache", "heartbeatDeadline")
+                                                               .build();
+
+        GenericQueryMessage<String, String> refreshQuery =
+                new GenericQueryMessage<>("payload", "refreshCache", ResponseTypes.instanceOf(String.class));
+        GenericQueryMessage<String, String> otherQuery =
+                new GenericQueryMessage<>("payload", "findOrder", ResponseTypes.instanceOf(String.class));
+        GenericDeadlineMessage<String> deadline = new GenericDeadlineMessage<>("heartbeatDeadline", "payload");
+
+        assertFalse(testSubject.shouldTrace(refreshQuery));
+        assertTrue(testSubject.shouldTrace(otherQuery));
+        assertFalse(testSubject.shouldTrace(deadline));
+    }
+
+    @Test
+    void testOnlyIncludedMessagesAreTraced() {
+        TracingMessageFilter testSubject = TracingMessageFilter.builder()
+                                                               .includes("java.*")
+                                                               .excludes("java.lang.Integer")
+                                                               .build();
+
+        assertTrue(testSubject.shouldTrace(new GenericMessage<>("text")));
+        assertFalse(testSubject.shouldTrace(new GenericMessage<>(42)));
+        assertFalse(testSubject.shouldTrace(GenericEventMessage.asEventMessage(new Heartbeat())));
+    }
+
+    @Test
+    void testSingleWildcardMatchesEverything() {
+        TracingMessageFilter testSubject = TracingMessageFilter.builder()
+                                                               .excludes("*")
+                                                               .build();
+
+        assertFalse(testSubject.shouldTrace(new GenericMessage<>("text")));
+        assertFalse(testSubject.shouldTrace(GenericEventMessage.asEventMessage(new Heartbeat())));
+    }
+
+    @Test
+    void testTrailingWildcardMatchesPartialLastSegment() {
+        TracingMessageFilter testSubject =
+                TracingMessageFilter.builder()
+                                    .excludes(TracingMessageFilterTest.class.getName() + "$Heart*", "refresh*")
+                                    .build();
+
+        GenericQueryMessage<String, String> refreshQuery =
+                new GenericQueryMessage<>("payload", "refreshCache", ResponseTypes.instanceOf(String.class));
+        GenericQueryMessage<String, String> otherQuery =
+                new GenericQueryMessage<>("payload", "findOrder", ResponseTypes.instanceOf(String.class));
+
+        assertFalse(testSubject.shouldTrace(GenericEventMessage.asEventMessage(new Heartbeat())));
+        assertTrue(testSubject.shouldTrace(GenericEventMessage.asEventMessage("java.lang.String is not excluded")));
+        assertFalse(testSubject.shouldTrace(refreshQuery));
+        assertTrue(testSubject.shouldTrace(otherQuery));
+    }
+
+    @Test
+    void testPartialSegmentWildcardIsBoundToItsPackage() {
+        TracingMessageFilter testSubject = TracingMessageFilter.builder()
+                                                               .excludes("org.axonframework.Tracing*")
+                                                               .build();
+
+        assertTrue(testSubject.shouldTrace(GenericEventMessage.asEventMessage(new Heartbeat())));
+    }
+
+    @Test
+    void testWildcardInTheMiddleOfPatternIsRejected() {
+        TracingMessageFilter.Builder builder = TracingMessageFilter.builder().excludes("com.*.Heartbeat");
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    private static class Heartbeat {
+
+    }
+}
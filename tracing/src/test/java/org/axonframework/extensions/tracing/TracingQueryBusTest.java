@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.queryhandling.GenericQueryMessage;
+import org.axonframework.queryhandling.GenericStreamingQueryMessage;
+import org.axonframework.queryhandling.GenericSubscriptionQueryMessage;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.QueryMessage;
+import org.axonframework.queryhandling.QueryResponseMessage;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.axonframework.queryhandling.SimpleQueryBus;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.junit.jupiter.api.*;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.axonframework.messaging.responsetypes.ResponseTypes.instanceOf;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingQueryBus}.
+ */
+class TracingQueryBusTest {
+
+    private static final String QUERY_NAME = "myQuery";
+
+    private MockTracer mockTracer;
+    private QueryBus delegate;
+    private AtomicReference<MetaData> handledMetaData;
+
+    private TracingQueryBus testSubject;
+
+    @BeforeEach
+    void setUp() {
+        mockTracer = new MockTracer();
+        delegate = SimpleQueryBus.builder().build();
+        handledMetaData = new AtomicReference<>();
+        delegate.subscribe(QUERY_NAME, String.class, message -> {
+            handledMetaData.set(message.getMetaData());
+            return "answer";
+        });
+
+        testSubject = TracingQueryBus.builder()
+                                     .tracer(mockTracer)
+                                     .delegateQueryBus(delegate)
+                                     .build();
+    }
+
+    @Test
+    void testQueryStartsClientSpanAndInjectsItsContext() throws Exception {
+        MockSpan parentSpan = mockTracer.buildSpan("parent").start();
+        QueryResponseMessage<String> result;
+        try (Scope ignored = mockTracer.activateSpan(parentSpan)) {
+            result = testSubject.query(query()).get();
+        }
+
+        assertEquals("answer", result.getPayload());
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        MockSpan span = mockSpans.get(0);
+        assertEquals("query_myQuery", span.operationName());
+        assertEquals(parentSpan.context().spanId(), span.parentId());
+        assertEquals(Tags.SPAN_KIND_CLIENT, span.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals(String.valueOf(span.context().spanId()), handledMetaData.get().get("spanid"));
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @Test
+    void testSuppressedQueryIsDispatchedUntouched() throws Exception {
+        TracingQueryBus filteringSubject =
+                TracingQueryBus.builder()
+                               .tracer(mockTracer)
+                               .delegateQueryBus(delegate)
+                               .messageFilter(TracingMessageFilter.builder().excludes(QUERY_NAME).build())
+                               .build();
+
+        assertEquals("answer", filteringSubject.query(query()).get().getPayload());
+
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+        assertFalse(handledMetaData.get().containsKey("spanid"));
+    }
+
+    @Test
+    void testScatterGatherRecordsResponsesAndPropagatesDeadline() {
+        List<String> responses;
+        try (Stream<QueryResponseMessage<String>> result = testSubject.scatterGather(query(), 1, TimeUnit.SECONDS)) {
+            responses = result.map(QueryResponseMessage::getPayload).collect(Collectors.toList());
+            assertTrue(mockTracer.finishedSpans().isEmpty());
+        }
+
+        assertEquals(1, responses.size());
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals("scatterGather_myQuery", mockSpans.get(0).operationName());
+        assertEquals(1L, mockSpans.get(0).tags().get(TracingQueryGateway.SCATTER_GATHER_RESPONSE_COUNT_TAG));
+        assertTrue(handledMetaData.get().containsKey(MessageDeadlines.DEADLINE_METADATA_KEY));
+    }
+
+    @Test
+    void testStreamingQueryFinishesSpanWhenStreamTerminates() {
+        GenericStreamingQueryMessage<String, String> query =
+                new GenericStreamingQueryMessage<>("payload", QUERY_NAME, String.class);
+
+        StepVerifier.create(Flux.from(testSubject.streamingQuery(query)).map(QueryResponseMessage::getPayload))
+                    .expectNext("answer")
+                    .verifyComplete();
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals("streamingQuery_myQuery", mockSpans.get(0).operationName());
+        assertEquals(String.valueOf(mockSpans.get(0).context().spanId()), handledMetaData.get().get("spanid"));
+    }
+
+    @Test
+    void testSubscriptionQueryIsTracedUntilCancelled() {
+        GenericSubscriptionQueryMessage<String, String, String> query = new GenericSubscriptionQueryMessage<>(
+                "payload", QUERY_NAME, instanceOf(String.class), instanceOf(String.class)
+        );
+
+        SubscriptionQueryResult<QueryResponseMessage<String>, SubscriptionQueryUpdateMessage<String>> result =
+                testSubject.subscriptionQuery(query);
+
+        assertInstanceOf(TraceableSubscriptionQueryResult.class, result);
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+        result.cancel();
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals("subscriptionQuery_myQuery", mockSpans.get(0).operationName());
+    }
+
+    @Test
+    void testQueryUpdateEmitterTracesEmittedUpdates() {
+        assertInstanceOf(TracingQueryUpdateEmitter.class, testSubject.queryUpdateEmitter());
+
+        testSubject.queryUpdateEmitter().emit(q -> true, "update");
+
+        assertEquals(1, mockTracer.finishedSpans().size());
+        assertEquals("emitUpdate_String", mockTracer.finishedSpans().get(0).operationName());
+    }
+
+    @Test
+    void testTracedQueryUpdateEmitterOfDelegateIsNotWrappedAgain() {
+        QueryBus delegate = mock(QueryBus.class);
+        QueryUpdateEmitter tracedEmitter = TracingQueryUpdateEmitter.builder()
+                                                                    .tracer(mockTracer)
+                                                                    .delegateQueryUpdateEmitter(
+                                                                            mock(QueryUpdateEmitter.class)
+                                                                    )
+                                                                    .build();
+        when(delegate.queryUpdateEmitter()).thenReturn(tracedEmitter);
+
+        TracingQueryBus subject = TracingQueryBus.builder().tracer(mockTracer).delegateQueryBus(delegate).build();
+
+        assertSame(tracedEmitter, subject.queryUpdateEmitter());
+    }
+
+    @Test
+    void testDispatchFailureFinishesSpanAsErroneous() {
+        QueryBus failingBus = mock(QueryBus.class);
+        when(failingBus.queryUpdateEmitter()).thenReturn(mock(QueryUpdateEmitter.class));
+        when(failingBus.query(any())).thenThrow(new IllegalStateException("failure"));
+        TracingQueryBus failingSubject = TracingQueryBus.builder()
+                                                        .tracer(mockTracer)
+                                                        .delegateQueryBus(failingBus)
+                                                        .build();
+
+        assertThrows(IllegalStateException.class, () -> failingSubject.query(query()));
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals(true, mockSpans.get(0).tags().get(Tags.ERROR.getKey()));
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @Test
+    void testBuildWithoutTracerThrowsAxonConfigurationException() {
+        TracingQueryBus.Builder builder = TracingQueryBus.builder().delegateQueryBus(delegate);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuildWithoutDelegateQueryBusThrowsAxonConfigurationException() {
+        TracingQueryBus.Builder builder = TracingQueryBus.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    private static QueryMessage<String, String> query() {
+        return new GenericQueryMessage<>("payload", QUERY_NAME, instanceOf(String.class));
+    }
+}
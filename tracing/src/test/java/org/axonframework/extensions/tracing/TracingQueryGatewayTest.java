@@ -34,13 +34,18 @@ import org.junit.jupiter.api.*;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.axonframework.messaging.responsetypes.ResponseTypes.instanceOf;
@@ -171,6 +176,130 @@ class TracingQueryGatewayTest {
         assertNull(scopeManager.activeSpan(), "There should be no activeSpan");
     }
 
+    @Test
+    void testScatterGatherRecordsResponsesAsAggregatedTags() {
+        testSubject = TracingQueryGateway.builder()
+                                         .tracer(mockTracer)
+                                         .delegateQueryBus(mockQueryBus)
+                                         .elementTracingPolicy(ElementTracingPolicy.aggregated())
+                                         .build();
+        //noinspection unchecked
+        when(mockQueryBus.scatterGather(any(QueryMessage.class), anyLong(), any()))
+                .thenReturn(Stream.of(answer1, answer2));
+
+        try (Stream<String> actual = testSubject.scatterGather(
+                "query", "Query", ResponseTypes.instanceOf(String.class), 1L, TimeUnit.MINUTES
+        )) {
+            assertEquals(2, actual.collect(Collectors.toList()).size());
+        }
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        Map<String, Object> tags = mockSpans.get(0).tags();
+        assertEquals(2L, tags.get(TracingQueryGateway.SCATTER_GATHER_RESPONSE_COUNT_TAG));
+        long timeToFirst = (long) tags.get(TracingQueryGateway.SCATTER_GATHER_TIME_TO_FIRST_RESPONSE_TAG);
+        long timeToLast = (long) tags.get(TracingQueryGateway.SCATTER_GATHER_TIME_TO_LAST_RESPONSE_TAG);
+        assertTrue(timeToFirst <= timeToLast);
+        assertNotNull(tags.get(TracingQueryGateway.SCATTER_GATHER_SLOWEST_RESPONSE_TAG));
+        assertNotNull(tags.get(TracingQueryGateway.SCATTER_GATHER_SLOWEST_RESPONSE_LATENCY_TAG));
+        assertEquals(false, tags.get(TracingQueryGateway.SCATTER_GATHER_TIMEOUT_EXCEEDED_TAG));
+        assertTrue(mockSpans.get(0).logEntries().stream()
+                            .noneMatch(entry -> "responseReceived".equals(entry.fields().get("event"))));
+    }
+
+    @Test
+    void testScatterGatherLogsEveryResponseByDefault() {
+        //noinspection unchecked
+        when(mockQueryBus.scatterGather(any(QueryMessage.class), anyLong(), any()))
+                .thenReturn(Stream.of(answer1, answer2));
+
+        try (Stream<String> actual = testSubject.scatterGather(
+                "query", "Query", ResponseTypes.instanceOf(String.class), 1L, TimeUnit.MILLISECONDS
+        )) {
+            actual.forEach(answer -> {
+            });
+        }
+
+        MockSpan scatterGatherSpan = mockTracer.finishedSpans().get(0);
+        List<MockSpan.LogEntry> responseEvents =
+                scatterGatherSpan.logEntries().stream()
+                                 .filter(entry -> "responseReceived".equals(entry.fields().get("event")))
+                                 .collect(Collectors.toList());
+        assertEquals(2, responseEvents.size());
+        assertEquals(1L, responseEvents.get(0).fields().get("response"));
+        assertEquals(2L, responseEvents.get(1).fields().get("response"));
+    }
+
+    @Test
+    void testScatterGatherMarksTimeoutWhenResponsesRunOutAtTheDeadline() {
+        //noinspection unchecked
+        when(mockQueryBus.scatterGather(any(QueryMessage.class), anyLong(), any()))
+                .thenReturn(Stream.of(answer1, answer2).peek(answer -> sleep(5)));
+
+        try (Stream<String> actual = testSubject.scatterGather(
+                "query", "Query", ResponseTypes.instanceOf(String.class), 1L, TimeUnit.MILLISECONDS
+        )) {
+            actual.forEach(answer -> {
+            });
+        }
+
+        Map<String, Object> tags = mockTracer.finishedSpans().get(0).tags();
+        assertEquals(true, tags.get(TracingQueryGateway.SCATTER_GATHER_TIMEOUT_EXCEEDED_TAG));
+        assertTrue((long) tags.get(TracingQueryGateway.SCATTER_GATHER_TIME_TO_LAST_RESPONSE_TAG) >= 10_000);
+    }
+
+    @Test
+    void testScatterGatherTagsTheResponseWithTheLongestWaitAsSlowest() {
+        //noinspection unchecked
+        when(mockQueryBus.scatterGather(any(QueryMessage.class), anyLong(), any()))
+                .thenReturn(Stream.of(answer1, answer2, answer1).peek(answer -> {
+                    if (answer == answer2) {
+                        sleep(20);
+                    }
+                }));
+
+        try (Stream<String> actual = testSubject.scatterGather(
+                "query", "Query", ResponseTypes.instanceOf(String.class), 1L, TimeUnit.MINUTES
+        )) {
+            actual.forEach(answer -> {
+            });
+        }
+
+        Map<String, Object> tags = mockTracer.finishedSpans().get(0).tags();
+        assertEquals(2L, tags.get(TracingQueryGateway.SCATTER_GATHER_SLOWEST_RESPONSE_TAG));
+        long slowestLatency = (long) tags.get(TracingQueryGateway.SCATTER_GATHER_SLOWEST_RESPONSE_LATENCY_TAG);
+        assertTrue(slowestLatency >= 20_000);
+        assertTrue(slowestLatency < (long) tags.get(TracingQueryGateway.SCATTER_GATHER_TIME_TO_LAST_RESPONSE_TAG));
+    }
+
+    @Test
+    void testScatterGatherClosedBeforeRunningOutIsNotMarkedAsTimedOut() {
+        AtomicBoolean delegateClosed = new AtomicBoolean();
+        //noinspection unchecked
+        when(mockQueryBus.scatterGather(any(QueryMessage.class), anyLong(), any()))
+                .thenReturn(Stream.of(answer1, answer2).onClose(() -> delegateClosed.set(true)));
+
+        try (Stream<String> actual = testSubject.scatterGather(
+                "query", "Query", ResponseTypes.instanceOf(String.class), 1L, TimeUnit.MILLISECONDS
+        )) {
+            assertEquals("answer1", actual.iterator().next());
+            sleep(5);
+        }
+
+        assertTrue(delegateClosed.get());
+        Map<String, Object> tags = mockTracer.finishedSpans().get(0).tags();
+        assertEquals(1L, tags.get(TracingQueryGateway.SCATTER_GATHER_RESPONSE_COUNT_TAG));
+        assertEquals(false, tags.get(TracingQueryGateway.SCATTER_GATHER_TIMEOUT_EXCEEDED_TAG));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Test
     void testScatterGather_nullQuery() {
         assertDoesNotThrow(() -> testSubject.scatterGather("query",
@@ -308,7 +437,85 @@ class TracingQueryGatewayTest {
         assertNull(scopeManager.activeSpan(), "There should be no activeSpan");
     }
 
+    @Test
+    void testStreamingQueryAggregatesElementsWithSampledEvents() {
+        testSubject = TracingQueryGateway.builder()
+                                         .tracer(mockTracer)
+                                         .delegateQueryBus(mockQueryBus)
+                                         .elementTracingPolicy(ElementTracingPolicy.aggregated(250))
+                                         .build();
+        when(mockQueryBus.streamingQuery(any())).thenReturn(
+                Flux.range(0, 1000).map(i -> new GenericQueryResponseMessage<>("answer" + i))
+        );
+
+        StepVerifier.create(Flux.from(testSubject.streamingQuery(new MyQuery(), String.class)))
+                    .expectNextCount(1000)
+                    .verifyComplete();
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        MockSpan streamingSpan = mockSpans.get(0);
+        assertEquals(1000L, streamingSpan.tags().get(ElementTracingPolicy.ELEMENT_COUNT_TAG));
+        long firstTimestamp = (long) streamingSpan.tags().get(ElementTracingPolicy.FIRST_ELEMENT_TIMESTAMP_TAG);
+        long lastTimestamp = (long) streamingSpan.tags().get(ElementTracingPolicy.LAST_ELEMENT_TIMESTAMP_TAG);
+        assertTrue(firstTimestamp <= lastTimestamp);
+        assertNotNull(streamingSpan.tags().get(ElementTracingPolicy.MAX_INTER_ARRIVAL_GAP_TAG));
+        long sampledEvents = streamingSpan.logEntries().stream()
+                                          .filter(entry -> "answerReceived".equals(entry.fields().get("event")))
+                                          .count();
+        assertEquals(4, sampledEvents);
+    }
+
     private static class MyQuery {
 
     }
+
+    @Test
+    void testStreamingQueryActivatesSpanOnSubscribingThreadAndInReactorContext() {
+        AtomicReference<Span> activeSpanOnDispatch = new AtomicReference<>();
+        AtomicReference<Span> spanInContext = new AtomicReference<>();
+        when(mockQueryBus.streamingQuery(any())).thenAnswer(invocation -> {
+            activeSpanOnDispatch.set(mockTracer.activeSpan());
+            return Flux.deferContextual(contextView -> {
+                spanInContext.set(ReactorTracingContext.currentSpan(contextView).orElse(null));
+                return Flux.just(new GenericQueryResponseMessage<>("answer1"));
+            });
+        });
+
+        MockSpan span = mockTracer.buildSpan("testStreamingQuery").start();
+        Publisher<String> result;
+        try (final Scope ignored = mockTracer.scopeManager().activate(span)) {
+            result = testSubject.streamingQuery(new MyQuery(), String.class);
+        }
+        StepVerifier.create(Flux.from(result).subscribeOn(Schedulers.single()))
+                    .expectNext("answer1")
+                    .expectComplete()
+                    .verify();
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        MockSpan streamingSpan = mockSpans.get(0);
+        assertEquals("streamingQuery_MyQuery", streamingSpan.operationName());
+        assertEquals(span.context().spanId(), streamingSpan.parentId());
+        assertSame(streamingSpan, activeSpanOnDispatch.get());
+        assertSame(streamingSpan, spanInContext.get());
+    }
+
+    @Test
+    void testStreamingQueryUsesSpanFromReactorContextAsParent() {
+        when(mockQueryBus.streamingQuery(any()))
+                .thenReturn(Flux.just(new GenericQueryResponseMessage<>("answer1")));
+        MockSpan parentSpan = mockTracer.buildSpan("reactiveParent").start();
+
+        StepVerifier.create(Flux.from(testSubject.streamingQuery(new MyQuery(), String.class))
+                                .contextWrite(ReactorTracingContext.withSpan(parentSpan)))
+                    .expectNext("answer1")
+                    .expectComplete()
+                    .verify();
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals(parentSpan.context().spanId(), mockSpans.get(0).parentId());
+        assertEquals(parentSpan.context().traceId(), mockSpans.get(0).context().traceId());
+    }
 }
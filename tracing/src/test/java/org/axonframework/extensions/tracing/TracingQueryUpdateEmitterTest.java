@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.queryhandling.GenericSubscriptionQueryMessage;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.axonframework.queryhandling.SimpleQueryUpdateEmitter;
+import org.axonframework.queryhandling.SubscriptionQueryMessage;
+import org.axonframework.queryhandling.SubscriptionQueryUpdateMessage;
+import org.axonframework.queryhandling.UpdateHandlerRegistration;
+import org.junit.jupiter.api.*;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.axonframework.messaging.responsetypes.ResponseTypes.instanceOf;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingQueryUpdateEmitter}.
+ */
+class TracingQueryUpdateEmitterTest {
+
+    private MockTracer mockTracer;
+    private SimpleQueryUpdateEmitter delegate;
+
+    private TracingQueryUpdateEmitter testSubject;
+
+    @BeforeEach
+    void setUp() {
+        mockTracer = new MockTracer();
+        delegate = SimpleQueryUpdateEmitter.builder().build();
+
+        testSubject = TracingQueryUpdateEmitter.builder()
+                                               .tracer(mockTracer)
+                                               .delegateQueryUpdateEmitter(delegate)
+                                               .build();
+    }
+
+    @Test
+    void testEmitRecordsFilterEvaluationsAndMatchedSubscriptions() {
+        UpdateHandlerRegistration<Object> matching = testSubject.registerUpdateHandler(subscriptionQuery("a"), 8);
+        testSubject.registerUpdateHandler(subscriptionQuery("b"), 8);
+        testSubject.registerUpdateHandler(subscriptionQuery("c"), 8);
+
+        testSubject.emit(String.class, "a"::equals, "update");
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        MockSpan span = mockSpans.get(0);
+        assertEquals("emitUpdate_String", span.operationName());
+        assertEquals(Tags.SPAN_KIND_PRODUCER, span.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals(3L, span.tags().get(TracingQueryUpdateEmitter.FILTER_EVALUATIONS_TAG));
+        assertEquals(1L, span.tags().get(TracingQueryUpdateEmitter.MATCHED_SUBSCRIPTIONS_TAG));
+        assertNotNull(span.tags().get(TracingQueryUpdateEmitter.FILTER_TIME_TAG));
+
+        matching.complete();
+        StepVerifier.create(matching.getUpdates().map(SubscriptionQueryUpdateMessage::getPayload))
+                    .expectNext("update")
+                    .verifyComplete();
+    }
+
+    @Test
+    void testUpdatesEmittedInUnitOfWorkAreTracedInOrderAfterCommit() {
+        MockSpan parentSpan = mockTracer.buildSpan("handle").start();
+        UpdateHandlerRegistration<Object> registration = testSubject.registerUpdateHandler(subscriptionQuery("a"), 8);
+        DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+        try (Scope ignored = mockTracer.activateSpan(parentSpan)) {
+            testSubject.emit(String.class, "a"::equals, "first");
+            testSubject.emit(String.class, "a"::equals, "second");
+        }
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        unitOfWork.commit();
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(2, mockSpans.size());
+        assertEquals(parentSpan.context().spanId(), mockSpans.get(0).parentId());
+        assertEquals(parentSpan.context().spanId(), mockSpans.get(1).parentId());
+        registration.complete();
+        StepVerifier.create(registration.getUpdates().map(SubscriptionQueryUpdateMessage::getPayload))
+                    .expectNext("first", "second")
+                    .verifyComplete();
+    }
+
+    @Test
+    void testSuppressedUpdateIsEmittedWithoutSpan() {
+        TracingQueryUpdateEmitter filteringSubject =
+                TracingQueryUpdateEmitter.builder()
+                                         .tracer(mockTracer)
+                                         .delegateQueryUpdateEmitter(delegate)
+                                         .messageFilter(TracingMessageFilter.builder()
+                                                                            .excludes(String.class.getName())
+                                                                            .build())
+                                         .build();
+
+        filteringSubject.emit(q -> true, "update");
+
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testFailingEmissionFinishesSpanAsErroneous() {
+        QueryUpdateEmitter failingEmitter = mock(QueryUpdateEmitter.class);
+        doThrow(new IllegalStateException("failure"))
+                .when(failingEmitter).<String>emit(any(), isA(SubscriptionQueryUpdateMessage.class));
+        TracingQueryUpdateEmitter failingSubject = TracingQueryUpdateEmitter.builder()
+                                                                            .tracer(mockTracer)
+                                                                            .delegateQueryUpdateEmitter(failingEmitter)
+                                                                            .build();
+
+        assertThrows(IllegalStateException.class, () -> failingSubject.emit(q -> true, "update"));
+
+        List<MockSpan> mockSpans = mockTracer.finishedSpans();
+        assertEquals(1, mockSpans.size());
+        assertEquals(true, mockSpans.get(0).tags().get(Tags.ERROR.getKey()));
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @Test
+    void testBuildWithoutDelegateThrowsAxonConfigurationException() {
+        TracingQueryUpdateEmitter.Builder builder = TracingQueryUpdateEmitter.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    private static SubscriptionQueryMessage<String, String, String> subscriptionQuery(String payload) {
+        return new GenericSubscriptionQueryMessage<>(
+                payload, "myQuery", instanceOf(String.class), instanceOf(String.class)
+        );
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.common.AxonConfigurationException;
+import org.junit.jupiter.api.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.axonframework.commandhandling.GenericCommandResultMessage.asCommandResultMessage;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingReactorCommandGateway}.
+ */
+class TracingReactorCommandGatewayTest {
+
+    private CommandBus mockCommandBus;
+    private MockTracer mockTracer;
+    private AtomicReference<CommandMessage<?>> dispatchedCommand;
+    private AtomicReference<Thread> dispatchingThread;
+
+    private TracingReactorCommandGateway testSubject;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        mockCommandBus = mock(CommandBus.class);
+        dispatchedCommand = new AtomicReference<>();
+        dispatchingThread = new AtomicReference<>();
+
+        doAnswer(invocation -> {
+            CommandMessage<?> command = invocation.getArgument(0);
+            dispatchedCommand.set(command);
+            dispatchingThread.set(Thread.currentThread());
+            ((CommandCallback<Object, Object>) invocation.getArgument(1))
+                    .onResult((CommandMessage<Object>) command, asCommandResultMessage("result"));
+            return null;
+        }).when(mockCommandBus).dispatch(isA(CommandMessage.class), isA(CommandCallback.class));
+
+        testSubject = TracingReactorCommandGateway.builder()
+                                                  .tracer(mockTracer)
+                                                  .delegateCommandBus(mockCommandBus)
+                                                  .build();
+    }
+
+    @Test
+    void testSpanIsStartedOnSubscriptionOnly() {
+        Mono<String> result = testSubject.send(new MyCommand());
+
+        assertNull(dispatchedCommand.get());
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        StepVerifier.create(result)
+                    .expectNext("result")
+                    .verifyComplete();
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        MockSpan commandSpan = finishedSpans.get(0);
+        assertEquals("send_MyCommand", commandSpan.operationName());
+        assertEquals(Tags.SPAN_KIND_CLIENT, commandSpan.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals(String.valueOf(commandSpan.context().spanId()),
+                     dispatchedCommand.get().getMetaData().get("spanid"));
+        assertEquals(String.valueOf(commandSpan.context().traceId()),
+                     dispatchedCommand.get().getMetaData().get("traceid"));
+    }
+
+    @Test
+    void testEverySubscriptionStartsItsOwnSpan() {
+        Mono<String> result = testSubject.send(new MyCommand());
+
+        StepVerifier.create(result).expectNext("result").verifyComplete();
+        StepVerifier.create(result).expectNext("result").verifyComplete();
+
+        assertEquals(2, mockTracer.finishedSpans().size());
+    }
+
+    @Test
+    void testSpanIsMarkedAsErrorOnFailure() {
+        //noinspection unchecked
+        doThrow(new IllegalStateException("failure"))
+                .when(mockCommandBus).dispatch(isA(CommandMessage.class), isA(CommandCallback.class));
+
+        StepVerifier.create(testSubject.send(new MyCommand()))
+                    .expectError(IllegalStateException.class)
+                    .verify();
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        assertEquals(true, finishedSpans.get(0).tags().get(Tags.ERROR.getKey()));
+    }
+
+    @Test
+    void testSpanFromReactorContextIsUsedAsParent() {
+        MockSpan callerSpan = mockTracer.buildSpan("caller").start();
+        MockSpan contextSpan = mockTracer.buildSpan("context").start();
+
+        Mono<String> result;
+        try (Scope ignored = mockTracer.activateSpan(callerSpan)) {
+            result = testSubject.send(new MyCommand());
+        }
+        StepVerifier.create(result.contextWrite(ReactorTracingContext.withSpan(contextSpan)))
+                    .expectNext("result")
+                    .verifyComplete();
+
+        assertEquals(contextSpan.context().spanId(), mockTracer.finishedSpans().get(0).parentId());
+    }
+
+    @Test
+    void testSpanActiveWhileSendingIsUsedAsParentWithoutReactorContext() {
+        MockSpan callerSpan = mockTracer.buildSpan("caller").start();
+
+        Mono<String> result;
+        try (Scope ignored = mockTracer.activateSpan(callerSpan)) {
+            result = testSubject.send(new MyCommand());
+        }
+        StepVerifier.create(result)
+                    .expectNext("result")
+                    .verifyComplete();
+
+        assertEquals(callerSpan.context().spanId(), mockTracer.finishedSpans().get(0).parentId());
+    }
+
+    @Test
+    void testSendDoesNotSwitchThreadsNorActivateTheSpan() {
+        AtomicReference<Thread> subscribingThread = new AtomicReference<>();
+
+        StepVerifier.create(testSubject.send(new MyCommand())
+                                       .doOnSubscribe(subscription -> subscribingThread.set(Thread.currentThread()))
+                                       .subscribeOn(Schedulers.single()))
+                    .expectNext("result")
+                    .verifyComplete();
+
+        assertSame(subscribingThread.get(), dispatchingThread.get());
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @Test
+    void testSuppressedCommandIsSentWithoutSpan() {
+        testSubject = TracingReactorCommandGateway.builder()
+                                                  .tracer(mockTracer)
+                                                  .delegateCommandBus(mockCommandBus)
+                                                  .messageFilter(TracingMessageFilter.builder()
+                                                                                     .excludes(MyCommand.class.getName())
+                                                                                     .build())
+                                                  .build();
+
+        StepVerifier.create(testSubject.send(new MyCommand()))
+                    .expectNext("result")
+                    .verifyComplete();
+
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+        assertFalse(dispatchedCommand.get().getMetaData().containsKey("spanid"));
+    }
+
+    @Test
+    void testBuildWithoutDelegateThrowsAxonConfigurationException() {
+        TracingReactorCommandGateway.Builder builderTestSubject =
+                TracingReactorCommandGateway.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builderTestSubject::build);
+    }
+
+    private static class MyCommand {
+
+    }
+}
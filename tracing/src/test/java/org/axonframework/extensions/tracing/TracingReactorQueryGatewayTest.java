@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.queryhandling.DefaultSubscriptionQueryResult;
+import org.axonframework.queryhandling.GenericQueryResponseMessage;
+import org.axonframework.queryhandling.GenericSubscriptionQueryUpdateMessage;
+import org.axonframework.queryhandling.QueryBus;
+import org.axonframework.queryhandling.QueryMessage;
+import org.axonframework.queryhandling.QueryResponseMessage;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import org.junit.jupiter.api.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.axonframework.messaging.responsetypes.ResponseTypes.instanceOf;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingReactorQueryGateway}.
+ */
+class TracingReactorQueryGatewayTest {
+
+    private QueryBus mockQueryBus;
+    private MockTracer mockTracer;
+    private AtomicReference<QueryMessage<?, ?>> dispatchedQuery;
+
+    private TracingReactorQueryGateway testSubject;
+
+    @BeforeEach
+    void before() {
+        mockQueryBus = mock(QueryBus.class);
+        mockTracer = new MockTracer();
+        dispatchedQuery = new AtomicReference<>();
+
+        testSubject = TracingReactorQueryGateway.builder()
+                                                .tracer(mockTracer)
+                                                .delegateQueryBus(mockQueryBus)
+                                                .build();
+    }
+
+    @Test
+    void testQuerySpanIsStartedOnSubscriptionOnly() {
+        AtomicReference<Thread> dispatchingThread = new AtomicReference<>();
+        when(mockQueryBus.query(any())).thenAnswer(invocation -> {
+            dispatchedQuery.set(invocation.getArgument(0));
+            dispatchingThread.set(Thread.currentThread());
+            return CompletableFuture.completedFuture(new GenericQueryResponseMessage<>("answer"));
+        });
+
+        Mono<String> result = testSubject.query("pointQuery", new MyQuery(), instanceOf(String.class));
+
+        assertNull(dispatchedQuery.get());
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        AtomicReference<Thread> subscribingThread = new AtomicReference<>();
+        StepVerifier.create(result.doOnSubscribe(subscription -> subscribingThread.set(Thread.currentThread()))
+                                  .subscribeOn(Schedulers.single()))
+                    .expectNext("answer")
+                    .verifyComplete();
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        MockSpan querySpan = finishedSpans.get(0);
+        assertEquals("query_pointQuery", querySpan.operationName());
+        assertEquals(Tags.SPAN_KIND_CLIENT, querySpan.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals("pointQuery", dispatchedQuery.get().getQueryName());
+        assertEquals(String.valueOf(querySpan.context().spanId()), dispatchedQuery.get().getMetaData().get("spanid"));
+        assertSame(subscribingThread.get(), dispatchingThread.get());
+        assertNull(mockTracer.activeSpan());
+    }
+
+    @Test
+    void testQuerySpanIsMarkedAsErrorOnFailure() {
+        CompletableFuture<QueryResponseMessage<Object>> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new IllegalStateException("failure"));
+        when(mockQueryBus.query(any())).thenReturn(failure);
+
+        StepVerifier.create(testSubject.query("pointQuery", new MyQuery(), instanceOf(String.class)))
+                    .expectError()
+                    .verify();
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        assertEquals(true, finishedSpans.get(0).tags().get(Tags.ERROR.getKey()));
+    }
+
+    @Test
+    void testScatterGatherSpanUsesSpanFromReactorContextAsParent() {
+        when(mockQueryBus.scatterGather(any(), anyLong(), any())).thenAnswer(invocation -> {
+            dispatchedQuery.set(invocation.getArgument(0));
+            return Stream.of(new GenericQueryResponseMessage<>("answer1"),
+                             new GenericQueryResponseMessage<>("answer2"));
+        });
+        MockSpan parentSpan = mockTracer.buildSpan("reactiveParent").start();
+
+        StepVerifier.create(testSubject.scatterGather("scatterQuery", new MyQuery(), instanceOf(String.class),
+                                                      Duration.ofSeconds(1))
+                                       .contextWrite(ReactorTracingContext.withSpan(parentSpan)))
+                    .expectNext("answer1", "answer2")
+                    .verifyComplete();
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        assertEquals("scatterGather_scatterQuery", finishedSpans.get(0).operationName());
+        assertEquals(parentSpan.context().spanId(), finishedSpans.get(0).parentId());
+        assertEquals(String.valueOf(finishedSpans.get(0).context().spanId()),
+                     dispatchedQuery.get().getMetaData().get("spanid"));
+    }
+
+    @Test
+    void testStreamingQuerySpanIsAvailableInReactorContextAndFinishedOnCancel() {
+        AtomicReference<Object> spanInContext = new AtomicReference<>();
+        when(mockQueryBus.streamingQuery(any())).thenAnswer(invocation -> {
+            dispatchedQuery.set(invocation.getArgument(0));
+            return Flux.deferContextual(contextView -> {
+                spanInContext.set(ReactorTracingContext.currentSpan(contextView).orElse(null));
+                return Flux.just(new GenericQueryResponseMessage<>("answer1"),
+                                 new GenericQueryResponseMessage<>("answer2"));
+            });
+        });
+
+        Flux<String> result = testSubject.streamingQuery("streamingQuery", new MyQuery(), String.class);
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        StepVerifier.create(result.take(1))
+                    .expectNext("answer1")
+                    .verifyComplete();
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        assertEquals("streamingQuery_streamingQuery", finishedSpans.get(0).operationName());
+        assertSame(finishedSpans.get(0), spanInContext.get());
+        assertEquals(String.valueOf(finishedSpans.get(0).context().spanId()),
+                     dispatchedQuery.get().getMetaData().get("spanid"));
+    }
+
+    @Test
+    void testSubscriptionQuerySpanIsFinishedOnClose() {
+        when(mockQueryBus.subscriptionQuery(any(), any(), anyInt())).thenAnswer(invocation -> {
+            dispatchedQuery.set(invocation.getArgument(0));
+            return new DefaultSubscriptionQueryResult<>(
+                    Mono.just(new GenericQueryResponseMessage<>("initial")),
+                    Flux.just(GenericSubscriptionQueryUpdateMessage.asUpdateMessage("update"))
+                        .concatWith(Flux.never()),
+                    () -> true
+            );
+        });
+
+        Mono<SubscriptionQueryResult<String, String>> result = testSubject.subscriptionQuery(
+                "subscriptionQuery", new MyQuery(), instanceOf(String.class), instanceOf(String.class), null, 8
+        );
+        assertNull(dispatchedQuery.get());
+
+        SubscriptionQueryResult<String, String> queryResult = result.block();
+        assertNotNull(queryResult);
+        StepVerifier.create(queryResult.initialResult()).expectNext("initial").verifyComplete();
+        StepVerifier.create(queryResult.updates()).expectNext("update").thenCancel().verify();
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        queryResult.close();
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(1, finishedSpans.size());
+        assertEquals("subscriptionQuery_subscriptionQuery", finishedSpans.get(0).operationName());
+        assertEquals(String.valueOf(finishedSpans.get(0).context().spanId()),
+                     dispatchedQuery.get().getMetaData().get("spanid"));
+    }
+
+    @Test
+    void testSuppressedQueryIsDispatchedWithoutSpan() {
+        testSubject = TracingReactorQueryGateway.builder()
+                                                .tracer(mockTracer)
+                                                .delegateQueryBus(mockQueryBus)
+                                                .messageFilter(TracingMessageFilter.builder()
+                                                                                   .excludes("pointQuery")
+                                                                                   .build())
+                                                .build();
+        when(mockQueryBus.query(any())).thenAnswer(invocation -> {
+            dispatchedQuery.set(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(new GenericQueryResponseMessage<>("answer"));
+        });
+
+        StepVerifier.create(testSubject.query("pointQuery", new MyQuery(), instanceOf(String.class)))
+                    .expectNext("answer")
+                    .verifyComplete();
+
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+        assertFalse(dispatchedQuery.get().getMetaData().containsKey("spanid"));
+    }
+
+    private static class MyQuery {
+
+    }
+}
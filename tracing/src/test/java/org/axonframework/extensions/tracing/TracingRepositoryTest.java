@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.common.lock.PessimisticLockFactory;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.EventSourcingHandler;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.modelling.command.Aggregate;
+import org.axonframework.modelling.command.AggregateIdentifier;
+import org.axonframework.modelling.command.AggregateNotFoundException;
+import org.axonframework.modelling.command.Repository;
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingRepository}.
+ */
+class TracingRepositoryTest {
+
+    private static final String AGGREGATE_ID = "aggregateId";
+
+    private MockTracer mockTracer;
+    private SimpleMeterRegistry meterRegistry;
+    private TracingEventStorageEngine storageEngine;
+
+    private TracingRepository<MyAggregate> testSubject;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        meterRegistry = new SimpleMeterRegistry();
+        storageEngine = TracingEventStorageEngine.builder()
+                                                 .tracer(mockTracer)
+                                                 .delegateStorageEngine(new InMemoryEventStorageEngine())
+                                                 .build();
+        EventSourcingRepository<MyAggregate> delegate =
+                EventSourcingRepository.builder(MyAggregate.class)
+                                       .eventStore(EmbeddedEventStore.builder().storageEngine(storageEngine).build())
+                                       .lockFactory(TracingLockFactory.builder()
+                                                                      .delegateLockFactory(
+                                                                              PessimisticLockFactory.usingDefaults()
+                                                                      )
+                                                                      .build())
+                                       .build();
+
+        testSubject = TracingRepository.<MyAggregate>builder()
+                                       .tracer(mockTracer)
+                                       .delegateRepository(delegate)
+                                       .meterRegistry(meterRegistry)
+                                       .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        while (CurrentUnitOfWork.isStarted()) {
+            CurrentUnitOfWork.get().rollback();
+        }
+    }
+
+    @Test
+    void testLoadIsTracedAsChildOfHandlerSpan() {
+        storageEngine.appendEvents(event(0), event(1), event(2));
+        mockTracer.reset();
+
+        MockSpan handlerSpan = mockTracer.buildSpan("handle_MyCommand").start();
+        DefaultUnitOfWork.startAndGet(new GenericMessage<>("command"));
+        try (Scope ignored = mockTracer.activateSpan(handlerSpan)) {
+            assertEquals(2L, testSubject.load(AGGREGATE_ID).version());
+        }
+
+        Map<String, MockSpan> spans = spansByName();
+        MockSpan loadSpan = spans.get("load_MyAggregate");
+        assertEquals(handlerSpan.context().spanId(), loadSpan.parentId());
+        assertEquals(AGGREGATE_ID, loadSpan.tags().get(TracingRepository.AGGREGATE_IDENTIFIER_TAG));
+        assertEquals("MyAggregate", loadSpan.tags().get(TracingRepository.AGGREGATE_TYPE_TAG));
+        assertEquals(2L, loadSpan.tags().get(TracingRepository.AGGREGATE_VERSION_TAG));
+        assertEquals(false, loadSpan.tags().get(TracingRepository.SNAPSHOT_HIT_TAG));
+        assertEquals(3L, loadSpan.tags().get(TracingRepository.EVENTS_REPLAYED_TAG));
+        assertTrue((Long) loadSpan.tags().get(TracingRepository.LOCK_WAIT_TAG) >= 0);
+        assertEquals(loadSpan.context().spanId(), spans.get("readSnapshot").parentId());
+        assertEquals(loadSpan.context().spanId(), spans.get("readEvents").parentId());
+
+        assertEquals(1, meterRegistry.get(TracingRepository.LOAD_TIMER)
+                                     .tag("aggregateType", "MyAggregate")
+                                     .tag("snapshot", "miss")
+                                     .timer()
+                                     .count());
+        assertEquals(3, meterRegistry.get(TracingRepository.EVENTS_REPLAYED_SUMMARY)
+                                     .tag("aggregateType", "MyAggregate")
+                                     .summary()
+                                     .totalAmount());
+    }
+
+    @Test
+    void testSnapshotHitIsRecorded() {
+        storageEngine.appendEvents(event(0), event(1), event(2));
+        storageEngine.storeSnapshot(new GenericDomainEventMessage<>(
+                "MyAggregate", AGGREGATE_ID, 1, new MyAggregate(AGGREGATE_ID)
+        ));
+        mockTracer.reset();
+
+        DefaultUnitOfWork.startAndGet(new GenericMessage<>("command"));
+        testSubject.load(AGGREGATE_ID);
+
+        MockSpan loadSpan = spansByName().get("load_MyAggregate");
+        assertEquals(true, loadSpan.tags().get(TracingRepository.SNAPSHOT_HIT_TAG));
+        assertEquals(1L, loadSpan.tags().get(TracingRepository.EVENTS_REPLAYED_TAG));
+        assertEquals(1, meterRegistry.get(TracingRepository.LOAD_TIMER)
+                                     .tag("snapshot", "hit")
+                                     .timer()
+                                     .count());
+    }
+
+    @Test
+    void testMetersAreReusedAcrossLoads() {
+        storageEngine.appendEvents(event(0));
+
+        for (int i = 0; i < 2; i++) {
+            DefaultUnitOfWork.startAndGet(new GenericMessage<>("command"))
+                             .execute(() -> testSubject.load(AGGREGATE_ID));
+        }
+
+        assertEquals(2, meterRegistry.get(TracingRepository.LOAD_TIMER)
+                                     .tag("snapshot", "miss")
+                                     .timer()
+                                     .count());
+        assertEquals(2, meterRegistry.getMeters().size());
+    }
+
+    @Test
+    void testLoadIsTracedWithoutMeterRegistry() {
+        storageEngine.appendEvents(event(0));
+        mockTracer.reset();
+        TracingRepository<MyAggregate> unmeteredSubject = TracingRepository.<MyAggregate>builder()
+                                                                           .tracer(mockTracer)
+                                                                           .delegateRepository(
+                                                                                   testSubject.getDelegate()
+                                                                           )
+                                                                           .build();
+
+        DefaultUnitOfWork.startAndGet(new GenericMessage<>("command"));
+        unmeteredSubject.load(AGGREGATE_ID);
+
+        assertEquals(1L, spansByName().get("load_MyAggregate").tags().get(TracingRepository.EVENTS_REPLAYED_TAG));
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    @Test
+    void testFailingLoadMarksSpanAsErroneous() {
+        DefaultUnitOfWork.startAndGet(new GenericMessage<>("command"));
+
+        assertThrows(AggregateNotFoundException.class, () -> testSubject.load("unknown"));
+
+        MockSpan loadSpan = spansByName().get("loadAggregate");
+        assertEquals(true, loadSpan.tags().get(Tags.ERROR.getKey()));
+        assertNull(AggregateLoadRecorder.current());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testOtherOperationsAreDelegated() throws Exception {
+        Repository<MyAggregate> mockRepository = mock(Repository.class);
+        TracingRepository<MyAggregate> delegatingSubject = TracingRepository.<MyAggregate>builder()
+                                                                            .tracer(mockTracer)
+                                                                            .delegateRepository(mockRepository)
+                                                                            .build();
+        Callable<MyAggregate> factoryMethod = () -> new MyAggregate(AGGREGATE_ID);
+        ScopeDescriptor scopeDescriptor = mock(ScopeDescriptor.class);
+        GenericMessage<String> message = new GenericMessage<>("deadline");
+        Aggregate<MyAggregate> aggregate = mock(Aggregate.class);
+        when(mockRepository.newInstance(factoryMethod)).thenReturn(aggregate);
+        when(mockRepository.canResolve(scopeDescriptor)).thenReturn(true);
+
+        assertSame(aggregate, delegatingSubject.newInstance(factoryMethod));
+        assertTrue(delegatingSubject.canResolve(scopeDescriptor));
+        delegatingSubject.send(message, scopeDescriptor);
+
+        verify(mockRepository).send(message, scopeDescriptor);
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+    }
+
+    @Test
+    void testBuildWithoutTracerThrowsAxonConfigurationException() {
+        TracingRepository.Builder<MyAggregate> builder =
+                TracingRepository.<MyAggregate>builder().delegateRepository(testSubject);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuildWithoutDelegateRepositoryThrowsAxonConfigurationException() {
+        TracingRepository.Builder<MyAggregate> builder = TracingRepository.<MyAggregate>builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    private Map<String, MockSpan> spansByName() {
+        return mockTracer.finishedSpans()
+                         .stream()
+                         .collect(Collectors.toMap(MockSpan::operationName, Function.identity()));
+    }
+
+    private static GenericDomainEventMessage<MyEvent> event(long sequenceNumber) {
+        return new GenericDomainEventMessage<>("MyAggregate", AGGREGATE_ID, sequenceNumber, new MyEvent(AGGREGATE_ID));
+    }
+
+    private static class MyEvent {
+
+        private final String id;
+
+        private MyEvent(String id) {
+            this.id = id;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class MyAggregate {
+
+        @AggregateIdentifier
+        private String id;
+
+        private MyAggregate() {
+        }
+
+        private MyAggregate(String id) {
+            this.id = id;
+        }
+
+        @EventSourcingHandler
+        private void on(MyEvent event) {
+            this.id = event.id;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.modelling.saga.AssociationValue;
+import org.axonframework.modelling.saga.AssociationValuesImpl;
+import org.axonframework.modelling.saga.repository.inmemory.InMemorySagaStore;
+import org.junit.jupiter.api.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link TracingSagaStore}.
+ */
+class TracingSagaStoreTest {
+
+    private static final AssociationValue ORDER_ID = new AssociationValue("orderId", "order-1");
+
+    private MockTracer mockTracer;
+    private SimpleMeterRegistry meterRegistry;
+    private InMemorySagaStore delegate;
+
+    private TracingSagaStore<Object> testSubject;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        meterRegistry = new SimpleMeterRegistry();
+        delegate = new InMemorySagaStore();
+
+        testSubject = TracingSagaStore.builder()
+                                      .tracer(mockTracer)
+                                      .delegateSagaStore(delegate)
+                                      .meterRegistry(meterRegistry)
+                                      .build();
+    }
+
+    @Test
+    void testSagaResolutionIsLoggedOnHandlerSpan() {
+        delegate.insertSaga(OrderSaga.class, "existing", new OrderSaga(), Collections.singleton(ORDER_ID));
+        MockSpan handlerSpan = mockTracer.buildSpan("handle_OrderShipped").start();
+
+        handle(handlerSpan, () -> {
+            Set<String> sagaIdentifiers = testSubject.findSagas(OrderSaga.class, ORDER_ID);
+            sagaIdentifiers.forEach(id -> testSubject.loadSaga(OrderSaga.class, id));
+            testSubject.insertSaga(OrderSaga.class, "created", new OrderSaga(), Collections.singleton(ORDER_ID));
+            testSubject.updateSaga(OrderSaga.class, "existing", new OrderSaga(), new AssociationValuesImpl());
+        });
+
+        List<MockSpan.LogEntry> logEntries = handlerSpan.logEntries();
+        assertEquals(4, logEntries.size());
+        Map<String, ?> findFields = logEntries.get(0).fields();
+        assertEquals("findSagas", findFields.get("event"));
+        assertEquals("OrderSaga", findFields.get(TracingSagaStore.SAGA_TYPE_FIELD));
+        assertEquals("orderId", findFields.get(TracingSagaStore.ASSOCIATION_KEY_FIELD));
+        assertFalse(findFields.containsKey(TracingSagaStore.ASSOCIATION_VALUE_FIELD));
+        assertEquals(1, findFields.get(TracingSagaStore.SAGAS_FOUND_FIELD));
+        assertNotNull(findFields.get(TracingSagaStore.DURATION_FIELD));
+        assertEquals("loadSaga", logEntries.get(1).fields().get("event"));
+        assertEquals("existing", logEntries.get(1).fields().get(TracingSagaStore.SAGA_IDENTIFIER_FIELD));
+        assertEquals("insertSaga", logEntries.get(2).fields().get("event"));
+        assertEquals("created", logEntries.get(2).fields().get(TracingSagaStore.SAGA_IDENTIFIER_FIELD));
+        assertEquals("updateSaga", logEntries.get(3).fields().get("event"));
+        assertEquals(1L, handlerSpan.tags().get(TracingSagaStore.SAGAS_LOADED_TAG));
+        assertEquals(1L, handlerSpan.tags().get(TracingSagaStore.SAGAS_CREATED_TAG));
+    }
+
+    @Test
+    void testAssociationValueIsOnlyLoggedWhenEnabled() {
+        testSubject = TracingSagaStore.builder()
+                                      .tracer(mockTracer)
+                                      .delegateSagaStore(delegate)
+                                      .logAssociationValues(true)
+                                      .build();
+        MockSpan handlerSpan = mockTracer.buildSpan("handle_OrderShipped").start();
+
+        handle(handlerSpan, () -> testSubject.findSagas(OrderSaga.class, ORDER_ID));
+
+        Map<String, ?> findFields = handlerSpan.logEntries().get(0).fields();
+        assertEquals("orderId", findFields.get(TracingSagaStore.ASSOCIATION_KEY_FIELD));
+        assertEquals("order-1", findFields.get(TracingSagaStore.ASSOCIATION_VALUE_FIELD));
+    }
+
+    @Test
+    void testOperationsAreRecordedPerSagaType() {
+        testSubject.insertSaga(OrderSaga.class, "saga", new OrderSaga(), Collections.singleton(ORDER_ID));
+        testSubject.findSagas(OrderSaga.class, ORDER_ID);
+        testSubject.findSagas(OrderSaga.class, new AssociationValue("orderId", "unknown"));
+        testSubject.loadSaga(OrderSaga.class, "saga");
+        testSubject.deleteSaga(OrderSaga.class, "saga", Collections.singleton(ORDER_ID));
+
+        for (String operation : new String[]{"insertSaga", "loadSaga", "deleteSaga"}) {
+            assertEquals(1, meterRegistry.get(TracingSagaStore.SAGA_STORE_TIMER)
+                                         .tag("operation", operation)
+                                         .tag("sagaType", "OrderSaga")
+                                         .timer()
+                                         .count(), operation);
+        }
+        assertEquals(2, meterRegistry.get(TracingSagaStore.SAGA_STORE_TIMER)
+                                     .tag("operation", "findSagas")
+                                     .timer()
+                                     .count());
+        assertEquals(1, meterRegistry.get(TracingSagaStore.ASSOCIATED_SAGAS_SUMMARY)
+                                     .tag("sagaType", "OrderSaga")
+                                     .summary()
+                                     .totalAmount());
+        assertEquals(5, meterRegistry.getMeters().size());
+        assertEquals(0, delegate.size());
+    }
+
+    @Test
+    void testMissingSagaIsNotCountedAsLoaded() {
+        MockSpan handlerSpan = mockTracer.buildSpan("handle_OrderShipped").start();
+
+        handle(handlerSpan, () -> assertNull(testSubject.loadSaga(OrderSaga.class, "unknown")));
+
+        assertNull(handlerSpan.tags().get(TracingSagaStore.SAGAS_LOADED_TAG));
+        assertEquals(1, handlerSpan.logEntries().size());
+    }
+
+    @Test
+    void testBuildWithoutTracerThrowsAxonConfigurationException() {
+        TracingSagaStore.Builder<Object> builder = TracingSagaStore.builder().delegateSagaStore(delegate);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuildWithoutDelegateSagaStoreThrowsAxonConfigurationException() {
+        TracingSagaStore.Builder<Object> builder = TracingSagaStore.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    private static void handle(MockSpan handlerSpan, Runnable handler) {
+        DefaultUnitOfWork<GenericMessage<String>> unitOfWork = new DefaultUnitOfWork<>(new GenericMessage<>("event"));
+        unitOfWork.resources().put(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY, handlerSpan);
+        unitOfWork.execute(handler);
+    }
+
+    private static class OrderSaga {
+
+    }
+}
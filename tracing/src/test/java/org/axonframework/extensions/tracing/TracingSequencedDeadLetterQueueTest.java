@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.References;
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.deadletter.DeadLetter;
+import org.axonframework.messaging.deadletter.Decisions;
+import org.axonframework.messaging.deadletter.GenericDeadLetter;
+import org.axonframework.messaging.deadletter.InMemorySequencedDeadLetterQueue;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link TracingSequencedDeadLetterQueue}.
+ */
+class TracingSequencedDeadLetterQueueTest {
+
+    private static final String SEQUENCE = "order-1";
+
+    private MockTracer mockTracer;
+    private SimpleMeterRegistry meterRegistry;
+    private InMemorySequencedDeadLetterQueue<EventMessage<?>> delegate;
+
+    private TracingSequencedDeadLetterQueue<EventMessage<?>> testSubject;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        meterRegistry = new SimpleMeterRegistry();
+        delegate = InMemorySequencedDeadLetterQueue.defaultQueue();
+
+        testSubject = TracingSequencedDeadLetterQueue.<EventMessage<?>>builder()
+                                                     .tracer(mockTracer)
+                                                     .delegateQueue(delegate)
+                                                     .processingGroup("orders")
+                                                     .meterRegistry(meterRegistry)
+                                                     .build();
+    }
+
+    @Test
+    void testEnqueueIsLoggedOnFailedHandlerSpan() {
+        MockSpan handlerSpan = enqueueFailedEvent();
+
+        List<MockSpan.LogEntry> logEntries = handlerSpan.logEntries();
+        assertEquals(1, logEntries.size());
+        Map<String, ?> fields = logEntries.get(0).fields();
+        assertEquals("deadLetterEnqueued", fields.get("event"));
+        assertEquals(1L, fields.get(TracingSequencedDeadLetterQueue.SEQUENCE_SIZE_FIELD));
+        assertEquals(IllegalStateException.class.getName(), fields.get(TracingSequencedDeadLetterQueue.CAUSE_TAG));
+
+        DeadLetter<? extends EventMessage<?>> letter = delegate.deadLetterSequence(SEQUENCE).iterator().next();
+        assertEquals(String.valueOf(handlerSpan.context().spanId()), letter.diagnostics().get("spanid"));
+        assertEquals(1, meterRegistry.get(TracingSequencedDeadLetterQueue.ENQUEUED_COUNTER)
+                                     .tag("processingGroup", "orders")
+                                     .counter()
+                                     .count());
+        assertEquals(1, meterRegistry.get(TracingSequencedDeadLetterQueue.SEQUENCE_SIZE_SUMMARY)
+                                     .summary()
+                                     .count());
+    }
+
+    @Test
+    void testEnqueueIfPresentOnlyRecordsEnqueuedLetters() {
+        assertFalse(testSubject.enqueueIfPresent(SEQUENCE, () -> new GenericDeadLetter<>(SEQUENCE, event())));
+        assertEquals(0, meterRegistry.get(TracingSequencedDeadLetterQueue.ENQUEUED_COUNTER).counter().count());
+
+        enqueueFailedEvent();
+        assertTrue(testSubject.enqueueIfPresent(SEQUENCE, () -> new GenericDeadLetter<>(SEQUENCE, event())));
+
+        assertEquals(2, delegate.sequenceSize(SEQUENCE));
+        assertEquals(2, meterRegistry.get(TracingSequencedDeadLetterQueue.ENQUEUED_COUNTER).counter().count());
+        assertEquals(2.0, meterRegistry.get(TracingSequencedDeadLetterQueue.SEQUENCE_SIZE_SUMMARY)
+                                       .summary()
+                                       .max());
+    }
+
+    @Test
+    void testRetriesFollowFromFailedHandlerSpan() {
+        MockSpan handlerSpan = enqueueFailedEvent();
+
+        assertFalse(testSubject.process(letter -> Decisions.requeue(new IllegalStateException("still failing"))));
+        assertTrue(testSubject.process(letter -> Decisions.evict()));
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        assertEquals(5, finishedSpans.size());
+        MockSpan firstRetry = finishedSpans.get(1);
+        MockSpan firstProcess = finishedSpans.get(2);
+        MockSpan secondRetry = finishedSpans.get(3);
+        MockSpan secondProcess = finishedSpans.get(4);
+
+        assertEquals("processDeadLetters", firstProcess.operationName());
+        assertEquals("orders", firstProcess.tags().get(TracingSequencedDeadLetterQueue.PROCESSING_GROUP_TAG));
+        assertEquals(1, firstProcess.tags().get(TracingSequencedDeadLetterQueue.EVALUATED_COUNT_TAG));
+        assertEquals(false, firstProcess.tags().get(TracingSequencedDeadLetterQueue.SEQUENCE_PROCESSED_TAG));
+        assertEquals(true, secondProcess.tags().get(TracingSequencedDeadLetterQueue.SEQUENCE_PROCESSED_TAG));
+
+        assertEquals("evaluateDeadLetter", firstRetry.operationName());
+        assertEquals(firstProcess.context().spanId(), firstRetry.parentId());
+        assertEquals(2, firstRetry.references().size());
+        assertEquals(References.FOLLOWS_FROM, firstRetry.references().get(1).getReferenceType());
+        assertEquals(handlerSpan.context().spanId(), firstRetry.references().get(1).getContext().spanId());
+        assertEquals(1L, firstRetry.tags().get(TracingSequencedDeadLetterQueue.ATTEMPT_TAG));
+        assertEquals("requeued", firstRetry.tags().get(TracingSequencedDeadLetterQueue.OUTCOME_TAG));
+        assertEquals(IllegalStateException.class.getName(),
+                     firstRetry.tags().get(TracingSequencedDeadLetterQueue.CAUSE_TAG));
+        assertEquals(true, firstRetry.tags().get(Tags.ERROR.getKey()));
+        assertNotNull(firstRetry.tags().get(TracingSequencedDeadLetterQueue.TIME_IN_QUEUE_TAG));
+
+        assertEquals(handlerSpan.context().spanId(), secondRetry.references().get(1).getContext().spanId());
+        assertEquals(2L, secondRetry.tags().get(TracingSequencedDeadLetterQueue.ATTEMPT_TAG));
+        assertEquals("evicted", secondRetry.tags().get(TracingSequencedDeadLetterQueue.OUTCOME_TAG));
+    }
+
+    @Test
+    void testRetryCostIsRecordedPerProcessingGroup() {
+        enqueueFailedEvent();
+
+        testSubject.process(letter -> Decisions.requeue(new IllegalStateException("still failing")));
+        testSubject.process(letter -> Decisions.requeue(new IllegalStateException("still failing")));
+        testSubject.process(letter -> Decisions.evict());
+
+        assertEquals(2, meterRegistry.get(TracingSequencedDeadLetterQueue.PROCESSING_TIMER)
+                                     .tag("processingGroup", "orders")
+                                     .tag("outcome", "requeued")
+                                     .timer()
+                                     .count());
+        assertEquals(1, meterRegistry.get(TracingSequencedDeadLetterQueue.PROCESSING_TIMER)
+                                     .tag("outcome", "evicted")
+                                     .timer()
+                                     .count());
+        assertEquals(3.0, meterRegistry.get(TracingSequencedDeadLetterQueue.ATTEMPTS_SUMMARY)
+                                       .tag("processingGroup", "orders")
+                                       .summary()
+                                       .totalAmount());
+        assertEquals(1, meterRegistry.get(TracingSequencedDeadLetterQueue.TIME_IN_QUEUE_TIMER)
+                                     .timer()
+                                     .count());
+    }
+
+    @Test
+    void testRetryCountAndFailedHandlerContextSurviveReplacedDiagnostics() {
+        MockSpan handlerSpan = enqueueFailedEvent();
+
+        testSubject.process(letter -> Decisions.requeue(new IllegalStateException("still failing"),
+                                                        l -> MetaData.with("reason", "replaced")));
+
+        MetaData diagnostics = delegate.deadLetterSequence(SEQUENCE).iterator().next().diagnostics();
+        assertEquals("replaced", diagnostics.get("reason"));
+        assertEquals(1L, diagnostics.get(TracingSequencedDeadLetterQueue.RETRIES_DIAGNOSTICS_KEY));
+        assertEquals(String.valueOf(handlerSpan.context().spanId()), diagnostics.get("spanid"));
+    }
+
+    @Test
+    void testIgnoredLetterIsNotCountedAsRetry() {
+        enqueueFailedEvent();
+
+        testSubject.process(letter -> Decisions.ignore());
+
+        MockSpan evaluateSpan = mockTracer.finishedSpans().get(1);
+        assertEquals("ignored", evaluateSpan.tags().get(TracingSequencedDeadLetterQueue.OUTCOME_TAG));
+        DeadLetter<? extends EventMessage<?>> letter = delegate.deadLetterSequence(SEQUENCE).iterator().next();
+        assertNull(letter.diagnostics().get(TracingSequencedDeadLetterQueue.RETRIES_DIAGNOSTICS_KEY));
+    }
+
+    @Test
+    void testBuildWithoutDelegateThrowsAxonConfigurationException() {
+        TracingSequencedDeadLetterQueue.Builder<EventMessage<?>> builder =
+                TracingSequencedDeadLetterQueue.<EventMessage<?>>builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testDeadLettersAreTracedWithoutMeterRegistry() {
+        testSubject = TracingSequencedDeadLetterQueue.<EventMessage<?>>builder()
+                                                     .tracer(mockTracer)
+                                                     .delegateQueue(delegate)
+                                                     .build();
+        enqueueFailedEvent();
+
+        assertTrue(testSubject.process(letter -> Decisions.evict()));
+
+        MockSpan evaluateSpan = mockTracer.finishedSpans().get(1);
+        assertEquals("evicted", evaluateSpan.tags().get(TracingSequencedDeadLetterQueue.OUTCOME_TAG));
+    }
+
+    private MockSpan enqueueFailedEvent() {
+        MockSpan handlerSpan = mockTracer.buildSpan("handle_OrderPlaced").start();
+        try (Scope ignored = mockTracer.activateSpan(handlerSpan)) {
+            testSubject.enqueue(SEQUENCE,
+                                new GenericDeadLetter<>(SEQUENCE, event(), new IllegalStateException("failed")));
+        }
+        handlerSpan.finish();
+        return handlerSpan;
+    }
+
+    private static EventMessage<?> event() {
+        return GenericEventMessage.asEventMessage("OrderPlaced");
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link TracingSerializer}.
+ */
+class TracingSerializerTest {
+
+    private MockTracer mockTracer;
+    private SimpleMeterRegistry meterRegistry;
+    private Serializer delegate;
+
+    private TracingSerializer testSubject;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        meterRegistry = new SimpleMeterRegistry();
+        delegate = spy(XStreamSerializer.defaultSerializer());
+
+        testSubject = TracingSerializer.builder()
+                                       .tracer(mockTracer)
+                                       .delegateSerializer(delegate)
+                                       .meterRegistry(meterRegistry)
+                                       .build();
+    }
+
+    @Test
+    void testSerializationIsRecordedPerType() {
+        String type = delegate.typeForClass(String.class).getName();
+        SerializedObject<byte[]> serialized = testSubject.serialize("payload", byte[].class);
+        testSubject.serialize("other payload", byte[].class);
+        assertEquals("payload", testSubject.deserialize(serialized));
+
+        assertEquals(2, meterRegistry.get(TracingSerializer.SERIALIZER_TIMER)
+                                     .tag("operation", "serialize")
+                                     .tag("type", type)
+                                     .timer()
+                                     .count());
+        assertEquals(1, meterRegistry.get(TracingSerializer.SERIALIZER_TIMER)
+                                     .tag("operation", "deserialize")
+                                     .tag("type", type)
+                                     .timer()
+                                     .count());
+        assertEquals(serialized.getData().length,
+                     meterRegistry.get(TracingSerializer.SERIALIZED_SIZE_SUMMARY)
+                                  .tag("operation", "deserialize")
+                                  .summary()
+                                  .totalAmount());
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+    }
+
+    @Test
+    void testOperationsAreLoggedOnActiveSpan() {
+        MockSpan span = mockTracer.buildSpan("handle").start();
+        try (Scope ignored = mockTracer.activateSpan(span)) {
+            SerializedObject<String> serialized = testSubject.serialize("payload", String.class);
+            testSubject.deserialize(serialized);
+            assertTrue(testSubject.canSerializeTo(String.class));
+        }
+        span.finish();
+
+        List<MockSpan.LogEntry> logEntries = span.logEntries();
+        assertEquals(3, logEntries.size());
+        Map<String, ?> serializeFields = logEntries.get(0).fields();
+        assertEquals("serialize", serializeFields.get("event"));
+        assertEquals(delegate.typeForClass(String.class).getName(), serializeFields.get(TracingSerializer.TYPE_FIELD));
+        assertNotNull(serializeFields.get(TracingSerializer.DURATION_FIELD));
+        assertEquals((long) testSubject.serialize("payload", String.class).getData().length(),
+                     serializeFields.get(TracingSerializer.SERIALIZED_SIZE_FIELD));
+        assertEquals("deserialize", logEntries.get(1).fields().get("event"));
+        Map<String, ?> canSerializeToFields = logEntries.get(2).fields();
+        assertEquals("canSerializeTo", canSerializeToFields.get("event"));
+        assertEquals(String.class.getName(), canSerializeToFields.get(TracingSerializer.TYPE_FIELD));
+        assertFalse(canSerializeToFields.containsKey(TracingSerializer.SERIALIZED_SIZE_FIELD));
+    }
+
+    @Test
+    void testTypeOperationsAreDelegated() {
+        SerializedType serializedType = new SimpleSerializedType("string", null);
+
+        assertEquals(String.class, testSubject.classForType(serializedType));
+        assertEquals(serializedType, testSubject.typeForClass(String.class));
+        assertSame(delegate.getConverter(), testSubject.getConverter());
+        assertSame(delegate, testSubject.getDelegate());
+        verify(delegate).classForType(serializedType);
+        verify(delegate).typeForClass(String.class);
+    }
+
+    @Test
+    void testBuildWithoutTracerThrowsAxonConfigurationException() {
+        TracingSerializer.Builder builder = TracingSerializer.builder().delegateSerializer(delegate);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuildWithoutDelegateSerializerThrowsAxonConfigurationException() {
+        TracingSerializer.Builder builder = TracingSerializer.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2010-2025. Axon Framework
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.axonframework.extensions.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentracing.Scope;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.Segment;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.UnableToClaimTokenException;
+import org.axonframework.eventhandling.tokenstore.inmemory.InMemoryTokenStore;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link TracingTokenStore}.
+ */
+class TracingTokenStoreTest {
+
+    private static final String PROCESSOR = "processor";
+
+    private MockTracer mockTracer;
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryTokenStore delegate;
+
+    private TracingTokenStore testSubject;
+
+    @BeforeEach
+    void before() {
+        mockTracer = new MockTracer();
+        meterRegistry = new SimpleMeterRegistry();
+        delegate = new InMemoryTokenStore();
+
+        testSubject = TracingTokenStore.builder()
+                                       .tracer(mockTracer)
+                                       .delegateTokenStore(delegate)
+                                       .meterRegistry(meterRegistry)
+                                       .build();
+        testSubject.initializeTokenSegments(PROCESSOR, 2);
+    }
+
+    @Test
+    void testClaimOperationsAreTimedPerProcessorAndSegment() {
+        testSubject.fetchToken(PROCESSOR, 0);
+        testSubject.extendClaim(PROCESSOR, 0);
+        testSubject.storeToken(new GlobalSequenceTrackingToken(1), PROCESSOR, 0);
+        testSubject.releaseClaim(PROCESSOR, 0);
+        testSubject.fetchToken(PROCESSOR, Segment.computeSegment(1, 0, 1));
+
+        for (String operation : new String[]{"fetchToken", "extendClaim", "storeToken", "releaseClaim"}) {
+            assertEquals(1, meterRegistry.get(TracingTokenStore.TOKEN_STORE_TIMER)
+                                         .tag("operation", operation)
+                                         .tag("processor", PROCESSOR)
+                                         .tag("segment", "0")
+                                         .timer()
+                                         .count(), operation);
+        }
+        assertEquals(1, meterRegistry.get(TracingTokenStore.TOKEN_STORE_TIMER)
+                                     .tag("operation", "fetchToken")
+                                     .tag("segment", "1")
+                                     .timer()
+                                     .count());
+        assertEquals(new GlobalSequenceTrackingToken(1), delegate.fetchToken(PROCESSOR, 0));
+        assertTrue(mockTracer.finishedSpans().isEmpty());
+    }
+
+    @Test
+    void testOperationsAreTracedAsChildOfActiveSpan() {
+        MockSpan parentSpan = mockTracer.buildSpan("parent").start();
+        try (Scope ignored = mockTracer.activateSpan(parentSpan)) {
+            testSubject.fetchToken(PROCESSOR, 1);
+        }
+
+        List<MockSpan> spans = mockTracer.finishedSpans();
+        assertEquals(1, spans.size());
+        MockSpan span = spans.get(0);
+        assertEquals("fetchToken", span.operationName());
+        assertEquals(parentSpan.context().spanId(), span.parentId());
+        assertEquals(Tags.SPAN_KIND_CLIENT, span.tags().get(Tags.SPAN_KIND.getKey()));
+        assertEquals(PROCESSOR, span.tags().get(TracingTokenStore.PROCESSOR_NAME_TAG));
+        assertEquals(1, span.tags().get(TracingTokenStore.SEGMENT_TAG));
+    }
+
+    @Test
+    void testStoringTokenOnBatchCommitIsTracedAsChildOfHandlerSpan() {
+        MockSpan handlerSpan = mockTracer.buildSpan("handle_MyEvent").start();
+        DefaultUnitOfWork<GenericMessage<String>> unitOfWork = new DefaultUnitOfWork<>(new GenericMessage<>("event"));
+        unitOfWork.resources().put(OpenTraceHandlerInterceptor.SPAN_RESOURCE_KEY, handlerSpan);
+        unitOfWork.onPrepareCommit(u -> testSubject.storeToken(new GlobalSequenceTrackingToken(3), PROCESSOR, 0));
+
+        unitOfWork.executeWithResult(() -> null);
+
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals("storeToken", span.operationName());
+        assertEquals(handlerSpan.context().spanId(), span.parentId());
+    }
+
+    @Test
+    void testFailedClaimsAreCounted() {
+        MockSpan parentSpan = mockTracer.buildSpan("parent").start();
+        try (Scope ignored = mockTracer.activateSpan(parentSpan)) {
+            assertThrows(UnableToClaimTokenException.class, () -> testSubject.fetchToken(PROCESSOR, 5));
+        }
+
+        assertEquals(1, meterRegistry.get(TracingTokenStore.FAILED_CLAIMS_COUNTER)
+                                     .tag("operation", "fetchToken")
+                                     .tag("processor", PROCESSOR)
+                                     .tag("segment", "5")
+                                     .counter()
+                                     .count());
+        MockSpan span = mockTracer.finishedSpans().get(0);
+        assertEquals(true, span.tags().get(TracingTokenStore.CLAIM_FAILED_TAG));
+        assertEquals(true, span.tags().get(Tags.ERROR.getKey()));
+    }
+
+    @Test
+    void testOtherOperationsAreDelegated() {
+        TokenStore subject = testSubject;
+
+        assertArrayEquals(new int[]{0, 1}, subject.fetchSegments(PROCESSOR));
+        assertEquals(2, subject.fetchAvailableSegments(PROCESSOR).size());
+        assertEquals(delegate.retrieveStorageIdentifier(), subject.retrieveStorageIdentifier());
+        assertEquals(delegate.requiresExplicitSegmentInitialization(),
+                     subject.requiresExplicitSegmentInitialization());
+        subject.deleteToken(PROCESSOR, 1);
+        assertArrayEquals(new int[]{0}, delegate.fetchSegments(PROCESSOR));
+        assertSame(delegate, testSubject.getDelegate());
+    }
+
+    @Test
+    void testBuildWithoutTracerThrowsAxonConfigurationException() {
+        TracingTokenStore.Builder builder = TracingTokenStore.builder().delegateTokenStore(delegate);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+
+    @Test
+    void testBuildWithoutDelegateTokenStoreThrowsAxonConfigurationException() {
+        TracingTokenStore.Builder builder = TracingTokenStore.builder().tracer(mockTracer);
+
+        assertThrows(AxonConfigurationException.class, builder::build);
+    }
+}